@@ -2,6 +2,8 @@ package com.gimansioreserva.gimnasioreserva_spring.config;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
 import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -10,6 +12,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -30,14 +34,14 @@ public class DataInitializer implements CommandLineRunner {
             admin.setRol("ADMIN");
             admin.setActivo(true);
             usuarioRepository.save(admin);
-            System.out.println("Usuario administrador creado: admin@hotmail.com / admin");
+            log.info("Usuario administrador creado: admin@hotmail.com");
         } else {
             // Asegurar que el admin existente tenga el rol correcto
             usuarioRepository.findByCorreo("admin@hotmail.com").ifPresent(usuario -> {
                 if (!"ADMIN".equals(usuario.getRol())) {
                     usuario.setRol("ADMIN");
                     usuarioRepository.save(usuario);
-                    System.out.println("Rol de administrador actualizado para: admin@hotmail.com");
+                    log.info("Rol de administrador actualizado para: admin@hotmail.com");
                 }
             });
         }
@@ -1,15 +1,42 @@
 package com.gimansioreserva.gimnasioreserva_spring.config;
 
+import com.gimansioreserva.gimnasioreserva_spring.security.contrasena.CalibradorBcrypt;
+import com.gimansioreserva.gimnasioreserva_spring.security.contrasena.ContrasenaProperties;
+import com.gimansioreserva.gimnasioreserva_spring.security.contrasena.EncoderContrasenasAcotado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
 public class PasswordEncoderConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    private static final String BCRYPT = "bcrypt";
+
+    // Hashes con formato {id}hash. Los antiguos sin prefijo son BCrypt por defecto (coste 10):
+    // siguen validando y, como upgradeEncoding los marca, se rehashean en el siguiente login correcto.
+    // Lo mismo ocurre con un {bcrypt} de coste inferior al calibrado.
+    @Bean(destroyMethod = "close")
+    public EncoderContrasenasAcotado passwordEncoder(ContrasenaProperties propiedades) {
+        int coste = CalibradorBcrypt.calibrar(propiedades.getLatenciaObjetivoMs(),
+                propiedades.getCosteMinimo(), propiedades.getCosteMaximo());
+        int hilos = propiedades.getHilos() > 0
+                ? propiedades.getHilos()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        log.info("Hash de contraseñas: BCrypt coste {} (objetivo {} ms), {} hilos, cola {}",
+                coste, propiedades.getLatenciaObjetivoMs(), hilos, propiedades.getCola());
+
+        Map<String, PasswordEncoder> encoders = Map.of(BCRYPT, new BCryptPasswordEncoder(coste));
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        return new EncoderContrasenasAcotado(delegating, hilos, propiedades.getCola(), propiedades.getEsperaMaximaMs());
     }
 }
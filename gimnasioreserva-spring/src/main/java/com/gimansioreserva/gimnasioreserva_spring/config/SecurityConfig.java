@@ -1,7 +1,13 @@
 package com.gimansioreserva.gimnasioreserva_spring.config;
 
+import com.gimansioreserva.gimnasioreserva_spring.metricas.AccesoMetricas;
 import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtAuthenticationEntryPoint;
 import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtAuthenticationFilter;
+import com.gimansioreserva.gimnasioreserva_spring.security.limite.LimiteLoginFilter;
+import com.gimansioreserva.gimnasioreserva_spring.security.limite.LimiteReservasFilter;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad.Acceso;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,14 +32,26 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final LimiteLoginFilter limiteLoginFilter;
+    private final LimiteReservasFilter limiteReservasFilter;
+    private final RutasSeguridad rutasSeguridad;
+    private final AccesoMetricas accesoMetricas;
 
     @Value("${cors.allowed.origins:http://localhost:5173,http://127.0.0.1:5173,https://sistema-gestion-de-gimansio.onrender.com}")
     private String allowedOrigins;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
-                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint) {
+                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
+                          LimiteLoginFilter limiteLoginFilter,
+                          LimiteReservasFilter limiteReservasFilter,
+                          RutasSeguridad rutasSeguridad,
+                          AccesoMetricas accesoMetricas) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
+        this.limiteLoginFilter = limiteLoginFilter;
+        this.limiteReservasFilter = limiteReservasFilter;
+        this.rutasSeguridad = rutasSeguridad;
+        this.accesoMetricas = accesoMetricas;
     }
 
     // ------------------------------
@@ -67,27 +85,23 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Las rutas se definen en RutasSeguridad.REGLAS, compiladas en un trie compartido con el filtro JWT
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers(
-                                "/api/auth/**",
-                                "/swagger-ui/**",
-                                "/swagger-ui.html",
-                                "/v3/api-docs/**",
-                                "/api-docs/**",
-                                "/api/recomendaciones/stream",
-                                "/api/recomendaciones/simular"
-                        ).permitAll()
-
-                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
-                        .requestMatchers("/api/clases/**").authenticated()
-                        .requestMatchers("/api/reservas/**").authenticated()
-                        .requestMatchers("/api/disponibilidad/**").authenticated()
-                        .requestMatchers("/api/estadisticas/**").authenticated()
+                        // Respuestas diferidas (cola de reservas): la petición original ya pasó la autorización
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(rutasSeguridad.matcher(Acceso.PUBLICA_SIN_TOKEN, Acceso.PUBLICA)).permitAll()
+                        .requestMatchers(rutasSeguridad.matcher(Acceso.ADMIN)).hasRole("ADMIN")
+                        .requestMatchers(rutasSeguridad.matcher(Acceso.METRICAS)).access(accesoMetricas::decidir)
+                        .requestMatchers(rutasSeguridad.matcher(Acceso.AUTENTICADA)).authenticated()
 
                         .anyRequest().authenticated()
                 );
 
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // El limitador de login va antes que el JWT: rechaza con 429 sin trabajo previo
+        http.addFilterBefore(limiteLoginFilter, JwtAuthenticationFilter.class);
+        // El límite por usuario de reservas necesita el usuario ya autenticado por el JWT
+        http.addFilterAfter(limiteReservasFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
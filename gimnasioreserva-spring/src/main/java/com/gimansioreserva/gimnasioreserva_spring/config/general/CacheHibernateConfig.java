@@ -0,0 +1,80 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel de Hibernate para las entidades de lectura frecuente (Clase, Entrenador)
+ * y la consulta de clases activas, sobre JCache/Caffeine. Cada región se crea aquí con su tamaño:
+ * si una entidad o consulta pide una región no configurada, el arranque falla en vez de crearla sin límite.
+ */
+@Configuration
+public class CacheHibernateConfig {
+
+    // Marca de la última escritura por tabla para invalidar consultas: no puede expulsar ni expirar
+    private static final String REGION_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+    private static final String REGION_CONSULTAS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    private static final long MAXIMO_CONSULTAS_POR_DEFECTO = 256;
+
+    // Proveedor propio y no Caching.getCachingProvider(): cada contexto de Spring tiene sus cachés
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerHibernate(CacheHibernateProperties propiedades, MetricasGimnasio metricas) {
+        CachingProvider proveedor = new CaffeineCachingProvider();
+        CacheManager cacheManager = proveedor.getCacheManager(proveedor.getDefaultURI(), getClass().getClassLoader());
+
+        propiedades.getRegiones().forEach((region, maximo) ->
+                crearRegion(cacheManager, metricas, region, maximo, propiedades.getExpiracionMinutos()));
+        if (!propiedades.getRegiones().containsKey(REGION_CONSULTAS)) {
+            crearRegion(cacheManager, metricas, REGION_CONSULTAS, MAXIMO_CONSULTAS_POR_DEFECTO, propiedades.getExpiracionMinutos());
+        }
+        crearRegion(cacheManager, metricas, REGION_TIMESTAMPS, 0, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheHibernateProperties propiedades, CacheManager cacheManagerHibernate) {
+        return hibernate -> {
+            // Con hibernate-jcache en el classpath Hibernate la activaría solo: se decide aquí explícitamente
+            hibernate.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, propiedades.isHabilitada());
+            hibernate.put(AvailableSettings.USE_QUERY_CACHE, propiedades.isHabilitada());
+            if (propiedades.isHabilitada()) {
+                hibernate.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                hibernate.put(ConfigSettings.CACHE_MANAGER, cacheManagerHibernate);
+                hibernate.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+                // Aciertos, fallos y escrituras por región (hibernate-micrometer los publica)
+                hibernate.put(AvailableSettings.GENERATE_STATISTICS, true);
+            }
+        };
+    }
+
+    private static void crearRegion(CacheManager cacheManager, MetricasGimnasio metricas,
+                                    String region, long maximo, long expiracionMinutos) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        // Hibernate ya guarda copias desensambladas: sin copiar por valor en cada get/put
+        configuracion.setStoreByValue(false);
+        configuracion.setStatisticsEnabled(true);
+        if (maximo > 0) {
+            configuracion.setMaximumSize(OptionalLong.of(maximo));
+        }
+        if (expiracionMinutos > 0) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(expiracionMinutos)));
+        }
+        Cache<Object, Object> cache = cacheManager.createCache(region, configuracion);
+
+        com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine = cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+        metricas.regionCacheHibernate(region, caffeine::estimatedSize, maximo);
+    }
+}
@@ -0,0 +1,31 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.cache-hibernate")
+public class CacheHibernateProperties {
+
+    private boolean habilitada = true;
+    // Entradas máximas por región (entidades y consultas cacheadas)
+    private Map<String, Long> regiones = new LinkedHashMap<>(Map.of(
+            "clases", 5_000L,
+            "entrenadores", 1_000L,
+            "clases-activas", 16L));
+    // Red de seguridad ante cambios hechos fuera de Hibernate (SQL a mano, otra aplicación)
+    private long expiracionMinutos = 60;
+
+    // Getters y setters
+    public boolean isHabilitada() { return habilitada; }
+    public void setHabilitada(boolean habilitada) { this.habilitada = habilitada; }
+
+    public Map<String, Long> getRegiones() { return regiones; }
+    public void setRegiones(Map<String, Long> regiones) { this.regiones = regiones; }
+
+    public long getExpiracionMinutos() { return expiracionMinutos; }
+    public void setExpiracionMinutos(long expiracionMinutos) { this.expiracionMinutos = expiracionMinutos; }
+}
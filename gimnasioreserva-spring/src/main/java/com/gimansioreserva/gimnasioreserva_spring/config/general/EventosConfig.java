@@ -0,0 +1,50 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import com.gimansioreserva.gimnasioreserva_spring.eventos.EventosProperties;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.HubEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosPorLotes;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosTcp;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class EventosConfig {
+
+    // Se arranca con el ciclo de vida de Spring (SmartLifecycle), ya con los receptores registrados
+    @Bean(destroyMethod = "close")
+    public TransporteEventosPorLotes transporteEventos(EventosProperties propiedades) {
+        Duration espera = Duration.ofMillis(propiedades.getEsperaMs());
+
+        if ("tcp".equalsIgnoreCase(propiedades.getTransporte())) {
+            List<InetSocketAddress> pares = propiedades.getPares().stream()
+                    .map(EventosConfig::direccion)
+                    .toList();
+            return new TransporteEventosTcp(new InetSocketAddress(propiedades.getDireccion(), propiedades.getPuerto()),
+                    pares, propiedades.getSecreto().getBytes(StandardCharsets.UTF_8),
+                    propiedades.getMaximoConexionesEntrantes(), propiedades.getCapacidadCola(),
+                    propiedades.getTamanoLote(), espera,
+                    Duration.ofMillis(propiedades.getTimeoutEscrituraMs()),
+                    Duration.ofMillis(propiedades.getReintentoConexionBaseMs()),
+                    Duration.ofMillis(propiedades.getReintentoConexionMaximoMs()));
+        }
+
+        // Una sola instancia: el hub no tiene otros nodos a los que repartir
+        return new TransporteEventosMemoria(new HubEventosMemoria(),
+                propiedades.getCapacidadCola(), propiedades.getTamanoLote(), espera);
+    }
+
+    private static InetSocketAddress direccion(String par) {
+        int separador = par.lastIndexOf(':');
+        if (separador <= 0) {
+            throw new IllegalArgumentException("Par de eventos inválido (se espera host:puerto): " + par);
+        }
+        return new InetSocketAddress(par.substring(0, separador).trim(),
+                Integer.parseInt(par.substring(separador + 1).trim()));
+    }
+}
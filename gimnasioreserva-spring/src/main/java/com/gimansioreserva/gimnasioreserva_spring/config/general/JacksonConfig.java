@@ -0,0 +1,17 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Accesores generados con LambdaMetafactory en lugar de reflexión para getters, setters y constructores.
+    // Spring Boot registra en el ObjectMapper cualquier bean de tipo Module
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,30 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.CanalNotificaciones;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.CanalNotificacionesLog;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.CanalNotificacionesSmtp;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.DespachadorNotificaciones;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.NotificacionesProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NotificacionesConfig {
+
+    @Bean(destroyMethod = "close")
+    public CanalNotificaciones canalNotificaciones(NotificacionesProperties propiedades) {
+        if ("smtp".equalsIgnoreCase(propiedades.getCanal())) {
+            return new CanalNotificacionesSmtp(propiedades.getSmtp(), propiedades.getRemitente(), true);
+        }
+        return new CanalNotificacionesLog();
+    }
+
+    // Se cierra antes que el canal: lo pendiente aún puede salir
+    @Bean(destroyMethod = "close")
+    public DespachadorNotificaciones despachadorNotificaciones(CanalNotificaciones canal,
+                                                               NotificacionesProperties propiedades,
+                                                               MetricasGimnasio metricas) {
+        return new DespachadorNotificaciones(canal, propiedades, metricas);
+    }
+}
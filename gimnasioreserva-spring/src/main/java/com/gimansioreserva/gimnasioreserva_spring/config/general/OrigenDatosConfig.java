@@ -0,0 +1,77 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.util.Set;
+
+/**
+ * Pools de conexiones: primaria (spring.datasource), réplica de lectura y pool acotado de informes
+ * (gimnasio.datasource). Con gimnasio.datasource.enrutado=false queda el DataSource estándar de Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "gimnasio.datasource", name = "enrutado", havingValue = "true", matchIfMissing = true)
+public class OrigenDatosConfig {
+
+    @Bean(destroyMethod = "close")
+    public OrigenDatosEnrutado dataSource(DataSourceProperties primaria,
+                                          OrigenDatosProperties propiedades,
+                                          Environment environment,
+                                          MetricasGimnasio metricas) {
+        // Igual que el pool que crearía Spring Boot, incluidas las claves spring.datasource.hikari.*
+        HikariDataSource primario = primaria.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        if (!StringUtils.hasText(primario.getPoolName())) {
+            primario.setPoolName("gimnasio-primario");
+        }
+
+        OrigenDatosProperties.Pool lectura = propiedades.getLectura();
+        HikariDataSource replica = null;
+        if (StringUtils.hasText(lectura.getUrl())) {
+            replica = pool("gimnasio-lectura", lectura.getUrl(), credencial(lectura.getUsername(), primaria.determineUsername()),
+                    credencial(lectura.getPassword(), primaria.determinePassword()), lectura, metricas);
+        }
+
+        // Los informes no comparten pool con las reservas aunque no haya réplica: sin URL propia
+        // van a la réplica (con sus credenciales) o, si no la hay, a la primaria
+        OrigenDatosProperties.Pool reportes = propiedades.getReportes();
+        OrigenDatosProperties.Pool destinoReportes = StringUtils.hasText(reportes.getUrl()) || replica == null ? reportes : lectura;
+        String urlReportes = StringUtils.hasText(reportes.getUrl()) ? reportes.getUrl()
+                : replica != null ? replica.getJdbcUrl() : primario.getJdbcUrl();
+        HikariDataSource poolReportes = pool("gimnasio-reportes", urlReportes,
+                credencial(destinoReportes.getUsername(), primaria.determineUsername()),
+                credencial(destinoReportes.getPassword(), primaria.determinePassword()), reportes, metricas);
+
+        return new OrigenDatosEnrutado(primario, replica != null ? replica : primario, poolReportes,
+                Set.copyOf(propiedades.getServiciosReportes()), Set.copyOf(propiedades.getServiciosPrimaria()),
+                propiedades.getReintentoMs(), metricas);
+    }
+
+    private static HikariDataSource pool(String nombre, String url, String username, String password,
+                                         OrigenDatosProperties.Pool config, MetricasGimnasio metricas) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(nombre);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setMaximumPoolSize(config.getMaximoConexiones());
+        pool.setConnectionTimeout(config.getEsperaConexionMs());
+        // Arranca aunque la réplica no responda: las lecturas caen a la primaria hasta que vuelva
+        pool.setInitializationFailTimeout(-1);
+        pool.setReadOnly(true);
+        metricas.poolConexiones(pool);
+        return pool;
+    }
+
+    private static String credencial(String propia, String deLaPrimaria) {
+        return propia != null ? propia : deLaPrimaria;
+    }
+}
@@ -0,0 +1,146 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataSource de la aplicación con enrutado de lectura/escritura.
+ *
+ * La conexión física se pide en la primera sentencia, cuando ya se sabe si la transacción es de solo
+ * lectura (@Transactional(readOnly = true)): las de escritura van a la primaria; las de solo lectura a la
+ * réplica, o al pool de informes si la transacción la abrió un servicio de informes. Si la réplica o el
+ * pool de informes no responden, la lectura se hace en la primaria durante un tiempo antes de reintentar.
+ *
+ * Las lecturas de los servicios que responden con ETag (serviciosPrimaria) van siempre a la primaria: la
+ * versión del ETag sube al confirmar allí, y leer en una réplica con retraso publicaría datos anteriores
+ * bajo esa versión. Se prefirió esto a esperar a que la réplica alcance la versión, que exigiría medir su
+ * retraso; el coste es que el catálogo y la disponibilidad no descargan la primaria.
+ */
+public class OrigenDatosEnrutado extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final List<DataSource> pools;
+
+    public OrigenDatosEnrutado(DataSource primario, DataSource lectura, DataSource reportes,
+                               Set<String> serviciosReportes, Set<String> serviciosPrimaria,
+                               long reintentoMs, MetricasGimnasio metricas) {
+        super(primario);
+        setReadOnlyDataSource(new OrigenLectura(primario, lectura, reportes, serviciosReportes, serviciosPrimaria,
+                TimeUnit.MILLISECONDS.toNanos(reintentoMs), metricas));
+
+        // Sin réplica, lectura es la propia primaria: cada pool se cierra una sola vez
+        Map<DataSource, Boolean> distintos = new IdentityHashMap<>();
+        for (DataSource pool : new DataSource[]{primario, lectura, reportes}) {
+            distintos.put(pool, true);
+        }
+        this.pools = new ArrayList<>(distintos.keySet());
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable cerrable) {
+                cerrable.close();
+            }
+        }
+    }
+
+    // Destino de las transacciones de solo lectura
+    private static final class OrigenLectura extends AbstractDataSource {
+
+        private static final Logger log = LoggerFactory.getLogger(OrigenDatosEnrutado.class);
+
+        private final DataSource primario;
+        private final Destino lectura;
+        private final Destino reportes;
+        private final Set<String> serviciosReportes;
+        private final Set<String> serviciosPrimaria;
+        private final long reintentoNanos;
+        private final MetricasGimnasio metricas;
+
+        OrigenLectura(DataSource primario, DataSource lectura, DataSource reportes, Set<String> serviciosReportes,
+                      Set<String> serviciosPrimaria, long reintentoNanos, MetricasGimnasio metricas) {
+            this.primario = primario;
+            this.lectura = new Destino("lectura", lectura);
+            this.reportes = new Destino("reportes", reportes);
+            this.serviciosReportes = serviciosReportes;
+            this.serviciosPrimaria = serviciosPrimaria;
+            this.reintentoNanos = reintentoNanos;
+            this.metricas = metricas;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conectar(null, null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return conectar(username, password);
+        }
+
+        private Connection conectar(String username, String password) throws SQLException {
+            String transaccion = TransactionSynchronizationManager.getCurrentTransactionName();
+            Destino destino = deServicio(transaccion, serviciosReportes) ? reportes : lectura;
+            if (destino.dataSource == primario || deServicio(transaccion, serviciosPrimaria)) {
+                return abrir(primario, username, password);
+            }
+            long caidoHasta = destino.caidoHasta;
+            if (caidoHasta != 0 && System.nanoTime() - caidoHasta < 0) {
+                metricas.conexionEnRespaldo(destino.nombre);
+                return abrir(primario, username, password);
+            }
+            try {
+                Connection conexion = abrir(destino.dataSource, username, password);
+                destino.caidoHasta = 0;
+                return conexion;
+            } catch (SQLException e) {
+                // Solo se avisa al abrir la ventana; durante ella no se vuelve a esperar a la réplica
+                log.warn("Sin conexión con el pool de {}: se usa la primaria durante {} ms",
+                        destino.nombre, TimeUnit.NANOSECONDS.toMillis(reintentoNanos), e);
+                destino.caidoHasta = System.nanoTime() + reintentoNanos;
+                metricas.conexionEnRespaldo(destino.nombre);
+                return abrir(primario, username, password);
+            }
+        }
+
+        // El nombre de la transacción es "paquete.Clase.metodo" de quien la abrió
+        private static boolean deServicio(String transaccion, Set<String> servicios) {
+            if (transaccion == null) {
+                return false;
+            }
+            int punto = transaccion.lastIndexOf('.');
+            return punto > 0 && servicios.contains(transaccion.substring(0, punto));
+        }
+
+        private static Connection abrir(DataSource dataSource, String username, String password) throws SQLException {
+            return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+        }
+    }
+
+    private static final class Destino {
+
+        private final String nombre;
+        private final DataSource dataSource;
+        // Hasta cuándo (nanoTime) se lee en la primaria tras un fallo; 0 si el pool responde
+        private volatile long caidoHasta;
+
+        Destino(String nombre, DataSource dataSource) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+        }
+    }
+}
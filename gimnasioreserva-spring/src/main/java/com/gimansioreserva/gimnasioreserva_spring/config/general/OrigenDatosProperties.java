@@ -0,0 +1,84 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.datasource")
+public class OrigenDatosProperties {
+
+    // false: un único pool (spring.datasource) para todas las transacciones
+    private boolean enrutado = true;
+    // Réplica para las transacciones de solo lectura; sin URL se usa la primaria
+    private Pool lectura = new Pool(10);
+    // Pool acotado para informes; sin URL apunta a la réplica, o a la primaria si no hay réplica
+    private Pool reportes = new Pool(3);
+    // Servicios (nombre completo de la clase) cuyas transacciones de solo lectura van al pool de informes
+    private List<String> serviciosReportes = new ArrayList<>(List.of(
+            "com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminReporteService",
+            "com.gimansioreserva.gimnasioreserva_spring.service.core.EstadisticasService"));
+    // Servicios cuyas transacciones de solo lectura van a la primaria: sus respuestas llevan el ETag de
+    // VersionesCatalogo, que sube al confirmar en la primaria; una réplica atrasada daría datos viejos con
+    // el ETag nuevo y los clientes los guardarían en caché hasta el siguiente cambio
+    private List<String> serviciosPrimaria = new ArrayList<>(List.of(
+            "com.gimansioreserva.gimnasioreserva_spring.service.core.ClaseService",
+            "com.gimansioreserva.gimnasioreserva_spring.service.core.DisponibilidadService"));
+    // Tras un fallo al conectar con la réplica, tiempo durante el que se va directo a la primaria
+    private long reintentoMs = 30_000;
+
+    public static class Pool {
+
+        private String url;
+        // Sin usuario ni contraseña se usan los de spring.datasource
+        private String username;
+        private String password;
+        private int maximoConexiones;
+        // Espera máxima por una conexión antes de caer a la primaria
+        private long esperaConexionMs = 2_000;
+
+        public Pool() {
+        }
+
+        Pool(int maximoConexiones) {
+            this.maximoConexiones = maximoConexiones;
+        }
+
+        // Getters y setters
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public int getMaximoConexiones() { return maximoConexiones; }
+        public void setMaximoConexiones(int maximoConexiones) { this.maximoConexiones = maximoConexiones; }
+
+        public long getEsperaConexionMs() { return esperaConexionMs; }
+        public void setEsperaConexionMs(long esperaConexionMs) { this.esperaConexionMs = esperaConexionMs; }
+    }
+
+    // Getters y setters
+    public boolean isEnrutado() { return enrutado; }
+    public void setEnrutado(boolean enrutado) { this.enrutado = enrutado; }
+
+    public Pool getLectura() { return lectura; }
+    public void setLectura(Pool lectura) { this.lectura = lectura; }
+
+    public Pool getReportes() { return reportes; }
+    public void setReportes(Pool reportes) { this.reportes = reportes; }
+
+    public List<String> getServiciosReportes() { return serviciosReportes; }
+    public void setServiciosReportes(List<String> serviciosReportes) { this.serviciosReportes = serviciosReportes; }
+
+    public List<String> getServiciosPrimaria() { return serviciosPrimaria; }
+    public void setServiciosPrimaria(List<String> serviciosPrimaria) { this.serviciosPrimaria = serviciosPrimaria; }
+
+    public long getReintentoMs() { return reintentoMs; }
+    public void setReintentoMs(long reintentoMs) { this.reintentoMs = reintentoMs; }
+}
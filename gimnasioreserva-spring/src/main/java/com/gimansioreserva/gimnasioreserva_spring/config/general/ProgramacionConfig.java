@@ -0,0 +1,10 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tareas periódicas (@Scheduled), p. ej. la revisión de la bandeja de eventos
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
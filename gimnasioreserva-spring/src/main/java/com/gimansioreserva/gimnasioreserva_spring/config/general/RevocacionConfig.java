@@ -0,0 +1,23 @@
+package com.gimansioreserva.gimnasioreserva_spring.config.general;
+
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.AlmacenRevocaciones;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.AlmacenRevocacionesArchivo;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.RevocacionProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class RevocacionConfig {
+
+    // Almacén embebido en archivo; para compartir revocaciones entre réplicas basta con otro AlmacenRevocaciones
+    // Sin archivo configurado la tabla va a un temporal que se borra al parar (revocaciones no persistentes)
+    @Bean(destroyMethod = "close")
+    public AlmacenRevocaciones almacenRevocaciones(RevocacionProperties propiedades) {
+        if (propiedades.getArchivo() == null || propiedades.getArchivo().isBlank()) {
+            return AlmacenRevocacionesArchivo.temporal(propiedades.getCapacidad());
+        }
+        return new AlmacenRevocacionesArchivo(Path.of(propiedades.getArchivo()), propiedades.getCapacidad());
+    }
+}
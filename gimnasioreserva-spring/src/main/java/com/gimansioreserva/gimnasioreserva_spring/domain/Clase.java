@@ -2,6 +2,8 @@ package com.gimansioreserva.gimnasioreserva_spring.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,11 +11,12 @@ import java.util.List;
 
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clases")
 @Table(name = "clases")
 public class Clase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques("clases")
     @Column(name = "id_clase")
     private Long idClase;
 
@@ -129,8 +132,13 @@ public class Clase {
         this.reservas = reservas;
     }
 
-    // Método útil para calcular cupos disponibles
+    // Cupos disponibles según las reservas cargadas (para mostrar)
     public Integer getCuposDisponibles() {
-        return cupo - reservas.size();
+        return cuposLibres(reservas.stream().filter(r -> r.getEstado() == EstadoReserva.CONFIRMADA).count());
+    }
+
+    // Regla única de cupos para reservar (directa y en cola): solo ocupan plaza las reservas confirmadas
+    public int cuposLibres(long reservasConfirmadas) {
+        return cupo - (int) reservasConfirmadas;
     }
 }
\ No newline at end of file
@@ -2,15 +2,18 @@ package com.gimansioreserva.gimnasioreserva_spring.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "entrenadores")
 @Table(name = "entrenadores")
 public class Entrenador {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques("entrenadores")
     @Column(name = "id_entrenador")
     private Long idEntrenador;
 
@@ -0,0 +1,52 @@
+package com.gimansioreserva.gimnasioreserva_spring.domain;
+
+/**
+ * Estado de una reserva. Se persiste como un código entero pequeño
+ * (ver EstadoReservaConverter); el nombre es lo que viaja en la API.
+ */
+public enum EstadoReserva {
+    CONFIRMADA(1),
+    CANCELADA(2),
+    COMPLETADA(3);
+
+    private final byte codigo;
+
+    EstadoReserva(int codigo) {
+        this.codigo = (byte) codigo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    // Máquina de estados: solo una reserva confirmada puede cambiar (a cancelada o completada)
+    public boolean puedeTransicionarA(EstadoReserva destino) {
+        return this == CONFIRMADA && (destino == CANCELADA || destino == COMPLETADA);
+    }
+
+    public boolean esFinal() {
+        return this != CONFIRMADA;
+    }
+
+    public static EstadoReserva desdeCodigo(byte codigo) {
+        for (EstadoReserva estado : values()) {
+            if (estado.codigo == codigo) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Código de estado de reserva desconocido: " + codigo);
+    }
+
+    // Acepta el nombre sin distinguir mayúsculas ni espacios alrededor
+    public static EstadoReserva desdeNombre(String nombre) {
+        if (nombre != null) {
+            String normalizado = nombre.trim();
+            for (EstadoReserva estado : values()) {
+                if (estado.name().equalsIgnoreCase(normalizado)) {
+                    return estado;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Estado de reserva no válido: " + nombre);
+    }
+}
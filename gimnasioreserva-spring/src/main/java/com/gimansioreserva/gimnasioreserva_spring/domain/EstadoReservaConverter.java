@@ -0,0 +1,19 @@
+package com.gimansioreserva.gimnasioreserva_spring.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Persiste EstadoReserva como TINYINT (1 = CONFIRMADA, 2 = CANCELADA, 3 = COMPLETADA)
+@Converter(autoApply = true)
+public class EstadoReservaConverter implements AttributeConverter<EstadoReserva, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(EstadoReserva estado) {
+        return estado != null ? estado.getCodigo() : null;
+    }
+
+    @Override
+    public EstadoReserva convertToEntityAttribute(Byte codigo) {
+        return codigo != null ? EstadoReserva.desdeCodigo(codigo) : null;
+    }
+}
@@ -1,16 +1,31 @@
 package com.gimansioreserva.gimnasioreserva_spring.domain;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
 
 public class EventoGym {
+    // Identificador único entre nodos: permite descartar duplicados al repartir eventos
+    private final String id;
     private final String claseId;
     private final TipoEvento tipo;
     private final LocalDateTime timestamp;
 
     public EventoGym(String claseId, TipoEvento tipo) {
+        this(UUID.randomUUID().toString(), claseId, tipo, LocalDateTime.now());
+    }
+
+    // Reconstruye un evento recibido de otro nodo
+    public EventoGym(String id, String claseId, TipoEvento tipo, LocalDateTime timestamp) {
+        this.id = id;
         this.claseId = claseId;
         this.tipo = tipo;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
+    }
+
+    public String getId() {
+        return id;
     }
 
     public String getClaseId() {
@@ -24,4 +39,15 @@ public class EventoGym {
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
+
+    /**
+     * Ids de las clases a las que se refiere: uno, o varios en CAMBIO_HORARIO_LOTE.
+     * @throws NumberFormatException si claseId no es numérico (eventos de prueba)
+     */
+    public List<Long> idsClases() {
+        if (claseId == null) {
+            throw new NumberFormatException("Evento sin clase");
+        }
+        return Arrays.stream(claseId.split(",")).map(Long::parseLong).toList();
+    }
 }
@@ -0,0 +1,144 @@
+package com.gimansioreserva.gimnasioreserva_spring.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Evento guardado en la bandeja de salida, pendiente de publicar (ver RelevoEventos).
+ * Solo guarda identificadores: los datos de la reserva se leen al publicar.
+ */
+@Entity
+@Table(name = "eventos_pendientes")
+public class EventoPendiente {
+
+    // Por bloques y creciente en cada nodo: el relevo publica en orden de id
+    @Id
+    @IdPorBloques("eventos_pendientes")
+    @Column(name = "id_evento")
+    private Long idEvento;
+
+    @Column(nullable = false, length = 36)
+    private String uuid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEvento tipo;
+
+    @Column(name = "id_clase", nullable = false)
+    private Long idClase;
+
+    @Column(name = "id_reserva")
+    private Long idReserva;
+
+    // Solo en CAMBIO_HORARIO_LOTE: todas las clases del lote separadas por comas (id_clase es la primera)
+    @Column(name = "ids_clases", length = 2000)
+    private String idsClases;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+
+    @Column(nullable = false)
+    private Integer intentos = 0;
+
+    // Agotó sus intentos: el relevo ya no lo publica
+    @Column(nullable = false)
+    private Boolean aparcado = false;
+
+    // Constructores
+    public EventoPendiente() {}
+
+    public EventoPendiente(Long idClase, TipoEvento tipo, Long idReserva) {
+        this.uuid = UUID.randomUUID().toString();
+        this.idClase = idClase;
+        this.tipo = tipo;
+        this.idReserva = idReserva;
+        this.creadoEn = LocalDateTime.now();
+    }
+
+    public EventoPendiente(List<Long> idsClases, TipoEvento tipo) {
+        this(idsClases.get(0), tipo, null);
+        this.idsClases = idsClases.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    // El evento que se publica en el bus; el mismo id en cada reintento
+    public EventoGym aEventoGym() {
+        return new EventoGym(uuid, idsClases != null ? idsClases : idClase.toString(), tipo, creadoEn);
+    }
+
+    // Getters y Setters
+    public Long getIdEvento() {
+        return idEvento;
+    }
+
+    public void setIdEvento(Long idEvento) {
+        this.idEvento = idEvento;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public TipoEvento getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TipoEvento tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getIdClase() {
+        return idClase;
+    }
+
+    public void setIdClase(Long idClase) {
+        this.idClase = idClase;
+    }
+
+    public Long getIdReserva() {
+        return idReserva;
+    }
+
+    public void setIdReserva(Long idReserva) {
+        this.idReserva = idReserva;
+    }
+
+    public String getIdsClases() {
+        return idsClases;
+    }
+
+    public void setIdsClases(String idsClases) {
+        this.idsClases = idsClases;
+    }
+
+    public LocalDateTime getCreadoEn() {
+        return creadoEn;
+    }
+
+    public void setCreadoEn(LocalDateTime creadoEn) {
+        this.creadoEn = creadoEn;
+    }
+
+    public Integer getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(Integer intentos) {
+        this.intentos = intentos;
+    }
+
+    public Boolean getAparcado() {
+        return aparcado;
+    }
+
+    public void setAparcado(Boolean aparcado) {
+        this.aparcado = aparcado;
+    }
+}
@@ -0,0 +1,103 @@
+package com.gimansioreserva.gimnasioreserva_spring.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sesión renovable: todos los refresh tokens emitidos desde un mismo login comparten familia.
+ * Solo es válido el de la generación actual.
+ */
+@Entity
+@Table(name = "familias_refresh")
+public class FamiliaRefresh implements Persistable<Long> {
+
+    // Aleatorio (no secuencial) para que no se pueda adivinar el de otra sesión
+    @Id
+    @Column(name = "id_familia")
+    private Long idFamilia;
+
+    // Solo el id: renovar no necesita cargar el usuario
+    @Column(name = "id_usuario", nullable = false)
+    private Long idUsuario;
+
+    @Column(nullable = false)
+    private Integer generacion = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime expira;
+
+    @Column(nullable = false)
+    private Boolean revocada = false;
+
+    // El id lo asigna la aplicación: sin esto save() haría un SELECT previo para decidir entre insert y merge
+    @Transient
+    private boolean nueva = true;
+
+    // Constructores
+    public FamiliaRefresh() {}
+
+    public FamiliaRefresh(Long idFamilia, Long idUsuario, LocalDateTime expira) {
+        this.idFamilia = idFamilia;
+        this.idUsuario = idUsuario;
+        this.expira = expira;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+
+    @Override
+    public Long getId() {
+        return idFamilia;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    // Getters y Setters
+    public Long getIdFamilia() {
+        return idFamilia;
+    }
+
+    public void setIdFamilia(Long idFamilia) {
+        this.idFamilia = idFamilia;
+    }
+
+    public Long getIdUsuario() {
+        return idUsuario;
+    }
+
+    public void setIdUsuario(Long idUsuario) {
+        this.idUsuario = idUsuario;
+    }
+
+    public Integer getGeneracion() {
+        return generacion;
+    }
+
+    public void setGeneracion(Integer generacion) {
+        this.generacion = generacion;
+    }
+
+    public LocalDateTime getExpira() {
+        return expira;
+    }
+
+    public void setExpira(LocalDateTime expira) {
+        this.expira = expira;
+    }
+
+    public Boolean getRevocada() {
+        return revocada;
+    }
+
+    public void setRevocada(Boolean revocada) {
+        this.revocada = revocada;
+    }
+}
@@ -0,0 +1,49 @@
+package com.gimansioreserva.gimnasioreserva_spring.domain;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Generador de identificadores por bloques (MySQL no tiene secuencias, así que se usa una tabla).
+ *
+ * Cada nodo reserva un bloque de ids con una sola actualización de secuencias_id y los reparte en memoria.
+ * La fila guarda el último id reservado (optimizador pooled-lo, hibernate.id.generator.stored_last_used por
+ * defecto): las inserciones hechas a mano o desde migraciones usan el siguiente y lo apuntan, sin conocer
+ * el tamaño del bloque.
+ *
+ * A diferencia de IDENTITY, Hibernate conoce el id antes del INSERT y puede agrupar las inserciones en
+ * lotes JDBC (hibernate.jdbc.batch_size).
+ */
+public class GeneradorIdPorBloques extends TableGenerator {
+
+    // Ids por bloque; se configura con spring.jpa.properties.gimnasio.ids.tamano_bloque
+    public static final String TAMANO_BLOQUE = "gimnasio.ids.tamano_bloque";
+    public static final int TAMANO_BLOQUE_POR_DEFECTO = 50;
+
+    private final String secuencia;
+
+    public GeneradorIdPorBloques(IdPorBloques config) {
+        this.secuencia = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry serviceRegistry) throws MappingException {
+        int tamanoBloque = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(TAMANO_BLOQUE, StandardConverters.INTEGER, TAMANO_BLOQUE_POR_DEFECTO);
+
+        parametros.put(TABLE_PARAM, "secuencias_id");
+        parametros.put(SEGMENT_COLUMN_PARAM, "nombre");
+        parametros.put(VALUE_COLUMN_PARAM, "ultimo");
+        parametros.put(SEGMENT_VALUE_PARAM, secuencia);
+        parametros.put(INCREMENT_PARAM, Integer.toString(tamanoBloque));
+        parametros.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parametros, serviceRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.gimansioreserva.gimnasioreserva_spring.domain;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Identificador asignado por bloques desde la tabla secuencias_id (ver GeneradorIdPorBloques).
+ * value: nombre de la fila de secuencias_id, el de la tabla de la entidad.
+ */
+@IdGeneratorType(GeneradorIdPorBloques.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface IdPorBloques {
+
+    String value();
+}
@@ -4,19 +4,19 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reservas")
+@Table(name = "reservas") // índices en db/migration/V2__indices.sql
 public class Reserva {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques("reservas")
     @Column(name = "id_reserva")
     private Long idReserva;
 
     @Column(name = "fecha_reserva", nullable = true)
     private LocalDateTime fechaReserva;
 
-    @Column(nullable = false, length = 20)
-    private String estado; // "CONFIRMADA", "CANCELADA", "COMPLETADA"
+    @Column(nullable = false)
+    private EstadoReserva estado; // TINYINT vía EstadoReservaConverter
 
     // Relación N:1 con Usuario
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,7 +33,7 @@ public class Reserva {
     // Constructores
     public Reserva() {}
 
-    public Reserva(Usuario usuario, Clase clase, LocalDateTime fechaReserva, String estado) {
+    public Reserva(Usuario usuario, Clase clase, LocalDateTime fechaReserva, EstadoReserva estado) {
         this.usuario = usuario;
         this.clase = clase;
         this.fechaReserva = fechaReserva;
@@ -57,11 +57,11 @@ public class Reserva {
         this.fechaReserva = fechaReserva;
     }
 
-    public String getEstado() {
+    public EstadoReserva getEstado() {
         return estado;
     }
 
-    public void setEstado(String estado) {
+    public void setEstado(EstadoReserva estado) {
         this.estado = estado;
     }
 
@@ -5,5 +5,7 @@ public enum TipoEvento {
     CLASE_LLENA,
     CAMBIO_HORARIO,
     RESERVA_CREADA,
-    RESERVA_CANCELADA
+    RESERVA_CANCELADA,
+    // Varias clases creadas o borradas a la vez (series, baja de un entrenador): claseId lleva sus ids separados por comas
+    CAMBIO_HORARIO_LOTE
 }
\ No newline at end of file
@@ -11,7 +11,7 @@ import java.util.List;
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques("usuarios")
     @Column(name = "id_usuario")
     private Long idUsuario;
 
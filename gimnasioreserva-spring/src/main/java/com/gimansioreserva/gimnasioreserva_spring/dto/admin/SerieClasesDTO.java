@@ -0,0 +1,111 @@
+package com.gimansioreserva.gimnasioreserva_spring.dto.admin;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Serie de clases semanal (al estilo de una regla RRULE WEEKLY): una clase por cada día de la semana
+ * indicado, a la misma hora, entre dos fechas incluidas y cada intervaloSemanas semanas.
+ */
+public class SerieClasesDTO {
+
+    // Datos comunes a todas las clases de la serie
+    private String nombre;
+    private String descripcion;
+    private Integer cupo;
+    private Integer duracionMinutos;
+    private Long idEntrenador;
+
+    // Regla de repetición
+    private Set<DayOfWeek> diasSemana;
+    private LocalTime hora;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private Integer intervaloSemanas;
+
+    // Constructores
+    public SerieClasesDTO() {}
+
+    // Getters y Setters
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public void setDescripcion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public Integer getCupo() {
+        return cupo;
+    }
+
+    public void setCupo(Integer cupo) {
+        this.cupo = cupo;
+    }
+
+    public Integer getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public void setDuracionMinutos(Integer duracionMinutos) {
+        this.duracionMinutos = duracionMinutos;
+    }
+
+    public Long getIdEntrenador() {
+        return idEntrenador;
+    }
+
+    public void setIdEntrenador(Long idEntrenador) {
+        this.idEntrenador = idEntrenador;
+    }
+
+    public Set<DayOfWeek> getDiasSemana() {
+        return diasSemana;
+    }
+
+    public void setDiasSemana(Set<DayOfWeek> diasSemana) {
+        this.diasSemana = diasSemana;
+    }
+
+    public LocalTime getHora() {
+        return hora;
+    }
+
+    public void setHora(LocalTime hora) {
+        this.hora = hora;
+    }
+
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDate desde) {
+        this.desde = desde;
+    }
+
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDate hasta) {
+        this.hasta = hasta;
+    }
+
+    public Integer getIntervaloSemanas() {
+        return intervaloSemanas;
+    }
+
+    public void setIntervaloSemanas(Integer intervaloSemanas) {
+        this.intervaloSemanas = intervaloSemanas;
+    }
+}
@@ -0,0 +1,32 @@
+package com.gimansioreserva.gimnasioreserva_spring.dto.auth;
+
+public class RefreshResponse {
+
+    private String accessToken;
+    private String refreshToken;
+
+    // Constructores
+    public RefreshResponse() {}
+
+    public RefreshResponse(String accessToken, String refreshToken) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters y Setters
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
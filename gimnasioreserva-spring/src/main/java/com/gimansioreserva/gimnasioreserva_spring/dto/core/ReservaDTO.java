@@ -1,5 +1,7 @@
 package com.gimansioreserva.gimnasioreserva_spring.dto.core;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+
 import java.time.LocalDateTime;
 
 public class ReservaDTO {
@@ -23,6 +25,26 @@ public class ReservaDTO {
     // Constructores
     public ReservaDTO() {}
 
+    // Usado por las proyecciones JPQL de ReservaRepository
+    public ReservaDTO(Long idReserva, LocalDateTime fechaReserva, EstadoReserva estado,
+                      Long idUsuario, String nombreUsuario, String correoUsuario,
+                      Long idClase, String nombreClase, LocalDateTime horarioClase, Integer duracionMinutos,
+                      Long idEntrenador, String nombreEntrenador, String especialidadEntrenador) {
+        this.idReserva = idReserva;
+        this.fechaReserva = fechaReserva;
+        this.estado = estado != null ? estado.name() : null;
+        this.idUsuario = idUsuario;
+        this.nombreUsuario = nombreUsuario;
+        this.correoUsuario = correoUsuario;
+        this.idClase = idClase;
+        this.nombreClase = nombreClase;
+        this.horarioClase = horarioClase;
+        this.duracionMinutos = duracionMinutos;
+        this.idEntrenador = idEntrenador;
+        this.nombreEntrenador = nombreEntrenador;
+        this.especialidadEntrenador = especialidadEntrenador;
+    }
+
     // Getters y Setters
     public Long getIdReserva() {
         return idReserva;
@@ -0,0 +1,63 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binario de un lote: [cantidad:int] y por evento [id][claseId?][tipo][timestamp].
+ * Los textos van con writeUTF; claseId lleva un boolean delante porque puede ser null.
+ */
+final class CodificadorEventos {
+
+    // Protege al receptor de un flujo corrupto o ajeno
+    static final int MAXIMO_POR_LOTE = 10_000;
+
+    private CodificadorEventos() {
+    }
+
+    static byte[] codificar(List<EventoGym> lote) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * lote.size() + 4);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeInt(lote.size());
+        for (EventoGym evento : lote) {
+            salida.writeUTF(evento.getId());
+            salida.writeBoolean(evento.getClaseId() != null);
+            if (evento.getClaseId() != null) {
+                salida.writeUTF(evento.getClaseId());
+            }
+            salida.writeUTF(evento.getTipo().name());
+            salida.writeUTF(evento.getTimestamp().toString());
+        }
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    // Eventos de un tipo desconocido (nodo con otra versión) se saltan
+    static List<EventoGym> leerLote(DataInputStream entrada) throws IOException {
+        int cantidad = entrada.readInt();
+        if (cantidad < 0 || cantidad > MAXIMO_POR_LOTE) {
+            throw new IOException("Tamaño de lote inválido: " + cantidad);
+        }
+        List<EventoGym> lote = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String id = entrada.readUTF();
+            String claseId = entrada.readBoolean() ? entrada.readUTF() : null;
+            String tipo = entrada.readUTF();
+            LocalDateTime timestamp = LocalDateTime.parse(entrada.readUTF());
+            try {
+                lote.add(new EventoGym(id, claseId, TipoEvento.valueOf(tipo), timestamp));
+            } catch (IllegalArgumentException e) {
+                // tipo desconocido
+            }
+        }
+        return lote;
+    }
+}
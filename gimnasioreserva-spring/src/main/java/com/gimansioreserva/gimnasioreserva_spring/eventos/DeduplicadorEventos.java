@@ -0,0 +1,32 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recuerda los últimos ids de evento vistos (LRU acotado) para descartar los que llegan repetidos,
+ * por ejemplo el eco del propio nodo o un reenvío tras reconectar.
+ */
+public class DeduplicadorEventos {
+
+    private final Map<String, Boolean> vistos;
+
+    public DeduplicadorEventos(int capacidad) {
+        this.vistos = new LinkedHashMap<>(capacidad * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> mayor) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    // true si es la primera vez que se ve el id
+    public synchronized boolean registrar(String id) {
+        return vistos.put(id, Boolean.TRUE) == null;
+    }
+
+    // Un evento que no llegó a emitirse: su reintento no debe tomarse por repetido
+    public synchronized void olvidar(String id) {
+        vistos.remove(id);
+    }
+}
@@ -0,0 +1,73 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.eventos")
+public class EventosProperties {
+
+    // memoria (una sola instancia) o tcp (varias instancias)
+    private String transporte = "memoria";
+    private int puerto = 7070;
+    // Dirección en la que escucha el transporte tcp; 0.0.0.0 solo en una red privada entre nodos
+    private String direccion = "127.0.0.1";
+    // Secreto compartido por los nodos para firmar los lotes (obligatorio con tcp)
+    private String secreto = "";
+    private int maximoConexionesEntrantes = 16;
+    // Otros nodos, como host:puerto
+    private List<String> pares = new ArrayList<>();
+    private int tamanoLote = 100;
+    private long esperaMs = 50;
+    private int capacidadCola = 10_000;
+    // Una escritura a un par que tarde más se corta y el par se reconecta
+    private long timeoutEscrituraMs = 5000;
+    // Espera entre intentos de conexión a un par caído: empieza en la base y se dobla hasta el máximo
+    private long reintentoConexionBaseMs = 500;
+    private long reintentoConexionMaximoMs = 30_000;
+    // Con tcp, cada cuánto se rehacen los índices en memoria desde la base de datos (eventos perdidos)
+    private long reconciliacionMs = 600_000;
+
+    // Getters y setters
+    public String getTransporte() { return transporte; }
+    public void setTransporte(String transporte) { this.transporte = transporte; }
+
+    public int getPuerto() { return puerto; }
+    public void setPuerto(int puerto) { this.puerto = puerto; }
+
+    public String getDireccion() { return direccion; }
+    public void setDireccion(String direccion) { this.direccion = direccion; }
+
+    public String getSecreto() { return secreto; }
+    public void setSecreto(String secreto) { this.secreto = secreto; }
+
+    public int getMaximoConexionesEntrantes() { return maximoConexionesEntrantes; }
+    public void setMaximoConexionesEntrantes(int maximoConexionesEntrantes) { this.maximoConexionesEntrantes = maximoConexionesEntrantes; }
+
+    public List<String> getPares() { return pares; }
+    public void setPares(List<String> pares) { this.pares = pares; }
+
+    public int getTamanoLote() { return tamanoLote; }
+    public void setTamanoLote(int tamanoLote) { this.tamanoLote = tamanoLote; }
+
+    public long getEsperaMs() { return esperaMs; }
+    public void setEsperaMs(long esperaMs) { this.esperaMs = esperaMs; }
+
+    public int getCapacidadCola() { return capacidadCola; }
+    public void setCapacidadCola(int capacidadCola) { this.capacidadCola = capacidadCola; }
+
+    public long getTimeoutEscrituraMs() { return timeoutEscrituraMs; }
+    public void setTimeoutEscrituraMs(long timeoutEscrituraMs) { this.timeoutEscrituraMs = timeoutEscrituraMs; }
+
+    public long getReintentoConexionBaseMs() { return reintentoConexionBaseMs; }
+    public void setReintentoConexionBaseMs(long reintentoConexionBaseMs) { this.reintentoConexionBaseMs = reintentoConexionBaseMs; }
+
+    public long getReintentoConexionMaximoMs() { return reintentoConexionMaximoMs; }
+    public void setReintentoConexionMaximoMs(long reintentoConexionMaximoMs) { this.reintentoConexionMaximoMs = reintentoConexionMaximoMs; }
+
+    public long getReconciliacionMs() { return reconciliacionMs; }
+    public void setReconciliacionMs(long reconciliacionMs) { this.reconciliacionMs = reconciliacionMs; }
+}
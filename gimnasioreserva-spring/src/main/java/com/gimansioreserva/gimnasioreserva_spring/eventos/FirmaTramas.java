@@ -0,0 +1,69 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Trama del transporte TCP: [longitud:int][lote][HMAC-SHA256 del lote con el secreto compartido].
+ * Un nodo sin el secreto no puede inyectar eventos: la trama con firma inválida corta la conexión.
+ */
+final class FirmaTramas {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int LONGITUD_FIRMA = 32;
+
+    // Un lote de MAXIMO_POR_LOTE eventos cabe de sobra; más es un flujo ajeno
+    static final int MAXIMO_BYTES = 16 * 1024 * 1024;
+
+    private final SecretKeySpec clave;
+
+    FirmaTramas(byte[] secreto) {
+        if (secreto == null || secreto.length == 0) {
+            throw new IllegalArgumentException("El transporte TCP de eventos necesita un secreto compartido");
+        }
+        this.clave = new SecretKeySpec(secreto, ALGORITMO);
+    }
+
+    byte[] enmarcar(byte[] lote) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(lote.length + LONGITUD_FIRMA + 4);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeInt(lote.length);
+        salida.write(lote);
+        salida.write(firmar(lote));
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    // Devuelve el lote de la siguiente trama si la firma es válida
+    byte[] leer(DataInputStream entrada) throws IOException {
+        int longitud = entrada.readInt();
+        if (longitud < 0 || longitud > MAXIMO_BYTES) {
+            throw new IOException("Longitud de trama inválida: " + longitud);
+        }
+        byte[] lote = new byte[longitud];
+        entrada.readFully(lote);
+        byte[] firma = new byte[LONGITUD_FIRMA];
+        entrada.readFully(firma);
+        if (!MessageDigest.isEqual(firma, firmar(lote))) {
+            throw new IOException("Firma de trama inválida");
+        }
+        return lote;
+    }
+
+    // Mac no es seguro entre hilos: una instancia por trama
+    private byte[] firmar(byte[] datos) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return mac.doFinal(datos);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * "Red" en memoria que une varios TransporteEventosMemoria del mismo proceso.
+ * Un hub con un solo transporte equivale a una única instancia sin reparto.
+ */
+public class HubEventosMemoria {
+
+    private final List<TransporteEventosMemoria> nodos = new CopyOnWriteArrayList<>();
+
+    void unir(TransporteEventosMemoria nodo) {
+        nodos.add(nodo);
+    }
+
+    void salir(TransporteEventosMemoria nodo) {
+        nodos.remove(nodo);
+    }
+
+    // Entrega el lote a todos los nodos menos al que lo envía
+    void repartir(TransporteEventosMemoria origen, List<EventoGym> lote) {
+        for (TransporteEventosMemoria nodo : nodos) {
+            if (nodo != origen) {
+                lote.forEach(nodo::entregar);
+            }
+        }
+    }
+}
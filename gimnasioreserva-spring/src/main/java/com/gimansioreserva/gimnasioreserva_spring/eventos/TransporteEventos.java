@@ -0,0 +1,22 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+
+import java.util.function.Consumer;
+
+/**
+ * Reparte los eventos del gimnasio entre las instancias de la aplicación.
+ * Es de mejor esfuerzo: un evento puede llegar más de una vez o perderse si un nodo
+ * está caído, por eso quien recibe descarta duplicados por id (ver DeduplicadorEventos).
+ */
+public interface TransporteEventos extends AutoCloseable {
+
+    // Envía el evento al resto de nodos; no bloquea a quien emite
+    void publicar(EventoGym evento);
+
+    // Receptor de los eventos que llegan de otros nodos
+    void alRecibir(Consumer<EventoGym> receptor);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,32 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+
+import java.time.Duration;
+import java.util.List;
+
+// Transporte dentro del mismo proceso: una sola instancia (por defecto) o varios nodos simulados en tests
+public class TransporteEventosMemoria extends TransporteEventosPorLotes {
+
+    private final HubEventosMemoria hub;
+
+    public TransporteEventosMemoria(HubEventosMemoria hub, int capacidadCola, int tamanoLote, Duration espera) {
+        super("memoria", capacidadCola, tamanoLote, espera);
+        this.hub = hub;
+        hub.unir(this);
+    }
+
+    public TransporteEventosMemoria(HubEventosMemoria hub) {
+        this(hub, 10_000, 100, Duration.ofMillis(50));
+    }
+
+    @Override
+    protected void enviarLote(List<EventoGym> lote) {
+        hub.repartir(this, lote);
+    }
+
+    @Override
+    protected void cerrar() {
+        hub.salir(this);
+    }
+}
@@ -0,0 +1,158 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Base de los transportes: publicar() solo encola y un hilo propio envía los eventos
+ * en lotes de hasta tamanoLote. Con la cola llena el evento se descarta (se cuenta).
+ *
+ * El hilo de envío (y lo que abra cada transporte, como el puerto TCP) arranca en start(), que Spring
+ * llama cuando todos los beans están creados y EventoGymService ya registró su receptor; fuera de
+ * Spring (tests) se llama a mano.
+ */
+public abstract class TransporteEventosPorLotes implements TransporteEventos, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TransporteEventosPorLotes.class);
+
+    private final BlockingQueue<EventoGym> pendientes;
+    private final int tamanoLote;
+    private final long esperaNanos;
+    private final Object envio = new Object();
+    private final AtomicLong descartados = new AtomicLong();
+    private final Thread hilo;
+
+    private volatile Consumer<EventoGym> receptor = evento -> { };
+    private volatile boolean activo;
+    private volatile boolean cerrado;
+
+    protected TransporteEventosPorLotes(String nombre, int capacidadCola, int tamanoLote, Duration espera) {
+        this.pendientes = new LinkedBlockingQueue<>(capacidadCola);
+        this.tamanoLote = tamanoLote;
+        this.esperaNanos = espera.toNanos();
+        this.hilo = new Thread(this::bucleEnvio, "eventos-" + nombre);
+        this.hilo.setDaemon(true);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (activo || cerrado) {
+            return;
+        }
+        abrir();
+        activo = true;
+        hilo.start();
+    }
+
+    @Override
+    public void stop() {
+        close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    @Override
+    public void publicar(EventoGym evento) {
+        if (!pendientes.offer(evento)) {
+            long total = descartados.incrementAndGet();
+            if (total == 1 || total % 1000 == 0) {
+                log.warn("Cola de eventos entre nodos llena; descartados hasta ahora: {}", total);
+            }
+        }
+    }
+
+    @Override
+    public void alRecibir(Consumer<EventoGym> receptor) {
+        this.receptor = receptor;
+    }
+
+    // Envía ya todo lo pendiente (tests y cierre)
+    public void vaciar() {
+        List<EventoGym> lote = new ArrayList<>(tamanoLote);
+        while (pendientes.drainTo(lote, tamanoLote) > 0) {
+            enviar(lote);
+            lote.clear();
+        }
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        activo = false;
+        hilo.interrupt();
+        vaciar();
+        cerrar();
+    }
+
+    // Envía un lote a los demás nodos
+    protected abstract void enviarLote(List<EventoGym> lote) throws IOException;
+
+    // Abre los recursos del transporte antes de arrancar el hilo de envío
+    protected void abrir() {
+    }
+
+    // Libera los recursos del transporte
+    protected void cerrar() {
+    }
+
+    // Entrega al receptor un evento llegado de otro nodo
+    protected void entregar(EventoGym evento) {
+        try {
+            receptor.accept(evento);
+        } catch (RuntimeException e) {
+            log.warn("Error entregando evento remoto {}: {}", evento.getId(), e.getMessage());
+        }
+    }
+
+    private void bucleEnvio() {
+        List<EventoGym> lote = new ArrayList<>(tamanoLote);
+        while (activo) {
+            try {
+                EventoGym primero = pendientes.poll(esperaNanos, TimeUnit.NANOSECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                // Lo que se acumuló mientras se enviaba el lote anterior sale en el mismo lote
+                lote.add(primero);
+                pendientes.drainTo(lote, tamanoLote - 1);
+                enviar(lote);
+                lote.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void enviar(List<EventoGym> lote) {
+        synchronized (envio) {
+            try {
+                enviarLote(lote);
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo enviar un lote de {} eventos: {}", lote.size(), e.getMessage());
+            }
+        }
+    }
+}
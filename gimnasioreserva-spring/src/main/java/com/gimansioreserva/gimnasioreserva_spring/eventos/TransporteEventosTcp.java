@@ -0,0 +1,369 @@
+package com.gimansioreserva.gimnasioreserva_spring.eventos;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transporte TCP punto a punto: cada nodo escucha en una dirección (loopback por defecto) y mantiene
+ * una conexión persistente hacia cada par configurado.
+ *
+ * Cada par tiene su cola acotada de lotes y su propio hilo escritor, así que un par caído o atascado no
+ * frena a los demás. Un vigía cierra la conexión si una escritura tarda más de timeoutEscritura; tras un
+ * fallo se reconecta con espera creciente (de reintentoBase a reintentoMaximo) y el lote que no salió se
+ * reenvía por la conexión nueva, con los que se acumularon mientras. Un lote que falla varias veces al
+ * escribirse o que no cabe en la cola del par se descarta: la entrega entre nodos es "como mucho una vez"
+ * y lo perdido lo recupera la reconciliación periódica de los índices (ver ReconciliacionIndices).
+ *
+ * Cada lote va firmado con HMAC y el secreto compartido por los nodos (ver FirmaTramas). Las conexiones
+ * entrantes se leen en un pool acotado: pasado el máximo se cierran nada más aceptarlas.
+ */
+public class TransporteEventosTcp extends TransporteEventosPorLotes {
+
+    private static final Logger log = LoggerFactory.getLogger(TransporteEventosTcp.class);
+
+    private static final int TIMEOUT_CONEXION_MS = 1000;
+    // Escrituras fallidas de un mismo lote antes de descartarlo (p. ej. un par que rechaza la firma)
+    private static final int MAX_INTENTOS_LOTE = 3;
+    private static final long ESPERA_CIERRE_MS = 1000;
+
+    private final InetSocketAddress escucha;
+    private final FirmaTramas firma;
+    private final int capacidadPar;
+    private final long timeoutEscrituraNanos;
+    private final long reintentoBaseMs;
+    private final long reintentoMaximoMs;
+    private final ThreadPoolExecutor lectores;
+    private final ScheduledExecutorService vigia;
+    private final List<Par> pares = new CopyOnWriteArrayList<>();
+    private final Set<Socket> entrantes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong descartadosPares = new AtomicLong();
+
+    private volatile ServerSocket servidor;
+
+    public TransporteEventosTcp(InetSocketAddress escucha, List<InetSocketAddress> pares, byte[] secreto,
+                                int maximoEntrantes, int capacidadCola, int tamanoLote, Duration espera) {
+        this(escucha, pares, secreto, maximoEntrantes, capacidadCola, tamanoLote, espera,
+                Duration.ofSeconds(5), Duration.ofMillis(500), Duration.ofSeconds(30));
+    }
+
+    public TransporteEventosTcp(InetSocketAddress escucha, List<InetSocketAddress> pares, byte[] secreto,
+                                int maximoEntrantes, int capacidadCola, int tamanoLote, Duration espera,
+                                Duration timeoutEscritura, Duration reintentoBase, Duration reintentoMaximo) {
+        super("tcp", capacidadCola, tamanoLote, espera);
+        this.escucha = escucha;
+        this.firma = new FirmaTramas(secreto);
+        // La cola de cada par guarda lotes: tantos como eventos cabrían en la cola general
+        this.capacidadPar = Math.max(1, capacidadCola / Math.max(1, tamanoLote));
+        this.timeoutEscrituraNanos = timeoutEscritura.toNanos();
+        this.reintentoBaseMs = Math.max(1, reintentoBase.toMillis());
+        this.reintentoMaximoMs = Math.max(reintentoBaseMs, reintentoMaximo.toMillis());
+        AtomicInteger numero = new AtomicInteger();
+        this.lectores = new ThreadPoolExecutor(0, maximoEntrantes, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "eventos-tcp-lector-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        this.vigia = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "eventos-tcp-vigia");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        pares.forEach(this::agregarPar);
+    }
+
+    // Puerto en el que escucha; solo tras start()
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    // Puede llamarse antes o después de start(): el escritor del par arranca con el transporte
+    public synchronized void agregarPar(InetSocketAddress direccion) {
+        Par par = new Par(direccion);
+        pares.add(par);
+        if (isRunning()) {
+            par.arrancar();
+        }
+    }
+
+    // Lotes descartados hacia los pares (cola del par llena o demasiados fallos al escribirlos)
+    public long getDescartadosPares() {
+        return descartadosPares.get();
+    }
+
+    @Override
+    protected void abrir() {
+        try {
+            servidor = new ServerSocket();
+            servidor.bind(escucha);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el puerto de eventos " + escucha, e);
+        }
+        Thread aceptador = new Thread(this::aceptar, "eventos-tcp-accept");
+        aceptador.setDaemon(true);
+        aceptador.start();
+        pares.forEach(Par::arrancar);
+        long revision = Math.max(1, timeoutEscrituraNanos / 4);
+        vigia.scheduleWithFixedDelay(this::vigilarEscrituras, revision, revision, TimeUnit.NANOSECONDS);
+        log.info("Transporte de eventos TCP escuchando en {} con {} pares", servidor.getLocalSocketAddress(), pares.size());
+    }
+
+    @Override
+    protected void enviarLote(List<EventoGym> lote) throws IOException {
+        byte[] datos = firma.enmarcar(CodificadorEventos.codificar(lote));
+        for (Par par : pares) {
+            par.encolar(datos);
+        }
+    }
+
+    @Override
+    protected void cerrar() {
+        if (servidor != null) {
+            try {
+                servidor.close();
+            } catch (IOException ignorada) {
+                // cerrando
+            }
+        }
+        entrantes.forEach(TransporteEventosTcp::cerrarSilencioso);
+        lectores.shutdownNow();
+        // Los escritores sacan lo que les quede en cola; pasado el plazo se cortan sus conexiones
+        pares.forEach(Par::terminar);
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_CIERRE_MS);
+        for (Par par : pares) {
+            par.esperar(limite);
+        }
+        vigia.shutdownNow();
+        pares.forEach(Par::desconectar);
+    }
+
+    // Una escritura bloqueada (el par no lee) no tiene timeout propio: se cierra el socket para soltarla
+    private void vigilarEscrituras() {
+        long ahora = System.nanoTime();
+        for (Par par : pares) {
+            long desde = par.escribiendoDesde;
+            if (desde != 0 && ahora - desde > timeoutEscrituraNanos) {
+                log.warn("Par de eventos {} no lee desde hace más de {} ms; se corta la conexión",
+                        par.direccion, TimeUnit.NANOSECONDS.toMillis(timeoutEscrituraNanos));
+                par.desconectar();
+            }
+        }
+    }
+
+    private void descartar(InetSocketAddress direccion, String motivo) {
+        long total = descartadosPares.incrementAndGet();
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("Lote de eventos para {} descartado ({}); descartados hasta ahora: {}", direccion, motivo, total);
+        }
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                entrantes.add(socket);
+                try {
+                    lectores.execute(() -> leer(socket));
+                } catch (RejectedExecutionException e) {
+                    log.warn("Conexión de eventos desde {} rechazada: máximo de conexiones entrantes alcanzado",
+                            socket.getRemoteSocketAddress());
+                    entrantes.remove(socket);
+                    cerrarSilencioso(socket);
+                }
+            } catch (IOException e) {
+                if (!servidor.isClosed()) {
+                    log.warn("Error aceptando conexión de eventos: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void leer(Socket socket) {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                byte[] lote = firma.leer(entrada);
+                CodificadorEventos.leerLote(new DataInputStream(new ByteArrayInputStream(lote))).forEach(this::entregar);
+            }
+        } catch (EOFException | SocketException fin) {
+            // el par cerró la conexión
+        } catch (IOException | RuntimeException e) {
+            log.warn("Conexión de eventos desde {} descartada: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            entrantes.remove(socket);
+            cerrarSilencioso(socket);
+        }
+    }
+
+    private static void cerrarSilencioso(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignorada) {
+            // cerrando
+        }
+    }
+
+    // Conexión saliente hacia otro nodo, con su cola y su hilo escritor
+    private final class Par {
+        private final InetSocketAddress direccion;
+        private final LinkedBlockingDeque<Lote> lotes = new LinkedBlockingDeque<>(capacidadPar);
+        private final Thread escritor;
+
+        // nanoTime del inicio de la escritura en curso; 0 si no está escribiendo
+        private volatile long escribiendoDesde;
+        private volatile Socket socket;
+        private volatile boolean terminando;
+        private volatile boolean detenido;
+        private OutputStream salida;
+
+        Par(InetSocketAddress direccion) {
+            this.direccion = direccion;
+            this.escritor = new Thread(this::escribir, "eventos-tcp-par-" + direccion.getHostString() + ":" + direccion.getPort());
+            this.escritor.setDaemon(true);
+        }
+
+        void arrancar() {
+            if (escritor.getState() == Thread.State.NEW) {
+                escritor.start();
+            }
+        }
+
+        void encolar(byte[] datos) {
+            if (!lotes.offer(new Lote(datos, 0))) {
+                descartar(direccion, "cola del par llena");
+            }
+        }
+
+        // Sin esperas de reconexión: sale en cuanto la cola queda vacía o el par no responde
+        void terminar() {
+            terminando = true;
+            escritor.interrupt();
+        }
+
+        void esperar(long limiteNanos) {
+            long restante = limiteNanos - System.nanoTime();
+            try {
+                if (restante > 0) {
+                    escritor.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(restante)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            detenido = true;
+        }
+
+        private void escribir() {
+            long pausaMs = 0;
+            while (!detenido) {
+                Lote lote;
+                try {
+                    if (pausaMs > 0 && !terminando) {
+                        Thread.sleep(pausaMs);
+                    }
+                    lote = terminando ? lotes.poll() : lotes.take();
+                } catch (InterruptedException e) {
+                    // terminar(): se vacía la cola sin bloquear
+                    continue;
+                }
+                if (lote == null) {
+                    return;
+                }
+                try {
+                    conectar();
+                } catch (IOException e) {
+                    // No salió nada: el lote vuelve a la cabeza y se reintenta con la conexión nueva
+                    reencolar(lote);
+                    pausaMs = siguientePausa(pausaMs);
+                    log.warn("Par de eventos {} no disponible, reintento en {} ms: {}", direccion, pausaMs, e.getMessage());
+                    if (terminando) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    escribiendoDesde = System.nanoTime();
+                    salida.write(lote.datos());
+                    salida.flush();
+                    pausaMs = 0;
+                } catch (IOException e) {
+                    // Pudo llegar a medias: el receptor descarta la trama rota y los ids repetidos
+                    desconectar();
+                    if (lote.intentos() + 1 >= MAX_INTENTOS_LOTE) {
+                        descartar(direccion, "falló " + MAX_INTENTOS_LOTE + " veces");
+                    } else {
+                        reencolar(new Lote(lote.datos(), lote.intentos() + 1));
+                    }
+                    pausaMs = siguientePausa(pausaMs);
+                    log.warn("Error escribiendo al par de eventos {}, reintento en {} ms: {}", direccion, pausaMs, e.getMessage());
+                } finally {
+                    escribiendoDesde = 0;
+                }
+            }
+        }
+
+        private void conectar() throws IOException {
+            if (socket != null) {
+                return;
+            }
+            Socket nuevo = new Socket();
+            try {
+                nuevo.setTcpNoDelay(true);
+                nuevo.connect(direccion, TIMEOUT_CONEXION_MS);
+                salida = new BufferedOutputStream(nuevo.getOutputStream());
+            } catch (IOException e) {
+                cerrarSilencioso(nuevo);
+                throw e;
+            }
+            socket = nuevo;
+        }
+
+        private void reencolar(Lote lote) {
+            if (!lotes.offerFirst(lote)) {
+                descartar(direccion, "cola del par llena");
+            }
+        }
+
+        private long siguientePausa(long pausaMs) {
+            return pausaMs == 0 ? reintentoBaseMs : Math.min(pausaMs * 2, reintentoMaximoMs);
+        }
+
+        // Desde el escritor o desde el vigía; el escritor vuelve a conectar en su siguiente lote
+        void desconectar() {
+            Socket actual = socket;
+            socket = null;
+            if (actual != null) {
+                cerrarSilencioso(actual);
+            }
+        }
+    }
+
+    private record Lote(byte[] datos, int intentos) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.gimansioreserva.gimnasioreserva_spring.exception;
+
+public class ColaReservasSaturadaException extends BusinessException {
+
+    public ColaReservasSaturadaException(Long idClase) {
+        super("Demasiadas solicitudes en espera para la clase con ID: " + idClase + ", inténtalo de nuevo en unos segundos");
+    }
+}
@@ -0,0 +1,18 @@
+package com.gimansioreserva.gimnasioreserva_spring.exception;
+
+import java.util.List;
+
+public class ConflictoHorarioEntrenadorException extends BusinessException {
+
+    // Clases ya guardadas que se solapan con las que se intentaba guardar
+    private final List<Long> clasesEnConflicto;
+
+    public ConflictoHorarioEntrenadorException(Long idEntrenador, List<Long> clasesEnConflicto) {
+        super("El entrenador " + idEntrenador + " ya tiene clases en ese horario: " + clasesEnConflicto);
+        this.clasesEnConflicto = List.copyOf(clasesEnConflicto);
+    }
+
+    public List<Long> getClasesEnConflicto() {
+        return clasesEnConflicto;
+    }
+}
@@ -1,6 +1,7 @@
 package com.gimansioreserva.gimnasioreserva_spring.exception;
 
 import com.gimansioreserva.gimnasioreserva_spring.util.ResponseUtil;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -29,6 +30,21 @@ public class GlobalExceptionHandler {
         return ResponseUtil.error(e.getMessage(), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(ReservaSolapadaException.class)
+    public ResponseEntity<?> handleReservaSolapadaException(ReservaSolapadaException e) {
+        return ResponseUtil.error(e.getMessage(), Map.of("clasesEnConflicto", e.getClasesEnConflicto()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TransicionEstadoInvalidaException.class)
+    public ResponseEntity<?> handleTransicionEstadoInvalidaException(TransicionEstadoInvalidaException e) {
+        return ResponseUtil.error(e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ConflictoHorarioEntrenadorException.class)
+    public ResponseEntity<?> handleConflictoHorarioEntrenadorException(ConflictoHorarioEntrenadorException e) {
+        return ResponseUtil.error(e.getMessage(), Map.of("clasesEnConflicto", e.getClasesEnConflicto()), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(ClaseNoDisponibleException.class)
     public ResponseEntity<?> handleClaseNoDisponibleException(ClaseNoDisponibleException e) {
         return ResponseUtil.error(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -44,6 +60,27 @@ public class GlobalExceptionHandler {
         return ResponseUtil.error(e.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(TokenRefreshInvalidoException.class)
+    public ResponseEntity<?> handleTokenRefreshInvalidoException(TokenRefreshInvalidoException e) {
+        return ResponseUtil.error(e.getMessage(), HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(HashContrasenaSaturadoException.class)
+    public ResponseEntity<?> handleHashContrasenaSaturadoException(HashContrasenaSaturadoException e) {
+        ResponseEntity<?> respuesta = ResponseUtil.error(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(respuesta.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(respuesta.getBody());
+    }
+
+    @ExceptionHandler(ColaReservasSaturadaException.class)
+    public ResponseEntity<?> handleColaReservasSaturadaException(ColaReservasSaturadaException e) {
+        ResponseEntity<?> respuesta = ResponseUtil.error(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(respuesta.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(respuesta.getBody());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleValidationException(MethodArgumentNotValidException e) {
         Map<String, String> errors = new HashMap<>();
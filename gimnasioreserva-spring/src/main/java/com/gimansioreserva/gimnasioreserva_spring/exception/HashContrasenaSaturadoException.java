@@ -0,0 +1,8 @@
+package com.gimansioreserva.gimnasioreserva_spring.exception;
+
+public class HashContrasenaSaturadoException extends BusinessException {
+
+    public HashContrasenaSaturadoException() {
+        super("Demasiados inicios de sesión simultáneos, inténtalo de nuevo en unos segundos");
+    }
+}
@@ -0,0 +1,18 @@
+package com.gimansioreserva.gimnasioreserva_spring.exception;
+
+import java.util.List;
+
+public class ReservaSolapadaException extends BusinessException {
+
+    // Clases ya reservadas por el usuario que coinciden en horario con la pedida
+    private final List<Long> clasesEnConflicto;
+
+    public ReservaSolapadaException(Long idUsuario, Long idClase, List<Long> clasesEnConflicto) {
+        super("El usuario " + idUsuario + " ya tiene reservas que se solapan con la clase " + idClase + ": " + clasesEnConflicto);
+        this.clasesEnConflicto = List.copyOf(clasesEnConflicto);
+    }
+
+    public List<Long> getClasesEnConflicto() {
+        return clasesEnConflicto;
+    }
+}
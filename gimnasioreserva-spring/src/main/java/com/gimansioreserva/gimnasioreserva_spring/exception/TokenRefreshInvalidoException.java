@@ -0,0 +1,8 @@
+package com.gimansioreserva.gimnasioreserva_spring.exception;
+
+public class TokenRefreshInvalidoException extends BusinessException {
+
+    public TokenRefreshInvalidoException(String message) {
+        super(message);
+    }
+}
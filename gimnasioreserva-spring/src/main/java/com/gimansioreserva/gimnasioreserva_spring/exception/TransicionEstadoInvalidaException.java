@@ -0,0 +1,14 @@
+package com.gimansioreserva.gimnasioreserva_spring.exception;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+
+public class TransicionEstadoInvalidaException extends BusinessException {
+
+    public TransicionEstadoInvalidaException(String message) {
+        super(message);
+    }
+
+    public TransicionEstadoInvalidaException(EstadoReserva actual, EstadoReserva nuevo) {
+        super("No se puede cambiar una reserva de " + actual + " a " + nuevo);
+    }
+}
@@ -13,7 +13,7 @@ public class ReservaMapper {
         ReservaDTO dto = new ReservaDTO();
         dto.setIdReserva(reserva.getIdReserva());
         dto.setFechaReserva(reserva.getFechaReserva());
-        dto.setEstado(reserva.getEstado());
+        dto.setEstado(reserva.getEstado() != null ? reserva.getEstado().name() : null);
 
         if (reserva.getUsuario() != null) {
             dto.setIdUsuario(reserva.getUsuario().getIdUsuario());
@@ -0,0 +1,46 @@
+package com.gimansioreserva.gimnasioreserva_spring.metricas;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+
+/**
+ * Autorización de /actuator/prometheus: un usuario ADMIN o el scraper con el token configurado.
+ * Las métricas revelan volumen de reservas, usuarios conectados y errores; no son públicas.
+ */
+@Component
+public class AccesoMetricas {
+
+    private static final String PREFIJO = "Bearer ";
+
+    private final byte[] tokenScrape;
+
+    public AccesoMetricas(MetricasProperties propiedades) {
+        String token = propiedades.getTokenScrape();
+        this.tokenScrape = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public AuthorizationDecision decidir(Supplier<Authentication> autenticacion, RequestAuthorizationContext contexto) {
+        return new AuthorizationDecision(tieneTokenScrape(contexto.getRequest()) || esAdmin(autenticacion.get()));
+    }
+
+    // Comparación en tiempo constante: no da pistas del token por la latencia
+    private boolean tieneTokenScrape(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (tokenScrape == null || header == null || !header.startsWith(PREFIJO)) {
+            return false;
+        }
+        return MessageDigest.isEqual(tokenScrape, header.substring(PREFIJO.length()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean esAdmin(Authentication autenticacion) {
+        return autenticacion != null && autenticacion.isAuthenticated()
+                && autenticacion.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+}
@@ -0,0 +1,318 @@
+package com.gimansioreserva.gimnasioreserva_spring.metricas;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Punto único de registro de métricas de la aplicación (Micrometer).
+ * Los medidores principales se registran al arrancar para que aparezcan en
+ * /actuator/prometheus aunque todavía no haya tráfico.
+ */
+@Component
+public class MetricasGimnasio {
+
+    public static final String RESERVAS_OPERACION = "gimnasio.reservas.operacion";
+    public static final String JWT_FILTRO = "gimnasio.jwt.filtro";
+    public static final String DB_SENTENCIAS_PETICION = "gimnasio.db.sentencias.peticion";
+    public static final String EVENTOS_EMITIDOS = "gimnasio.eventos.emitidos";
+    public static final String EVENTOS_DESCARTADOS = "gimnasio.eventos.descartados";
+    public static final String SSE_CONEXIONES = "gimnasio.sse.conexiones";
+    public static final String SSE_COLA_PENDIENTES = "gimnasio.sse.cola.pendientes";
+    public static final String SSE_COLA_MAXIMA = "gimnasio.sse.cola.maxima";
+    public static final String SSE_DESCARTADOS = "gimnasio.sse.descartados";
+    public static final String LOGIN_RECHAZADOS = "gimnasio.login.rechazados";
+    public static final String RESERVAS_RECHAZADAS = "gimnasio.reservas.rechazadas";
+    public static final String CACHE_HIBERNATE_ENTRADAS = "gimnasio.cache.hibernate.entradas";
+    public static final String CACHE_HIBERNATE_MAXIMO = "gimnasio.cache.hibernate.maximo";
+    public static final String DATASOURCE_RESPALDO = "gimnasio.datasource.respaldo";
+    public static final String BANDEJA_PUBLICADOS = "gimnasio.bandeja.publicados";
+    public static final String BANDEJA_FALLIDOS = "gimnasio.bandeja.fallidos";
+    public static final String BANDEJA_APARCADOS = "gimnasio.bandeja.aparcados";
+    public static final String BANDEJA_LOTE = "gimnasio.bandeja.lote";
+    public static final String BANDEJA_RETRASO = "gimnasio.bandeja.retraso";
+    public static final String NOTIFICACIONES_ENVIADAS = "gimnasio.notificaciones.enviadas";
+    public static final String NOTIFICACIONES_AVISOS = "gimnasio.notificaciones.avisos";
+    public static final String NOTIFICACIONES_REINTENTOS = "gimnasio.notificaciones.reintentos";
+    public static final String NOTIFICACIONES_DESCARTADAS = "gimnasio.notificaciones.descartadas";
+    public static final String NOTIFICACIONES_LOTE = "gimnasio.notificaciones.lote";
+
+    public static final String OPERACION_CREAR = "crear";
+    public static final String OPERACION_CANCELAR = "cancelar";
+    public static final String RESULTADO_OK = "ok";
+
+    private final MeterRegistry registry;
+    private final DistributionSummary sentenciasPorPeticion;
+    private final Counter sseDescartados;
+    private final Counter bandejaPublicados;
+    private final Counter bandejaFallidos;
+    private final Counter bandejaAparcados;
+    private final DistributionSummary bandejaLote;
+    private final Timer bandejaRetraso;
+    private final Counter notificacionesEnviadas;
+    private final Counter notificacionesAvisos;
+    private final Counter notificacionesReintentos;
+    private final Timer notificacionesLote;
+
+    // Conexiones SSE abiertas, cada una con su contador de elementos pendientes de enviar
+    private final Set<AtomicInteger> colasSse = ConcurrentHashMap.newKeySet();
+
+    public MetricasGimnasio(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (String operacion : new String[]{OPERACION_CREAR, OPERACION_CANCELAR}) {
+            timerReserva(operacion, RESULTADO_OK);
+        }
+        timerJwt("autenticado");
+        timerJwt("anonimo");
+
+        this.sentenciasPorPeticion = DistributionSummary.builder(DB_SENTENCIAS_PETICION)
+                .description("Sentencias SQL ejecutadas por petición HTTP")
+                .baseUnit("sentencias")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+
+        // Prometheus exige las mismas etiquetas para todas las series de un nombre
+        for (TipoEvento tipo : TipoEvento.values()) {
+            contadorEmitidos(tipo);
+        }
+        for (Sinks.EmitResult resultado : Sinks.EmitResult.values()) {
+            if (resultado.isFailure()) {
+                contadorDescartados(resultado);
+            }
+        }
+        this.sseDescartados = Counter.builder(SSE_DESCARTADOS)
+                .description("Elementos descartados por cola SSE llena")
+                .register(registry);
+
+        this.bandejaPublicados = Counter.builder(BANDEJA_PUBLICADOS)
+                .description("Eventos de la bandeja de salida publicados tras el commit")
+                .register(registry);
+        this.bandejaFallidos = Counter.builder(BANDEJA_FALLIDOS)
+                .description("Intentos de publicar un evento de la bandeja que fallaron y se reintentarán")
+                .register(registry);
+        this.bandejaAparcados = Counter.builder(BANDEJA_APARCADOS)
+                .description("Eventos de la bandeja aparcados tras agotar sus intentos")
+                .register(registry);
+        this.bandejaLote = DistributionSummary.builder(BANDEJA_LOTE)
+                .description("Eventos leídos de la bandeja por lote del relevo")
+                .baseUnit("eventos")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.bandejaRetraso = Timer.builder(BANDEJA_RETRASO)
+                .description("Tiempo desde que se guarda un evento en la bandeja hasta que se publica")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+
+        this.notificacionesEnviadas = Counter.builder(NOTIFICACIONES_ENVIADAS)
+                .description("Mensajes entregados por el canal de notificaciones")
+                .register(registry);
+        this.notificacionesAvisos = Counter.builder(NOTIFICACIONES_AVISOS)
+                .description("Avisos entregados; varios avisos al mismo socio pueden ir en un mensaje")
+                .register(registry);
+        this.notificacionesReintentos = Counter.builder(NOTIFICACIONES_REINTENTOS)
+                .description("Mensajes que fallaron temporalmente y se reintentarán")
+                .register(registry);
+        this.notificacionesLote = Timer.builder(NOTIFICACIONES_LOTE)
+                .description("Tiempo de envío de un lote de notificaciones por el canal")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        for (String motivo : new String[]{"cola", "rechazada", "agotada"}) {
+            contadorNotificacionesDescartadas(motivo);
+        }
+
+        for (String clave : new String[]{"ip", "correo"}) {
+            contadorLoginRechazados(clave);
+        }
+        for (String motivo : new String[]{"tasa", "concurrencia"}) {
+            contadorReservasRechazadas(motivo);
+        }
+        for (String destino : new String[]{"lectura", "reportes"}) {
+            contadorRespaldo(destino);
+        }
+
+        Gauge.builder(SSE_CONEXIONES, colasSse, Set::size)
+                .description("Conexiones SSE abiertas")
+                .register(registry);
+        Gauge.builder(SSE_COLA_PENDIENTES, colasSse, colas -> colas.stream().mapToInt(AtomicInteger::get).sum())
+                .description("Elementos pendientes de enviar sumando todas las conexiones SSE")
+                .register(registry);
+        Gauge.builder(SSE_COLA_MAXIMA, colasSse, colas -> colas.stream().mapToInt(AtomicInteger::get).max().orElse(0))
+                .description("Cola más larga entre las conexiones SSE abiertas")
+                .register(registry);
+    }
+
+    public Timer.Sample iniciar() {
+        return Timer.start(registry);
+    }
+
+    // Resultado "ok" o el nombre simple de la excepción lanzada
+    public void registrarOperacionReserva(Timer.Sample muestra, String operacion, Throwable error) {
+        String resultado = error == null ? RESULTADO_OK : error.getClass().getSimpleName();
+        muestra.stop(timerReserva(operacion, resultado));
+    }
+
+    public void registrarFiltroJwt(Timer.Sample muestra, String resultado) {
+        muestra.stop(timerJwt(resultado));
+    }
+
+    public void registrarSentenciasPeticion(int sentencias) {
+        sentenciasPorPeticion.record(sentencias);
+    }
+
+    public void eventoEmitido(TipoEvento tipo) {
+        contadorEmitidos(tipo).increment();
+    }
+
+    public void eventoDescartado(Sinks.EmitResult motivo) {
+        contadorDescartados(motivo).increment();
+    }
+
+    // Lote del relevo: eventos leídos, cuántos no se pudieron publicar y cuántos de ellos se aparcan
+    public void loteBandeja(int leidos, int fallidos, int aparcados) {
+        bandejaLote.record(leidos);
+        bandejaFallidos.increment(fallidos);
+        bandejaAparcados.increment(aparcados);
+    }
+
+    public void eventoBandejaPublicado(LocalDateTime creadoEn) {
+        bandejaPublicados.increment();
+        bandejaRetraso.record(Duration.between(creadoEn, LocalDateTime.now()));
+    }
+
+    // Lote enviado por el canal: mensajes entregados, avisos que contenían y duración del envío
+    public void loteNotificaciones(int mensajes, int avisos, long nanos) {
+        notificacionesEnviadas.increment(mensajes);
+        notificacionesAvisos.increment(avisos);
+        notificacionesLote.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void notificacionReintentada() {
+        notificacionesReintentos.increment();
+    }
+
+    // motivo: "cola" (no cabía al encolar), "rechazada" (error definitivo) o "agotada" (sin más intentos)
+    public void notificacionDescartada(String motivo) {
+        contadorNotificacionesDescartadas(motivo).increment();
+    }
+
+    // Devuelve el contador de pendientes de la conexión; se libera con cerrarConexionSse
+    public AtomicInteger abrirConexionSse() {
+        AtomicInteger pendientes = new AtomicInteger();
+        colasSse.add(pendientes);
+        return pendientes;
+    }
+
+    public void cerrarConexionSse(AtomicInteger pendientes) {
+        colasSse.remove(pendientes);
+    }
+
+    public void sseDescartado() {
+        sseDescartados.increment();
+    }
+
+    // clave: "ip" o "correo", según qué límite se superó
+    public void loginRechazado(String clave) {
+        contadorLoginRechazados(clave).increment();
+    }
+
+    // Tamaño de una región de la caché de segundo nivel; aciertos y fallos los publica hibernate-micrometer
+    public void regionCacheHibernate(String region, Supplier<Number> entradas, long maximo) {
+        Gauge.builder(CACHE_HIBERNATE_ENTRADAS, entradas, e -> e.get().doubleValue())
+                .description("Entradas estimadas en la región de caché de segundo nivel")
+                .tag("region", region)
+                .register(registry);
+        Gauge.builder(CACHE_HIBERNATE_MAXIMO, () -> maximo)
+                .description("Entradas máximas configuradas para la región (0 = sin límite)")
+                .tag("region", region)
+                .register(registry);
+    }
+
+    // Pools propios (réplica, informes): las mismas métricas hikaricp.* que el pool principal
+    public void poolConexiones(HikariDataSource pool) {
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+    }
+
+    // destino: "lectura" o "reportes"; la conexión se sirvió desde la primaria
+    public void conexionEnRespaldo(String destino) {
+        contadorRespaldo(destino).increment();
+    }
+
+    // motivo: "tasa" o "concurrencia"
+    public void reservaRechazada(String motivo) {
+        contadorReservasRechazadas(motivo).increment();
+    }
+
+    private Timer timerReserva(String operacion, String resultado) {
+        return Timer.builder(RESERVAS_OPERACION)
+                .description("Latencia de crear/cancelar reserva por resultado")
+                .tag("operacion", operacion)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter contadorEmitidos(TipoEvento tipo) {
+        return Counter.builder(EVENTOS_EMITIDOS)
+                .description("Eventos publicados en el bus")
+                .tag("tipo", tipo.name())
+                .register(registry);
+    }
+
+    private Counter contadorDescartados(Sinks.EmitResult motivo) {
+        return Counter.builder(EVENTOS_DESCARTADOS)
+                .description("Eventos que el bus no pudo entregar")
+                .tag("motivo", motivo.name())
+                .register(registry);
+    }
+
+    private Counter contadorReservasRechazadas(String motivo) {
+        return Counter.builder(RESERVAS_RECHAZADAS)
+                .description("Peticiones a reservas/disponibilidad rechazadas con 429 por el límite por usuario")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    private Counter contadorNotificacionesDescartadas(String motivo) {
+        return Counter.builder(NOTIFICACIONES_DESCARTADAS)
+                .description("Avisos que no se enviarán, por motivo")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    private Counter contadorRespaldo(String destino) {
+        return Counter.builder(DATASOURCE_RESPALDO)
+                .description("Lecturas servidas por la primaria porque la réplica o el pool de informes no respondían")
+                .tag("destino", destino)
+                .register(registry);
+    }
+
+    private Counter contadorLoginRechazados(String clave) {
+        return Counter.builder(LOGIN_RECHAZADOS)
+                .description("Intentos de login/registro rechazados con 429 por el limitador")
+                .tag("clave", clave)
+                .register(registry);
+    }
+
+    private Timer timerJwt(String resultado) {
+        return Timer.builder(JWT_FILTRO)
+                .description("Tiempo de validación del JWT en el filtro")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+}
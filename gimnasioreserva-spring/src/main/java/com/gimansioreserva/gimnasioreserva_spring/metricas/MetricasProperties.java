@@ -0,0 +1,16 @@
+package com.gimansioreserva.gimnasioreserva_spring.metricas;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.metricas")
+public class MetricasProperties {
+
+    // Token del scraper de Prometheus (Authorization: Bearer ...); vacío: solo un ADMIN lee /actuator/prometheus
+    private String tokenScrape = "";
+
+    // Getters y setters
+    public String getTokenScrape() { return tokenScrape; }
+    public void setTokenScrape(String tokenScrape) { this.tokenScrape = tokenScrape; }
+}
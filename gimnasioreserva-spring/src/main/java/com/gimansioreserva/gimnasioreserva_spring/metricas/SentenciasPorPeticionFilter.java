@@ -0,0 +1,44 @@
+package com.gimansioreserva.gimnasioreserva_spring.metricas;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Primer filtro de la cadena: así también cuenta las consultas del filtro JWT
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SentenciasPorPeticionFilter extends OncePerRequestFilter {
+
+    private final ContadorSentenciasInspector contador;
+    private final MetricasGimnasio metricas;
+
+    public SentenciasPorPeticionFilter(ContadorSentenciasInspector contador, MetricasGimnasio metricas) {
+        this.contador = contador;
+        this.metricas = metricas;
+    }
+
+    // El scrape de métricas no toca la BD y solo sesgaría la distribución
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        contador.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            metricas.registrarSentenciasPeticion(contador.terminar());
+        }
+    }
+}
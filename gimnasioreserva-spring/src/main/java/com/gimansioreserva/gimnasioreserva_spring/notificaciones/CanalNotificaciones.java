@@ -0,0 +1,16 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import java.util.List;
+
+/**
+ * Medio por el que salen las notificaciones (log, correo...). Recibe lotes ya agrupados por
+ * destinatario para que cada canal los aproveche a su manera: conexiones reutilizadas, pipelining.
+ * Lo usa un único hilo (el del despachador).
+ */
+public interface CanalNotificaciones extends AutoCloseable {
+
+    ResultadoEnvio enviar(List<Notificacion> lote);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,26 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Canal sin envío real: cada notificación queda en el log. Para desarrollo y entornos sin correo.
+ */
+public class CanalNotificacionesLog implements CanalNotificaciones {
+
+    private static final Logger log = LoggerFactory.getLogger(CanalNotificacionesLog.class);
+
+    @Override
+    public ResultadoEnvio enviar(List<Notificacion> lote) {
+        for (Notificacion notificacion : lote) {
+            log.info("Notificación para {}: {}", notificacion.destinatario(), notificacion.asunto());
+        }
+        return ResultadoEnvio.entregadas();
+    }
+
+    @Override
+    public void close() {
+    }
+}
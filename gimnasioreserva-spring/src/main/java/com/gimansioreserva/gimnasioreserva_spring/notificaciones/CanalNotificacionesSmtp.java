@@ -0,0 +1,242 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Canal de correo sobre SMTP con un pool de conexiones persistentes.
+ *
+ * Cada lote se reparte entre hasta smtp.conexiones conexiones que envían en paralelo, y cada conexión
+ * encadena sus mensajes con PIPELINING (ver ConexionSmtp). Una conexión que falla se descarta y los
+ * mensajes sin respuesta vuelven como reintentables; las respuestas 5xx son definitivas.
+ */
+public class CanalNotificacionesSmtp implements CanalNotificaciones {
+
+    private static final Logger log = LoggerFactory.getLogger(CanalNotificacionesSmtp.class);
+
+    // Bytes de UTF-8 por palabra codificada del asunto: en base64 queda por debajo de los 75 caracteres
+    private static final int BYTES_POR_PALABRA = 45;
+
+    private final NotificacionesProperties.Smtp config;
+    private final String remitente;
+    private final boolean usarPipelining;
+    private final SSLSocketFactory tls;
+    private final long inactividadMaximaNanos;
+    private final ExecutorService hilos;
+
+    // LIFO: la conexión usada más recientemente es la que menos probable es que el servidor haya cerrado
+    private final BlockingDeque<ConexionSmtp> libres = new LinkedBlockingDeque<>();
+    private final AtomicInteger abiertas = new AtomicInteger();
+
+    public CanalNotificacionesSmtp(NotificacionesProperties.Smtp config, String remitente, boolean usarPipelining) {
+        this(config, remitente, usarPipelining, (SSLSocketFactory) SSLSocketFactory.getDefault());
+    }
+
+    // tls: fábrica de sockets para STARTTLS; los tests pasan una que confía en su certificado
+    public CanalNotificacionesSmtp(NotificacionesProperties.Smtp config, String remitente, boolean usarPipelining,
+                                   SSLSocketFactory tls) {
+        this.config = config;
+        this.remitente = remitente;
+        this.usarPipelining = usarPipelining;
+        this.tls = tls;
+        this.inactividadMaximaNanos = TimeUnit.MILLISECONDS.toNanos(config.getInactividadMaximaMs());
+
+        AtomicInteger contador = new AtomicInteger();
+        this.hilos = Executors.newFixedThreadPool(config.getConexiones(), tarea -> {
+            Thread hilo = new Thread(tarea, "notificaciones-smtp-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // Conexiones abiertas en total desde el arranque
+    public int getConexionesAbiertas() {
+        return abiertas.get();
+    }
+
+    @Override
+    public ResultadoEnvio enviar(List<Notificacion> lote) {
+        List<Notificacion> reintentar = new ArrayList<>();
+        List<Notificacion> rechazadas = new ArrayList<>();
+        List<Notificacion> validas = new ArrayList<>(lote.size());
+        for (Notificacion notificacion : lote) {
+            if (direccionValida(notificacion.destinatario())) {
+                validas.add(notificacion);
+            } else {
+                rechazadas.add(notificacion);
+            }
+        }
+        if (validas.isEmpty()) {
+            return new ResultadoEnvio(reintentar, rechazadas);
+        }
+
+        // Trozos contiguos, uno por conexión
+        int partes = Math.min(config.getConexiones(), validas.size());
+        int porParte = (validas.size() + partes - 1) / partes;
+        List<List<Notificacion>> trozos = new ArrayList<>(partes);
+        List<Future<ResultadoEnvio>> envios = new ArrayList<>(partes);
+        for (int desde = 0; desde < validas.size(); desde += porParte) {
+            List<Notificacion> trozo = validas.subList(desde, Math.min(desde + porParte, validas.size()));
+            trozos.add(trozo);
+            envios.add(hilos.submit(() -> enviarPorUnaConexion(trozo)));
+        }
+
+        for (int i = 0; i < envios.size(); i++) {
+            try {
+                ResultadoEnvio resultado = envios.get(i).get();
+                reintentar.addAll(resultado.reintentar());
+                rechazadas.addAll(resultado.rechazadas());
+            } catch (ExecutionException e) {
+                log.warn("Error enviando {} correos: {}", trozos.get(i).size(), e.getCause().getMessage());
+                reintentar.addAll(trozos.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                trozos.subList(i, trozos.size()).forEach(reintentar::addAll);
+                break;
+            }
+        }
+        return new ResultadoEnvio(reintentar, rechazadas);
+    }
+
+    @Override
+    public void close() {
+        hilos.shutdown();
+        ConexionSmtp conexion;
+        while ((conexion = libres.pollFirst()) != null) {
+            conexion.close();
+        }
+    }
+
+    private ResultadoEnvio enviarPorUnaConexion(List<Notificacion> trozo) {
+        List<ConexionSmtp.Mensaje> mensajes = new ArrayList<>(trozo.size());
+        for (Notificacion notificacion : trozo) {
+            mensajes.add(new ConexionSmtp.Mensaje(notificacion.destinatario(), formatear(notificacion)));
+        }
+
+        int[] codigos = new int[trozo.size()];
+        ConexionSmtp conexion = null;
+        try {
+            conexion = tomar();
+            conexion.enviar(remitente, mensajes, codigos);
+            libres.offerFirst(conexion);
+        } catch (IOException e) {
+            log.warn("Conexión SMTP con {}:{} descartada: {}", config.getHost(), config.getPuerto(), e.getMessage());
+            if (conexion != null) {
+                conexion.close();
+            }
+        }
+
+        List<Notificacion> reintentar = new ArrayList<>();
+        List<Notificacion> rechazadas = new ArrayList<>();
+        for (int i = 0; i < codigos.length; i++) {
+            int codigo = codigos[i];
+            if (codigo >= 500) {
+                log.warn("Correo para {} rechazado por el servidor ({})", trozo.get(i).destinatario(), codigo);
+                rechazadas.add(trozo.get(i));
+            } else if (codigo < 200 || codigo >= 300) {
+                reintentar.add(trozo.get(i));
+            }
+        }
+        return new ResultadoEnvio(reintentar, rechazadas);
+    }
+
+    private ConexionSmtp tomar() throws IOException {
+        ConexionSmtp conexion;
+        while ((conexion = libres.pollFirst()) != null) {
+            if (System.nanoTime() - conexion.getUltimoUso() < inactividadMaximaNanos) {
+                return conexion;
+            }
+            conexion.close();
+        }
+        conexion = ConexionSmtp.abrir(config, usarPipelining, tls);
+        abiertas.incrementAndGet();
+        return conexion;
+    }
+
+    // Sin CR/LF ni ángulos: la dirección va tal cual en RCPT TO y en la cabecera To
+    private static boolean direccionValida(String direccion) {
+        if (direccion == null || direccion.indexOf('@') <= 0) {
+            return false;
+        }
+        for (int i = 0; i < direccion.length(); i++) {
+            char c = direccion.charAt(i);
+            if (c <= ' ' || c >= 127 || c == '<' || c == '>') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Texto en base64: no hace falta duplicar puntos al inicio de línea ni que el servidor admita 8 bits
+    private byte[] formatear(Notificacion notificacion) {
+        StringBuilder datos = new StringBuilder(256)
+                .append("From: ").append(remitente).append("\r\n")
+                .append("To: ").append(notificacion.destinatario()).append("\r\n")
+                .append("Subject: ").append(codificarAsunto(notificacion.asunto())).append("\r\n")
+                .append("Date: ").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now())).append("\r\n")
+                .append("Message-ID: <").append(UUID.randomUUID()).append('@').append(config.getDominio()).append(">\r\n")
+                .append("MIME-Version: 1.0\r\n")
+                .append("Content-Type: text/plain; charset=UTF-8\r\n")
+                .append("Content-Transfer-Encoding: base64\r\n")
+                .append("\r\n")
+                .append(Base64.getMimeEncoder().encodeToString(notificacion.texto().getBytes(StandardCharsets.UTF_8)))
+                .append("\r\n.\r\n");
+        return datos.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // ASCII imprimible tal cual; si no, palabras codificadas (RFC 2047) sin partir caracteres
+    static String codificarAsunto(String asunto) {
+        if (asunto.chars().allMatch(c -> c >= ' ' && c < 127)) {
+            return asunto;
+        }
+        StringBuilder resultado = new StringBuilder();
+        StringBuilder palabra = new StringBuilder();
+        int bytes = 0;
+        for (int i = 0; i < asunto.length(); ) {
+            int caracter = asunto.codePointAt(i);
+            i += Character.charCount(caracter);
+            if (caracter == '\r' || caracter == '\n') {
+                caracter = ' ';
+            }
+            String texto = new String(Character.toChars(caracter));
+            int longitud = texto.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes + longitud > BYTES_POR_PALABRA) {
+                agregarPalabra(resultado, palabra);
+                palabra.setLength(0);
+                bytes = 0;
+            }
+            palabra.append(texto);
+            bytes += longitud;
+        }
+        agregarPalabra(resultado, palabra);
+        return resultado.toString();
+    }
+
+    // Las palabras se separan con un pliegue de cabecera (CRLF + espacio)
+    private static void agregarPalabra(StringBuilder resultado, CharSequence palabra) {
+        if (!resultado.isEmpty()) {
+            resultado.append("\r\n ");
+        }
+        resultado.append("=?UTF-8?B?")
+                .append(Base64.getEncoder().encodeToString(palabra.toString().getBytes(StandardCharsets.UTF_8)))
+                .append("?=");
+    }
+}
@@ -0,0 +1,307 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Conexión SMTP que se reutiliza para muchos mensajes.
+ *
+ * Si el servidor anuncia PIPELINING (RFC 2920), el sobre del mensaje siguiente (MAIL, RCPT, DATA) viaja
+ * en la misma escritura que el cuerpo del anterior: cada mensaje cuesta una ida y vuelta en lugar de las
+ * cuatro de enviar orden por orden. Sin PIPELINING se habla orden por orden.
+ *
+ * Para un relé de envío (puerto 587) la conexión pasa a TLS con STARTTLS (RFC 3207), comprobando el
+ * certificado y el nombre del servidor, y se autentica con AUTH PLAIN o LOGIN (RFC 4954).
+ *
+ * No es segura para hilos: el pool la presta a un solo hilo cada vez.
+ */
+public final class ConexionSmtp implements Closeable {
+
+    // Código de un mensaje del que no llegó respuesta (conexión caída antes)
+    public static final int SIN_RESPUESTA = 0;
+
+    private static final byte[] FIN_LINEA = {'\r', '\n'};
+
+    private final Socket socket;
+    private final BufferedReader entrada;
+    private final OutputStream salida;
+    private final boolean pipelining;
+    private long ultimoUso = System.nanoTime();
+
+    // Mensaje listo para DATA: cabeceras y cuerpo terminados en CRLF.CRLF
+    public record Mensaje(String destinatario, byte[] datos) {
+    }
+
+    private record Respuesta(int codigo, List<String> lineas) {
+
+        boolean positiva() {
+            return codigo >= 200 && codigo < 300;
+        }
+
+        boolean anuncia(String extension) {
+            return lineas.stream().skip(1)
+                    .anyMatch(linea -> linea.length() > 4 && linea.substring(4).trim().equalsIgnoreCase(extension));
+        }
+
+        // Parámetros de una extensión anunciada en EHLO ("AUTH PLAIN LOGIN" -> PLAIN, LOGIN); vacío si no está
+        List<String> parametros(String extension) {
+            for (String linea : lineas.subList(1, lineas.size())) {
+                String[] partes = linea.length() > 4 ? linea.substring(4).trim().split("\\s+") : new String[0];
+                if (partes.length > 0 && partes[0].equalsIgnoreCase(extension)) {
+                    return List.of(partes).subList(1, partes.length);
+                }
+            }
+            return List.of();
+        }
+    }
+
+    private ConexionSmtp(Socket socket, BufferedReader entrada, OutputStream salida, boolean pipelining) {
+        this.socket = socket;
+        this.entrada = entrada;
+        this.salida = salida;
+        this.pipelining = pipelining;
+    }
+
+    /**
+     * Conecta sin TLS ni autenticación, lee el saludo y se presenta con EHLO.
+     * @param usarPipelining false para hablar orden por orden aunque el servidor admita PIPELINING
+     */
+    public static ConexionSmtp abrir(String host, int puerto, String dominio, int timeoutMs,
+                                     boolean usarPipelining) throws IOException {
+        NotificacionesProperties.Smtp config = new NotificacionesProperties.Smtp();
+        config.setHost(host);
+        config.setPuerto(puerto);
+        config.setDominio(dominio);
+        config.setTimeoutMs(timeoutMs);
+        return abrir(config, usarPipelining, (SSLSocketFactory) SSLSocketFactory.getDefault());
+    }
+
+    /**
+     * Conecta, lee el saludo, se presenta con EHLO y, según la configuración, pasa a TLS y se autentica.
+     * Con starttls activado y un servidor que no lo ofrece no se sigue: las credenciales irían en claro.
+     * @param tls fábrica de sockets para STARTTLS (la del sistema, salvo en tests)
+     */
+    public static ConexionSmtp abrir(NotificacionesProperties.Smtp config, boolean usarPipelining,
+                                     SSLSocketFactory tls) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(config.getHost(), config.getPuerto()), config.getTimeoutMs());
+            socket.setSoTimeout(config.getTimeoutMs());
+            BufferedReader entrada = lector(socket);
+            OutputStream salida = new BufferedOutputStream(socket.getOutputStream());
+
+            exigir(leer(entrada), 220);
+            Respuesta ehlo = saludar(entrada, salida, config.getDominio());
+            if (config.isStarttls()) {
+                if (!ehlo.anuncia("STARTTLS")) {
+                    throw new IOException("El servidor SMTP no ofrece STARTTLS");
+                }
+                exigir(orden(entrada, salida, "STARTTLS"), 220);
+                SSLSocket cifrado = (SSLSocket) tls.createSocket(socket, config.getHost(), config.getPuerto(), true);
+                SSLParameters parametros = cifrado.getSSLParameters();
+                parametros.setEndpointIdentificationAlgorithm("HTTPS");
+                cifrado.setSSLParameters(parametros);
+                cifrado.startHandshake();
+                socket = cifrado;
+                entrada = lector(socket);
+                salida = new BufferedOutputStream(socket.getOutputStream());
+                // Lo anunciado antes de TLS ya no vale: se vuelve a saludar
+                ehlo = saludar(entrada, salida, config.getDominio());
+            }
+            if (!config.getUsuario().isEmpty()) {
+                autenticar(entrada, salida, ehlo.parametros("AUTH"), config.getUsuario(), config.getContrasena());
+            }
+            return new ConexionSmtp(socket, entrada, salida, usarPipelining && ehlo.anuncia("PIPELINING"));
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    public boolean usaPipelining() {
+        return pipelining;
+    }
+
+    // Momento del último envío (System.nanoTime)
+    public long getUltimoUso() {
+        return ultimoUso;
+    }
+
+    /**
+     * Envía los mensajes en orden. codigos[i] recibe la respuesta final del mensaje i: 250 si se
+     * aceptó, el primer código de error si no. Si la conexión cae, los que no llegaron a tener
+     * respuesta se quedan en SIN_RESPUESTA y la excepción sale; la conexión ya no sirve.
+     */
+    public void enviar(String remitente, List<Mensaje> mensajes, int[] codigos) throws IOException {
+        ultimoUso = System.nanoTime();
+        if (mensajes.isEmpty()) {
+            return;
+        }
+        if (pipelining) {
+            enviarEncadenados(remitente, mensajes, codigos);
+        } else {
+            for (int i = 0; i < mensajes.size(); i++) {
+                codigos[i] = enviarUno(remitente, mensajes.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            escribir(salida, "QUIT");
+            salida.flush();
+            leer(entrada);
+        } catch (IOException | RuntimeException ignorada) {
+            // se cierra igual
+        }
+        try {
+            socket.close();
+        } catch (IOException ignorada) {
+            // cerrando
+        }
+    }
+
+    private void enviarEncadenados(String remitente, List<Mensaje> mensajes, int[] codigos) throws IOException {
+        escribirSobre(remitente, mensajes.get(0));
+        salida.flush();
+        for (int i = 0; i < mensajes.size(); i++) {
+            Respuesta mail = leer(entrada);
+            Respuesta rcpt = leer(entrada);
+            Respuesta data = leer(entrada);
+            Mensaje siguiente = i + 1 < mensajes.size() ? mensajes.get(i + 1) : null;
+
+            if (data.codigo() == 354) {
+                salida.write(mensajes.get(i).datos());
+                if (siguiente != null) {
+                    escribirSobre(remitente, siguiente);
+                }
+                salida.flush();
+                codigos[i] = leer(entrada).codigo();
+            } else {
+                codigos[i] = !mail.positiva() ? mail.codigo() : !rcpt.positiva() ? rcpt.codigo() : data.codigo();
+                // Con MAIL aceptado la transacción quedó abierta: RSET antes del siguiente sobre
+                escribir(salida, "RSET");
+                if (siguiente != null) {
+                    escribirSobre(remitente, siguiente);
+                }
+                salida.flush();
+                exigir(leer(entrada), 250);
+            }
+        }
+    }
+
+    private int enviarUno(String remitente, Mensaje mensaje) throws IOException {
+        Respuesta mail = orden("MAIL FROM:<" + remitente + ">");
+        if (!mail.positiva()) {
+            return mail.codigo();
+        }
+        Respuesta rcpt = orden("RCPT TO:<" + mensaje.destinatario() + ">");
+        if (!rcpt.positiva()) {
+            exigir(orden("RSET"), 250);
+            return rcpt.codigo();
+        }
+        Respuesta data = orden("DATA");
+        if (data.codigo() != 354) {
+            exigir(orden("RSET"), 250);
+            return data.codigo();
+        }
+        salida.write(mensaje.datos());
+        salida.flush();
+        return leer(entrada).codigo();
+    }
+
+    private Respuesta orden(String linea) throws IOException {
+        return orden(entrada, salida, linea);
+    }
+
+    private static Respuesta orden(BufferedReader entrada, OutputStream salida, String linea) throws IOException {
+        escribir(salida, linea);
+        salida.flush();
+        return leer(entrada);
+    }
+
+    private static BufferedReader lector(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    private static Respuesta saludar(BufferedReader entrada, OutputStream salida, String dominio) throws IOException {
+        Respuesta ehlo = orden(entrada, salida, "EHLO " + dominio);
+        exigir(ehlo, 250);
+        return ehlo;
+    }
+
+    // PLAIN si se ofrece (una ida y vuelta), si no LOGIN; las credenciales no salen en los errores
+    private static void autenticar(BufferedReader entrada, OutputStream salida, List<String> mecanismos,
+                                   String usuario, String contrasena) throws IOException {
+        Base64.Encoder base64 = Base64.getEncoder();
+        Respuesta respuesta;
+        if (mecanismos.stream().anyMatch("PLAIN"::equalsIgnoreCase)) {
+            byte[] credenciales = ("\0" + usuario + "\0" + contrasena).getBytes(StandardCharsets.UTF_8);
+            respuesta = orden(entrada, salida, "AUTH PLAIN " + base64.encodeToString(credenciales));
+        } else if (mecanismos.stream().anyMatch("LOGIN"::equalsIgnoreCase)) {
+            exigir(orden(entrada, salida, "AUTH LOGIN"), 334);
+            exigir(orden(entrada, salida, base64.encodeToString(usuario.getBytes(StandardCharsets.UTF_8))), 334);
+            respuesta = orden(entrada, salida, base64.encodeToString(contrasena.getBytes(StandardCharsets.UTF_8)));
+        } else {
+            throw new IOException("El servidor SMTP no ofrece AUTH PLAIN ni LOGIN");
+        }
+        if (respuesta.codigo() != 235) {
+            throw new IOException("Autenticación SMTP rechazada (" + respuesta.codigo() + ")");
+        }
+    }
+
+    private void escribirSobre(String remitente, Mensaje mensaje) throws IOException {
+        escribir(salida, "MAIL FROM:<" + remitente + ">");
+        escribir(salida, "RCPT TO:<" + mensaje.destinatario() + ">");
+        escribir(salida, "DATA");
+    }
+
+    private static void escribir(OutputStream salida, String linea) throws IOException {
+        salida.write(linea.getBytes(StandardCharsets.US_ASCII));
+        salida.write(FIN_LINEA);
+    }
+
+    // Respuesta de una o varias líneas: "250-..." sigue, "250 ..." termina
+    private static Respuesta leer(BufferedReader entrada) throws IOException {
+        List<String> lineas = new ArrayList<>(1);
+        while (true) {
+            String linea = entrada.readLine();
+            if (linea == null) {
+                throw new EOFException("El servidor SMTP cerró la conexión");
+            }
+            if (linea.length() < 3) {
+                throw new IOException("Respuesta SMTP inválida: " + linea);
+            }
+            lineas.add(linea);
+            if (linea.length() == 3 || linea.charAt(3) != '-') {
+                try {
+                    return new Respuesta(Integer.parseInt(linea.substring(0, 3)), lineas);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Respuesta SMTP inválida: " + linea);
+                }
+            }
+        }
+    }
+
+    private static void exigir(Respuesta respuesta, int codigo) throws IOException {
+        if (respuesta.codigo() != codigo) {
+            throw new IOException("Respuesta SMTP inesperada: " + String.join(" / ", respuesta.lineas()));
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cola de notificaciones con un hilo propio que las envía en lotes por el canal configurado.
+ *
+ * - encolar() no bloquea: con la cola llena lanza, y quien encola (el relevo de eventos) reintenta después.
+ * - Agrupación por socio: tras el primer aviso se esperan ventanaMs más; todos los avisos para el mismo
+ *   destinatario salen en un solo mensaje.
+ * - Reintentos: un fallo temporal vuelve a la cola tras una espera exponencial con variación aleatoria,
+ *   hasta maxIntentos; los fallos definitivos se descartan. Los intentos se cuentan por aviso: uno nuevo
+ *   que viaja junto a un reintento del mismo socio conserva todos los suyos.
+ */
+public class DespachadorNotificaciones implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachadorNotificaciones.class);
+
+    // Espera máxima sin trabajo: cada cuánto se miran los reintentos que ya tocan
+    private static final long ESPERA_REINTENTOS_MS = 100;
+
+    private final CanalNotificaciones canal;
+    private final MetricasGimnasio metricas;
+    private final int tamanoLote;
+    private final long ventanaNanos;
+    private final int maxIntentos;
+    private final long reintentoBaseMs;
+    private final long reintentoMaximoMs;
+
+    private final BlockingQueue<Notificacion> pendientes;
+    private final DelayQueue<Reintento> reintentos = new DelayQueue<>();
+    private final Object envio = new Object();
+    private final Thread hilo;
+    private volatile boolean activo = true;
+
+    // Aviso con los intentos de envío que ya lleva
+    private record Aviso(Notificacion notificacion, int intentos) {
+    }
+
+    // Avisos para un destinatario que viajan juntos
+    private record Envio(String destinatario, List<Aviso> avisos) {
+
+        static Envio nuevo(Notificacion notificacion) {
+            return new Envio(notificacion.destinatario(), List.of(new Aviso(notificacion, 0)));
+        }
+
+        Notificacion mensaje() {
+            return Notificacion.agrupar(avisos.stream().map(Aviso::notificacion).toList());
+        }
+    }
+
+    private record Reintento(Envio envio, long venceNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unidad) {
+            return unidad.convert(venceNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return Long.compare(venceNanos, ((Reintento) otro).venceNanos);
+        }
+    }
+
+    public DespachadorNotificaciones(CanalNotificaciones canal, NotificacionesProperties propiedades,
+                                     MetricasGimnasio metricas) {
+        this.canal = canal;
+        this.metricas = metricas;
+        this.tamanoLote = propiedades.getTamanoLote();
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(propiedades.getVentanaMs());
+        this.maxIntentos = propiedades.getMaxIntentos();
+        this.reintentoBaseMs = propiedades.getReintentoBaseMs();
+        this.reintentoMaximoMs = propiedades.getReintentoMaximoMs();
+        this.pendientes = new LinkedBlockingQueue<>(propiedades.getCapacidadCola());
+
+        this.hilo = new Thread(this::bucleEnvio, "notificaciones-despacho");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Deja la notificación para el próximo lote.
+     * @throws IllegalStateException si la cola está llena
+     */
+    public void encolar(Notificacion notificacion) {
+        if (!pendientes.offer(notificacion)) {
+            metricas.notificacionDescartada("cola");
+            throw new IllegalStateException("Cola de notificaciones llena");
+        }
+    }
+
+    // Envía ya lo pendiente sin esperar la ventana (tests y cierre); los reintentos siguen su plazo
+    public void vaciar() {
+        List<Envio> lote = new ArrayList<>(tamanoLote);
+        List<Notificacion> nuevas = new ArrayList<>(tamanoLote);
+        while (pendientes.drainTo(nuevas, tamanoLote) > 0) {
+            nuevas.forEach(n -> lote.add(Envio.nuevo(n)));
+            despachar(lote);
+            lote.clear();
+            nuevas.clear();
+        }
+    }
+
+    // Avisos a la espera de su reintento
+    public int getReintentosPendientes() {
+        return reintentos.size();
+    }
+
+    @Override
+    public void close() {
+        activo = false;
+        hilo.interrupt();
+        try {
+            hilo.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        vaciar();
+        if (!reintentos.isEmpty()) {
+            log.warn("Se cierra el despacho con {} notificaciones pendientes de reintento", reintentos.size());
+        }
+    }
+
+    private void bucleEnvio() {
+        List<Envio> lote = new ArrayList<>(tamanoLote);
+        List<Notificacion> nuevas = new ArrayList<>(tamanoLote);
+        List<Reintento> vencidos = new ArrayList<>();
+        while (activo) {
+            try {
+                Notificacion primera = pendientes.poll(ESPERA_REINTENTOS_MS, TimeUnit.MILLISECONDS);
+                if (primera != null) {
+                    nuevas.add(primera);
+                    esperarVentana(nuevas);
+                }
+                // Los reintentos primero: sus avisos son anteriores a los nuevos del mismo socio
+                reintentos.drainTo(vencidos);
+                vencidos.forEach(reintento -> lote.add(reintento.envio()));
+                nuevas.forEach(n -> lote.add(Envio.nuevo(n)));
+                if (!lote.isEmpty()) {
+                    despachar(lote);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error en el despacho de notificaciones", e);
+            } finally {
+                lote.clear();
+                nuevas.clear();
+                vencidos.clear();
+            }
+        }
+    }
+
+    // Junta lo que llegue durante la ventana (o hasta llenar el lote)
+    private void esperarVentana(List<Notificacion> nuevas) throws InterruptedException {
+        long limite = System.nanoTime() + ventanaNanos;
+        while (nuevas.size() < tamanoLote) {
+            pendientes.drainTo(nuevas, tamanoLote - nuevas.size());
+            long resto = limite - System.nanoTime();
+            if (resto <= 0 || nuevas.size() >= tamanoLote) {
+                return;
+            }
+            Notificacion siguiente = pendientes.poll(resto, TimeUnit.NANOSECONDS);
+            if (siguiente == null) {
+                return;
+            }
+            nuevas.add(siguiente);
+        }
+    }
+
+    private void despachar(List<Envio> lote) {
+        // Un mensaje por destinatario; un reintento se junta con los avisos nuevos del mismo socio
+        Map<String, Envio> porDestinatario = new LinkedHashMap<>();
+        for (Envio envio : lote) {
+            porDestinatario.merge(envio.destinatario(), envio, DespachadorNotificaciones::juntar);
+        }
+        Map<Notificacion, Envio> mensajes = new IdentityHashMap<>(porDestinatario.size());
+        porDestinatario.values().forEach(envio -> mensajes.put(envio.mensaje(), envio));
+
+        synchronized (envio) {
+            long inicio = System.nanoTime();
+            ResultadoEnvio resultado;
+            try {
+                resultado = canal.enviar(new ArrayList<>(mensajes.keySet()));
+            } catch (RuntimeException e) {
+                log.warn("El canal de notificaciones falló con un lote de {} mensajes: {}", mensajes.size(), e.getMessage());
+                resultado = new ResultadoEnvio(new ArrayList<>(mensajes.keySet()), List.of());
+            }
+            registrar(mensajes, resultado, System.nanoTime() - inicio);
+        }
+    }
+
+    private void registrar(Map<Notificacion, Envio> mensajes, ResultadoEnvio resultado, long nanos) {
+        int avisosFallidos = 0;
+        for (Notificacion rechazada : resultado.rechazadas()) {
+            Envio envio = mensajes.get(rechazada);
+            avisosFallidos += envio.avisos().size();
+            envio.avisos().forEach(aviso -> metricas.notificacionDescartada("rechazada"));
+        }
+        for (Notificacion fallida : resultado.reintentar()) {
+            Envio envio = mensajes.get(fallida);
+            avisosFallidos += envio.avisos().size();
+            programarReintento(envio);
+        }
+        int avisos = mensajes.values().stream().mapToInt(envio -> envio.avisos().size()).sum();
+        int entregados = mensajes.size() - resultado.rechazadas().size() - resultado.reintentar().size();
+        metricas.loteNotificaciones(entregados, avisos - avisosFallidos, nanos);
+    }
+
+    // Cada aviso suma un intento; los que agotan los suyos se descartan y el resto se reintenta junto
+    private void programarReintento(Envio envio) {
+        List<Aviso> siguen = new ArrayList<>(envio.avisos().size());
+        int intentos = 0;
+        for (Aviso aviso : envio.avisos()) {
+            int hechos = aviso.intentos() + 1;
+            if (hechos >= maxIntentos) {
+                log.error("Notificación para {} descartada tras {} intentos", envio.destinatario(), hechos);
+                metricas.notificacionDescartada("agotada");
+            } else {
+                siguen.add(new Aviso(aviso.notificacion(), hechos));
+                intentos = Math.max(intentos, hechos);
+            }
+        }
+        if (siguen.isEmpty()) {
+            return;
+        }
+        // Entre la mitad y el total de la espera exponencial: los reintentos de un corte no llegan todos a la vez
+        long espera = Math.min(reintentoMaximoMs, reintentoBaseMs << Math.min(intentos - 1, 30));
+        espera = ThreadLocalRandom.current().nextLong(espera / 2, espera + 1);
+        reintentos.add(new Reintento(new Envio(envio.destinatario(), siguen),
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(espera)));
+        metricas.notificacionReintentada();
+    }
+
+    private static Envio juntar(Envio a, Envio b) {
+        List<Aviso> avisos = new ArrayList<>(a.avisos().size() + b.avisos().size());
+        avisos.addAll(a.avisos());
+        avisos.addAll(b.avisos());
+        return new Envio(a.destinatario(), avisos);
+    }
+}
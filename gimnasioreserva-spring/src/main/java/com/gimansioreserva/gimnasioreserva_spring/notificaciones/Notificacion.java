@@ -0,0 +1,25 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import java.util.List;
+
+/**
+ * Aviso para un socio. destinatario es su correo.
+ */
+public record Notificacion(String destinatario, String asunto, String texto) {
+
+    // Varios avisos para el mismo socio en un solo mensaje, en el orden en que llegaron
+    public static Notificacion agrupar(List<Notificacion> avisos) {
+        if (avisos.size() == 1) {
+            return avisos.get(0);
+        }
+        StringBuilder texto = new StringBuilder();
+        for (Notificacion aviso : avisos) {
+            if (!texto.isEmpty()) {
+                texto.append("\n\n");
+            }
+            texto.append(aviso.asunto()).append('\n').append(aviso.texto());
+        }
+        return new Notificacion(avisos.get(0).destinatario(),
+                "Tienes " + avisos.size() + " avisos de tus reservas", texto.toString());
+    }
+}
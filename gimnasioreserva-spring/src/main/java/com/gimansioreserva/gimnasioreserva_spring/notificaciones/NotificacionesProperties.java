@@ -0,0 +1,97 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.notificaciones")
+public class NotificacionesProperties {
+
+    // log (solo se registran) o smtp
+    private String canal = "log";
+    private String remitente = "no-responder@gimnasio.local";
+    // Con la cola llena se rechaza la notificación y quien la encola la reintenta más tarde
+    private int capacidadCola = 10_000;
+    private int tamanoLote = 500;
+    // Tiempo que se esperan más avisos para el mismo socio antes de enviar: salen en un solo mensaje
+    private long ventanaMs = 200;
+    private int maxIntentos = 5;
+    // Espera antes del primer reintento; se duplica en cada intento hasta reintentoMaximoMs
+    private long reintentoBaseMs = 1_000;
+    private long reintentoMaximoMs = 60_000;
+    private Smtp smtp = new Smtp();
+
+    public static class Smtp {
+
+        private String host = "localhost";
+        private int puerto = 25;
+        // Nombre con el que se presenta el cliente (EHLO)
+        private String dominio = "gimnasio.local";
+        // Conexiones abiertas a la vez; un lote se reparte entre ellas
+        private int conexiones = 4;
+        private int timeoutMs = 10_000;
+        // Una conexión sin uso durante más tiempo se cierra en lugar de reutilizarse
+        private long inactividadMaximaMs = 30_000;
+        // Relé de envío (587): pasar a TLS antes de autenticarse; sin él las credenciales irían en claro
+        private boolean starttls = false;
+        // Vacío: sin AUTH (relé local que acepta por IP)
+        private String usuario = "";
+        private String contrasena = "";
+
+        // Getters y setters
+        public String getHost() { return host; }
+        public void setHost(String host) { this.host = host; }
+
+        public int getPuerto() { return puerto; }
+        public void setPuerto(int puerto) { this.puerto = puerto; }
+
+        public String getDominio() { return dominio; }
+        public void setDominio(String dominio) { this.dominio = dominio; }
+
+        public int getConexiones() { return conexiones; }
+        public void setConexiones(int conexiones) { this.conexiones = conexiones; }
+
+        public int getTimeoutMs() { return timeoutMs; }
+        public void setTimeoutMs(int timeoutMs) { this.timeoutMs = timeoutMs; }
+
+        public long getInactividadMaximaMs() { return inactividadMaximaMs; }
+        public void setInactividadMaximaMs(long inactividadMaximaMs) { this.inactividadMaximaMs = inactividadMaximaMs; }
+
+        public boolean isStarttls() { return starttls; }
+        public void setStarttls(boolean starttls) { this.starttls = starttls; }
+
+        public String getUsuario() { return usuario; }
+        public void setUsuario(String usuario) { this.usuario = usuario; }
+
+        public String getContrasena() { return contrasena; }
+        public void setContrasena(String contrasena) { this.contrasena = contrasena; }
+    }
+
+    // Getters y setters
+    public String getCanal() { return canal; }
+    public void setCanal(String canal) { this.canal = canal; }
+
+    public String getRemitente() { return remitente; }
+    public void setRemitente(String remitente) { this.remitente = remitente; }
+
+    public int getCapacidadCola() { return capacidadCola; }
+    public void setCapacidadCola(int capacidadCola) { this.capacidadCola = capacidadCola; }
+
+    public int getTamanoLote() { return tamanoLote; }
+    public void setTamanoLote(int tamanoLote) { this.tamanoLote = tamanoLote; }
+
+    public long getVentanaMs() { return ventanaMs; }
+    public void setVentanaMs(long ventanaMs) { this.ventanaMs = ventanaMs; }
+
+    public int getMaxIntentos() { return maxIntentos; }
+    public void setMaxIntentos(int maxIntentos) { this.maxIntentos = maxIntentos; }
+
+    public long getReintentoBaseMs() { return reintentoBaseMs; }
+    public void setReintentoBaseMs(long reintentoBaseMs) { this.reintentoBaseMs = reintentoBaseMs; }
+
+    public long getReintentoMaximoMs() { return reintentoMaximoMs; }
+    public void setReintentoMaximoMs(long reintentoMaximoMs) { this.reintentoMaximoMs = reintentoMaximoMs; }
+
+    public Smtp getSmtp() { return smtp; }
+    public void setSmtp(Smtp smtp) { this.smtp = smtp; }
+}
@@ -0,0 +1,15 @@
+package com.gimansioreserva.gimnasioreserva_spring.notificaciones;
+
+import java.util.List;
+
+/**
+ * Lo que no salió de un lote (las mismas instancias recibidas). El resto se dio por entregado.
+ * @param reintentar fallos temporales (conexión, respuestas 4xx)
+ * @param rechazadas fallos definitivos (respuestas 5xx): reintentarlas no serviría
+ */
+public record ResultadoEnvio(List<Notificacion> reintentar, List<Notificacion> rechazadas) {
+
+    public static ResultadoEnvio entregadas() {
+        return new ResultadoEnvio(List.of(), List.of());
+    }
+}
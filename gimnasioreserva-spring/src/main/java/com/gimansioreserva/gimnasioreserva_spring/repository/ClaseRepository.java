@@ -1,25 +1,47 @@
 package com.gimansioreserva.gimnasioreserva_spring.repository;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ClaseRepository extends JpaRepository<Clase, Long> {
 
-    // Buscar clases activas
+    // Buscar clases activas (caché de consultas: se invalida con cualquier escritura en clases)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "clases-activas")
+    })
     List<Clase> findByActivo(Boolean activo);
 
+    // Clases activas que empiezan después de una fecha (el índice de horarios no carga las ya terminadas)
+    List<Clase> findByActivoAndHorarioAfter(Boolean activo, LocalDateTime desde);
+
     // Buscar clases por entrenador
-    List<Clase> findByEntrenador_IdEntrenador(Long idEntrenador);
+    // (consulta explícita: la derivada hace LEFT JOIN con entrenadores y no usa idx_clases_entrenador_activo)
+    @Query("SELECT c FROM Clase c WHERE c.entrenador.idEntrenador = :idEntrenador")
+    List<Clase> findByEntrenador_IdEntrenador(@Param("idEntrenador") Long idEntrenador);
 
     // Buscar clases por entrenador y activas
-    List<Clase> findByEntrenador_IdEntrenadorAndActivo(Long idEntrenador, Boolean activo);
+    @Query("SELECT c FROM Clase c WHERE c.entrenador.idEntrenador = :idEntrenador AND c.activo = :activo")
+    List<Clase> findByEntrenador_IdEntrenadorAndActivo(@Param("idEntrenador") Long idEntrenador,
+                                                       @Param("activo") Boolean activo);
+
+    // Varias clases con sus reservas en una sola consulta (los cupos disponibles las recorren)
+    @Query("SELECT DISTINCT c FROM Clase c LEFT JOIN FETCH c.reservas WHERE c.idClase IN :ids")
+    List<Clase> buscarConReservasPorIds(@Param("ids") Collection<Long> ids);
 
     // Buscar clases por nombre (búsqueda parcial)
     @Query("SELECT c FROM Clase c WHERE LOWER(c.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
@@ -39,9 +61,14 @@ public interface ClaseRepository extends JpaRepository<Clase, Long> {
     List<Clase> obtenerClasesProximas(@Param("ahora") LocalDateTime ahora);
 
     // Contar reservas por clase
-    @Query("SELECT COUNT(r) FROM Reserva r WHERE r.clase.idClase = :idClase AND r.estado = 'CONFIRMADA'")
+    @Query("SELECT COUNT(r) FROM Reserva r WHERE r.clase.idClase = :idClase AND r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA")
     Long contarReservasConfirmadas(@Param("idClase") Long idClase);
 
+    // Bloqueo de la fila de la clase: la cola de reservas lo toma una vez por lote
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Clase c WHERE c.idClase = :idClase")
+    Optional<Clase> bloquearPorId(@Param("idClase") Long idClase);
+
     // Clases con cupos agotados
     @Query("SELECT c FROM Clase c WHERE SIZE(c.reservas) >= c.cupo AND c.activo = true")
     List<Clase> obtenerClasesConCuposAgotados();
@@ -0,0 +1,36 @@
+package com.gimansioreserva.gimnasioreserva_spring.repository;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoPendiente;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventoPendienteRepository extends JpaRepository<EventoPendiente, Long> {
+
+    // Los más antiguos primero, bloqueados hasta el commit: otro nodo que releve a la vez espera su turno
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EventoPendiente e WHERE e.aparcado = false ORDER BY e.idEvento")
+    List<EventoPendiente> bloquearLote(Limit limite);
+
+    @Modifying
+    @Query("DELETE FROM EventoPendiente e WHERE e.idEvento IN :ids")
+    int borrarPublicados(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE EventoPendiente e SET e.intentos = e.intentos + 1 WHERE e.idEvento IN :ids")
+    int anotarIntentoFallido(@Param("ids") Collection<Long> ids);
+
+    // Último intento fallido: la fila se conserva pero deja de publicarse
+    @Modifying
+    @Query("UPDATE EventoPendiente e SET e.intentos = e.intentos + 1, e.aparcado = true WHERE e.idEvento IN :ids")
+    int aparcar(@Param("ids") Collection<Long> ids);
+}
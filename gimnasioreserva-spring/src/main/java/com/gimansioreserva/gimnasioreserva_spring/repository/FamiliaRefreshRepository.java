@@ -0,0 +1,43 @@
+package com.gimansioreserva.gimnasioreserva_spring.repository;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.FamiliaRefresh;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FamiliaRefreshRepository extends JpaRepository<FamiliaRefresh, Long> {
+
+    // Rotación atómica: solo avanza si se presenta la generación actual de una familia vigente
+    // y el usuario sigue activo. Devuelve 0 si el token está revocado, expirado o es reutilizado.
+    @Modifying
+    @Query("UPDATE FamiliaRefresh f SET f.generacion = f.generacion + 1, f.expira = :nuevaExpira " +
+           "WHERE f.idFamilia = :idFamilia AND f.generacion = :generacion AND f.revocada = false " +
+           "AND f.expira > :ahora " +
+           "AND f.idUsuario IN (SELECT u.idUsuario FROM Usuario u WHERE u.activo = true)")
+    int rotar(@Param("idFamilia") Long idFamilia,
+              @Param("generacion") Integer generacion,
+              @Param("ahora") LocalDateTime ahora,
+              @Param("nuevaExpira") LocalDateTime nuevaExpira);
+
+    @Modifying
+    @Query("UPDATE FamiliaRefresh f SET f.revocada = true WHERE f.idFamilia = :idFamilia")
+    int revocar(@Param("idFamilia") Long idFamilia);
+
+    @Query("SELECT f.idFamilia FROM FamiliaRefresh f WHERE f.idUsuario = :idUsuario AND f.revocada = false")
+    List<Long> idsVigentesDeUsuario(@Param("idUsuario") Long idUsuario);
+
+    // Cierra todas las sesiones del usuario (p. ej. al cambiar la contraseña)
+    @Modifying
+    @Query("UPDATE FamiliaRefresh f SET f.revocada = true WHERE f.idUsuario = :idUsuario")
+    int revocarDeUsuario(@Param("idUsuario") Long idUsuario);
+
+    @Modifying
+    @Query("DELETE FROM FamiliaRefresh f WHERE f.idUsuario = :idUsuario AND f.expira < :ahora")
+    int eliminarExpiradas(@Param("idUsuario") Long idUsuario, @Param("ahora") LocalDateTime ahora);
+}
@@ -1,35 +1,75 @@
 package com.gimansioreserva.gimnasioreserva_spring.repository;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
 
+    // Proyección directa a ReservaDTO: usuario, clase y entrenador en una sola consulta
+    String PROYECCION_DTO = "SELECT new com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO("
+            + "r.idReserva, r.fechaReserva, r.estado, u.idUsuario, u.nombre, u.correo, "
+            + "c.idClase, c.nombre, c.horario, c.duracionMinutos, e.idEntrenador, e.nombre, e.especialidad) "
+            + "FROM Reserva r JOIN r.usuario u JOIN r.clase c LEFT JOIN c.entrenador e ";
+
+    // Buscar reserva por ID con usuario, clase y entrenador precargados
+    @Override
+    @EntityGraph(attributePaths = {"usuario", "clase", "clase.entrenador"})
+    Optional<Reserva> findById(Long idReserva);
+
+    // Listar todas las reservas con usuario, clase y entrenador precargados
+    @Override
+    @EntityGraph(attributePaths = {"usuario", "clase", "clase.entrenador"})
+    List<Reserva> findAll();
+
     // Buscar reservas por usuario
-    List<Reserva> findByUsuario_IdUsuario(Long idUsuario);
+    // (consultas explícitas sobre la FK: las derivadas hacen LEFT JOIN y no usan los índices)
+    @EntityGraph(attributePaths = {"usuario", "clase", "clase.entrenador"})
+    @Query("SELECT r FROM Reserva r WHERE r.usuario.idUsuario = :idUsuario")
+    List<Reserva> findByUsuario_IdUsuario(@Param("idUsuario") Long idUsuario);
 
     // Buscar reservas por clase
-    List<Reserva> findByClase_IdClase(Long idClase);
+    @Query("SELECT r FROM Reserva r WHERE r.clase.idClase = :idClase")
+    List<Reserva> findByClase_IdClase(@Param("idClase") Long idClase);
 
     // Buscar reservas por estado
-    List<Reserva> findByEstado(String estado);
+    @EntityGraph(attributePaths = {"usuario", "clase", "clase.entrenador"})
+    List<Reserva> findByEstado(EstadoReserva estado);
 
     // Buscar reservas por usuario y estado
-    List<Reserva> findByUsuario_IdUsuarioAndEstado(Long idUsuario, String estado);
+    @Query("SELECT r FROM Reserva r WHERE r.usuario.idUsuario = :idUsuario AND r.estado = :estado")
+    List<Reserva> findByUsuario_IdUsuarioAndEstado(@Param("idUsuario") Long idUsuario,
+                                                   @Param("estado") EstadoReserva estado);
 
     // Verificar si existe reserva duplicada
-    @Query("SELECT r FROM Reserva r WHERE r.usuario.idUsuario = :idUsuario AND r.clase.idClase = :idClase AND r.estado = 'CONFIRMADA'")
+    @Query("SELECT r FROM Reserva r WHERE r.usuario.idUsuario = :idUsuario AND r.clase.idClase = :idClase AND r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA")
     Optional<Reserva> buscarReservaDuplicada(@Param("idUsuario") Long idUsuario,
                                              @Param("idClase") Long idClase);
 
+    // Usuarios de la lista que ya tienen reserva confirmada en la clase (duplicados de un lote de la cola)
+    @Query("SELECT r.usuario.idUsuario FROM Reserva r WHERE r.clase.idClase = :idClase AND r.usuario.idUsuario IN :idsUsuarios AND r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA")
+    List<Long> usuariosConReservaConfirmada(@Param("idClase") Long idClase,
+                                            @Param("idsUsuarios") Collection<Long> idsUsuarios);
+
+    // Clases activas con reserva confirmada de cada usuario desde una fecha: [idUsuario, idClase, horario, duracionMinutos]
+    @Query("SELECT r.usuario.idUsuario, c.idClase, c.horario, c.duracionMinutos FROM Reserva r JOIN r.clase c "
+            + "WHERE r.usuario.idUsuario IN :idsUsuarios AND c.activo = true AND c.horario >= :desde "
+            + "AND r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA")
+    List<Object[]> horariosReservados(@Param("idsUsuarios") Collection<Long> idsUsuarios,
+                                      @Param("desde") LocalDateTime desde);
+
     // Obtener reservas por rango de fechas
     @Query("SELECT r FROM Reserva r WHERE r.fechaReserva BETWEEN :fechaInicio AND :fechaFin")
     List<Reserva> buscarPorRangoFechas(@Param("fechaInicio") LocalDateTime fechaInicio,
@@ -37,17 +77,58 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
 
     // Contar reservas por estado
     @Query("SELECT COUNT(r) FROM Reserva r WHERE r.estado = :estado")
-    Long contarPorEstado(@Param("estado") String estado);
+    Long contarPorEstado(@Param("estado") EstadoReserva estado);
 
     // Obtener reservas confirmadas de un usuario
-    @Query("SELECT r FROM Reserva r WHERE r.usuario.idUsuario = :idUsuario AND r.estado = 'CONFIRMADA' ORDER BY r.fechaReserva DESC")
+    @EntityGraph(attributePaths = {"usuario", "clase", "clase.entrenador"})
+    @Query("SELECT r FROM Reserva r WHERE r.usuario.idUsuario = :idUsuario AND r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA ORDER BY r.fechaReserva DESC")
     List<Reserva> obtenerReservasConfirmadasPorUsuario(@Param("idUsuario") Long idUsuario);
 
     // Estadísticas: Total de reservas por clase
     @Query("SELECT r.clase.nombre, COUNT(r) FROM Reserva r GROUP BY r.clase.nombre")
     List<Object[]> obtenerEstadisticasPorClase();
 
-    // Reservas del día
-    @Query("SELECT r FROM Reserva r WHERE DATE(r.fechaReserva) = DATE(:fecha) AND r.estado = 'CONFIRMADA'")
-    List<Reserva> obtenerReservasDelDia(@Param("fecha") LocalDateTime fecha);
-}
\ No newline at end of file
+    // Reservas del día (rango [inicio del día, día siguiente) para poder usar idx_reservas_estado_fecha)
+    default List<Reserva> obtenerReservasDelDia(LocalDateTime fecha) {
+        LocalDateTime inicio = fecha.toLocalDate().atStartOfDay();
+        return obtenerReservasConfirmadasEntre(inicio, inicio.plusDays(1));
+    }
+
+    // Reservas confirmadas con fechaReserva en [desde, hasta)
+    @Query("SELECT r FROM Reserva r WHERE r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA AND r.fechaReserva >= :desde AND r.fechaReserva < :hasta")
+    List<Reserva> obtenerReservasConfirmadasEntre(@Param("desde") LocalDateTime desde,
+                                                  @Param("hasta") LocalDateTime hasta);
+
+    // Proyección paginada por cursor: reservas de un usuario anteriores a (fecha, idReserva), más recientes primero
+    @Query(PROYECCION_DTO + "WHERE u.idUsuario = :idUsuario "
+            + "AND (r.fechaReserva < :fecha OR (r.fechaReserva = :fecha AND r.idReserva < :idReserva)) "
+            + "ORDER BY r.fechaReserva DESC, r.idReserva DESC")
+    List<ReservaDTO> proyectarPaginaPorUsuario(@Param("idUsuario") Long idUsuario,
+                                               @Param("fecha") LocalDateTime fecha,
+                                               @Param("idReserva") Long idReserva,
+                                               Limit limite);
+
+    // Igual que la anterior pero filtrando por estados (usa idx_reservas_usuario_estado_fecha)
+    @Query(PROYECCION_DTO + "WHERE u.idUsuario = :idUsuario AND r.estado IN :estados "
+            + "AND (r.fechaReserva < :fecha OR (r.fechaReserva = :fecha AND r.idReserva < :idReserva)) "
+            + "ORDER BY r.fechaReserva DESC, r.idReserva DESC")
+    List<ReservaDTO> proyectarPaginaPorUsuarioYEstados(@Param("idUsuario") Long idUsuario,
+                                                       @Param("estados") Collection<EstadoReserva> estados,
+                                                       @Param("fecha") LocalDateTime fecha,
+                                                       @Param("idReserva") Long idReserva,
+                                                       Limit limite);
+
+    // Proyección: reservas confirmadas de un usuario
+    @Query(PROYECCION_DTO + "WHERE u.idUsuario = :idUsuario AND r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA ORDER BY r.fechaReserva DESC")
+    List<ReservaDTO> proyectarConfirmadasPorUsuario(@Param("idUsuario") Long idUsuario);
+
+    // Proyección: reservas por id (notificaciones de un lote de la bandeja de eventos)
+    @Query(PROYECCION_DTO + "WHERE r.idReserva IN :ids")
+    List<ReservaDTO> proyectarPorIds(@Param("ids") Collection<Long> ids);
+
+    // Proyección: reservas confirmadas de clases que empiezan dentro del intervalo (recordatorios)
+    @Query(PROYECCION_DTO + "WHERE r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA "
+           + "AND c.horario > :desde AND c.horario < :hasta")
+    List<ReservaDTO> proyectarConfirmadasConClaseEntre(@Param("desde") LocalDateTime desde,
+                                                       @Param("hasta") LocalDateTime hasta);
+}
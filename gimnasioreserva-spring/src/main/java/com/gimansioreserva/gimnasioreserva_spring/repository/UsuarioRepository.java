@@ -36,6 +36,6 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Long contarPorRol(@Param("rol") String rol);
 
     // Obtener usuarios con reservas activas
-    @Query("SELECT DISTINCT u FROM Usuario u JOIN u.reservas r WHERE r.estado = 'CONFIRMADA'")
+    @Query("SELECT DISTINCT u FROM Usuario u JOIN u.reservas r WHERE r.estado = com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva.CONFIRMADA")
     List<Usuario> obtenerUsuariosConReservasActivas();
 }
\ No newline at end of file
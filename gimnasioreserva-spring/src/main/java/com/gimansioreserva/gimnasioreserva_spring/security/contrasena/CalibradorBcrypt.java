@@ -0,0 +1,40 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.contrasena;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Elige el coste de BCrypt para que un hash tarde aproximadamente la latencia objetivo en esta CPU.
+ * Cada punto de coste duplica el trabajo, así que basta medir el coste mínimo y extrapolar.
+ */
+public final class CalibradorBcrypt {
+
+    private static final int MUESTRAS = 3;
+    private static final String CONTRASENA_PRUEBA = "calibracion-bcrypt";
+
+    private CalibradorBcrypt() {
+    }
+
+    public static int calibrar(long latenciaObjetivoMs, int costeMinimo, int costeMaximo) {
+        double medidoMs = medirMs(costeMinimo);
+        int coste = costeMinimo;
+        // Se sube mientras el siguiente coste siga sin pasarse del objetivo
+        while (coste < costeMaximo && medidoMs * 2 <= latenciaObjetivoMs) {
+            medidoMs *= 2;
+            coste++;
+        }
+        return coste;
+    }
+
+    // Mejor de varias muestras (tras una de calentamiento) para no dejarse engañar por el JIT o por ruido
+    static double medirMs(int coste) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(coste);
+        encoder.encode(CONTRASENA_PRUEBA);
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < MUESTRAS; i++) {
+            long inicio = System.nanoTime();
+            encoder.encode(CONTRASENA_PRUEBA);
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        return mejor / 1_000_000.0;
+    }
+}
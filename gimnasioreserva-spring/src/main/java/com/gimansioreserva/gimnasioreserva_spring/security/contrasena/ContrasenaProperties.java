@@ -0,0 +1,38 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.contrasena;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.contrasenas")
+public class ContrasenaProperties {
+
+    // Tiempo que debería tardar un hash en esta máquina; el coste de BCrypt se ajusta al arrancar
+    private long latenciaObjetivoMs = 250;
+    private int costeMinimo = 10;
+    private int costeMaximo = 14;
+    // Hilos dedicados a hashear (0 = la mitad de los núcleos): el resto de CPU queda para las reservas
+    private int hilos = 0;
+    // Logins en espera antes de responder 503
+    private int cola = 32;
+    private long esperaMaximaMs = 5_000;
+
+    // Getters y setters
+    public long getLatenciaObjetivoMs() { return latenciaObjetivoMs; }
+    public void setLatenciaObjetivoMs(long latenciaObjetivoMs) { this.latenciaObjetivoMs = latenciaObjetivoMs; }
+
+    public int getCosteMinimo() { return costeMinimo; }
+    public void setCosteMinimo(int costeMinimo) { this.costeMinimo = costeMinimo; }
+
+    public int getCosteMaximo() { return costeMaximo; }
+    public void setCosteMaximo(int costeMaximo) { this.costeMaximo = costeMaximo; }
+
+    public int getHilos() { return hilos; }
+    public void setHilos(int hilos) { this.hilos = hilos; }
+
+    public int getCola() { return cola; }
+    public void setCola(int cola) { this.cola = cola; }
+
+    public long getEsperaMaximaMs() { return esperaMaximaMs; }
+    public void setEsperaMaximaMs(long esperaMaximaMs) { this.esperaMaximaMs = esperaMaximaMs; }
+}
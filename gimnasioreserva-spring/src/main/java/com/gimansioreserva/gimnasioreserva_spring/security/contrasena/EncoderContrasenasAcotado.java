@@ -0,0 +1,124 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.contrasena;
+
+import com.gimansioreserva.gimnasioreserva_spring.exception.HashContrasenaSaturadoException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ejecuta encode/matches en un pool propio de tamaño fijo con cola acotada.
+ * Así una avalancha de logins ocupa como mucho esos hilos de CPU y no deja sin CPU a las reservas;
+ * se lanza HashContrasenaSaturadoException (503) sin encolar si la cola está llena o si, con la duración
+ * media de un hash, la espera estimada ya supera esperaMaximaMs.
+ * BCrypt no atiende interrupciones: un hash que ya empezó termina aunque quien lo pidió haya dejado de
+ * esperar (su resultado se descarta). Lo que sí se retira al vencer la espera es la tarea aún en cola.
+ */
+public class EncoderContrasenasAcotado implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor pool;
+    private final long esperaMaximaMs;
+    private final int hilos;
+    // Media móvil (1/8) de la duración de un hash; 0 hasta medir el primero
+    private final AtomicLong mediaNanos = new AtomicLong();
+
+    public EncoderContrasenasAcotado(PasswordEncoder delegado, int hilos, int cola, long esperaMaximaMs) {
+        this.delegado = delegado;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.hilos = hilos;
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "hash-contrasenas-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence contrasena) {
+        return ejecutar(() -> delegado.encode(contrasena));
+    }
+
+    @Override
+    public boolean matches(CharSequence contrasena, String hash) {
+        return ejecutar(() -> delegado.matches(contrasena, hash));
+    }
+
+    // Solo inspecciona el prefijo y el coste del hash: no hace falta pasar por el pool
+    @Override
+    public boolean upgradeEncoding(String hash) {
+        return delegado.upgradeEncoding(hash);
+    }
+
+    public int getPendientes() {
+        return pool.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        // Control de admisión: si no va a dar tiempo, mejor rechazar ahora que ocupar un hueco de la cola
+        if (esperaEstimadaNanos() > TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs)) {
+            throw new HashContrasenaSaturadoException();
+        }
+        Future<T> futuro;
+        try {
+            futuro = pool.submit(() -> medir(tarea));
+        } catch (RejectedExecutionException e) {
+            throw new HashContrasenaSaturadoException();
+        }
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandonar(futuro);
+            throw new HashContrasenaSaturadoException();
+        } catch (InterruptedException e) {
+            abandonar(futuro);
+            Thread.currentThread().interrupt();
+            throw new HashContrasenaSaturadoException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Rondas de hash por delante de la nueva tarea (las de la cola más la suya) por la duración media
+    private long esperaEstimadaNanos() {
+        long rondas = (pool.getQueue().size() + hilos) / hilos;
+        return rondas * mediaNanos.get();
+    }
+
+    private <T> T medir(Callable<T> tarea) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return tarea.call();
+        } finally {
+            long duracion = System.nanoTime() - inicio;
+            mediaNanos.accumulateAndGet(duracion, (media, nueva) -> media == 0 ? nueva : media + (nueva - media) / 8);
+        }
+    }
+
+    // Sin interrupción (BCrypt no la atiende): si la tarea seguía en cola se cancela y se saca de la cola
+    private void abandonar(Future<?> futuro) {
+        if (futuro.cancel(false)) {
+            pool.purge();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.jwt;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Almacén de tokens revocados (logout), indexado por el id del token (jti).
+ * Cada entrada guarda la expiración del token: pasada esa fecha deja de hacer falta recordarla.
+ * La implementación embebida es un archivo mapeado en memoria; un almacén compartido entre réplicas
+ * puede sustituirla implementando esta misma interfaz. El filtro JWT nunca la consulta directamente:
+ * lee la caché local de JwtTokenBlacklist, que se sincroniza con el almacén en segundo plano.
+ */
+public interface AlmacenRevocaciones extends AutoCloseable {
+
+    void revocar(UUID idToken, long expiraEpochMs);
+
+    boolean estaRevocado(UUID idToken, long ahoraEpochMs);
+
+    // Recorre las revocaciones que aún no han expirado (id, expiración en epoch ms)
+    void recorrerVigentes(long ahoraEpochMs, BiConsumer<UUID, Long> consumidor);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,204 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.jwt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Tabla hash de direccionamiento abierto (sondeo lineal) sobre un archivo mapeado en memoria.
+ *
+ * Cabecera de 64 bytes (magia, versión, capacidad) seguida de huecos de 24 bytes:
+ * id del token (dos long) y expiración en epoch ms. Un hueco con id 0/0 está libre y corta la búsqueda;
+ * un hueco expirado sigue ocupado (no rompe las cadenas de sondeo) pero se reutiliza al insertar.
+ * Pensado para un solo proceso escritor por archivo.
+ */
+public class AlmacenRevocacionesArchivo implements AlmacenRevocaciones {
+
+    private static final int MAGIA = 0x4A525631; // "JRV1"
+    private static final int VERSION = 1;
+    private static final int CABECERA = 64;
+    private static final int HUECO = 24;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer tabla;
+    private final int capacidad;
+    private final int mascara;
+    private final Path borrarAlCerrar;
+    private boolean cerrado;
+
+    public AlmacenRevocacionesArchivo(Path archivo, int capacidadDeseada) {
+        this(archivo, capacidadDeseada, false);
+    }
+
+    private AlmacenRevocacionesArchivo(Path archivo, int capacidadDeseada, boolean temporal) {
+        this.borrarAlCerrar = temporal ? archivo : null;
+        try {
+            if (archivo.getParent() != null) {
+                Files.createDirectories(archivo.getParent());
+            }
+            this.canal = FileChannel.open(archivo,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.capacidad = canal.size() >= CABECERA ? leerCapacidad(canal, archivo) : potenciaDeDos(capacidadDeseada);
+            this.mascara = capacidad - 1;
+            this.tabla = canal.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA + (long) capacidad * HUECO);
+            if (tabla.getInt(0) != MAGIA) {
+                tabla.putInt(0, MAGIA);
+                tabla.putInt(4, VERSION);
+                tabla.putInt(8, capacidad);
+                tabla.force(0, CABECERA);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el almacén de revocaciones " + archivo, e);
+        }
+    }
+
+    // Almacén en un archivo temporal que se borra al cerrar (o al salir la JVM): tests y nodos sin disco propio
+    public static AlmacenRevocacionesArchivo temporal(int capacidadDeseada) {
+        try {
+            Path archivo = Files.createTempFile("revocaciones-jwt-", ".dat");
+            archivo.toFile().deleteOnExit();
+            return new AlmacenRevocacionesArchivo(archivo, capacidadDeseada, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el almacén de revocaciones temporal", e);
+        }
+    }
+
+    @Override
+    public synchronized void revocar(UUID idToken, long expiraEpochMs) {
+        comprobarAbierto();
+        long alto = idToken.getMostSignificantBits();
+        long bajo = idToken.getLeastSignificantBits();
+        long ahora = System.currentTimeMillis();
+
+        int reutilizable = -1;
+        int i = indice(alto, bajo);
+        for (int sondeos = 0; sondeos < capacidad; sondeos++, i = (i + 1) & mascara) {
+            int pos = posicion(i);
+            long altoHueco = tabla.getLong(pos);
+            long bajoHueco = tabla.getLong(pos + 8);
+            if (altoHueco == alto && bajoHueco == bajo) {
+                // Ya revocado: se conserva la expiración más lejana
+                if (expiraEpochMs > tabla.getLong(pos + 16)) {
+                    escribir(pos, alto, bajo, expiraEpochMs);
+                }
+                return;
+            }
+            boolean libre = altoHueco == 0 && bajoHueco == 0;
+            if (reutilizable < 0 && (libre || tabla.getLong(pos + 16) <= ahora)) {
+                reutilizable = pos;
+            }
+            if (libre) {
+                break;
+            }
+        }
+        if (reutilizable < 0) {
+            throw new IllegalStateException("Almacén de revocaciones lleno (" + capacidad + " huecos)");
+        }
+        escribir(reutilizable, alto, bajo, expiraEpochMs);
+    }
+
+    @Override
+    public synchronized boolean estaRevocado(UUID idToken, long ahoraEpochMs) {
+        comprobarAbierto();
+        long alto = idToken.getMostSignificantBits();
+        long bajo = idToken.getLeastSignificantBits();
+
+        int i = indice(alto, bajo);
+        for (int sondeos = 0; sondeos < capacidad; sondeos++, i = (i + 1) & mascara) {
+            int pos = posicion(i);
+            long altoHueco = tabla.getLong(pos);
+            long bajoHueco = tabla.getLong(pos + 8);
+            if (altoHueco == alto && bajoHueco == bajo) {
+                return tabla.getLong(pos + 16) > ahoraEpochMs;
+            }
+            if (altoHueco == 0 && bajoHueco == 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void recorrerVigentes(long ahoraEpochMs, BiConsumer<UUID, Long> consumidor) {
+        comprobarAbierto();
+        for (int i = 0; i < capacidad; i++) {
+            int pos = posicion(i);
+            long alto = tabla.getLong(pos);
+            long bajo = tabla.getLong(pos + 8);
+            long expira = tabla.getLong(pos + 16);
+            if ((alto != 0 || bajo != 0) && expira > ahoraEpochMs) {
+                consumidor.accept(new UUID(alto, bajo), expira);
+            }
+        }
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        tabla.force();
+        try {
+            canal.close();
+            if (borrarAlCerrar != null) {
+                Files.deleteIfExists(borrarAlCerrar);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // La expiración se escribe antes que el id para que nunca se lea un id con una expiración a medias
+    private void escribir(int pos, long alto, long bajo, long expira) {
+        tabla.putLong(pos + 16, expira);
+        tabla.putLong(pos + 8, bajo);
+        tabla.putLong(pos, alto);
+        // Un logout es poco frecuente: se baja a disco en el momento para sobrevivir a una caída
+        tabla.force(pos, HUECO);
+    }
+
+    private int indice(long alto, long bajo) {
+        long h = alto ^ bajo;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mascara;
+    }
+
+    private static int posicion(int hueco) {
+        return CABECERA + hueco * HUECO;
+    }
+
+    private void comprobarAbierto() {
+        if (cerrado) {
+            throw new IllegalStateException("Almacén de revocaciones cerrado");
+        }
+    }
+
+    // Un archivo existente conserva su capacidad aunque cambie la configuración
+    private static int leerCapacidad(FileChannel canal, Path archivo) throws IOException {
+        MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECERA);
+        if (cabecera.getInt(0) != MAGIA || cabecera.getInt(4) != VERSION) {
+            throw new IllegalStateException("El archivo no es un almacén de revocaciones válido: " + archivo);
+        }
+        return cabecera.getInt(8);
+    }
+
+    private static int potenciaDeDos(int capacidad) {
+        if (capacidad < 2 || capacidad > (1 << 26)) {
+            throw new IllegalArgumentException("Capacidad del almacén de revocaciones fuera de rango: " + capacidad);
+        }
+        return Integer.highestOneBit(capacidad - 1) << 1;
+    }
+}
@@ -1,6 +1,10 @@
 package com.gimansioreserva.gimnasioreserva_spring.security.jwt;
 
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad;
 import com.gimansioreserva.gimnasioreserva_spring.service.auth.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,8 +17,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -22,25 +24,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider jwtTokenProvider;
     private final JwtTokenBlacklist jwtTokenBlacklist;
     private final UserDetailsServiceImpl userDetailsService;
-
-    // Lista de URLs que no requieren autenticación JWT
-    private static final List<String> EXCLUDED_URLS = Arrays.asList(
-            "/api/auth/login",
-            "/api/auth/register",
-            "/api/auth/password-reset",
-            "/api/recomendaciones/stream",
-            "/api/recomendaciones/simular",
-            "/swagger-ui/index.html",
-            "/swagger-ui/**",
-            "/v3/api-docs/**"
-    );
+    private final MetricasGimnasio metricas;
+    // URLs que no requieren autenticación JWT: Acceso.PUBLICA_SIN_TOKEN en RutasSeguridad
+    private final RutasSeguridad rutasSeguridad;
 
     public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
                                    JwtTokenBlacklist jwtTokenBlacklist,
-                                   UserDetailsServiceImpl userDetailsService) {
+                                   UserDetailsServiceImpl userDetailsService,
+                                   MetricasGimnasio metricas,
+                                   RutasSeguridad rutasSeguridad) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.jwtTokenBlacklist = jwtTokenBlacklist;
         this.userDetailsService = userDetailsService;
+        this.metricas = metricas;
+        this.rutasSeguridad = rutasSeguridad;
     }
 
     @Override
@@ -50,11 +47,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             FilterChain filterChain) throws ServletException, IOException {
 
         // Si la URL es una de las excluidas, no procesamos el JWT y pasamos al siguiente filtro.
-        if (EXCLUDED_URLS.stream().anyMatch(url -> request.getRequestURI().startsWith(url))) {
+        if (rutasSeguridad.sinToken(request)) {
             filterChain.doFilter(request, response);
             return;
         }
 
+        // Solo se mide la validación del token, no el resto de la cadena
+        Timer.Sample muestra = metricas.iniciar();
         String token = null;
 
         // Intentar obtener el token del header Authorization (método estándar)
@@ -69,8 +68,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             token = request.getParameter("token");
         }
 
-        if (token != null && !jwtTokenBlacklist.estaBlacklisted(token) && jwtTokenProvider.validarToken(token)) {
-            String correo = jwtTokenProvider.obtenerCorreoDelToken(token);
+        String resultado = token == null ? "anonimo" : "rechazado";
+        // Un solo parseo del token: firma, expiración y claims; la revocación se mira en la caché local.
+        // Solo autentican los access tokens: un refresh token, aunque esté bien firmado, no sirve aquí
+        Claims claims = token == null ? null : jwtTokenProvider.leerClaims(token)
+                .filter(JwtTokenProvider::esDeAcceso)
+                .orElse(null);
+        if (claims != null && !jwtTokenBlacklist.estaRevocado(token, claims)) {
+            String correo = claims.getSubject();
             UserDetails userDetails = userDetailsService.loadUserByUsername(correo);
 
             UsernamePasswordAuthenticationToken authentication =
@@ -80,7 +85,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            resultado = "autenticado";
         }
+        metricas.registrarFiltroJwt(muestra, resultado);
 
         filterChain.doFilter(request, response);
     }
@@ -1,20 +1,134 @@
 package com.gimansioreserva.gimnasioreserva_spring.security.jwt;
 
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Tokens revocados por logout y familias de sesión revocadas (logout, refresh reutilizado, cambio de
+ * contraseña): un access token de una familia revocada deja de valer aunque su jti no esté en la lista.
+ * Las revocaciones se guardan en el AlmacenRevocaciones (persistente y,
+ * si se configura uno compartido, visible para todas las réplicas) y se copian a una caché local:
+ * la comprobación del filtro JWT solo lee la caché, sin E/S. Un hilo en segundo plano vuelve a leer
+ * el almacén periódicamente para recoger lo revocado por otros nodos y purgar lo expirado.
+ */
 @Component
 public class JwtTokenBlacklist {
 
-    private final Set<String> blacklist = new HashSet<>();
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenBlacklist.class);
 
+    private final AlmacenRevocaciones almacen;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    // id del token (jti, texto) -> expiración (epoch ms); clave de texto para no convertir el jti en cada petición
+    private final Map<String, Long> cache = new ConcurrentHashMap<>();
+    // id de familia -> hasta cuándo hay que recordarla (expiración del último access token emitido)
+    private final Map<Long, Long> familias = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sincronizador;
+
+    public JwtTokenBlacklist(AlmacenRevocaciones almacen,
+                             JwtTokenProvider jwtTokenProvider,
+                             RevocacionProperties propiedades) {
+        this.almacen = almacen;
+        this.jwtTokenProvider = jwtTokenProvider;
+        sincronizar();
+
+        this.sincronizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "revocaciones-jwt");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long cada = propiedades.getSincronizacionMs();
+        sincronizador.scheduleWithFixedDelay(this::sincronizarSinFallar, cada, cada, TimeUnit.MILLISECONDS);
+    }
+
+    // Logout: un token inválido o ya expirado no necesita revocarse
     public void agregar(String token) {
-        blacklist.add(token);
+        jwtTokenProvider.leerClaims(token).ifPresent(claims -> {
+            String id = idToken(token, claims);
+            long expira = claims.getExpiration().getTime();
+            almacen.revocar(uuid(id), expira);
+            cache.merge(id, expira, Math::max);
+        });
+    }
+
+    /**
+     * Revoca los access tokens de una familia. En el almacén se guarda con un UUID de versión 0
+     * (bits altos a cero), que no choca con los jti aleatorios.
+     * @param expiraEpochMs a partir de cuándo ya no puede quedar ningún access token vivo de la familia
+     */
+    public void revocarFamilia(long idFamilia, long expiraEpochMs) {
+        almacen.revocar(new UUID(0L, idFamilia), expiraEpochMs);
+        familias.merge(idFamilia, expiraEpochMs, Math::max);
     }
 
     public boolean estaBlacklisted(String token) {
-        return blacklist.contains(token);
+        return jwtTokenProvider.leerClaims(token)
+                .map(claims -> estaRevocado(token, claims))
+                .orElse(false);
+    }
+
+    // Camino caliente del filtro: los claims ya vienen validados y solo se consulta la caché
+    public boolean estaRevocado(String token, Claims claims) {
+        long ahora = System.currentTimeMillis();
+        Long expira = cache.get(idToken(token, claims));
+        if (expira != null && expira > ahora) {
+            return true;
+        }
+        Long idFamilia = claims.get(JwtTokenProvider.CLAIM_FAMILIA, Long.class);
+        Long familiaExpira = idFamilia != null ? familias.get(idFamilia) : null;
+        return familiaExpira != null && familiaExpira > ahora;
+    }
+
+    // Recoge las revocaciones vigentes del almacén y quita de la caché las expiradas
+    public void sincronizar() {
+        long ahora = System.currentTimeMillis();
+        almacen.recorrerVigentes(ahora, (id, expira) -> {
+            if (id.getMostSignificantBits() == 0L) {
+                familias.merge(id.getLeastSignificantBits(), expira, Math::max);
+            } else {
+                cache.merge(id.toString(), expira, Math::max);
+            }
+        });
+        cache.values().removeIf(expira -> expira <= ahora);
+        familias.values().removeIf(expira -> expira <= ahora);
+    }
+
+    @PreDestroy
+    public void detener() {
+        sincronizador.shutdownNow();
+    }
+
+    private void sincronizarSinFallar() {
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo sincronizar la caché de tokens revocados: {}", e.getMessage());
+        }
+    }
+
+    // Los tokens emitidos antes de incluir el jti se identifican por un hash del propio token
+    private static String idToken(String token, Claims claims) {
+        String jti = claims.getId();
+        return jti != null ? jti : UUID.nameUUIDFromBytes(token.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    // JwtTokenProvider emite jti con UUID.randomUUID(), así que el texto coincide con UUID.toString() al sincronizar
+    private static UUID uuid(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8));
+        }
     }
 }
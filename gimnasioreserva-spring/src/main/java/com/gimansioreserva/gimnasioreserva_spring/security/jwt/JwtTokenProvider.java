@@ -6,22 +6,37 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_ROL = "rol";
+    public static final String CLAIM_FAMILIA = "fam";
+    public static final String CLAIM_GENERACION = "gen";
+    // Tipo de token: solo los de acceso autentican peticiones; los refresh solo sirven en /api/auth/refresh
+    public static final String CLAIM_TIPO = "typ";
+    public static final String TIPO_ACCESO = "access";
+    public static final String TIPO_REFRESH = "refresh";
+
     private final JwtProperties jwtProperties;
     private final Key key;
+    // El parser es inmutable y seguro entre hilos: se construye una sola vez
+    private final JwtParser parser;
 
     public JwtTokenProvider(JwtProperties jwtProperties) {
         this.jwtProperties = jwtProperties;
         this.key = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String generarToken(String correo, String rol) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(correo)
-                .claim("rol", rol)
+                .claim(CLAIM_TIPO, TIPO_ACCESO)
+                .claim(CLAIM_ROL, rol)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration()))
                 .signWith(key, SignatureAlgorithm.HS256)
@@ -30,26 +45,72 @@ public class JwtTokenProvider {
 
     public String generarRefreshToken(String correo) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(correo)
+                .claim(CLAIM_TIPO, TIPO_REFRESH)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getRefreshExpiration()))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // Tokens de una sesión renovable: ambos llevan la familia; el refresh además la generación y el rol
+    public String generarToken(String correo, String rol, long idFamilia) {
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(correo)
+                .claim(CLAIM_TIPO, TIPO_ACCESO)
+                .claim(CLAIM_ROL, rol)
+                .claim(CLAIM_FAMILIA, idFamilia)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration()))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public String generarRefreshToken(String correo, String rol, long idFamilia, int generacion) {
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(correo)
+                .claim(CLAIM_TIPO, TIPO_REFRESH)
+                .claim(CLAIM_ROL, rol)
+                .claim(CLAIM_FAMILIA, idFamilia)
+                .claim(CLAIM_GENERACION, generacion)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getRefreshExpiration()))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public static boolean esDeAcceso(Claims claims) {
+        return TIPO_ACCESO.equals(claims.get(CLAIM_TIPO, String.class));
+    }
+
+    public static boolean esDeRefresco(Claims claims) {
+        return TIPO_REFRESH.equals(claims.get(CLAIM_TIPO, String.class));
+    }
+
     public String obtenerCorreoDelToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public boolean validarToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parse(token);
+            parser.parse(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    // Valida firma y expiración y devuelve los claims en una sola pasada
+    public Optional<Claims> leerClaims(String token) {
+        try {
+            return Optional.of(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.jwt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jwt.revocacion")
+public class RevocacionProperties {
+
+    // Archivo de la tabla de revocaciones; sobrevive a reinicios. Vacío: temporal que se borra al parar
+    private String archivo = "data/revocaciones-jwt.dat";
+    // Número de huecos de la tabla (se redondea a potencia de 2); 24 bytes por hueco
+    private int capacidad = 131_072;
+    // Cada cuánto la caché local vuelve a leer el almacén
+    private long sincronizacionMs = 5_000;
+
+    // Getters y setters
+    public String getArchivo() { return archivo; }
+    public void setArchivo(String archivo) { this.archivo = archivo; }
+
+    public int getCapacidad() { return capacidad; }
+    public void setCapacidad(int capacidad) { this.capacidad = capacidad; }
+
+    public long getSincronizacionMs() { return sincronizacionMs; }
+    public void setSincronizacionMs(long sincronizacionMs) { this.sincronizacionMs = sincronizacionMs; }
+}
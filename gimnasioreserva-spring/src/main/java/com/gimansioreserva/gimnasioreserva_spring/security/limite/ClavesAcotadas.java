@@ -0,0 +1,53 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Estado por clave (IP, correo, usuario...) en memoria acotada: las claves se reparten en franjas
+ * y cada franja es un LRU con su propio cerrojo, que solo se toma para buscar o crear el valor.
+ * Al superar la capacidad se olvida la clave menos usada.
+ */
+final class ClavesAcotadas<V> {
+
+    private final Franja<V>[] franjas;
+    private final Supplier<V> crear;
+
+    @SuppressWarnings("unchecked")
+    ClavesAcotadas(int maxClaves, int numFranjas, Supplier<V> crear) {
+        if (numFranjas < 1) {
+            throw new IllegalArgumentException("numFranjas debe ser >= 1");
+        }
+        this.crear = crear;
+        int porFranja = Math.max(1, maxClaves / numFranjas);
+        this.franjas = new Franja[numFranjas];
+        for (int i = 0; i < numFranjas; i++) {
+            franjas[i] = new Franja<>(porFranja);
+        }
+    }
+
+    V obtener(String clave) {
+        int h = clave.hashCode();
+        h ^= h >>> 16;
+        return franjas[(h & Integer.MAX_VALUE) % franjas.length].obtener(clave, crear);
+    }
+
+    private static final class Franja<V> {
+
+        private final Map<String, V> valores;
+
+        Franja(int capacidad) {
+            this.valores = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, V> mayor) {
+                    return size() > capacidad;
+                }
+            };
+        }
+
+        synchronized V obtener(String clave, Supplier<V> crear) {
+            return valores.computeIfAbsent(clave, c -> crear.get());
+        }
+    }
+}
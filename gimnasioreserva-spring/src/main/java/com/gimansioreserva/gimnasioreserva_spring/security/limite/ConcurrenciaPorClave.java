@@ -0,0 +1,39 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Peticiones en curso por clave, con un máximo: si se supera se rechaza al momento en vez de
+ * dejar el hilo esperando. El contador es un AtomicInteger por clave dentro de ClavesAcotadas.
+ */
+public class ConcurrenciaPorClave {
+
+    private final int maximo;
+    private final ClavesAcotadas<AtomicInteger> enCurso;
+
+    public ConcurrenciaPorClave(int maximo, int maxClaves, int numFranjas) {
+        if (maximo < 1) {
+            throw new IllegalArgumentException("maximo debe ser >= 1");
+        }
+        this.maximo = maximo;
+        this.enCurso = new ClavesAcotadas<>(maxClaves, numFranjas, AtomicInteger::new);
+    }
+
+    /**
+     * Reserva un hueco para la clave.
+     * @return el contador a pasar a {@link #salir(AtomicInteger)} al terminar, o null si ya está en el máximo
+     */
+    public AtomicInteger entrar(String clave) {
+        AtomicInteger contador = enCurso.obtener(clave);
+        if (contador.incrementAndGet() > maximo) {
+            contador.decrementAndGet();
+            return null;
+        }
+        return contador;
+    }
+
+    // Se libera sobre el mismo contador aunque el LRU ya haya olvidado la clave
+    public static void salir(AtomicInteger contador) {
+        contador.decrementAndGet();
+    }
+}
@@ -0,0 +1,56 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cubeta de tokens por clave (IP, correo...), implementada como GCRA: cada cubeta es un único
+ * AtomicLong con el "instante teórico de llegada" y se actualiza con CAS, sin bloqueos.
+ * Equivale a una cubeta de capacidad {@code rafaga} que se rellena a {@code porMinuto} tokens/min.
+ *
+ * Las cubetas se guardan en ClavesAcotadas: el cerrojo de la franja solo se toma para buscar
+ * o crear la cubeta, nunca para consumir.
+ */
+public class LimitadorPorClave {
+
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final ClavesAcotadas<AtomicLong> cubetas;
+    private final LongSupplier reloj;
+
+    public LimitadorPorClave(int rafaga, int porMinuto, int maxClaves, int numFranjas) {
+        this(rafaga, porMinuto, maxClaves, numFranjas, System::nanoTime);
+    }
+
+    public LimitadorPorClave(int rafaga, int porMinuto, int maxClaves, int numFranjas, LongSupplier reloj) {
+        if (rafaga < 1 || porMinuto < 1) {
+            throw new IllegalArgumentException("rafaga y porMinuto deben ser >= 1");
+        }
+        this.intervaloNanos = TimeUnit.MINUTES.toNanos(1) / porMinuto;
+        this.toleranciaNanos = (rafaga - 1) * intervaloNanos;
+        this.reloj = reloj;
+        this.cubetas = new ClavesAcotadas<>(maxClaves, numFranjas, AtomicLong::new);
+    }
+
+    /**
+     * Consume un token de la clave.
+     * @return 0 si se permite; si no, los nanosegundos que faltan para el siguiente token
+     */
+    public long intentar(String clave) {
+        AtomicLong llegadaTeorica = cubetas.obtener(clave);
+        long ahora = reloj.getAsLong();
+        while (true) {
+            long actual = llegadaTeorica.get();
+            // Cubeta nueva (0) o que lleva tiempo sin usarse: parte de "ahora"
+            long base = actual == 0 || actual - ahora < 0 ? ahora : actual;
+            long exceso = base - ahora - toleranciaNanos;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (llegadaTeorica.compareAndSet(actual, base + intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+}
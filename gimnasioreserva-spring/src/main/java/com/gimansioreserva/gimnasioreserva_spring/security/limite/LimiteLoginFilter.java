@@ -0,0 +1,167 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Limita los intentos de login y registro por IP y por correo antes de cualquier trabajo caro:
+ * va por delante de JwtAuthenticationFilter (ver SecurityConfig) y responde 429 sin tocar
+ * la base de datos ni calcular BCrypt.
+ *
+ * La IP es getRemoteAddr(): detrás de un proxy (Render) hace falta server.forward-headers-strategy
+ * para que sea la del cliente y no la del proxy, que compartirían todos.
+ */
+@Component
+public class LimiteLoginFilter extends OncePerRequestFilter {
+
+    private static final Set<String> RUTAS = Set.of("/api/auth/login", "/api/auth/register");
+
+    // Un login o registro ocupa unos cientos de bytes
+    private static final int MAX_CUERPO = 16 * 1024;
+
+    private final LimiteLoginProperties propiedades;
+    private final LimitadorPorClave porIp;
+    private final LimitadorPorClave porCorreo;
+    private final ObjectMapper objectMapper;
+    private final MetricasGimnasio metricas;
+
+    public LimiteLoginFilter(LimiteLoginProperties propiedades, ObjectMapper objectMapper, MetricasGimnasio metricas) {
+        this.propiedades = propiedades;
+        this.objectMapper = objectMapper;
+        this.metricas = metricas;
+        this.porIp = new LimitadorPorClave(propiedades.getRafagaIp(), propiedades.getPorMinutoIp(),
+                propiedades.getMaxClaves(), propiedades.getFranjas());
+        this.porCorreo = new LimitadorPorClave(propiedades.getRafagaCorreo(), propiedades.getPorMinutoCorreo(),
+                propiedades.getMaxClaves(), propiedades.getFranjas());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !propiedades.isHabilitado()
+                || !"POST".equals(request.getMethod())
+                || !RUTAS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Primero la IP: no hace falta leer el cuerpo para rechazar
+        long espera = porIp.intentar(request.getRemoteAddr());
+        if (espera > 0) {
+            rechazar(response, "ip", espera);
+            return;
+        }
+
+        byte[] cuerpo = request.getInputStream().readNBytes(MAX_CUERPO + 1);
+        if (cuerpo.length > MAX_CUERPO) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        String correo = extraerCorreo(cuerpo);
+        if (correo != null) {
+            espera = porCorreo.intentar(correo.trim().toLowerCase(Locale.ROOT));
+            if (espera > 0) {
+                rechazar(response, "correo", espera);
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CuerpoLeido(request, cuerpo), response);
+    }
+
+    // JSON mal formado o sin correo: lo rechazará la validación del controlador
+    private String extraerCorreo(byte[] cuerpo) {
+        try {
+            return objectMapper.readTree(cuerpo).path("correo").textValue();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void rechazar(HttpServletResponse response, String clave, long esperaNanos) throws IOException {
+        metricas.loginRechazado(clave);
+        RespuestaLimite.rechazar(response, esperaNanos, "Demasiados intentos.");
+    }
+
+    // El cuerpo ya se consumió para leer el correo: el resto de la cadena lo relee desde memoria
+    private static final class CuerpoLeido extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        CuerpoLeido(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Todo el cuerpo está ya en memoria: se avisa en el acto de que hay datos y de que no habrá más
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.limite-login")
+public class LimiteLoginProperties {
+
+    private boolean habilitado = true;
+    // Por IP: admite ráfagas (varios usuarios detrás de la misma NAT)
+    private int rafagaIp = 20;
+    private int porMinutoIp = 30;
+    // Por correo: pocos intentos contra una misma cuenta
+    private int rafagaCorreo = 5;
+    private int porMinutoCorreo = 5;
+    // Claves recordadas (LRU) repartidas en franjas
+    private int maxClaves = 100_000;
+    private int franjas = 16;
+
+    // Getters y setters
+    public boolean isHabilitado() { return habilitado; }
+    public void setHabilitado(boolean habilitado) { this.habilitado = habilitado; }
+
+    public int getRafagaIp() { return rafagaIp; }
+    public void setRafagaIp(int rafagaIp) { this.rafagaIp = rafagaIp; }
+
+    public int getPorMinutoIp() { return porMinutoIp; }
+    public void setPorMinutoIp(int porMinutoIp) { this.porMinutoIp = porMinutoIp; }
+
+    public int getRafagaCorreo() { return rafagaCorreo; }
+    public void setRafagaCorreo(int rafagaCorreo) { this.rafagaCorreo = rafagaCorreo; }
+
+    public int getPorMinutoCorreo() { return porMinutoCorreo; }
+    public void setPorMinutoCorreo(int porMinutoCorreo) { this.porMinutoCorreo = porMinutoCorreo; }
+
+    public int getMaxClaves() { return maxClaves; }
+    public void setMaxClaves(int maxClaves) { this.maxClaves = maxClaves; }
+
+    public int getFranjas() { return franjas; }
+    public void setFranjas(int franjas) { this.franjas = franjas; }
+}
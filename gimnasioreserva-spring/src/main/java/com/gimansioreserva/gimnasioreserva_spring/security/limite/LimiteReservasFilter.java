@@ -0,0 +1,144 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.ArbolRutas;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Control de admisión por usuario en reservas y disponibilidad: como mucho {@code maxConcurrentes}
+ * peticiones a la vez y una cubeta de tokens para lecturas y otra para escrituras.
+ * Va detrás de JwtAuthenticationFilter (ver SecurityConfig) para conocer el usuario; al superar
+ * cualquiera de los límites responde 429 con Retry-After en vez de dejar el hilo esperando.
+ */
+@Component
+public class LimiteReservasFilter extends OncePerRequestFilter {
+
+    private static final ArbolRutas<Boolean> RUTAS = new ArbolRutas<>();
+
+    static {
+        RUTAS.agregar("/api/reservas/**", Boolean.TRUE);
+        RUTAS.agregar("/api/disponibilidad/**", Boolean.TRUE);
+    }
+
+    private final LimiteReservasProperties propiedades;
+    private final ConcurrenciaPorClave concurrencia;
+    private final LimitadorPorClave lecturas;
+    private final LimitadorPorClave escrituras;
+    private final MetricasGimnasio metricas;
+
+    public LimiteReservasFilter(LimiteReservasProperties propiedades, MetricasGimnasio metricas) {
+        this.propiedades = propiedades;
+        this.metricas = metricas;
+        this.concurrencia = new ConcurrenciaPorClave(propiedades.getMaxConcurrentes(),
+                propiedades.getMaxClaves(), propiedades.getFranjas());
+        this.lecturas = new LimitadorPorClave(propiedades.getRafagaLectura(), propiedades.getPorMinutoLectura(),
+                propiedades.getMaxClaves(), propiedades.getFranjas());
+        this.escrituras = new LimitadorPorClave(propiedades.getRafagaEscritura(), propiedades.getPorMinutoEscritura(),
+                propiedades.getMaxClaves(), propiedades.getFranjas());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !propiedades.isHabilitado() || RutasSeguridad.buscar(RUTAS, request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Sin usuario no hay clave: la autorización responderá 401 más adelante
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || !autenticacion.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String usuario = autenticacion.getName();
+
+        AtomicInteger enCurso = concurrencia.entrar(usuario);
+        if (enCurso == null) {
+            rechazar(response, "concurrencia", TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        boolean liberar = true;
+        try {
+            long espera = esLectura(request) ? lecturas.intentar(usuario) : escrituras.intentar(usuario);
+            if (espera > 0) {
+                rechazar(response, "tasa", espera);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            // Respuesta asíncrona: el hueco se libera cuando termine de verdad, no al soltar el hilo
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LiberarAlTerminar(enCurso));
+                liberar = false;
+            }
+        } finally {
+            if (liberar) {
+                ConcurrenciaPorClave.salir(enCurso);
+            }
+        }
+    }
+
+    private static boolean esLectura(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        return "GET".equals(metodo) || "HEAD".equals(metodo) || "OPTIONS".equals(metodo);
+    }
+
+    private void rechazar(HttpServletResponse response, String motivo, long esperaNanos) throws IOException {
+        metricas.reservaRechazada(motivo);
+        RespuestaLimite.rechazar(response, esperaNanos, "Demasiadas peticiones.");
+    }
+
+    private static final class LiberarAlTerminar implements AsyncListener {
+
+        private final AtomicInteger enCurso;
+        private boolean liberado;
+
+        LiberarAlTerminar(AtomicInteger enCurso) {
+            this.enCurso = enCurso;
+        }
+
+        // onError/onTimeout van seguidos de onComplete: se libera una sola vez
+        private synchronized void liberar() {
+            if (!liberado) {
+                liberado = true;
+                ConcurrenciaPorClave.salir(enCurso);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Si se vuelve a iniciar el modo asíncrono el listener hay que registrarlo de nuevo
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
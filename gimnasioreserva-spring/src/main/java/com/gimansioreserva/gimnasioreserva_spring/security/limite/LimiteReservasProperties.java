@@ -0,0 +1,47 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.limite-reservas")
+public class LimiteReservasProperties {
+
+    private boolean habilitado = true;
+    // Peticiones simultáneas por usuario; la siguiente recibe 429 en vez de ocupar otro hilo
+    private int maxConcurrentes = 2;
+    // Consultas (GET): la app refresca la disponibilidad con frecuencia
+    private int rafagaLectura = 30;
+    private int porMinutoLectura = 120;
+    // Crear/cancelar: una persona no necesita más de unas pocas por minuto
+    private int rafagaEscritura = 5;
+    private int porMinutoEscritura = 20;
+    // Usuarios recordados (LRU) repartidos en franjas
+    private int maxClaves = 100_000;
+    private int franjas = 16;
+
+    // Getters y setters
+    public boolean isHabilitado() { return habilitado; }
+    public void setHabilitado(boolean habilitado) { this.habilitado = habilitado; }
+
+    public int getMaxConcurrentes() { return maxConcurrentes; }
+    public void setMaxConcurrentes(int maxConcurrentes) { this.maxConcurrentes = maxConcurrentes; }
+
+    public int getRafagaLectura() { return rafagaLectura; }
+    public void setRafagaLectura(int rafagaLectura) { this.rafagaLectura = rafagaLectura; }
+
+    public int getPorMinutoLectura() { return porMinutoLectura; }
+    public void setPorMinutoLectura(int porMinutoLectura) { this.porMinutoLectura = porMinutoLectura; }
+
+    public int getRafagaEscritura() { return rafagaEscritura; }
+    public void setRafagaEscritura(int rafagaEscritura) { this.rafagaEscritura = rafagaEscritura; }
+
+    public int getPorMinutoEscritura() { return porMinutoEscritura; }
+    public void setPorMinutoEscritura(int porMinutoEscritura) { this.porMinutoEscritura = porMinutoEscritura; }
+
+    public int getMaxClaves() { return maxClaves; }
+    public void setMaxClaves(int maxClaves) { this.maxClaves = maxClaves; }
+
+    public int getFranjas() { return franjas; }
+    public void setFranjas(int franjas) { this.franjas = franjas; }
+}
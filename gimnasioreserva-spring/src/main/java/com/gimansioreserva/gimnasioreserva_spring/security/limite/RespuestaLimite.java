@@ -0,0 +1,26 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.limite;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Respuesta 429 común a los filtros de límite: Retry-After en segundos enteros, redondeado hacia arriba
+final class RespuestaLimite {
+
+    private RespuestaLimite() {
+    }
+
+    static void rechazar(HttpServletResponse response, long esperaNanos, String mensaje) throws IOException {
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(
+            "{\"success\":false,\"message\":\"" + mensaje + " Vuelve a intentarlo en " + segundos + " s.\"}"
+        );
+    }
+}
@@ -0,0 +1,166 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.rutas;
+
+import java.util.Arrays;
+
+/**
+ * Trie por segmentos de ruta para patrones estilo Spring: segmentos literales, {@code *} (un segmento
+ * no vacío) y {@code /**} al final (cero o más segmentos). Se construye al arrancar y después solo se lee.
+ *
+ * La búsqueda no reserva memoria: compara los segmentos sobre la propia cadena con regionMatches.
+ * Si varios patrones encajan gana el que recorre más segmentos literales; en cada nivel se prueba
+ * literal, luego {@code *} y por último {@code /**}. Con patrones sin {@code *} coincide con el orden de
+ * especificidad de PathPattern (RutasSeguridadTest lo comprueba para todas las reglas configuradas).
+ */
+public class ArbolRutas<T> {
+
+    private final Nodo<T> raiz = new Nodo<>();
+
+    public void agregar(String patron, T valor) {
+        if (!patron.startsWith("/")) {
+            throw new IllegalArgumentException("El patrón debe empezar por '/': " + patron);
+        }
+        if ("/".equals(patron)) {
+            raiz.valorFinal = comprobarDuplicado(raiz.valorFinal, valor, patron);
+            return;
+        }
+        Nodo<T> nodo = raiz;
+        String[] segmentos = patron.substring(1).split("/", -1);
+        for (int i = 0; i < segmentos.length; i++) {
+            String segmento = segmentos[i];
+            if ("**".equals(segmento)) {
+                if (i != segmentos.length - 1) {
+                    throw new IllegalArgumentException("'**' solo se admite al final: " + patron);
+                }
+                nodo.valorResto = comprobarDuplicado(nodo.valorResto, valor, patron);
+                return;
+            }
+            if (segmento.isEmpty()) {
+                throw new IllegalArgumentException("Segmento vacío en el patrón: " + patron);
+            }
+            if (segmento.contains("*") && !"*".equals(segmento)) {
+                throw new IllegalArgumentException("Comodín parcial no admitido: " + patron);
+            }
+            nodo = "*".equals(segmento) ? nodo.comodin() : nodo.hijo(segmento);
+        }
+        nodo.valorFinal = comprobarDuplicado(nodo.valorFinal, valor, patron);
+    }
+
+    // ruta sin query string; desde: posición de la primera '/' (p. ej. tras el context path)
+    public T buscar(String ruta, int desde) {
+        if (desde >= ruta.length() || ruta.charAt(desde) != '/') {
+            return null;
+        }
+        // "/" a secas: sin segmentos
+        if (desde == ruta.length() - 1) {
+            return raiz.valorFinal != null ? raiz.valorFinal : raiz.valorResto;
+        }
+        // Camino habitual sin comodines de un segmento: descenso iterativo recordando el último "/**" visto
+        Nodo<T> nodo = raiz;
+        T resto = null;
+        int pos = desde;
+        int longitud = ruta.length();
+        while (nodo.comodin == null) {
+            if (nodo.valorResto != null) {
+                resto = nodo.valorResto;
+            }
+            if (pos >= longitud) {
+                return nodo.valorFinal != null ? nodo.valorFinal : resto;
+            }
+            int inicio = pos + 1;
+            int fin = ruta.indexOf('/', inicio);
+            if (fin < 0) {
+                fin = longitud;
+            }
+            Nodo<T> hijo = nodo.literal(ruta, inicio, fin - inicio);
+            if (hijo == null) {
+                return resto;
+            }
+            nodo = hijo;
+            pos = fin;
+        }
+        T encontrado = buscar(nodo, ruta, pos);
+        return encontrado != null ? encontrado : resto;
+    }
+
+    public T buscar(String ruta) {
+        return buscar(ruta, 0);
+    }
+
+    // pos: índice de la '/' que precede al siguiente segmento, o el final de la ruta
+    private static <T> T buscar(Nodo<T> nodo, String ruta, int pos) {
+        int longitud = ruta.length();
+        if (pos >= longitud) {
+            return nodo.valorFinal != null ? nodo.valorFinal : nodo.valorResto;
+        }
+        int inicio = pos + 1;
+        int fin = ruta.indexOf('/', inicio);
+        if (fin < 0) {
+            fin = longitud;
+        }
+        int largo = fin - inicio;
+
+        Nodo<T> hijo = nodo.literal(ruta, inicio, largo);
+        if (hijo != null) {
+            T encontrado = buscar(hijo, ruta, fin);
+            if (encontrado != null) {
+                return encontrado;
+            }
+        }
+        if (nodo.comodin != null && largo > 0) {
+            T encontrado = buscar(nodo.comodin, ruta, fin);
+            if (encontrado != null) {
+                return encontrado;
+            }
+        }
+        return nodo.valorResto;
+    }
+
+    private static <T> T comprobarDuplicado(T actual, T nuevo, String patron) {
+        if (actual != null && !actual.equals(nuevo)) {
+            throw new IllegalArgumentException("Patrón repetido con otro valor: " + patron);
+        }
+        return nuevo;
+    }
+
+    private static final class Nodo<T> {
+
+        // Arrays paralelos: pocos hijos por nodo, una búsqueda lineal es más barata que un hash
+        private String[] segmentos = new String[0];
+        @SuppressWarnings("unchecked")
+        private Nodo<T>[] hijos = new Nodo[0];
+        private Nodo<T> comodin;
+        private T valorFinal;
+        private T valorResto;
+
+        Nodo<T> hijo(String segmento) {
+            for (int i = 0; i < segmentos.length; i++) {
+                if (segmentos[i].equals(segmento)) {
+                    return hijos[i];
+                }
+            }
+            Nodo<T> nuevo = new Nodo<>();
+            segmentos = Arrays.copyOf(segmentos, segmentos.length + 1);
+            hijos = Arrays.copyOf(hijos, hijos.length + 1);
+            segmentos[segmentos.length - 1] = segmento;
+            hijos[hijos.length - 1] = nuevo;
+            return nuevo;
+        }
+
+        Nodo<T> literal(String ruta, int inicio, int largo) {
+            for (int i = 0; i < segmentos.length; i++) {
+                String segmento = segmentos[i];
+                if (segmento.length() == largo && ruta.regionMatches(inicio, segmento, 0, largo)) {
+                    return hijos[i];
+                }
+            }
+            return null;
+        }
+
+        Nodo<T> comodin() {
+            if (comodin == null) {
+                comodin = new Nodo<>();
+            }
+            return comodin;
+        }
+    }
+}
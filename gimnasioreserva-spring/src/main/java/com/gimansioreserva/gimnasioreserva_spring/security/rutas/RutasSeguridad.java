@@ -0,0 +1,102 @@
+package com.gimansioreserva.gimnasioreserva_spring.security.rutas;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reglas de acceso por ruta, compiladas una vez al arrancar en un ArbolRutas.
+ * Las comparten SecurityConfig (autorización) y JwtAuthenticationFilter (qué rutas no leen el token).
+ */
+@Component
+public class RutasSeguridad {
+
+    public enum Acceso {
+        // Pública y sin leer el token: el filtro JWT ni siquiera la parsea
+        PUBLICA_SIN_TOKEN,
+        // Pública, pero el filtro JWT procesa el token si viene (p. ej. logout)
+        PUBLICA,
+        ADMIN,
+        // ADMIN o el token del scraper (AccesoMetricas)
+        METRICAS,
+        AUTENTICADA
+    }
+
+    // Orden de la tabla irrelevante: gana siempre el patrón más específico
+    public static final Map<String, Acceso> REGLAS = crearReglas();
+
+    private final ArbolRutas<Acceso> arbol = new ArbolRutas<>();
+
+    public RutasSeguridad() {
+        REGLAS.forEach(arbol::agregar);
+    }
+
+    private static Map<String, Acceso> crearReglas() {
+        Map<String, Acceso> reglas = new LinkedHashMap<>();
+        reglas.put("/api/auth/login", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/api/auth/register", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/api/auth/refresh", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/api/auth/reset-password", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/api/recomendaciones/stream", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/api/recomendaciones/simular", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/swagger-ui/**", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/swagger-ui.html", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/v3/api-docs/**", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/api-docs/**", Acceso.PUBLICA_SIN_TOKEN);
+        reglas.put("/actuator/health", Acceso.PUBLICA_SIN_TOKEN);
+
+        reglas.put("/api/auth/**", Acceso.PUBLICA);
+        reglas.put("/api/admin/**", Acceso.ADMIN);
+        reglas.put("/actuator/prometheus", Acceso.METRICAS);
+        reglas.put("/api/clases/**", Acceso.AUTENTICADA);
+        reglas.put("/api/reservas/**", Acceso.AUTENTICADA);
+        reglas.put("/api/disponibilidad/**", Acceso.AUTENTICADA);
+        reglas.put("/api/estadisticas/**", Acceso.AUTENTICADA);
+        return Map.copyOf(reglas);
+    }
+
+    /**
+     * Regla que aplica a la petición, o null si ninguna encaja (se trata como autenticada).
+     * Sin reservas de memoria salvo que la ruta venga con caracteres escapados.
+     */
+    public Acceso buscar(HttpServletRequest request) {
+        return buscar(arbol, request);
+    }
+
+    public Acceso buscar(String uri, int desde) {
+        return buscar(arbol, uri, desde);
+    }
+
+    // Para otros árboles de rutas (p. ej. los límites por usuario) con el mismo tratamiento del context path
+    public static <T> T buscar(ArbolRutas<T> arbol, HttpServletRequest request) {
+        return buscar(arbol, request.getRequestURI(), request.getContextPath().length());
+    }
+
+    private static <T> T buscar(ArbolRutas<T> arbol, String uri, int desde) {
+        // Spring MVC enruta sobre la ruta decodificada: "/api/%61dmin" debe seguir siendo ADMIN
+        if (uri.indexOf('%', desde) >= 0) {
+            return arbol.buscar(UriUtils.decode(uri.substring(desde), StandardCharsets.UTF_8));
+        }
+        return arbol.buscar(uri, desde);
+    }
+
+    public boolean sinToken(HttpServletRequest request) {
+        return buscar(request) == Acceso.PUBLICA_SIN_TOKEN;
+    }
+
+    public RequestMatcher matcher(Acceso... accesos) {
+        Set<Acceso> aceptados = EnumSet.copyOf(Arrays.asList(accesos));
+        return request -> {
+            Acceso acceso = buscar(request);
+            return acceso != null && aceptados.contains(acceso);
+        };
+    }
+}
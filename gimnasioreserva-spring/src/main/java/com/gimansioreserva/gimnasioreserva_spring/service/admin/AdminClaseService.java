@@ -2,13 +2,28 @@ package com.gimansioreserva.gimnasioreserva_spring.service.admin;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
 import com.gimansioreserva.gimnasioreserva_spring.dto.admin.ClaseAdminDTO;
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.SerieClasesDTO;
+import com.gimansioreserva.gimnasioreserva_spring.exception.BusinessException;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
 import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.AgendaReservasSocios;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.BandejaEventos;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceHorariosEntrenadores;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
+import com.gimansioreserva.gimnasioreserva_spring.validator.ClaseValidator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -18,10 +33,25 @@ public class AdminClaseService {
 
     private final ClaseRepository claseRepository;
     private final EntrenadorRepository entrenadorRepository;
+    private final IndiceAgendaClases indiceAgendaClases;
+    private final VersionesCatalogo versionesCatalogo;
+    private final ClaseValidator claseValidator;
+    private final IndiceHorariosEntrenadores indiceHorarios;
+    private final AgendaReservasSocios agendaReservasSocios;
+    private final BandejaEventos bandejaEventos;
 
-    public AdminClaseService(ClaseRepository claseRepository, EntrenadorRepository entrenadorRepository) {
+    public AdminClaseService(ClaseRepository claseRepository, EntrenadorRepository entrenadorRepository,
+                             IndiceAgendaClases indiceAgendaClases, VersionesCatalogo versionesCatalogo,
+                             ClaseValidator claseValidator, IndiceHorariosEntrenadores indiceHorarios,
+                             AgendaReservasSocios agendaReservasSocios, BandejaEventos bandejaEventos) {
         this.claseRepository = claseRepository;
         this.entrenadorRepository = entrenadorRepository;
+        this.indiceAgendaClases = indiceAgendaClases;
+        this.versionesCatalogo = versionesCatalogo;
+        this.claseValidator = claseValidator;
+        this.indiceHorarios = indiceHorarios;
+        this.agendaReservasSocios = agendaReservasSocios;
+        this.bandejaEventos = bandejaEventos;
     }
 
     // Listar todas las clases
@@ -103,9 +133,52 @@ public class AdminClaseService {
         clase.setEntrenador(entrenador);
 
         Clase guardada = claseRepository.save(clase);
+        indiceHorarios.registrar(List.of(guardada));
+        horarioCambiado(guardada.getIdClase());
+        indiceAgendaClases.refrescarClase(guardada.getIdClase());
+        versionesCatalogo.catalogoCambiado();
         return Optional.of(convertirADTO(guardada));
     }
 
+    /**
+     * Crea todas las clases de una serie semanal en una transacción: se expanden en memoria, se validan,
+     * se insertan en lotes y se comprueba en el índice de horarios que el entrenador no tenga otra clase
+     * a esa hora. Si alguna falla no se crea ninguna.
+     */
+    @Transactional
+    public List<ClaseAdminDTO> crearSerie(SerieClasesDTO serie) {
+        claseValidator.validarSerie(serie);
+        Entrenador entrenador = entrenadorRepository.findById(serie.getIdEntrenador())
+                .orElseThrow(() -> new BusinessException("Entrenador no encontrado con ID: " + serie.getIdEntrenador()));
+
+        List<Clase> clases = new ArrayList<>();
+        for (LocalDateTime horario : expandirSerie(serie)) {
+            Clase clase = new Clase();
+            clase.setNombre(serie.getNombre());
+            clase.setDescripcion(serie.getDescripcion());
+            clase.setHorario(horario);
+            clase.setCupo(serie.getCupo());
+            clase.setDuracionMinutos(serie.getDuracionMinutos() != null ? serie.getDuracionMinutos() : 60);
+            clase.setActivo(true);
+            clase.setEntrenador(entrenador);
+            claseValidator.validar(clase);
+            clases.add(clase);
+        }
+        if (clases.isEmpty()) {
+            throw new BusinessException("La serie no genera ninguna clase entre " + serie.getDesde() + " y " + serie.getHasta());
+        }
+
+        List<Clase> guardadas = claseRepository.saveAll(clases);
+        indiceHorarios.registrar(guardadas);
+        List<Long> ids = guardadas.stream().map(Clase::getIdClase).collect(Collectors.toList());
+        bandejaEventos.registrarLote(ids, TipoEvento.CAMBIO_HORARIO_LOTE);
+        indiceAgendaClases.refrescarClases(ids);
+        versionesCatalogo.catalogoCambiado();
+        return guardadas.stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
+    }
+
     // Actualizar clase
     @Transactional
     public Optional<ClaseAdminDTO> actualizar(Long id, ClaseAdminDTO dto) {
@@ -125,11 +198,21 @@ public class AdminClaseService {
                                 .map(entrenador -> {
                                     clase.setEntrenador(entrenador);
                                     Clase actualizada = claseRepository.save(clase);
+                                    indiceHorarios.registrar(List.of(actualizada));
+                                    horarioCambiado(id);
+                                    agendaReservasSocios.olvidarClase(id);
+                                    indiceAgendaClases.refrescarClase(id);
+                                    versionesCatalogo.catalogoCambiado();
                                     return convertirADTO(actualizada);
                                 });
                     }
 
                     Clase actualizada = claseRepository.save(clase);
+                    indiceHorarios.registrar(List.of(actualizada));
+                    horarioCambiado(id);
+                    agendaReservasSocios.olvidarClase(id);
+                    indiceAgendaClases.refrescarClase(id);
+                    versionesCatalogo.catalogoCambiado();
                     return Optional.of(convertirADTO(actualizada));
                 });
     }
@@ -141,6 +224,11 @@ public class AdminClaseService {
                 .map(clase -> {
                     clase.setActivo(false);
                     claseRepository.save(clase);
+                    indiceHorarios.registrar(List.of(clase));
+                    horarioCambiado(id);
+                    agendaReservasSocios.olvidarClase(id);
+                    indiceAgendaClases.refrescarClase(id);
+                    versionesCatalogo.catalogoCambiado();
                     return true;
                 })
                 .orElse(false);
@@ -153,6 +241,12 @@ public class AdminClaseService {
                 .map(clase -> {
                     clase.setActivo(true);
                     claseRepository.save(clase);
+                    indiceHorarios.registrar(List.of(clase));
+                    horarioCambiado(id);
+                    // Las agendas cargadas mientras estaba inactiva no la tienen
+                    agendaReservasSocios.olvidarTodo();
+                    indiceAgendaClases.refrescarClase(id);
+                    versionesCatalogo.catalogoCambiado();
                     return true;
                 })
                 .orElse(false);
@@ -163,6 +257,11 @@ public class AdminClaseService {
     public boolean eliminar(Long id) {
         if (claseRepository.existsById(id)) {
             claseRepository.deleteById(id);
+            indiceHorarios.quitar(id);
+            horarioCambiado(id);
+            agendaReservasSocios.olvidarClase(id);
+            indiceAgendaClases.refrescarClase(id);
+            versionesCatalogo.catalogoCambiado();
             return true;
         }
         return false;
@@ -174,6 +273,25 @@ public class AdminClaseService {
         return claseRepository.contarReservasConfirmadas(idClase);
     }
 
+    // Fechas de la serie en orden: los días indicados de cada intervaloSemanas-ésima semana (de lunes a domingo)
+    private static List<LocalDateTime> expandirSerie(SerieClasesDTO serie) {
+        int intervalo = serie.getIntervaloSemanas() != null ? serie.getIntervaloSemanas() : 1;
+        LocalDate primerLunes = serie.getDesde().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<LocalDateTime> horarios = new ArrayList<>();
+        for (LocalDate fecha = serie.getDesde(); !fecha.isAfter(serie.getHasta()); fecha = fecha.plusDays(1)) {
+            if (ChronoUnit.WEEKS.between(primerLunes, fecha) % intervalo == 0
+                    && serie.getDiasSemana().contains(fecha.getDayOfWeek())) {
+                horarios.add(LocalDateTime.of(fecha, serie.getHora()));
+            }
+        }
+        return horarios;
+    }
+
+    // Los demás nodos actualizan con este evento su índice de horarios (y su agenda de clases)
+    private void horarioCambiado(Long idClase) {
+        bandejaEventos.registrar(idClase, TipoEvento.CAMBIO_HORARIO, null);
+    }
+
     // Método privado para convertir Entidad a DTO
     private ClaseAdminDTO convertirADTO(Clase clase) {
         ClaseAdminDTO dto = new ClaseAdminDTO();
@@ -195,7 +313,7 @@ public class AdminClaseService {
         // Estadísticas
         dto.setTotalReservas(clase.getReservas().size());
         dto.setReservasConfirmadas((int) clase.getReservas().stream()
-                .filter(r -> r.getEstado().equals("CONFIRMADA"))
+                .filter(r -> r.getEstado() == EstadoReserva.CONFIRMADA)
                 .count());
 
         return dto;
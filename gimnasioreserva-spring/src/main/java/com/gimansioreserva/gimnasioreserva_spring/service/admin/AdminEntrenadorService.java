@@ -1,8 +1,14 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.admin;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
 import com.gimansioreserva.gimnasioreserva_spring.dto.admin.EntrenadorAdminDTO;
 import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.BandejaEventos;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceHorariosEntrenadores;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,9 +20,19 @@ import java.util.stream.Collectors;
 public class AdminEntrenadorService {
 
     private final EntrenadorRepository entrenadorRepository;
-
-    public AdminEntrenadorService(EntrenadorRepository entrenadorRepository) {
+    private final IndiceAgendaClases indiceAgendaClases;
+    private final VersionesCatalogo versionesCatalogo;
+    private final IndiceHorariosEntrenadores indiceHorarios;
+    private final BandejaEventos bandejaEventos;
+
+    public AdminEntrenadorService(EntrenadorRepository entrenadorRepository, IndiceAgendaClases indiceAgendaClases,
+                                  VersionesCatalogo versionesCatalogo, IndiceHorariosEntrenadores indiceHorarios,
+                                  BandejaEventos bandejaEventos) {
         this.entrenadorRepository = entrenadorRepository;
+        this.indiceAgendaClases = indiceAgendaClases;
+        this.versionesCatalogo = versionesCatalogo;
+        this.indiceHorarios = indiceHorarios;
+        this.bandejaEventos = bandejaEventos;
     }
 
     // Listar todos los entrenadores
@@ -82,6 +98,9 @@ public class AdminEntrenadorService {
                     entrenador.setActivo(dto.getActivo());
 
                     Entrenador actualizado = entrenadorRepository.save(entrenador);
+                    // Las clases en la agenda llevan copiado el nombre y la especialidad
+                    indiceAgendaClases.refrescarClasesDeEntrenador(id);
+                    versionesCatalogo.catalogoCambiado();
                     return convertirADTO(actualizado);
                 });
     }
@@ -113,11 +132,21 @@ public class AdminEntrenadorService {
     // Eliminar entrenador permanentemente
     @Transactional
     public boolean eliminar(Long id) {
-        if (entrenadorRepository.existsById(id)) {
-            entrenadorRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return entrenadorRepository.findById(id)
+                .map(entrenador -> {
+                    // Las clases del entrenador se borran en cascada: salen de los índices (aquí y en los
+                    // demás nodos, con un evento por lote) y del catálogo
+                    List<Long> clases = entrenador.getClases().stream().map(Clase::getIdClase).toList();
+                    entrenadorRepository.delete(entrenador);
+                    if (!clases.isEmpty()) {
+                        clases.forEach(indiceHorarios::quitar);
+                        indiceAgendaClases.refrescarClases(clases);
+                        bandejaEventos.registrarLote(clases, TipoEvento.CAMBIO_HORARIO_LOTE);
+                    }
+                    versionesCatalogo.catalogoCambiado();
+                    return true;
+                })
+                .orElse(false);
     }
 
     // Obtener especialidades disponibles
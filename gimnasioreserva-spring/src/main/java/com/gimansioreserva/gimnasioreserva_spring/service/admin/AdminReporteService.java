@@ -1,5 +1,6 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.admin;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.dto.admin.ReporteDTO;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
 import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
@@ -49,9 +50,9 @@ public class AdminReporteService {
 
         // Estadísticas de reservas
         reporte.setTotalReservas(reservaRepository.count());
-        reporte.setReservasConfirmadas(reservaRepository.contarPorEstado("CONFIRMADA"));
-        reporte.setReservasCanceladas(reservaRepository.contarPorEstado("CANCELADA"));
-        reporte.setReservasCompletadas(reservaRepository.contarPorEstado("COMPLETADA"));
+        reporte.setReservasConfirmadas(reservaRepository.contarPorEstado(EstadoReserva.CONFIRMADA));
+        reporte.setReservasCanceladas(reservaRepository.contarPorEstado(EstadoReserva.CANCELADA));
+        reporte.setReservasCompletadas(reservaRepository.contarPorEstado(EstadoReserva.COMPLETADA));
 
         // Clases más populares
         reporte.setClasesPopulares(obtenerClasesPopulares());
@@ -3,10 +3,10 @@ package com.gimansioreserva.gimnasioreserva_spring.service.auth;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.LoginRequest;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.LoginResponse;
+import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RefreshResponse;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RegistroRequest;
 import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
 import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenBlacklist;
-import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,19 +18,19 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
-    private final JwtTokenProvider jwtTokenProvider;
     private final JwtTokenBlacklist jwtTokenBlacklist;
+    private final RefreshTokenService refreshTokenService;
 
     public AuthenticationService(AuthenticationManager authenticationManager,
             UsuarioRepository usuarioRepository,
             PasswordEncoder passwordEncoder,
-            JwtTokenProvider jwtTokenProvider,
-            JwtTokenBlacklist jwtTokenBlacklist) {
+            JwtTokenBlacklist jwtTokenBlacklist,
+            RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
-        this.jwtTokenProvider = jwtTokenProvider;
         this.jwtTokenBlacklist = jwtTokenBlacklist;
+        this.refreshTokenService = refreshTokenService;
     }
 
     public LoginResponse login(LoginRequest request) {
@@ -44,12 +44,12 @@ public class AuthenticationService {
                 .findByCorreo(request.getCorreo())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        String accessToken = jwtTokenProvider.generarToken(usuario.getCorreo(), usuario.getRol());
-        String refreshToken = jwtTokenProvider.generarRefreshToken(usuario.getCorreo());
+        // BCrypt solo en el login; después la sesión se mantiene con /refresh
+        RefreshResponse tokens = refreshTokenService.abrirSesion(usuario);
 
         return new LoginResponse(
-                accessToken,
-                refreshToken,
+                tokens.getAccessToken(),
+                tokens.getRefreshToken(),
                 usuario.getIdUsuario(),
                 usuario.getCorreo(),
                 usuario.getNombre(),
@@ -75,7 +75,12 @@ public class AuthenticationService {
         return usuarioRepository.save(usuario);
     }
 
+    public RefreshResponse refrescar(String refreshToken) {
+        return refreshTokenService.refrescar(refreshToken);
+    }
+
     public void logout(String token) {
         jwtTokenBlacklist.agregar(token);
+        refreshTokenService.cerrarSesion(token);
     }
 }
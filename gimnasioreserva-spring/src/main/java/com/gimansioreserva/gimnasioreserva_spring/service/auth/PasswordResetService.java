@@ -11,11 +11,14 @@ public class PasswordResetService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
 
     public PasswordResetService(UsuarioRepository usuarioRepository,
-                                PasswordEncoder passwordEncoder) {
+                                PasswordEncoder passwordEncoder,
+                                RefreshTokenService refreshTokenService) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.refreshTokenService = refreshTokenService;
     }
 
     public void resetPassword(PasswordResetRequest request) {
@@ -25,5 +28,7 @@ public class PasswordResetService {
 
         usuario.setContrasena(passwordEncoder.encode(request.getNuevaContrasena()));
         usuarioRepository.save(usuario);
+        // Las sesiones abiertas con la contraseña anterior dejan de poder renovarse
+        refreshTokenService.cerrarSesionesDeUsuario(usuario.getIdUsuario());
     }
 }
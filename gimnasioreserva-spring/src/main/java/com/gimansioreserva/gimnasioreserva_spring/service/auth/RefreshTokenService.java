@@ -0,0 +1,128 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.auth;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.FamiliaRefresh;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RefreshResponse;
+import com.gimansioreserva.gimnasioreserva_spring.exception.TokenRefreshInvalidoException;
+import com.gimansioreserva.gimnasioreserva_spring.repository.FamiliaRefreshRepository;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtProperties;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenBlacklist;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Refresh tokens rotatorios agrupados en familias (una por login).
+ * Renovar solo verifica la firma HMAC y hace un UPDATE por clave primaria: ni BCrypt ni búsqueda
+ * del usuario por correo. Presentar un refresh token ya rotado indica que se ha filtrado, así que
+ * se revoca la familia completa y tanto el atacante como el usuario legítimo deben volver a entrar.
+ * Al revocar una familia también dejan de valer sus access tokens ya emitidos (JwtTokenBlacklist).
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private final FamiliaRefreshRepository familiaRefreshRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtProperties jwtProperties;
+    private final JwtTokenBlacklist jwtTokenBlacklist;
+
+    public RefreshTokenService(FamiliaRefreshRepository familiaRefreshRepository,
+                               JwtTokenProvider jwtTokenProvider,
+                               JwtProperties jwtProperties,
+                               JwtTokenBlacklist jwtTokenBlacklist) {
+        this.familiaRefreshRepository = familiaRefreshRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.jwtProperties = jwtProperties;
+        this.jwtTokenBlacklist = jwtTokenBlacklist;
+    }
+
+    // Login: abre una familia nueva y emite su generación 0
+    @Transactional
+    public RefreshResponse abrirSesion(Usuario usuario) {
+        LocalDateTime ahora = LocalDateTime.now();
+        // De paso se borran las sesiones caducadas del usuario para que la tabla no crezca
+        familiaRefreshRepository.eliminarExpiradas(usuario.getIdUsuario(), ahora);
+
+        long idFamilia = ALEATORIO.nextLong() & Long.MAX_VALUE;
+        familiaRefreshRepository.save(new FamiliaRefresh(idFamilia, usuario.getIdUsuario(), expiracion(ahora)));
+        return emitir(usuario.getCorreo(), usuario.getRol(), idFamilia, 0);
+    }
+
+    // La revocación por reutilización debe confirmarse aunque se lance la excepción
+    @Transactional(noRollbackFor = TokenRefreshInvalidoException.class)
+    public RefreshResponse refrescar(String refreshToken) {
+        Claims claims = jwtTokenProvider.leerClaims(refreshToken)
+                .orElseThrow(() -> new TokenRefreshInvalidoException("Refresh token inválido o expirado"));
+        Long idFamilia = claims.get(JwtTokenProvider.CLAIM_FAMILIA, Long.class);
+        Integer generacion = claims.get(JwtTokenProvider.CLAIM_GENERACION, Integer.class);
+        if (!JwtTokenProvider.esDeRefresco(claims) || idFamilia == null || generacion == null) {
+            throw new TokenRefreshInvalidoException("El token no es un refresh token");
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        if (familiaRefreshRepository.rotar(idFamilia, generacion, ahora, expiracion(ahora)) == 1) {
+            return emitir(claims.getSubject(), claims.get(JwtTokenProvider.CLAIM_ROL, String.class),
+                    idFamilia, generacion + 1);
+        }
+
+        // La rotación falló: si la familia sigue viva y va por delante, el token es reutilizado
+        familiaRefreshRepository.findById(idFamilia)
+                .filter(familia -> !familia.getRevocada() && familia.getGeneracion() > generacion)
+                .ifPresent(familia -> {
+                    revocar(idFamilia);
+                    log.warn("Refresh token reutilizado: familia={} usuario={} generacion={} actual={}",
+                            idFamilia, familia.getIdUsuario(), generacion, familia.getGeneracion());
+                    throw new TokenRefreshInvalidoException(
+                            "Refresh token reutilizado: se han cerrado las sesiones asociadas");
+                });
+        throw new TokenRefreshInvalidoException("La sesión ha expirado o fue cerrada");
+    }
+
+    // Logout: el access token lleva la familia de su sesión
+    @Transactional
+    public void cerrarSesion(String accessToken) {
+        jwtTokenProvider.leerClaims(accessToken)
+                .map(claims -> claims.get(JwtTokenProvider.CLAIM_FAMILIA, Long.class))
+                .ifPresent(this::revocar);
+    }
+
+    @Transactional
+    public void cerrarSesionesDeUsuario(Long idUsuario) {
+        long accesoHasta = accesoHasta();
+        familiaRefreshRepository.idsVigentesDeUsuario(idUsuario)
+                .forEach(idFamilia -> jwtTokenBlacklist.revocarFamilia(idFamilia, accesoHasta));
+        familiaRefreshRepository.revocarDeUsuario(idUsuario);
+    }
+
+    private void revocar(long idFamilia) {
+        familiaRefreshRepository.revocar(idFamilia);
+        jwtTokenBlacklist.revocarFamilia(idFamilia, accesoHasta());
+    }
+
+    // Ningún access token emitido hasta ahora vive más allá de este instante
+    private long accesoHasta() {
+        return System.currentTimeMillis() + jwtProperties.getExpiration();
+    }
+
+    private RefreshResponse emitir(String correo, String rol, long idFamilia, int generacion) {
+        return new RefreshResponse(
+                jwtTokenProvider.generarToken(correo, rol, idFamilia),
+                jwtTokenProvider.generarRefreshToken(correo, rol, idFamilia, generacion));
+    }
+
+    // Expiración deslizante: cada renovación alarga la sesión
+    private LocalDateTime expiracion(LocalDateTime ahora) {
+        return ahora.plus(jwtProperties.getRefreshExpiration(), ChronoUnit.MILLIS);
+    }
+}
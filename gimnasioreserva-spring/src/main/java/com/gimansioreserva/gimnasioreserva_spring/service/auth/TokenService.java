@@ -26,12 +26,12 @@ public class TokenService {
         return jwtTokenProvider.generarRefreshToken(correo);
     }
 
-    // Validar token
+    // Validar access token: firma, expiración, tipo y revocación
     public boolean validarToken(String token) {
-        if (jwtTokenBlacklist.estaBlacklisted(token)) {
-            return false;
-        }
-        return jwtTokenProvider.validarToken(token);
+        return jwtTokenProvider.leerClaims(token)
+                .filter(JwtTokenProvider::esDeAcceso)
+                .map(claims -> !jwtTokenBlacklist.estaRevocado(token, claims))
+                .orElse(false);
     }
 
     // Extraer correo del token
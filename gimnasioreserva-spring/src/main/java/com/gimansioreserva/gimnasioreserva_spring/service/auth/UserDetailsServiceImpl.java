@@ -4,7 +4,9 @@ import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
 import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,7 +14,7 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
 
@@ -39,4 +41,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         );
     }
 
+    // Lo invoca el DaoAuthenticationProvider tras un login correcto cuando el hash guardado tiene
+    // parámetros anticuados (sin prefijo {bcrypt} o con un coste menor al calibrado)
+    @Override
+    public UserDetails updatePassword(UserDetails user, String nuevoHash) {
+        usuarioRepository.findByCorreo(user.getUsername()).ifPresent(usuario -> {
+            usuario.setContrasena(nuevoHash);
+            usuarioRepository.save(usuario);
+        });
+        return User.withUserDetails(user).password(nuevoHash).build();
+    }
 }
@@ -0,0 +1,26 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.reservas.agenda")
+public class AgendaReservasProperties {
+
+    // Socios con la agenda en memoria; al superarse se olvida el menos usado
+    private int maxSocios = 50_000;
+    // Franjas con cerrojo propio en las que se reparten los socios
+    private int franjas = 16;
+    // Pasado este tiempo la agenda se vuelve a leer: cubre las reservas hechas en otros nodos
+    private long vigenciaMs = 600_000;
+
+    // Getters y setters
+    public int getMaxSocios() { return maxSocios; }
+    public void setMaxSocios(int maxSocios) { this.maxSocios = maxSocios; }
+
+    public int getFranjas() { return franjas; }
+    public void setFranjas(int franjas) { this.franjas = franjas; }
+
+    public long getVigenciaMs() { return vigenciaMs; }
+    public void setVigenciaMs(long vigenciaMs) { this.vigenciaMs = vigenciaMs; }
+}
@@ -0,0 +1,317 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaDuplicadaException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaSolapadaException;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Agenda en memoria de cada socio: los horarios de sus reservas confirmadas en clases activas, desde ayer.
+ * Permite rechazar una reserva que se solapa con otra del mismo socio en O(log k) sin consultar la base
+ * de datos; solo la primera reserva de un socio (o la primera tras caducar su agenda) la carga.
+ *
+ * Los socios se reparten en franjas y cada franja es un LRU con su propio cerrojo, como en ClavesAcotadas.
+ * Ocupar un hueco es atómico por socio y, si la transacción se revierte, el hueco se libera. Las reservas
+ * hechas en otros nodos no se ven hasta que la agenda caduca (vigenciaMs).
+ */
+@Component
+public class AgendaReservasSocios {
+
+    private final ReservaRepository reservaRepository;
+    private final long vigenciaNanos;
+    private final Franja[] franjas;
+
+    public AgendaReservasSocios(ReservaRepository reservaRepository, AgendaReservasProperties propiedades) {
+        if (propiedades.getFranjas() < 1) {
+            throw new IllegalArgumentException("gimnasio.reservas.agenda.franjas debe ser >= 1");
+        }
+        this.reservaRepository = reservaRepository;
+        this.vigenciaNanos = TimeUnit.MILLISECONDS.toNanos(propiedades.getVigenciaMs());
+        int porFranja = Math.max(1, propiedades.getMaxSocios() / propiedades.getFranjas());
+        this.franjas = new Franja[propiedades.getFranjas()];
+        for (int i = 0; i < franjas.length; i++) {
+            franjas[i] = new Franja(porFranja);
+        }
+    }
+
+    /**
+     * Ocupa en la agenda del socio el horario de la clase si no se solapa con otra de sus reservas.
+     *
+     * @throws ReservaDuplicadaException si ya tiene reservada esa misma clase
+     * @throws ReservaSolapadaException con las clases reservadas que coinciden en horario
+     */
+    public void ocuparHueco(Long idUsuario, Clase clase) {
+        Long idClase = clase.getIdClase();
+        long inicio = segundos(clase.getHorario());
+        long fin = inicio + TimeUnit.MINUTES.toSeconds(clase.getDuracionMinutos() != null ? clase.getDuracionMinutos() : 60);
+
+        Franja franja = franja(idUsuario);
+        HorariosSocio cargada = null;
+        List<Long> solapes;
+        // Sin agenda en memoria: se lee fuera del cerrojo y se reintenta
+        while ((solapes = franja.ocupar(idUsuario, cargada, idClase, inicio, fin, System.nanoTime())) == null) {
+            cargada = cargar(List.of(idUsuario)).get(idUsuario);
+        }
+        if (solapes.contains(idClase)) {
+            throw new ReservaDuplicadaException(idUsuario, idClase);
+        }
+        if (!solapes.isEmpty()) {
+            throw new ReservaSolapadaException(idUsuario, idClase, solapes);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        franja.liberar(idUsuario, idClase);
+                    }
+                }
+            });
+        }
+    }
+
+    // Carga en una sola consulta las agendas que falten (lotes de la cola de reservas)
+    public void precargar(Collection<Long> idsUsuarios) {
+        long ahora = System.nanoTime();
+        List<Long> faltan = idsUsuarios.stream()
+                .filter(id -> !franja(id).tieneVigente(id, ahora))
+                .distinct()
+                .toList();
+        if (!faltan.isEmpty()) {
+            cargar(faltan).forEach((id, agenda) -> franja(id).guardarSiFalta(id, agenda, ahora));
+        }
+    }
+
+    // Reserva cancelada, completada o borrada: el hueco se libera tras el commit
+    public void liberarHueco(Long idUsuario, Long idClase) {
+        despuesDeCommit(() -> franja(idUsuario).liberar(idUsuario, idClase));
+    }
+
+    // La clase cambió de horario, se desactivó o se borró: se olvidan las agendas que la tienen
+    public void olvidarClase(Long idClase) {
+        despuesDeCommit(() -> Arrays.stream(franjas).forEach(franja -> franja.olvidarSi(agenda -> agenda.contiene(idClase))));
+    }
+
+    // Una clase reactivada vuelve a ocupar el hueco de todos los que la tenían reservada
+    public void olvidarTodo() {
+        despuesDeCommit(() -> Arrays.stream(franjas).forEach(franja -> franja.olvidarSi(agenda -> true)));
+    }
+
+    private Map<Long, HorariosSocio> cargar(Collection<Long> idsUsuarios) {
+        // Desde ayer: una clase que ya empezó sigue ocupando su hueco
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<Long, List<long[]>> porUsuario = new HashMap<>();
+        idsUsuarios.forEach(id -> porUsuario.put(id, new ArrayList<>()));
+        for (Object[] fila : reservaRepository.horariosReservados(idsUsuarios, ahora.minusDays(1))) {
+            long inicio = segundos((LocalDateTime) fila[2]);
+            int duracion = fila[3] != null ? (Integer) fila[3] : 60;
+            porUsuario.get((Long) fila[0]).add(new long[]{inicio, inicio + TimeUnit.MINUTES.toSeconds(duracion), (Long) fila[1]});
+        }
+
+        Map<Long, HorariosSocio> agendas = new HashMap<>();
+        porUsuario.forEach((id, huecos) -> agendas.put(id, HorariosSocio.de(huecos)));
+        return agendas;
+    }
+
+    private Franja franja(Long idUsuario) {
+        int h = idUsuario.hashCode();
+        h ^= h >>> 16;
+        return franjas[(h & Integer.MAX_VALUE) % franjas.length];
+    }
+
+    private static long segundos(LocalDateTime horario) {
+        return horario.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void despuesDeCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private final class Franja {
+
+        private final Map<Long, HorariosSocio> agendas;
+
+        Franja(int capacidad) {
+            this.agendas = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, HorariosSocio> mayor) {
+                    return size() > capacidad;
+                }
+            };
+        }
+
+        // null si no hay agenda vigente y no se ha traído una cargada; si no, las clases en conflicto
+        synchronized List<Long> ocupar(Long idUsuario, HorariosSocio cargada, Long idClase, long inicio, long fin, long ahora) {
+            HorariosSocio agenda = vigente(idUsuario, ahora);
+            if (agenda == null) {
+                if (cargada == null) {
+                    return null;
+                }
+                agenda = cargada.cargadaEn(ahora);
+            }
+            List<Long> solapes = agenda.solapes(inicio, fin);
+            agendas.put(idUsuario, solapes.isEmpty() ? agenda.con(idClase, inicio, fin) : agenda);
+            return solapes;
+        }
+
+        synchronized boolean tieneVigente(Long idUsuario, long ahora) {
+            return vigente(idUsuario, ahora) != null;
+        }
+
+        synchronized void guardarSiFalta(Long idUsuario, HorariosSocio cargada, long ahora) {
+            if (vigente(idUsuario, ahora) == null) {
+                agendas.put(idUsuario, cargada.cargadaEn(ahora));
+            }
+        }
+
+        synchronized void liberar(Long idUsuario, Long idClase) {
+            HorariosSocio agenda = agendas.get(idUsuario);
+            if (agenda != null && agenda.contiene(idClase)) {
+                agendas.put(idUsuario, agenda.sin(idClase));
+            }
+        }
+
+        synchronized void olvidarSi(Predicate<HorariosSocio> condicion) {
+            agendas.values().removeIf(condicion);
+        }
+
+        private HorariosSocio vigente(Long idUsuario, long ahora) {
+            HorariosSocio agenda = agendas.get(idUsuario);
+            if (agenda != null && ahora - agenda.cargadaEn >= vigenciaNanos) {
+                agendas.remove(idUsuario);
+                return null;
+            }
+            return agenda;
+        }
+    }
+
+    /**
+     * Horarios de un socio en arrays ordenados por inicio (segundos). maxFines[i] es el mayor fin de los
+     * i+1 primeros: si el último hueco que empieza antes de fin tiene maxFines <= inicio, no hay solape.
+     * Inmutable: cada cambio crea una copia, que con las pocas reservas de un socio es barata.
+     */
+    private static final class HorariosSocio {
+
+        private final long[] inicios;
+        private final long[] fines;
+        private final long[] maxFines;
+        private final long[] clases;
+        private final long cargadaEn;
+
+        private HorariosSocio(long[] inicios, long[] fines, long[] clases, long cargadaEn) {
+            this.inicios = inicios;
+            this.fines = fines;
+            this.clases = clases;
+            this.cargadaEn = cargadaEn;
+            this.maxFines = new long[fines.length];
+            for (int i = 0; i < fines.length; i++) {
+                maxFines[i] = i == 0 ? fines[i] : Math.max(maxFines[i - 1], fines[i]);
+            }
+        }
+
+        // huecos: {inicio, fin, idClase}
+        static HorariosSocio de(List<long[]> huecos) {
+            huecos.sort((a, b) -> Long.compare(a[0], b[0]));
+            long[] inicios = new long[huecos.size()];
+            long[] fines = new long[huecos.size()];
+            long[] clases = new long[huecos.size()];
+            for (int i = 0; i < huecos.size(); i++) {
+                inicios[i] = huecos.get(i)[0];
+                fines[i] = huecos.get(i)[1];
+                clases[i] = huecos.get(i)[2];
+            }
+            return new HorariosSocio(inicios, fines, clases, 0);
+        }
+
+        HorariosSocio cargadaEn(long ahora) {
+            return new HorariosSocio(inicios, fines, clases, ahora);
+        }
+
+        List<Long> solapes(long inicio, long fin) {
+            // Búsqueda binaria del primer hueco que empieza en fin o después; se recorre hacia atrás
+            int bajo = 0;
+            int alto = inicios.length;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (inicios[medio] < fin) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            int i = bajo - 1;
+            List<Long> resultado = new ArrayList<>();
+            for (; i >= 0 && maxFines[i] > inicio; i--) {
+                if (fines[i] > inicio) {
+                    resultado.add(clases[i]);
+                }
+            }
+            return resultado;
+        }
+
+        boolean contiene(Long idClase) {
+            for (long clase : clases) {
+                if (clase == idClase) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        HorariosSocio con(Long idClase, long inicio, long fin) {
+            int posicion = Arrays.binarySearch(inicios, inicio);
+            int insercion = posicion >= 0 ? posicion : -posicion - 1;
+            return new HorariosSocio(insertar(inicios, insercion, inicio), insertar(fines, insercion, fin),
+                    insertar(clases, insercion, idClase), cargadaEn);
+        }
+
+        HorariosSocio sin(Long idClase) {
+            int n = 0;
+            long[] nuevosInicios = new long[inicios.length];
+            long[] nuevosFines = new long[fines.length];
+            long[] nuevasClases = new long[clases.length];
+            for (int i = 0; i < clases.length; i++) {
+                if (clases[i] != idClase) {
+                    nuevosInicios[n] = inicios[i];
+                    nuevosFines[n] = fines[i];
+                    nuevasClases[n++] = clases[i];
+                }
+            }
+            return new HorariosSocio(Arrays.copyOf(nuevosInicios, n), Arrays.copyOf(nuevosFines, n),
+                    Arrays.copyOf(nuevasClases, n), cargadaEn);
+        }
+
+        private static long[] insertar(long[] valores, int posicion, long valor) {
+            long[] nuevos = new long[valores.length + 1];
+            System.arraycopy(valores, 0, nuevos, 0, posicion);
+            nuevos[posicion] = valor;
+            System.arraycopy(valores, posicion, nuevos, posicion + 1, valores.length - posicion);
+            return nuevos;
+        }
+    }
+}
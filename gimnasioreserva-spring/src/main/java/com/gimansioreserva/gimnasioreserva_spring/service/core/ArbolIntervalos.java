@@ -0,0 +1,193 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Árbol de intervalos [inicio, fin) sobre un AVL ordenado por inicio (y por id de clase para desempatar).
+ * Cada nodo guarda además el mayor fin de su subárbol, lo que permite descartar ramas enteras al buscar
+ * solapes: insertar y eliminar cuestan O(log n) y buscar los solapes con un intervalo O(log n + k).
+ *
+ * No es seguro para hilos: quien lo use debe serializar el acceso.
+ */
+public final class ArbolIntervalos {
+
+    private static final Comparator<Intervalo> ORDEN =
+            Comparator.comparing(Intervalo::inicio).thenComparing(Intervalo::idClase);
+
+    // Horario que ocupa una clase: de inicio (incluido) a fin (excluido)
+    public record Intervalo(Long idClase, LocalDateTime inicio, LocalDateTime fin) {
+
+        public boolean solapaCon(LocalDateTime otroInicio, LocalDateTime otroFin) {
+            return inicio.isBefore(otroFin) && otroInicio.isBefore(fin);
+        }
+    }
+
+    private Nodo raiz;
+    private int tamano;
+
+    public void insertar(Intervalo intervalo) {
+        raiz = insertar(raiz, intervalo);
+    }
+
+    // Devuelve false si el intervalo no estaba
+    public boolean eliminar(Intervalo intervalo) {
+        int antes = tamano;
+        raiz = eliminar(raiz, intervalo);
+        return tamano < antes;
+    }
+
+    // Intervalos que se solapan con [inicio, fin), ordenados por inicio
+    public List<Intervalo> solapados(LocalDateTime inicio, LocalDateTime fin) {
+        List<Intervalo> resultado = new ArrayList<>();
+        recolectar(raiz, inicio, fin, resultado);
+        return resultado;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacio() {
+        return raiz == null;
+    }
+
+    public int altura() {
+        return altura(raiz);
+    }
+
+    private Nodo insertar(Nodo nodo, Intervalo intervalo) {
+        if (nodo == null) {
+            tamano++;
+            return new Nodo(intervalo);
+        }
+        int comparacion = ORDEN.compare(intervalo, nodo.intervalo);
+        if (comparacion < 0) {
+            nodo.izquierdo = insertar(nodo.izquierdo, intervalo);
+        } else if (comparacion > 0) {
+            nodo.derecho = insertar(nodo.derecho, intervalo);
+        } else {
+            // Misma clase y mismo inicio: solo puede cambiar el fin
+            nodo.intervalo = intervalo;
+        }
+        return equilibrar(nodo);
+    }
+
+    private Nodo eliminar(Nodo nodo, Intervalo intervalo) {
+        if (nodo == null) {
+            return null;
+        }
+        int comparacion = ORDEN.compare(intervalo, nodo.intervalo);
+        if (comparacion < 0) {
+            nodo.izquierdo = eliminar(nodo.izquierdo, intervalo);
+        } else if (comparacion > 0) {
+            nodo.derecho = eliminar(nodo.derecho, intervalo);
+        } else {
+            tamano--;
+            if (nodo.izquierdo == null || nodo.derecho == null) {
+                return nodo.izquierdo != null ? nodo.izquierdo : nodo.derecho;
+            }
+            // Dos hijos: lo sustituye el menor del subárbol derecho
+            Nodo sucesor = nodo.derecho;
+            while (sucesor.izquierdo != null) {
+                sucesor = sucesor.izquierdo;
+            }
+            sucesor.derecho = eliminarMinimo(nodo.derecho);
+            sucesor.izquierdo = nodo.izquierdo;
+            return equilibrar(sucesor);
+        }
+        return equilibrar(nodo);
+    }
+
+    private static Nodo eliminarMinimo(Nodo nodo) {
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        nodo.izquierdo = eliminarMinimo(nodo.izquierdo);
+        return equilibrar(nodo);
+    }
+
+    private static void recolectar(Nodo nodo, LocalDateTime inicio, LocalDateTime fin, List<Intervalo> resultado) {
+        // Nada en este subárbol termina después de inicio
+        if (nodo == null || !nodo.maxFin.isAfter(inicio)) {
+            return;
+        }
+        recolectar(nodo.izquierdo, inicio, fin, resultado);
+        // A la derecha todo empieza igual o más tarde: si este ya no empieza antes de fin, tampoco ellos
+        if (nodo.intervalo.inicio().isBefore(fin)) {
+            if (nodo.intervalo.fin().isAfter(inicio)) {
+                resultado.add(nodo.intervalo);
+            }
+            recolectar(nodo.derecho, inicio, fin, resultado);
+        }
+    }
+
+    private static Nodo equilibrar(Nodo nodo) {
+        actualizar(nodo);
+        int balance = altura(nodo.izquierdo) - altura(nodo.derecho);
+        if (balance > 1) {
+            if (altura(nodo.izquierdo.izquierdo) < altura(nodo.izquierdo.derecho)) {
+                nodo.izquierdo = rotarIzquierda(nodo.izquierdo);
+            }
+            return rotarDerecha(nodo);
+        }
+        if (balance < -1) {
+            if (altura(nodo.derecho.derecho) < altura(nodo.derecho.izquierdo)) {
+                nodo.derecho = rotarDerecha(nodo.derecho);
+            }
+            return rotarIzquierda(nodo);
+        }
+        return nodo;
+    }
+
+    private static Nodo rotarDerecha(Nodo nodo) {
+        Nodo izquierdo = nodo.izquierdo;
+        nodo.izquierdo = izquierdo.derecho;
+        izquierdo.derecho = nodo;
+        actualizar(nodo);
+        actualizar(izquierdo);
+        return izquierdo;
+    }
+
+    private static Nodo rotarIzquierda(Nodo nodo) {
+        Nodo derecho = nodo.derecho;
+        nodo.derecho = derecho.izquierdo;
+        derecho.izquierdo = nodo;
+        actualizar(nodo);
+        actualizar(derecho);
+        return derecho;
+    }
+
+    private static void actualizar(Nodo nodo) {
+        nodo.altura = 1 + Math.max(altura(nodo.izquierdo), altura(nodo.derecho));
+        LocalDateTime maxFin = nodo.intervalo.fin();
+        if (nodo.izquierdo != null && nodo.izquierdo.maxFin.isAfter(maxFin)) {
+            maxFin = nodo.izquierdo.maxFin;
+        }
+        if (nodo.derecho != null && nodo.derecho.maxFin.isAfter(maxFin)) {
+            maxFin = nodo.derecho.maxFin;
+        }
+        nodo.maxFin = maxFin;
+    }
+
+    private static int altura(Nodo nodo) {
+        return nodo != null ? nodo.altura : 0;
+    }
+
+    private static final class Nodo {
+
+        private Intervalo intervalo;
+        private Nodo izquierdo;
+        private Nodo derecho;
+        private int altura = 1;
+        // Mayor fin de todo el subárbol
+        private LocalDateTime maxFin;
+
+        Nodo(Intervalo intervalo) {
+            this.intervalo = intervalo;
+            this.maxFin = intervalo.fin();
+        }
+    }
+}
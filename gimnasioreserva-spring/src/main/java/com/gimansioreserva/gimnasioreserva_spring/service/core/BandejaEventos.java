@@ -0,0 +1,68 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoPendiente;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EventoPendienteRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bandeja de salida: los servicios guardan aquí sus eventos dentro de su propia transacción, en lugar
+ * de emitirlos antes del commit. Si la transacción se revierte, el evento desaparece con ella; si se
+ * confirma, RelevoEventos lo publica.
+ */
+@Component
+public class BandejaEventos {
+
+    // Caben en la columna ids_clases (2000) aun con ids de 19 cifras
+    static final int MAX_CLASES_POR_EVENTO = 100;
+
+    private final EventoPendienteRepository eventoPendienteRepository;
+    private final RelevoEventos relevoEventos;
+
+    public BandejaEventos(EventoPendienteRepository eventoPendienteRepository, RelevoEventos relevoEventos) {
+        this.eventoPendienteRepository = eventoPendienteRepository;
+        this.relevoEventos = relevoEventos;
+    }
+
+    /**
+     * Guarda el evento en la transacción actual.
+     * @param idReserva reserva a la que se refiere el evento, para notificar al socio; null si no hay
+     */
+    public void registrar(Long idClase, TipoEvento tipo, Long idReserva) {
+        eventoPendienteRepository.save(new EventoPendiente(idClase, tipo, idReserva));
+        despertarRelevoTrasCommit();
+    }
+
+    /**
+     * Un solo evento para varias clases (en tramos de MAX_CLASES_POR_EVENTO): los demás nodos las releen
+     * con una consulta en lugar de una por clase.
+     */
+    public void registrarLote(List<Long> idsClases, TipoEvento tipo) {
+        List<EventoPendiente> eventos = new ArrayList<>();
+        for (int desde = 0; desde < idsClases.size(); desde += MAX_CLASES_POR_EVENTO) {
+            List<Long> tramo = idsClases.subList(desde, Math.min(desde + MAX_CLASES_POR_EVENTO, idsClases.size()));
+            eventos.add(new EventoPendiente(tramo, tipo));
+        }
+        eventoPendienteRepository.saveAll(eventos);
+        despertarRelevoTrasCommit();
+    }
+
+    // Los avisos de varios eventos de la misma transacción se juntan en una sola pasada del relevo
+    private void despertarRelevoTrasCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    relevoEventos.despertar();
+                }
+            });
+        } else {
+            relevoEventos.despertar();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.eventos.bandeja")
+public class BandejaEventosProperties {
+
+    // Eventos publicados por transacción del relevo
+    private int tamanoLote = 200;
+    // Cada cuánto se revisa la bandeja aunque ningún commit haya avisado (caídas, otros nodos, reintentos)
+    private long intervaloMs = 5_000;
+    // Intentos de publicar un evento antes de aparcarlo (deja de bloquear a los siguientes de su clase)
+    private int maxIntentos = 20;
+
+    // Getters y setters
+    public int getTamanoLote() { return tamanoLote; }
+    public void setTamanoLote(int tamanoLote) { this.tamanoLote = tamanoLote; }
+
+    public long getIntervaloMs() { return intervaloMs; }
+    public void setIntervaloMs(long intervaloMs) { this.intervaloMs = intervaloMs; }
+
+    public int getMaxIntentos() { return maxIntentos; }
+    public void setMaxIntentos(int maxIntentos) { this.maxIntentos = maxIntentos; }
+}
@@ -18,10 +18,13 @@ public class ClaseService {
 
     private final ClaseRepository claseRepository;
     private final ClaseMapper claseMapper;
+    private final IndiceAgendaClases indiceAgendaClases;
 
-    public ClaseService(ClaseRepository claseRepository, ClaseMapper claseMapper) {
+    public ClaseService(ClaseRepository claseRepository, ClaseMapper claseMapper,
+                        IndiceAgendaClases indiceAgendaClases) {
         this.claseRepository = claseRepository;
         this.claseMapper = claseMapper;
+        this.indiceAgendaClases = indiceAgendaClases;
     }
 
     @Transactional(readOnly = true)
@@ -31,11 +34,14 @@ public class ClaseService {
                 .collect(Collectors.toList());
     }
 
+    // Se responde desde el índice en memoria; la BD solo mientras el índice no está construido
     @Transactional(readOnly = true)
     public List<ClaseDTO> obtenerClasesProximas() {
-        return claseRepository.obtenerClasesProximas(LocalDateTime.now()).stream()
-                .map(claseMapper::toDTO)
-                .collect(Collectors.toList());
+        LocalDateTime ahora = LocalDateTime.now();
+        return indiceAgendaClases.buscarPosteriores(ahora)
+                .orElseGet(() -> claseRepository.obtenerClasesProximas(ahora).stream()
+                        .map(claseMapper::toDTO)
+                        .collect(Collectors.toList()));
     }
 
     @Transactional(readOnly = true)
@@ -79,9 +85,10 @@ public class ClaseService {
 
     @Transactional(readOnly = true)
     public List<ClaseDTO> obtenerPorRangoFechas(LocalDateTime inicio, LocalDateTime fin) {
-        return claseRepository.buscarPorRangoFechas(inicio, fin).stream()
-                .map(claseMapper::toDTO)
-                .collect(Collectors.toList());
+        return indiceAgendaClases.buscarEntre(inicio, fin)
+                .orElseGet(() -> claseRepository.buscarPorRangoFechas(inicio, fin).stream()
+                        .map(claseMapper::toDTO)
+                        .collect(Collectors.toList()));
     }
 }
 
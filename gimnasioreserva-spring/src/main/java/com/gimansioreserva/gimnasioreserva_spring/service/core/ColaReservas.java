@@ -0,0 +1,290 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.exception.BusinessException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ClaseNoDisponibleException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ColaReservasSaturadaException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.CupoAgotadoException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaDuplicadaException;
+import com.gimansioreserva.gimnasioreserva_spring.mapper.ReservaMapper;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.validator.ReservaValidator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Modo cola para clases muy demandadas (aperturas de clases premium).
+ *
+ * En lugar de cientos de transacciones compitiendo por la misma clase, las solicitudes se encolan por
+ * clase y un único procesador las resuelve en orden de llegada: por cada lote bloquea la fila de la
+ * clase, cuenta los cupos y los duplicados una sola vez, reparte los cupos en memoria e inserta solo
+ * las ganadoras en una transacción. El resultado se entrega en un CompletableFuture (respuesta diferida).
+ */
+@Service
+public class ColaReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ColaReservas.class);
+
+    private final ColaReservasProperties propiedades;
+    private final ClaseRepository claseRepository;
+    private final ReservaRepository reservaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ReservaMapper reservaMapper;
+    private final ReservaValidator reservaValidator;
+    private final BandejaEventos bandejaEventos;
+    private final VersionesCatalogo versionesCatalogo;
+    private final AgendaReservasSocios agendaReservasSocios;
+    private final TransactionTemplate transaccion;
+    private final ExecutorService procesadores;
+
+    // Solo las clases en modo cola
+    private final Map<Long, Cola> colas = new ConcurrentHashMap<>();
+
+    public ColaReservas(ColaReservasProperties propiedades,
+                        ClaseRepository claseRepository,
+                        ReservaRepository reservaRepository,
+                        UsuarioRepository usuarioRepository,
+                        ReservaMapper reservaMapper,
+                        ReservaValidator reservaValidator,
+                        BandejaEventos bandejaEventos,
+                        VersionesCatalogo versionesCatalogo,
+                        AgendaReservasSocios agendaReservasSocios,
+                        PlatformTransactionManager transactionManager) {
+        this.propiedades = propiedades;
+        this.claseRepository = claseRepository;
+        this.reservaRepository = reservaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.reservaMapper = reservaMapper;
+        this.reservaValidator = reservaValidator;
+        this.bandejaEventos = bandejaEventos;
+        this.versionesCatalogo = versionesCatalogo;
+        this.agendaReservasSocios = agendaReservasSocios;
+        this.transaccion = new TransactionTemplate(transactionManager);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.procesadores = Executors.newFixedThreadPool(propiedades.getHilos(), tarea -> {
+            Thread hilo = new Thread(tarea, "cola-reservas-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        propiedades.getClases().forEach(this::activar);
+    }
+
+    public boolean estaActiva(Long idClase) {
+        return idClase != null && colas.containsKey(idClase);
+    }
+
+    public void activar(Long idClase) {
+        colas.computeIfAbsent(idClase, Cola::new);
+    }
+
+    // Lo ya encolado se sigue procesando; las solicitudes nuevas vuelven al camino normal
+    public void desactivar(Long idClase) {
+        colas.remove(idClase);
+    }
+
+    public Set<Long> clasesActivas() {
+        return Set.copyOf(colas.keySet());
+    }
+
+    /**
+     * Encola la solicitud si la clase está en modo cola.
+     * @return el resultado diferido, o null si la clase no está en modo cola
+     */
+    public CompletableFuture<ReservaDTO> encolar(Long idUsuario, Long idClase) {
+        Cola cola = idClase != null ? colas.get(idClase) : null;
+        if (cola == null) {
+            return null;
+        }
+        // Clase llena hace poco: no hace falta esperar turno para saberlo
+        long llenaHasta = cola.llenaHasta;
+        if (llenaHasta != 0 && System.nanoTime() - llenaHasta < 0) {
+            return CompletableFuture.failedFuture(new CupoAgotadoException(idClase));
+        }
+        if (cola.enEspera.incrementAndGet() > propiedades.getMaxPendientes()) {
+            cola.enEspera.decrementAndGet();
+            return CompletableFuture.failedFuture(new ColaReservasSaturadaException(idClase));
+        }
+        Solicitud solicitud = new Solicitud(idUsuario);
+        cola.pendientes.add(solicitud);
+        programar(cola);
+        return solicitud.resultado;
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        procesadores.shutdown();
+        procesadores.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void programar(Cola cola) {
+        if (cola.programada.compareAndSet(false, true)) {
+            procesadores.execute(() -> procesarLote(cola));
+        }
+    }
+
+    // Un lote por turno: con varias clases en cola, ninguna acapara un procesador
+    private void procesarLote(Cola cola) {
+        List<Solicitud> lote = new ArrayList<>();
+        Solicitud solicitud;
+        while (lote.size() < propiedades.getTamanoLote() && (solicitud = cola.pendientes.poll()) != null) {
+            lote.add(solicitud);
+        }
+        cola.enEspera.addAndGet(-lote.size());
+        try {
+            if (!lote.isEmpty()) {
+                resolver(cola, lote);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error procesando la cola de reservas de la clase {}", cola.idClase, e);
+            lote.forEach(s -> s.resultado.completeExceptionally(e));
+        } finally {
+            cola.programada.set(false);
+            // Una solicitud pudo llegar entre el último poll y soltar la marca
+            if (!cola.pendientes.isEmpty()) {
+                programar(cola);
+            }
+        }
+    }
+
+    private void resolver(Cola cola, List<Solicitud> lote) {
+        Long idClase = cola.idClase;
+        Lote resultado;
+        try {
+            resultado = transaccion.execute(estado -> repartir(idClase, lote));
+        } catch (BusinessException e) {
+            // Clase inexistente, inactiva o fuera de plazo: todo el lote recibe el mismo error
+            lote.forEach(s -> s.resultado.completeExceptionally(e));
+            return;
+        }
+
+        cola.llenaHasta = resultado.libres > 0 ? 0
+                : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(propiedades.getRevalidacionMs());
+        if (resultado.creadas > 0) {
+            versionesCatalogo.reservasCambiadas(idClase);
+        }
+        // Tras el commit; los eventos los publica el relevo de la bandeja
+        for (Solicitud s : lote) {
+            if (s.error != null) {
+                s.resultado.completeExceptionally(s.error);
+            } else {
+                s.resultado.complete(s.reserva);
+            }
+        }
+    }
+
+    // Dentro de la transacción: bloqueo, conteo, duplicados y usuarios se consultan una vez por lote, no por solicitud
+    private Lote repartir(Long idClase, List<Solicitud> lote) {
+        Clase clase = claseRepository.bloquearPorId(idClase)
+                .orElseThrow(() -> new ClaseNoDisponibleException(idClase));
+        reservaValidator.validarClaseReservable(clase);
+
+        int libres = clase.cuposLibres(claseRepository.contarReservasConfirmadas(idClase));
+        Set<Long> idsUsuarios = new HashSet<>();
+        lote.forEach(s -> idsUsuarios.add(s.idUsuario));
+        Set<Long> conReserva = new HashSet<>(reservaRepository.usuariosConReservaConfirmada(idClase, idsUsuarios));
+        Map<Long, Usuario> usuarios = new HashMap<>();
+        usuarioRepository.findAllById(idsUsuarios).forEach(u -> usuarios.put(u.getIdUsuario(), u));
+        agendaReservasSocios.precargar(idsUsuarios);
+
+        // Orden de llegada: las primeras solicitudes válidas se quedan los cupos
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Reserva> nuevas = new ArrayList<>();
+        List<Solicitud> ganadoras = new ArrayList<>();
+        for (Solicitud s : lote) {
+            Usuario usuario = usuarios.get(s.idUsuario);
+            if (usuario == null) {
+                s.error = new BusinessException("Usuario no encontrado");
+            } else if (!conReserva.add(s.idUsuario)) {
+                s.error = new ReservaDuplicadaException(s.idUsuario, idClase);
+            } else if (libres <= 0) {
+                s.error = new CupoAgotadoException(idClase);
+            } else {
+                s.error = ocuparHueco(s.idUsuario, clase);
+                if (s.error == null) {
+                    libres--;
+                    nuevas.add(new Reserva(usuario, clase, ahora, EstadoReserva.CONFIRMADA));
+                    ganadoras.add(s);
+                }
+            }
+        }
+
+        List<Reserva> guardadas = reservaRepository.saveAll(nuevas);
+        for (int i = 0; i < guardadas.size(); i++) {
+            ganadoras.get(i).reserva = reservaMapper.toDTO(guardadas.get(i));
+            bandejaEventos.registrar(idClase, TipoEvento.RESERVA_CREADA, guardadas.get(i).getIdReserva());
+        }
+        if (!guardadas.isEmpty() && libres == 0) {
+            bandejaEventos.registrar(idClase, TipoEvento.CLASE_LLENA, null);
+        }
+        return new Lote(guardadas.size(), libres);
+    }
+
+    // Solape con otra reserva del socio: la solicitud pierde, el resto del lote sigue
+    private BusinessException ocuparHueco(Long idUsuario, Clase clase) {
+        try {
+            agendaReservasSocios.ocuparHueco(idUsuario, clase);
+            return null;
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+
+    private static final class Cola {
+
+        private final Long idClase;
+        private final Queue<Solicitud> pendientes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger enEspera = new AtomicInteger();
+        private final AtomicBoolean programada = new AtomicBoolean();
+        // Hasta cuándo (nanoTime) se rechaza sin consultar porque el último lote dejó la clase sin cupos; 0 si no
+        private volatile long llenaHasta;
+
+        Cola(Long idClase) {
+            this.idClase = idClase;
+        }
+    }
+
+    private static final class Solicitud {
+
+        private final Long idUsuario;
+        private final CompletableFuture<ReservaDTO> resultado = new CompletableFuture<>();
+        // Los escribe el procesador dentro de la transacción y se publican tras el commit
+        private ReservaDTO reserva;
+        private RuntimeException error;
+
+        Solicitud(Long idUsuario) {
+            this.idUsuario = idUsuario;
+        }
+    }
+
+    private record Lote(int creadas, int libres) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "gimnasio.reservas.cola")
+public class ColaReservasProperties {
+
+    // Clases en modo cola desde el arranque; en caliente, con /api/admin/clases/{id}/cola
+    private List<Long> clases = new ArrayList<>();
+    // Hilos que procesan las colas; cada clase la procesa uno solo a la vez
+    private int hilos = 2;
+    // Solicitudes que se resuelven en una misma transacción
+    private int tamanoLote = 200;
+    // Solicitudes en espera por clase antes de responder 503
+    private int maxPendientes = 5_000;
+    // Con la clase llena se rechaza sin ir a la base de datos durante este tiempo
+    private long revalidacionMs = 1_000;
+
+    // Getters y setters
+    public List<Long> getClases() { return clases; }
+    public void setClases(List<Long> clases) { this.clases = clases; }
+
+    public int getHilos() { return hilos; }
+    public void setHilos(int hilos) { this.hilos = hilos; }
+
+    public int getTamanoLote() { return tamanoLote; }
+    public void setTamanoLote(int tamanoLote) { this.tamanoLote = tamanoLote; }
+
+    public int getMaxPendientes() { return maxPendientes; }
+    public void setMaxPendientes(int maxPendientes) { this.maxPendientes = maxPendientes; }
+
+    public long getRevalidacionMs() { return revalidacionMs; }
+    public void setRevalidacionMs(long revalidacionMs) { this.revalidacionMs = revalidacionMs; }
+}
@@ -1,6 +1,7 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.core;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.DisponibilidadDTO;
 import com.gimansioreserva.gimnasioreserva_spring.exception.ClaseNoDisponibleException;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
@@ -34,7 +35,7 @@ public class DisponibilidadService {
         dto.setCupoTotal(clase.getCupo());
         
         int reservasConfirmadas = (int) clase.getReservas().stream()
-                .filter(r -> r.getEstado().equals("CONFIRMADA"))
+                .filter(r -> r.getEstado() == EstadoReserva.CONFIRMADA)
                 .count();
         
         dto.setCuposOcupados(reservasConfirmadas);
@@ -71,7 +72,7 @@ public class DisponibilidadService {
         dto.setCupoTotal(clase.getCupo());
         
         int reservasConfirmadas = (int) clase.getReservas().stream()
-                .filter(r -> r.getEstado().equals("CONFIRMADA"))
+                .filter(r -> r.getEstado() == EstadoReserva.CONFIRMADA)
                 .count();
         
         dto.setCuposOcupados(reservasConfirmadas);
@@ -1,5 +1,6 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.core;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.EstadisticaDTO;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
@@ -34,9 +35,9 @@ public class EstadisticasService {
         
         estadisticas.setTotalClases(claseRepository.count());
         estadisticas.setTotalReservas(reservaRepository.count());
-        estadisticas.setReservasConfirmadas(reservaRepository.contarPorEstado("CONFIRMADA"));
-        estadisticas.setReservasCanceladas(reservaRepository.contarPorEstado("CANCELADA"));
-        estadisticas.setReservasCompletadas(reservaRepository.contarPorEstado("COMPLETADA"));
+        estadisticas.setReservasConfirmadas(reservaRepository.contarPorEstado(EstadoReserva.CONFIRMADA));
+        estadisticas.setReservasCanceladas(reservaRepository.contarPorEstado(EstadoReserva.CANCELADA));
+        estadisticas.setReservasCompletadas(reservaRepository.contarPorEstado(EstadoReserva.COMPLETADA));
         estadisticas.setUsuariosActivos((long) usuarioRepository.findByActivo(true).size());
 
         // Estadísticas por clase
@@ -70,13 +71,16 @@ public class EstadisticasService {
         List<com.gimansioreserva.gimnasioreserva_spring.domain.Reserva> reservas = 
                 reservaRepository.buscarPorRangoFechas(inicio, fin);
         
+        // Conteo por estado en una sola pasada, indexado por ordinal
+        long[] porEstado = new long[EstadoReserva.values().length];
+        for (com.gimansioreserva.gimnasioreserva_spring.domain.Reserva r : reservas) {
+            porEstado[r.getEstado().ordinal()]++;
+        }
+
         estadisticas.setTotalReservas((long) reservas.size());
-        estadisticas.setReservasConfirmadas(
-                reservas.stream().filter(r -> r.getEstado().equals("CONFIRMADA")).count());
-        estadisticas.setReservasCanceladas(
-                reservas.stream().filter(r -> r.getEstado().equals("CANCELADA")).count());
-        estadisticas.setReservasCompletadas(
-                reservas.stream().filter(r -> r.getEstado().equals("COMPLETADA")).count());
+        estadisticas.setReservasConfirmadas(porEstado[EstadoReserva.CONFIRMADA.ordinal()]);
+        estadisticas.setReservasCanceladas(porEstado[EstadoReserva.CANCELADA.ordinal()]);
+        estadisticas.setReservasCompletadas(porEstado[EstadoReserva.COMPLETADA.ordinal()]);
 
         return estadisticas;
     }
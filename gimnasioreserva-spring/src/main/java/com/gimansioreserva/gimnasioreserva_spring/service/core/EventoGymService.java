@@ -1,12 +1,27 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.core;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.DeduplicadorEventos;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventos;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.util.MuestreoLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 @Service
 public class EventoGymService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventoGymService.class);
+
+    // Ids recientes recordados para descartar eventos repetidos que lleguen de otros nodos
+    private static final int CAPACIDAD_DEDUPLICACION = 10_000;
+
+    // El log de onNext se dispara por evento y por suscriptor: solo se registra 1 de cada 100
+    private final MuestreoLog muestreoOnNext = new MuestreoLog(100);
+
     /**
      * Sinks.Many actúa como un Publisher dinámico
      * multicast  -> múltiples Subscribers
@@ -17,11 +32,53 @@ public class EventoGymService {
                     .multicast()
                     .onBackpressureBuffer();
 
+    private final MetricasGimnasio metricas;
+    private final TransporteEventos transporte;
+    private final DeduplicadorEventos deduplicador = new DeduplicadorEventos(CAPACIDAD_DEDUPLICACION);
+    // Las peticiones HTTP y el hilo del transporte emiten a la vez: se emite de uno en uno
+    private final Object emision = new Object();
+
+    public EventoGymService(MetricasGimnasio metricas, TransporteEventos transporte) {
+        this.metricas = metricas;
+        this.transporte = transporte;
+        transporte.alRecibir(this::recibirDeOtroNodo);
+    }
+
     /**
-     * onNext: emite un evento al flujo
+     * onNext: emite un evento al flujo local y lo reparte al resto de nodos.
+     * Un id ya emitido en este nodo (reintento de la bandeja) no se repite en el flujo local.
+     * @return false si el flujo local no lo aceptó (buffer lleno): no se reparte y quien emite
+     *         puede reintentarlo con el mismo id
      */
-    public void emitirEvento(EventoGym evento) {
-        publisher.tryEmitNext(evento);
+    public boolean emitirEvento(EventoGym evento) {
+        if (deduplicador.registrar(evento.getId()) && !emitirLocal(evento)) {
+            deduplicador.olvidar(evento.getId());
+            return false;
+        }
+        transporte.publicar(evento);
+        return true;
+    }
+
+    // Eventos de otros nodos: solo se emiten localmente, no se vuelven a repartir
+    private void recibirDeOtroNodo(EventoGym evento) {
+        if (deduplicador.registrar(evento.getId())) {
+            emitirLocal(evento);
+        }
+    }
+
+    private boolean emitirLocal(EventoGym evento) {
+        Sinks.EmitResult resultado;
+        // Serializada, la emisión no puede fallar por FAIL_NON_SERIALIZED; el cerrojo solo dura el tryEmitNext
+        synchronized (emision) {
+            resultado = publisher.tryEmitNext(evento);
+        }
+        // tryEmitNext no lanza: el resultado dice si el evento entró (buffer lleno, sin suscriptores)
+        if (resultado.isSuccess()) {
+            metricas.eventoEmitido(evento.getTipo());
+        } else {
+            metricas.eventoDescartado(resultado);
+        }
+        return resultado.isSuccess();
     }
 
     /**
@@ -32,24 +89,28 @@ public class EventoGymService {
 
                 // doOnSubscribe = onSubscribe
                 .doOnSubscribe(sub ->
-                        System.out.println("onSubscribe: Nuevo suscriptor conectado"))
+                        log.info("onSubscribe: nuevo suscriptor conectado"))
 
-                // doOnNext = onNext
-                .doOnNext(evento ->
-                        System.out.println("onNext: Evento emitido -> " + evento.getTipo()))
+                // doOnNext = onNext (muestreado, en DEBUG)
+                .doOnNext(evento -> {
+                    if (log.isDebugEnabled() && muestreoOnNext.tocaRegistrar()) {
+                        log.debug("onNext: evento emitido tipo={} claseId={} vistos={}",
+                                evento.getTipo(), evento.getClaseId(), muestreoOnNext.getOcurrencias());
+                    }
+                })
 
                 // doOnError: Registra errores sin terminar el flujo.
                 .doOnError(error -> {
-                    System.err.println("ERROR (Publisher): " + error.getMessage());
+                    log.error("Error en el publisher de eventos: {}", error.getMessage(), error);
                     // Aquí puedes añadir lógica de reintento o manejo de errores específicos
                     // Pero no completamos el Flux con empty, permitimos que intente continuar.
                 })
 
                 // doOnCancel = cancelación del subscriber
                 .doOnCancel(() ->
-                        System.out.println("onCancel: Suscriptor desconectado"))
+                        log.info("onCancel: suscriptor desconectado"))
                 // doOnComplete: Se ejecuta cuando el Flux se completa.
                 .doOnComplete(() ->
-                        System.out.println("onComplete: Flujo de eventos completado inesperadamente."));
+                        log.warn("onComplete: flujo de eventos completado inesperadamente"));
     }
 }
@@ -0,0 +1,350 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ClaseDTO;
+import com.gimansioreserva.gimnasioreserva_spring.mapper.ClaseMapper;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Índice en memoria de las clases activas ordenadas por horario, agrupadas por día.
+ * Las consultas de rango y de próximas clases cuestan O(log n + k) sin ir a la base de datos.
+ *
+ * Los lectores trabajan sobre una instantánea inmutable (copy-on-write); las escrituras se
+ * serializan y solo copian los días afectados. Mientras el índice no esté construido las
+ * consultas devuelven Optional.empty() y el llamador debe consultar la base de datos.
+ */
+@Component
+public class IndiceAgendaClases {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceAgendaClases.class);
+
+    // Eventos que pueden cambiar el horario o los cupos de una clase
+    private static final Set<TipoEvento> EVENTOS_REFRESCO = EnumSet.of(TipoEvento.CAMBIO_HORARIO,
+            TipoEvento.CAMBIO_HORARIO_LOTE, TipoEvento.RESERVA_CREADA, TipoEvento.RESERVA_CANCELADA,
+            TipoEvento.CUPO_DISPONIBLE);
+
+    private static final Comparator<ClaseDTO> POR_HORARIO =
+            Comparator.comparing(ClaseDTO::getHorario).thenComparing(ClaseDTO::getIdClase);
+
+    private final ClaseRepository claseRepository;
+    private final ClaseMapper claseMapper;
+    private final EventoGymService eventoGymService;
+    private final TransactionTemplate lectura;
+
+    // Instantánea publicada a los lectores; null mientras no se haya construido
+    private volatile NavigableMap<LocalDate, ClaseDTO[]> porDia;
+
+    // Estado de escritura, solo se toca bajo el lock
+    private final Object escritura = new Object();
+    private final Map<Long, ClaseDTO> porId = new HashMap<>();
+
+    private Disposable suscripcion;
+
+    public IndiceAgendaClases(ClaseRepository claseRepository,
+                              ClaseMapper claseMapper,
+                              EventoGymService eventoGymService,
+                              PlatformTransactionManager transactionManager) {
+        this.claseRepository = claseRepository;
+        this.claseMapper = claseMapper;
+        this.eventoGymService = eventoGymService;
+        // Transacción propia: las recargas se hacen después del commit de quien las pidió
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Sin readOnly: recién confirmado el cambio, una réplica de lectura podría no tenerlo todavía
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        reconstruir();
+        suscripcion = eventoGymService.flujoEventos()
+                .filter(evento -> EVENTOS_REFRESCO.contains(evento.getTipo()))
+                .subscribe(this::alRecibirEvento,
+                        e -> log.error("Suscripción del índice de agenda terminada por error", e));
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (suscripcion != null) {
+            suscripcion.dispose();
+        }
+    }
+
+    public boolean estaConstruido() {
+        return porDia != null;
+    }
+
+    // Carga completa desde la base de datos
+    public void reconstruir() {
+        synchronized (escritura) {
+            List<ClaseDTO> activas = lectura.execute(status -> claseRepository.findByActivo(true).stream()
+                    .map(claseMapper::toDTO)
+                    .collect(Collectors.toList()));
+
+            porId.clear();
+            activas.forEach(clase -> porId.put(clase.getIdClase(), clase));
+
+            TreeMap<LocalDate, ClaseDTO[]> nuevo = new TreeMap<>();
+            porId.values().stream()
+                    .collect(Collectors.groupingBy(clase -> clase.getHorario().toLocalDate()))
+                    .forEach((dia, clases) -> {
+                        ClaseDTO[] ordenadas = clases.toArray(ClaseDTO[]::new);
+                        Arrays.sort(ordenadas, POR_HORARIO);
+                        nuevo.put(dia, ordenadas);
+                    });
+            porDia = Collections.unmodifiableNavigableMap(nuevo);
+        }
+    }
+
+    // Clases activas con horario entre inicio y fin (ambos incluidos), ordenadas por horario
+    public Optional<List<ClaseDTO>> buscarEntre(LocalDateTime inicio, LocalDateTime fin) {
+        NavigableMap<LocalDate, ClaseDTO[]> instantanea = porDia;
+        if (instantanea == null) {
+            return Optional.empty();
+        }
+        return Optional.of(recolectar(instantanea, inicio, true, fin));
+    }
+
+    // Clases activas con horario posterior a ahora, ordenadas por horario
+    public Optional<List<ClaseDTO>> buscarPosteriores(LocalDateTime ahora) {
+        NavigableMap<LocalDate, ClaseDTO[]> instantanea = porDia;
+        if (instantanea == null) {
+            return Optional.empty();
+        }
+        return Optional.of(recolectar(instantanea, ahora, false, LocalDateTime.MAX));
+    }
+
+    /**
+     * Vuelve a leer la clase de la base de datos. Dentro de una transacción la recarga
+     * se hace después del commit, para no publicar cambios que luego se reviertan.
+     */
+    public void refrescarClase(Long idClase) {
+        despuesDeCommit(() -> {
+            Optional<ClaseDTO> actual = lectura.execute(status -> claseRepository.findById(idClase)
+                    .filter(clase -> Boolean.TRUE.equals(clase.getActivo()))
+                    .map(claseMapper::toDTO));
+            aplicar(idClase, actual.orElse(null));
+        });
+    }
+
+    // Varias clases a la vez (series): una sola lectura y una sola copia del índice
+    public void refrescarClases(Collection<Long> idsClases) {
+        despuesDeCommit(() -> {
+            List<ClaseDTO> clases = lectura.execute(status -> claseRepository.buscarConReservasPorIds(idsClases)
+                    .stream()
+                    .map(claseMapper::toDTO)
+                    .collect(Collectors.toList()));
+            Map<Long, ClaseDTO> cambios = new HashMap<>();
+            idsClases.forEach(id -> cambios.put(id, null));
+            clases.forEach(clase -> cambios.put(clase.getIdClase(), Boolean.TRUE.equals(clase.getActivo()) ? clase : null));
+            aplicar(cambios);
+        });
+    }
+
+    // Los datos del entrenador van copiados en cada clase
+    public void refrescarClasesDeEntrenador(Long idEntrenador) {
+        despuesDeCommit(() -> {
+            List<ClaseDTO> clases = lectura.execute(status -> claseRepository.findByEntrenador_IdEntrenador(idEntrenador)
+                    .stream()
+                    .map(claseMapper::toDTO)
+                    .collect(Collectors.toList()));
+            Map<Long, ClaseDTO> cambios = new HashMap<>();
+            clases.forEach(clase -> cambios.put(clase.getIdClase(), Boolean.TRUE.equals(clase.getActivo()) ? clase : null));
+            aplicar(cambios);
+        });
+    }
+
+    private void alRecibirEvento(EventoGym evento) {
+        List<Long> idsClases;
+        try {
+            idsClases = evento.idsClases();
+        } catch (NumberFormatException e) {
+            // Eventos de prueba con identificadores no numéricos
+            return;
+        }
+        if (idsClases.size() == 1) {
+            refrescarClase(idsClases.get(0));
+        } else {
+            refrescarClases(idsClases);
+        }
+    }
+
+    private void despuesDeCommit(Runnable recarga) {
+        Runnable segura = () -> {
+            try {
+                recarga.run();
+            } catch (RuntimeException e) {
+                // Si no se pudo aplicar el cambio, mejor rehacer el índice completo que servir datos viejos
+                log.warn("No se pudo actualizar el índice de agenda, se reconstruye: {}", e.getMessage());
+                porDia = null;
+                try {
+                    reconstruir();
+                } catch (RuntimeException ignorada) {
+                    log.error("No se pudo reconstruir el índice de agenda", ignorada);
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    segura.run();
+                }
+            });
+        } else {
+            segura.run();
+        }
+    }
+
+    // Sustituye (o quita, si nueva es null) la clase; copia solo los días afectados
+    private void aplicar(Long idClase, ClaseDTO nueva) {
+        Map<Long, ClaseDTO> cambios = new HashMap<>();
+        cambios.put(idClase, nueva);
+        aplicar(cambios);
+    }
+
+    // Igual para varias clases (null: quitarla), publicando una sola instantánea
+    private void aplicar(Map<Long, ClaseDTO> cambios) {
+        synchronized (escritura) {
+            NavigableMap<LocalDate, ClaseDTO[]> actual = porDia;
+            if (actual == null) {
+                // La reconstrucción pendiente leerá el estado ya confirmado
+                return;
+            }
+
+            TreeMap<LocalDate, ClaseDTO[]> copia = null;
+            for (Map.Entry<Long, ClaseDTO> cambio : cambios.entrySet()) {
+                ClaseDTO nueva = cambio.getValue();
+                ClaseDTO anterior = nueva != null ? porId.put(cambio.getKey(), nueva) : porId.remove(cambio.getKey());
+                if (anterior == null && nueva == null) {
+                    continue;
+                }
+                if (copia == null) {
+                    copia = new TreeMap<>(actual);
+                }
+                if (anterior != null) {
+                    quitarDelDia(copia, anterior);
+                }
+                if (nueva != null) {
+                    agregarAlDia(copia, nueva);
+                }
+            }
+            if (copia != null) {
+                porDia = Collections.unmodifiableNavigableMap(copia);
+            }
+        }
+    }
+
+    private static void quitarDelDia(TreeMap<LocalDate, ClaseDTO[]> dias, ClaseDTO clase) {
+        LocalDate dia = clase.getHorario().toLocalDate();
+        ClaseDTO[] clases = dias.get(dia);
+        if (clases == null) {
+            return;
+        }
+        ClaseDTO[] restantes = Arrays.stream(clases)
+                .filter(c -> !c.getIdClase().equals(clase.getIdClase()))
+                .toArray(ClaseDTO[]::new);
+        if (restantes.length == 0) {
+            dias.remove(dia);
+        } else {
+            dias.put(dia, restantes);
+        }
+    }
+
+    private static void agregarAlDia(TreeMap<LocalDate, ClaseDTO[]> dias, ClaseDTO clase) {
+        LocalDate dia = clase.getHorario().toLocalDate();
+        ClaseDTO[] clases = dias.getOrDefault(dia, new ClaseDTO[0]);
+        int posicion = Arrays.binarySearch(clases, clase, POR_HORARIO);
+        int insercion = posicion >= 0 ? posicion : -posicion - 1;
+
+        ClaseDTO[] nuevas = new ClaseDTO[clases.length + 1];
+        System.arraycopy(clases, 0, nuevas, 0, insercion);
+        nuevas[insercion] = clase;
+        System.arraycopy(clases, insercion, nuevas, insercion + 1, clases.length - insercion);
+        dias.put(dia, nuevas);
+    }
+
+    private static List<ClaseDTO> recolectar(NavigableMap<LocalDate, ClaseDTO[]> dias,
+                                             LocalDateTime desde, boolean incluirDesde, LocalDateTime hasta) {
+        List<ClaseDTO> resultado = new ArrayList<>();
+        if (hasta.isBefore(desde)) {
+            return resultado;
+        }
+
+        Collection<ClaseDTO[]> rango = dias.subMap(desde.toLocalDate(), true, hasta.toLocalDate(), true).values();
+        boolean primerDia = true;
+        for (ClaseDTO[] clases : rango) {
+            // Solo el primer día puede tener clases anteriores a "desde"
+            int i = primerDia ? primeraPosicion(clases, desde, incluirDesde) : 0;
+            primerDia = false;
+            for (; i < clases.length && !clases[i].getHorario().isAfter(hasta); i++) {
+                resultado.add(copiar(clases[i]));
+            }
+        }
+        return resultado;
+    }
+
+    // Búsqueda binaria de la primera clase con horario >= desde (o > desde)
+    private static int primeraPosicion(ClaseDTO[] clases, LocalDateTime desde, boolean incluirDesde) {
+        int bajo = 0;
+        int alto = clases.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            LocalDateTime horario = clases[medio].getHorario();
+            boolean antes = incluirDesde ? horario.isBefore(desde) : !horario.isAfter(desde);
+            if (antes) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    // Los DTO son mutables: nunca se entrega la instancia del índice
+    private static ClaseDTO copiar(ClaseDTO origen) {
+        ClaseDTO dto = new ClaseDTO();
+        dto.setIdClase(origen.getIdClase());
+        dto.setNombre(origen.getNombre());
+        dto.setDescripcion(origen.getDescripcion());
+        dto.setHorario(origen.getHorario());
+        dto.setCupo(origen.getCupo());
+        dto.setCuposDisponibles(origen.getCuposDisponibles());
+        dto.setDuracionMinutos(origen.getDuracionMinutos());
+        dto.setActivo(origen.getActivo());
+        dto.setIdEntrenador(origen.getIdEntrenador());
+        dto.setNombreEntrenador(origen.getNombreEntrenador());
+        dto.setEspecialidadEntrenador(origen.getEspecialidadEntrenador());
+        return dto;
+    }
+}
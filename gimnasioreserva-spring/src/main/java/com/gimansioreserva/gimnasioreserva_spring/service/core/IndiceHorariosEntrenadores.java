@@ -0,0 +1,417 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ConflictoHorarioEntrenadorException;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ArbolIntervalos.Intervalo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Horarios ocupados por cada entrenador (clases activas), en un árbol de intervalos por entrenador.
+ * Detecta en O(log n) si una clase nueva o editada se solapa con otra del mismo entrenador, sin consultar
+ * la base de datos.
+ *
+ * La comprobación y el registro del nuevo horario son atómicos: dos altas simultáneas en este nodo no
+ * pueden ocupar el mismo hueco. Si la transacción se revierte, el índice vuelve al horario anterior.
+ *
+ * Se construye al arrancar con las clases que aún no han terminado. Los cambios hechos en otros nodos
+ * llegan como eventos CAMBIO_HORARIO, o CAMBIO_HORARIO_LOTE para series y bajas de entrenadores (los
+ * publican los servicios de administración por la bandeja), y las clases se vuelven a leer de la base de datos. Esa lectura se descarta si mientras tanto la clase se escribió en este nodo
+ * (o sigue con una transacción abierta): la escritura local publicará su propio evento al confirmarse.
+ * Las clases ya terminadas se podan cada hora: no pueden solaparse con ninguna nueva. Con varios nodos un
+ * evento puede perderse por el camino; reconciliar() corrige el índice contra la base de datos.
+ */
+@Component
+public class IndiceHorariosEntrenadores {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceHorariosEntrenadores.class);
+
+    // Más que la duración de cualquier clase: lo que empezó antes ya ha terminado
+    private static final long HORAS_CARGA_ANTERIORES = 24;
+
+    private final ClaseRepository claseRepository;
+    private final EventoGymService eventoGymService;
+    private final TransactionTemplate lectura;
+
+    // Todo el estado se toca bajo el lock; null mientras no se haya construido
+    private final Object escritura = new Object();
+    private Map<Long, ArbolIntervalos> porEntrenador;
+    private final Map<Long, Horario> porClase = new HashMap<>();
+    // Escrituras locales por clase: sello de la última y cuántas siguen sin confirmar o revertir
+    private final Map<Long, Long> ultimaEscritura = new HashMap<>();
+    private final Map<Long, Integer> escriturasEnCurso = new HashMap<>();
+    private long sello;
+
+    private Disposable suscripcion;
+
+    public IndiceHorariosEntrenadores(ClaseRepository claseRepository, EventoGymService eventoGymService,
+                                      PlatformTransactionManager transactionManager) {
+        this.claseRepository = claseRepository;
+        this.eventoGymService = eventoGymService;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Sin readOnly: la réplica de lectura podría no tener todavía las últimas altas
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        reconstruir();
+        suscripcion = eventoGymService.flujoEventos()
+                .filter(evento -> evento.getTipo() == TipoEvento.CAMBIO_HORARIO
+                        || evento.getTipo() == TipoEvento.CAMBIO_HORARIO_LOTE)
+                .subscribe(this::alRecibirEvento,
+                        e -> log.error("Suscripción del índice de horarios terminada por error", e));
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (suscripcion != null) {
+            suscripcion.dispose();
+        }
+    }
+
+    // Carga completa desde la base de datos
+    public void reconstruir() {
+        synchronized (escritura) {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<Horario> activas = lectura.execute(status -> claseRepository
+                    .findByActivoAndHorarioAfter(true, ahora.minusHours(HORAS_CARGA_ANTERIORES)).stream()
+                    .map(IndiceHorariosEntrenadores::horarioDe)
+                    .filter(horario -> horario.intervalo().fin().isAfter(ahora))
+                    .toList());
+
+            porEntrenador = new HashMap<>();
+            porClase.clear();
+            activas.forEach(this::agregar);
+        }
+    }
+
+    /**
+     * Vuelve a leer la clase de la base de datos y la pone en el índice tal como está confirmada, sin
+     * comprobar solapes: lo confirmado en otro nodo ya pasó su comprobación allí.
+     */
+    public void refrescarClase(Long idClase) {
+        refrescar(List.of(idClase), ids -> claseRepository.findById(idClase).stream().toList());
+    }
+
+    // Varias clases (series, baja de un entrenador) con una sola lectura
+    public void refrescarClases(Collection<Long> idsClases) {
+        refrescar(idsClases, claseRepository::findAllById);
+    }
+
+    /**
+     * Compara el índice con lo confirmado en la base de datos y corrige lo que difiera (eventos de otros
+     * nodos que no llegaron). Se respetan las clases escritas en este nodo mientras se leía o con una
+     * transacción abierta, como en refrescarClase.
+     * @return clases corregidas
+     */
+    public int reconciliar() {
+        long selloAntes;
+        synchronized (escritura) {
+            if (porEntrenador == null) {
+                return 0;
+            }
+            selloAntes = sello;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<Long, Horario> confirmadas = new HashMap<>();
+        lectura.executeWithoutResult(status -> claseRepository
+                .findByActivoAndHorarioAfter(true, ahora.minusHours(HORAS_CARGA_ANTERIORES)).stream()
+                .map(IndiceHorariosEntrenadores::horarioDe)
+                .filter(horario -> horario.intervalo().fin().isAfter(ahora))
+                .forEach(horario -> confirmadas.put(horario.intervalo().idClase(), horario)));
+
+        synchronized (escritura) {
+            if (porEntrenador == null) {
+                return 0;
+            }
+            Set<Long> clases = new HashSet<>(porClase.keySet());
+            clases.addAll(confirmadas.keySet());
+            int corregidas = 0;
+            for (Long idClase : clases) {
+                Long ultima = ultimaEscritura.get(idClase);
+                if (escriturasEnCurso.containsKey(idClase) || (ultima != null && ultima > selloAntes)) {
+                    continue;
+                }
+                Horario confirmada = confirmadas.get(idClase);
+                if (!Objects.equals(porClase.get(idClase), confirmada)) {
+                    quitarDelIndice(idClase);
+                    if (confirmada != null) {
+                        agregar(confirmada);
+                    }
+                    corregidas++;
+                }
+            }
+            return corregidas;
+        }
+    }
+
+    // Las clases ya terminadas no pueden chocar con ninguna nueva
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void podarTerminadas() {
+        synchronized (escritura) {
+            if (porEntrenador == null) {
+                return;
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            Iterator<Horario> horarios = porClase.values().iterator();
+            List<Long> terminadas = new ArrayList<>();
+            while (horarios.hasNext()) {
+                Horario horario = horarios.next();
+                if (!horario.intervalo().fin().isAfter(ahora)) {
+                    terminadas.add(horario.intervalo().idClase());
+                }
+            }
+            terminadas.forEach(this::quitarDelIndice);
+            ultimaEscritura.keySet().removeIf(idClase -> !porClase.containsKey(idClase)
+                    && !escriturasEnCurso.containsKey(idClase));
+        }
+    }
+
+    // Número de clases en el índice
+    public int tamano() {
+        synchronized (escritura) {
+            return porClase.size();
+        }
+    }
+
+    // Clases del entrenador que se solapan con [inicio, fin), ordenadas por horario
+    public List<Long> buscarSolapes(Long idEntrenador, LocalDateTime inicio, LocalDateTime fin) {
+        synchronized (escritura) {
+            asegurarConstruido();
+            ArbolIntervalos arbol = porEntrenador.get(idEntrenador);
+            return arbol == null ? List.of()
+                    : arbol.solapados(inicio, fin).stream().map(Intervalo::idClase).toList();
+        }
+    }
+
+    /**
+     * Registra el horario actual de las clases (ya guardadas, con id) si ninguna se solapa con otra clase
+     * activa de su entrenador, incluidas las del propio lote. Las inactivas dejan libre su hueco.
+     *
+     * @throws ConflictoHorarioEntrenadorException con todas las clases en conflicto; el índice no cambia
+     */
+    public void registrar(Collection<Clase> clases) {
+        Map<Long, Horario> cambios = new LinkedHashMap<>();
+        clases.forEach(clase -> cambios.put(clase.getIdClase(),
+                Boolean.TRUE.equals(clase.getActivo()) ? horarioDe(clase) : null));
+        aplicarDentroDeTransaccion(cambios);
+    }
+
+    // Clase borrada: su hueco queda libre
+    public void quitar(Long idClase) {
+        Map<Long, Horario> cambios = new HashMap<>();
+        cambios.put(idClase, null);
+        aplicarDentroDeTransaccion(cambios);
+    }
+
+    private void alRecibirEvento(EventoGym evento) {
+        List<Long> idsClases;
+        try {
+            idsClases = evento.idsClases();
+        } catch (NumberFormatException e) {
+            // Eventos de prueba con identificadores no numéricos
+            return;
+        }
+        try {
+            if (idsClases.size() == 1) {
+                refrescarClase(idsClases.get(0));
+            } else {
+                refrescarClases(idsClases);
+            }
+        } catch (RuntimeException e) {
+            // Mejor rehacer el índice completo que comprobar contra un horario viejo
+            log.warn("No se pudo actualizar el índice de horarios, se reconstruye: {}", e.getMessage());
+            reconstruir();
+        }
+    }
+
+    private void refrescar(Collection<Long> idsClases, Function<Collection<Long>, List<Clase>> leer) {
+        // Sello de la última escritura local de cada clase (null si no la hay) antes de leer
+        Map<Long, Long> sellosAntes = new HashMap<>();
+        synchronized (escritura) {
+            idsClases.stream().filter(idClase -> !escriturasEnCurso.containsKey(idClase))
+                    .forEach(idClase -> sellosAntes.put(idClase, ultimaEscritura.get(idClase)));
+        }
+        if (sellosAntes.isEmpty()) {
+            return;
+        }
+        Map<Long, Horario> actuales = new HashMap<>();
+        lectura.executeWithoutResult(status -> leer.apply(sellosAntes.keySet()).stream()
+                .filter(clase -> Boolean.TRUE.equals(clase.getActivo()))
+                .map(IndiceHorariosEntrenadores::horarioDe)
+                .forEach(horario -> actuales.put(horario.intervalo().idClase(), horario)));
+        synchronized (escritura) {
+            if (porEntrenador == null) {
+                // La construcción pendiente leerá el estado ya confirmado
+                return;
+            }
+            sellosAntes.forEach((idClase, selloAntes) -> {
+                if (escriturasEnCurso.containsKey(idClase) || !Objects.equals(selloAntes, ultimaEscritura.get(idClase))) {
+                    // Lectura anterior a una escritura local: su propio evento traerá el estado bueno
+                    return;
+                }
+                quitarDelIndice(idClase);
+                Horario actual = actuales.get(idClase);
+                if (actual != null) {
+                    agregar(actual);
+                }
+            });
+        }
+    }
+
+    private void aplicarDentroDeTransaccion(Map<Long, Horario> cambios) {
+        Map<Long, Horario> anteriores;
+        boolean enTransaccion = TransactionSynchronizationManager.isSynchronizationActive();
+        synchronized (escritura) {
+            asegurarConstruido();
+            anteriores = aplicar(cambios);
+            sello++;
+            cambios.keySet().forEach(idClase -> {
+                ultimaEscritura.put(idClase, sello);
+                if (enTransaccion) {
+                    escriturasEnCurso.merge(idClase, 1, Integer::sum);
+                }
+            });
+        }
+        if (enTransaccion) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        deshacer(cambios, anteriores);
+                    }
+                    terminarEscritura(cambios.keySet());
+                }
+            });
+        }
+    }
+
+    // Aplica los cambios en orden; si alguno choca, restaura los anteriores y lanza el conflicto
+    private Map<Long, Horario> aplicar(Map<Long, Horario> cambios) {
+        Map<Long, Horario> anteriores = new LinkedHashMap<>();
+        Set<Long> enConflicto = new LinkedHashSet<>();
+        Long entrenadorEnConflicto = null;
+
+        for (Map.Entry<Long, Horario> cambio : cambios.entrySet()) {
+            Horario anterior = quitarDelIndice(cambio.getKey());
+            anteriores.put(cambio.getKey(), anterior);
+            Horario nuevo = cambio.getValue();
+            if (nuevo == null) {
+                continue;
+            }
+            ArbolIntervalos arbol = porEntrenador.get(nuevo.idEntrenador());
+            List<Intervalo> solapes = arbol == null ? List.of()
+                    : arbol.solapados(nuevo.intervalo().inicio(), nuevo.intervalo().fin());
+            if (solapes.isEmpty()) {
+                agregar(nuevo);
+            } else {
+                solapes.forEach(solape -> enConflicto.add(solape.idClase()));
+                if (entrenadorEnConflicto == null) {
+                    entrenadorEnConflicto = nuevo.idEntrenador();
+                }
+            }
+        }
+
+        if (!enConflicto.isEmpty()) {
+            restaurar(anteriores);
+            throw new ConflictoHorarioEntrenadorException(entrenadorEnConflicto, new ArrayList<>(enConflicto));
+        }
+        return anteriores;
+    }
+
+    private void terminarEscritura(Set<Long> clases) {
+        synchronized (escritura) {
+            clases.forEach(idClase -> escriturasEnCurso.computeIfPresent(idClase,
+                    (id, enCurso) -> enCurso > 1 ? enCurso - 1 : null));
+        }
+    }
+
+    // Tras un rollback solo se restaura lo que sigue como se dejó: si otra escritura tocó la clase después, manda esa
+    private void deshacer(Map<Long, Horario> cambios, Map<Long, Horario> anteriores) {
+        synchronized (escritura) {
+            if (porEntrenador == null) {
+                return;
+            }
+            anteriores.forEach((idClase, anterior) -> {
+                Horario aplicado = cambios.get(idClase);
+                Horario actual = porClase.get(idClase);
+                boolean intacto = aplicado == null ? actual == null : aplicado.equals(actual);
+                if (intacto) {
+                    quitarDelIndice(idClase);
+                    if (anterior != null) {
+                        agregar(anterior);
+                    }
+                }
+            });
+        }
+    }
+
+    // Dentro del mismo lock nadie más ha podido tocar estas clases
+    private void restaurar(Map<Long, Horario> anteriores) {
+        anteriores.keySet().forEach(this::quitarDelIndice);
+        anteriores.values().stream().filter(anterior -> anterior != null).forEach(this::agregar);
+    }
+
+    private void agregar(Horario horario) {
+        porEntrenador.computeIfAbsent(horario.idEntrenador(), id -> new ArbolIntervalos()).insertar(horario.intervalo());
+        porClase.put(horario.intervalo().idClase(), horario);
+    }
+
+    private Horario quitarDelIndice(Long idClase) {
+        Horario anterior = porClase.remove(idClase);
+        if (anterior != null) {
+            ArbolIntervalos arbol = porEntrenador.get(anterior.idEntrenador());
+            arbol.eliminar(anterior.intervalo());
+            if (arbol.estaVacio()) {
+                porEntrenador.remove(anterior.idEntrenador());
+            }
+        }
+        return anterior;
+    }
+
+    // Una escritura que llega antes del arranque completo construye el índice ella misma
+    private void asegurarConstruido() {
+        if (porEntrenador == null) {
+            reconstruir();
+        }
+    }
+
+    private static Horario horarioDe(Clase clase) {
+        int duracion = clase.getDuracionMinutos() != null ? clase.getDuracionMinutos() : 60;
+        return new Horario(clase.getEntrenador().getIdEntrenador(),
+                new Intervalo(clase.getIdClase(), clase.getHorario(), clase.getHorario().plusMinutes(duracion)));
+    }
+
+    private record Horario(Long idEntrenador, Intervalo intervalo) {
+    }
+}
@@ -1,63 +1,79 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.core;
 
-import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.DespachadorNotificaciones;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.Notificacion;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
-import org.springframework.scheduling.annotation.Async;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+/**
+ * Avisos al socio sobre sus reservas. Reciben ReservaDTO, no entidades: se envían desde otro hilo,
+ * fuera de la sesión de Hibernate, y no deben disparar cargas LAZY.
+ * Solo encolan (ver DespachadorNotificaciones): el envío se agrupa por socio y sale en lotes.
+ * Las confirmaciones y cancelaciones las pide RelevoEventos una vez confirmada la transacción.
+ */
 @Service
 public class NotificacionService {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificacionService.class);
+
+    private static final DateTimeFormatter FORMATO_HORARIO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     private final ReservaRepository reservaRepository;
+    private final DespachadorNotificaciones despachador;
 
-    public NotificacionService(ReservaRepository reservaRepository) {
+    public NotificacionService(ReservaRepository reservaRepository, DespachadorNotificaciones despachador) {
         this.reservaRepository = reservaRepository;
+        this.despachador = despachador;
     }
 
-    @Async
-    public void enviarRecordatorioReserva(Reserva reserva) {
-        // Implementación de envío de recordatorio
-        // Por ejemplo: email, SMS, push notification
-        LocalDateTime horarioClase = reserva.getClase().getHorario();
+    public void enviarRecordatorioReserva(ReservaDTO reserva) {
+        LocalDateTime horarioClase = reserva.getHorarioClase();
         LocalDateTime recordatorio = horarioClase.minusHours(24);
-        
-        if (LocalDateTime.now().isAfter(recordatorio) && 
+
+        if (LocalDateTime.now().isAfter(recordatorio) &&
             LocalDateTime.now().isBefore(horarioClase) &&
-            reserva.getEstado().equals("CONFIRMADA")) {
-            // Lógica de notificación
-            System.out.println("Recordatorio: Tienes una clase " + reserva.getClase().getNombre() + 
-                             " el " + horarioClase);
+            EstadoReserva.CONFIRMADA.name().equals(reserva.getEstado())) {
+            enviar(reserva, "Recordatorio: " + reserva.getNombreClase(),
+                    "Tienes la clase " + reserva.getNombreClase() + " el " + horarioClase.format(FORMATO_HORARIO) + ".");
         }
     }
 
-    @Async
-    public void enviarConfirmacionReserva(Reserva reserva) {
-        // Implementación de confirmación de reserva
-        System.out.println("Confirmación: Tu reserva para " + reserva.getClase().getNombre() + 
-                         " ha sido confirmada");
+    public void enviarConfirmacionReserva(ReservaDTO reserva) {
+        enviar(reserva, "Reserva confirmada: " + reserva.getNombreClase(),
+                "Tu reserva para " + reserva.getNombreClase() + " el "
+                        + reserva.getHorarioClase().format(FORMATO_HORARIO) + " ha sido confirmada.");
     }
 
-    @Async
-    public void enviarCancelacionReserva(Reserva reserva) {
-        // Implementación de notificación de cancelación
-        System.out.println("Cancelación: Tu reserva para " + reserva.getClase().getNombre() + 
-                         " ha sido cancelada");
+    public void enviarCancelacionReserva(ReservaDTO reserva) {
+        enviar(reserva, "Reserva cancelada: " + reserva.getNombreClase(),
+                "Tu reserva para " + reserva.getNombreClase() + " el "
+                        + reserva.getHorarioClase().format(FORMATO_HORARIO) + " ha sido cancelada.");
     }
 
+    @Transactional(readOnly = true)
     public void enviarRecordatoriosProximos() {
-        List<Reserva> reservasProximas = reservaRepository.findByEstado("CONFIRMADA").stream()
-                .filter(r -> {
-                    LocalDateTime horario = r.getClase().getHorario();
-                    LocalDateTime ahora = LocalDateTime.now();
-                    LocalDateTime en24Horas = ahora.plusHours(24);
-                    return horario.isAfter(ahora) && horario.isBefore(en24Horas);
-                })
-                .toList();
-        
+        LocalDateTime ahora = LocalDateTime.now();
+        List<ReservaDTO> reservasProximas =
+                reservaRepository.proyectarConfirmadasConClaseEntre(ahora, ahora.plusHours(24));
+
         reservasProximas.forEach(this::enviarRecordatorioReserva);
     }
-}
 
+    // Con la cola llena lanza: el relevo de eventos reintenta el evento más tarde
+    private void enviar(ReservaDTO reserva, String asunto, String texto) {
+        if (reserva.getCorreoUsuario() == null) {
+            log.debug("Reserva {} sin correo de socio; no se notifica", reserva.getIdReserva());
+            return;
+        }
+        despachador.encolar(new Notificacion(reserva.getCorreoUsuario(), asunto, texto));
+    }
+}
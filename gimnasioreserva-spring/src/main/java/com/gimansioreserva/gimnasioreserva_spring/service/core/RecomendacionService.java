@@ -5,6 +5,8 @@ import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.RecomendacionDTO;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux; // Importa Flux para flujos de datos reactivos.
 import reactor.core.publisher.Mono; // Importa Mono para datos reactivos de 0 o 1 elemento.
@@ -13,6 +15,8 @@ import reactor.core.scheduler.Schedulers;
 @Service // Indica que esta clase es un componente de servicio de Spring.
 public class RecomendacionService {
 
+    private static final Logger log = LoggerFactory.getLogger(RecomendacionService.class);
+
     private final ClaseRepository claseRepository; // Repositorio para acceder a la información de las clases.
 
     // Constructor que inyecta el ClaseRepository.
@@ -61,15 +65,15 @@ public class RecomendacionService {
                                                 evento.getTimestamp()
                                         ));
                                     } else {
-                                        System.out.println("Clase no encontrada en BD: " + idClase);
+                                        log.debug("Clase no encontrada en BD: {}", idClase);
                                         return Mono.empty(); // No emitir nada si la clase no existe
                                     }
                                 })
-                                .doOnError(e -> System.err.println("Error buscando clase " + idClase + ": " + e.getMessage()))
+                                .doOnError(e -> log.warn("Error buscando clase {}: {}", idClase, e.getMessage()))
                                 .onErrorResume(e -> Mono.empty()); // Continuar el flujo si hay error
                     } catch (NumberFormatException e) {
                         // Si claseId no es un número válido, crear recomendación genérica
-                        System.out.println("claseId no numérico, creando recomendación genérica: " + evento.getClaseId());
+                        log.debug("claseId no numérico, creando recomendación genérica: {}", evento.getClaseId());
                         String nombreAmigable = generarNombreAmigable(evento.getClaseId());
                         return Mono.just(new RecomendacionDTO(
                                 evento.getClaseId(),
@@ -86,7 +90,7 @@ public class RecomendacionService {
                 //    si el suscriptor no puede procesar los eventos tan rápido como se emiten.
                 .onBackpressureLatest()
                 // doOnError: Captura cualquier error en el pipeline de recomendaciones
-                .doOnError(e -> System.err.println("ERROR en RecomendacionService pipeline: " + e.getMessage()));
+                .doOnError(e -> log.error("Error en el pipeline de recomendaciones: {}", e.getMessage(), e));
     }
 
     /**
@@ -100,7 +104,7 @@ public class RecomendacionService {
         return switch (evento.getTipo()) {
             case CUPO_DISPONIBLE -> String.format("¡Cupo disponible en %s! Reserva ahora antes de que se ocupe.", nombreClase);
             case CLASE_LLENA -> String.format("Clase %s está llena. Prueba otra clase o espera un cupo.", nombreClase);
-            case CAMBIO_HORARIO -> String.format("Cambio de horario en %s. Verifica tu agenda para no perdértela.", nombreClase);
+            case CAMBIO_HORARIO, CAMBIO_HORARIO_LOTE -> String.format("Cambio de horario en %s. Verifica tu agenda para no perdértela.", nombreClase);
             case RESERVA_CREADA -> String.format("Reserva confirmada para %s. ¡Te esperamos!", nombreClase);
             case RESERVA_CANCELADA -> String.format("Se liberó un cupo en %s. ¡Aprovecha la oportunidad!", nombreClase);
         };
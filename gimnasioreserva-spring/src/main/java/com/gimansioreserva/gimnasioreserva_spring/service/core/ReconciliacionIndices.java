@@ -0,0 +1,44 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Con el transporte tcp los eventos entre nodos se entregan como mucho una vez: un par caído más tiempo
+ * del que aguanta su cola, o un nodo que se reinicia, pierde eventos. Cada reconciliacion-ms se rehacen
+ * los índices en memoria desde la base de datos, así que un evento perdido deja el índice desfasado como
+ * mucho ese intervalo. Con una sola instancia (transporte memoria) no hace falta.
+ */
+@Component
+@ConditionalOnProperty(prefix = "gimnasio.eventos", name = "transporte", havingValue = "tcp")
+public class ReconciliacionIndices {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliacionIndices.class);
+
+    private final IndiceHorariosEntrenadores indiceHorarios;
+    private final IndiceAgendaClases indiceAgendaClases;
+
+    public ReconciliacionIndices(IndiceHorariosEntrenadores indiceHorarios, IndiceAgendaClases indiceAgendaClases) {
+        this.indiceHorarios = indiceHorarios;
+        this.indiceAgendaClases = indiceAgendaClases;
+    }
+
+    @Scheduled(fixedDelayString = "${gimnasio.eventos.reconciliacion-ms:600000}",
+               initialDelayString = "${gimnasio.eventos.reconciliacion-ms:600000}")
+    public void reconciliar() {
+        try {
+            int corregidas = indiceHorarios.reconciliar();
+            if (corregidas > 0) {
+                log.warn("Índice de horarios reconciliado: {} clases no coincidían con la base de datos", corregidas);
+            }
+            if (indiceAgendaClases.estaConstruido()) {
+                indiceAgendaClases.reconstruir();
+            }
+        } catch (RuntimeException e) {
+            log.error("Error reconciliando los índices en memoria", e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoPendiente;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EventoPendienteRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publica los eventos de la bandeja de salida (ver BandejaEventos) en EventoGymService y envía las
+ * notificaciones de reserva. Solo ve filas ya confirmadas, así que nada de lo publicado puede venir de
+ * una transacción revertida.
+ *
+ * - Al menos una vez en este nodo: una fila solo se borra si el bus local aceptó el evento, en la misma
+ *   transacción en que se publica; si esa transacción no llega a confirmarse, el evento se vuelve a publicar
+ *   con el mismo id y el bus no lo repite (los demás nodos también descartan ids ya vistos).
+ * - Hacia los demás nodos, como mucho una vez: aceptar el evento solo es dejarlo en la cola del transporte,
+ *   que puede descartarlo si un par está caído demasiado tiempo. Los índices que dependen de esos eventos
+ *   se reconcilian periódicamente con la base de datos (ver ReconciliacionIndices).
+ * - Orden por clase: el lote se publica en orden de id y, si un evento falla, los siguientes de su
+ *   clase esperan al próximo intento; las demás clases siguen.
+ * - Tras maxIntentos fallidos el evento se aparca: la fila queda para revisarla y deja de bloquear su clase.
+ * - El lote se lee con bloqueo: con varios nodos, los relevos se turnan en lugar de publicar dos veces.
+ *
+ * Un solo hilo por nodo; lo despierta cada commit que deja eventos y, por si acaso, una revisión periódica.
+ */
+@Component
+public class RelevoEventos {
+
+    private static final Logger log = LoggerFactory.getLogger(RelevoEventos.class);
+
+    private final EventoPendienteRepository eventoPendienteRepository;
+    private final ReservaRepository reservaRepository;
+    private final EventoGymService eventoGymService;
+    private final NotificacionService notificacionService;
+    private final MetricasGimnasio metricas;
+    private final BandejaEventosProperties propiedades;
+    private final TransactionTemplate transaccion;
+    private final ExecutorService hilo;
+
+    private final AtomicBoolean programado = new AtomicBoolean();
+    // Avisos llegados mientras el hilo ya trabajaba: obligan a otra pasada
+    private final AtomicBoolean pendiente = new AtomicBoolean();
+
+    public RelevoEventos(EventoPendienteRepository eventoPendienteRepository,
+                         ReservaRepository reservaRepository,
+                         EventoGymService eventoGymService,
+                         NotificacionService notificacionService,
+                         MetricasGimnasio metricas,
+                         BandejaEventosProperties propiedades,
+                         PlatformTransactionManager transactionManager) {
+        this.eventoPendienteRepository = eventoPendienteRepository;
+        this.reservaRepository = reservaRepository;
+        this.eventoGymService = eventoGymService;
+        this.notificacionService = notificacionService;
+        this.metricas = metricas;
+        this.propiedades = propiedades;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.hilo = Executors.newSingleThreadExecutor(tarea -> {
+            Thread t = new Thread(tarea, "relevo-eventos");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Tras un commit con eventos; varios avisos seguidos se resuelven en una sola pasada
+    public void despertar() {
+        pendiente.set(true);
+        if (programado.compareAndSet(false, true)) {
+            hilo.execute(this::pasada);
+        }
+    }
+
+    // Recoge lo que ningún aviso cubrió: caídas antes de publicar, eventos de otros nodos, reintentos
+    @Scheduled(fixedDelayString = "${gimnasio.eventos.bandeja.intervalo-ms:5000}",
+               initialDelayString = "${gimnasio.eventos.bandeja.intervalo-ms:5000}")
+    public void revisar() {
+        despertar();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        hilo.shutdown();
+        hilo.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Publica lote a lote hasta vaciar la bandeja o quedarse sin avances.
+     * @return eventos publicados
+     */
+    public int relevarPendientes() {
+        int publicados = 0;
+        Resultado lote;
+        do {
+            lote = transaccion.execute(estado -> publicarLote());
+            publicados += lote.publicados();
+        } while (lote.leidos() == propiedades.getTamanoLote() && lote.publicados() > 0);
+        return publicados;
+    }
+
+    private void pasada() {
+        try {
+            while (pendiente.getAndSet(false)) {
+                relevarPendientes();
+            }
+        } catch (RuntimeException e) {
+            // Los eventos siguen en la bandeja: la próxima revisión los recoge
+            log.error("Error relevando la bandeja de eventos", e);
+        } finally {
+            programado.set(false);
+            // Un aviso pudo llegar entre la última pasada y soltar la marca
+            if (pendiente.get()) {
+                despertar();
+            }
+        }
+    }
+
+    // Dentro de la transacción que tiene bloqueado el lote
+    private Resultado publicarLote() {
+        List<EventoPendiente> lote = eventoPendienteRepository.bloquearLote(Limit.of(propiedades.getTamanoLote()));
+        if (lote.isEmpty()) {
+            return new Resultado(0, 0);
+        }
+        Map<Long, ReservaDTO> reservas = reservasANotificar(lote);
+
+        List<Long> publicados = new ArrayList<>();
+        List<Long> fallidos = new ArrayList<>();
+        List<Long> aparcados = new ArrayList<>();
+        Set<Long> clasesRetenidas = new HashSet<>();
+        for (EventoPendiente evento : lote) {
+            if (clasesRetenidas.contains(evento.getIdClase())) {
+                continue;
+            }
+            RuntimeException error = null;
+            boolean entregado = false;
+            try {
+                entregado = publicar(evento, reservas.get(evento.getIdReserva()));
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            if (entregado) {
+                publicados.add(evento.getIdEvento());
+                metricas.eventoBandejaPublicado(evento.getCreadoEn());
+            } else if (evento.getIntentos() + 1 >= propiedades.getMaxIntentos()) {
+                aparcados.add(evento.getIdEvento());
+                log.error("Evento {} {} de la clase {} aparcado tras {} intentos",
+                        evento.getIdEvento(), evento.getTipo(), evento.getIdClase(), evento.getIntentos() + 1, error);
+            } else {
+                clasesRetenidas.add(evento.getIdClase());
+                fallidos.add(evento.getIdEvento());
+                log.warn("No se pudo publicar el evento {} {} de la clase {} (intento {}); se reintentará",
+                        evento.getIdEvento(), evento.getTipo(), evento.getIdClase(), evento.getIntentos() + 1, error);
+            }
+        }
+
+        if (!publicados.isEmpty()) {
+            eventoPendienteRepository.borrarPublicados(publicados);
+        }
+        if (!fallidos.isEmpty()) {
+            eventoPendienteRepository.anotarIntentoFallido(fallidos);
+        }
+        if (!aparcados.isEmpty()) {
+            eventoPendienteRepository.aparcar(aparcados);
+        }
+        metricas.loteBandeja(lote.size(), fallidos.size() + aparcados.size(), aparcados.size());
+        return new Resultado(lote.size(), publicados.size());
+    }
+
+    // El evento primero: si el bus no lo acepta no se notifica, y el reintento no manda otro correo. Si lo que
+    // falla es la notificación (cola llena), el reintento vuelve a emitir el mismo id, que el bus no repite.
+    // false si el bus no aceptó el evento
+    private boolean publicar(EventoPendiente evento, ReservaDTO reserva) {
+        if (!eventoGymService.emitirEvento(evento.aEventoGym())) {
+            return false;
+        }
+        if (reserva != null) {
+            if (evento.getTipo() == TipoEvento.RESERVA_CREADA) {
+                notificacionService.enviarConfirmacionReserva(reserva);
+            } else if (evento.getTipo() == TipoEvento.RESERVA_CANCELADA) {
+                notificacionService.enviarCancelacionReserva(reserva);
+            }
+        }
+        return true;
+    }
+
+    // Una sola consulta por lote; una reserva ya borrada simplemente no se notifica
+    private Map<Long, ReservaDTO> reservasANotificar(List<EventoPendiente> lote) {
+        Set<Long> ids = new HashSet<>();
+        lote.stream().map(EventoPendiente::getIdReserva).filter(Objects::nonNull).forEach(ids::add);
+        Map<Long, ReservaDTO> reservas = new HashMap<>();
+        if (!ids.isEmpty()) {
+            reservaRepository.proyectarPorIds(ids).forEach(r -> reservas.put(r.getIdReserva(), r));
+        }
+        return reservas;
+    }
+
+    private record Resultado(int leidos, int publicados) {
+    }
+}
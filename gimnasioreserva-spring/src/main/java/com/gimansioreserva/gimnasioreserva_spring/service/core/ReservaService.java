@@ -1,7 +1,7 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.core;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
-import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
@@ -14,6 +14,7 @@ import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
 import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
 import com.gimansioreserva.gimnasioreserva_spring.validator.ReservaValidator;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,25 +26,42 @@ import java.util.stream.Collectors;
 @Service
 public class ReservaService {
 
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+
+    private static final List<EstadoReserva> ESTADOS_HISTORIAL = List.of(EstadoReserva.CANCELADA, EstadoReserva.COMPLETADA);
+
+    // Cursor inicial: posterior a cualquier fecha/ID almacenable
+    private static final LocalDateTime CURSOR_FECHA_INICIAL = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final ReservaRepository reservaRepository;
     private final ClaseRepository claseRepository;
     private final UsuarioRepository usuarioRepository;
     private final ReservaMapper reservaMapper;
     private final ReservaValidator reservaValidator;
-    private final EventoGymService eventoGymService;
+    private final BandejaEventos bandejaEventos;
+    private final VersionesCatalogo versionesCatalogo;
+    private final AgendaReservasSocios agendaReservasSocios;
+    private final IndiceAgendaClases indiceAgendaClases;
 
     public ReservaService(ReservaRepository reservaRepository,
                          ClaseRepository claseRepository,
                          UsuarioRepository usuarioRepository,
                          ReservaMapper reservaMapper,
                          ReservaValidator reservaValidator,
-                         EventoGymService eventoGymService) {
+                         BandejaEventos bandejaEventos,
+                         VersionesCatalogo versionesCatalogo,
+                         AgendaReservasSocios agendaReservasSocios,
+                         IndiceAgendaClases indiceAgendaClases) {
         this.reservaRepository = reservaRepository;
         this.claseRepository = claseRepository;
         this.usuarioRepository = usuarioRepository;
         this.reservaMapper = reservaMapper;
         this.reservaValidator = reservaValidator;
-        this.eventoGymService = eventoGymService;
+        this.bandejaEventos = bandejaEventos;
+        this.versionesCatalogo = versionesCatalogo;
+        this.agendaReservasSocios = agendaReservasSocios;
+        this.indiceAgendaClases = indiceAgendaClases;
     }
 
     @Transactional
@@ -51,7 +69,9 @@ public class ReservaService {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        Clase clase = claseRepository.findById(idClase)
+        // El mismo bloqueo de la fila de la clase que toma la cola de reservas: con la clase pasando de un
+        // modo a otro, ambas vías cuentan los cupos por turnos y no venden la misma plaza
+        Clase clase = claseRepository.bloquearPorId(idClase)
                 .orElseThrow(() -> new ClaseNoDisponibleException(idClase));
 
         Optional<Reserva> reservaExistente = reservaRepository.buscarReservaDuplicada(idUsuario, idClase);
@@ -63,24 +83,22 @@ public class ReservaService {
         reserva.setUsuario(usuario);
         reserva.setClase(clase);
         reserva.setFechaReserva(LocalDateTime.now());
-        reserva.setEstado("CONFIRMADA");
+        reserva.setEstado(EstadoReserva.CONFIRMADA);
 
-        reservaValidator.validarCrearReserva(reserva, clase);
+        int libres = clase.cuposLibres(claseRepository.contarReservasConfirmadas(idClase));
+        reservaValidator.validarCrearReserva(reserva, clase, libres);
+        // Otra reserva del socio a la misma hora: se comprueba en memoria, sin consultar la base de datos
+        agendaReservasSocios.ocuparHueco(idUsuario, clase);
 
         Reserva guardada = reservaRepository.save(reserva);
+        versionesCatalogo.reservasCambiadas(idClase);
 
-        // Emitir evento de reserva creada
-        eventoGymService.emitirEvento(new EventoGym(
-                clase.getIdClase().toString(),
-                TipoEvento.RESERVA_CREADA
-        ));
-
-        // Emitir evento si la clase se llenó
-        if (clase.getCuposDisponibles() - 1 == 0) {
-            eventoGymService.emitirEvento(new EventoGym(
-                    clase.getIdClase().toString(),
-                    TipoEvento.CLASE_LLENA
-            ));
+        // Eventos a la bandeja de salida: se publican solo si esta transacción se confirma
+        bandejaEventos.registrar(idClase, TipoEvento.RESERVA_CREADA, guardada.getIdReserva());
+
+        // Evento si la clase se llenó
+        if (libres - 1 == 0) {
+            bandejaEventos.registrar(idClase, TipoEvento.CLASE_LLENA, null);
         }
 
         return reservaMapper.toDTO(guardada);
@@ -97,37 +115,64 @@ public class ReservaService {
 
         reservaValidator.validarCancelarReserva(reserva, reserva.getClase());
 
-        reserva.setEstado("CANCELADA");
+        reserva.setEstado(EstadoReserva.CANCELADA);
         Reserva actualizada = reservaRepository.save(reserva);
+        agendaReservasSocios.liberarHueco(idUsuario, reserva.getClase().getIdClase());
+        versionesCatalogo.reservasCambiadas(reserva.getClase().getIdClase());
 
-        // Emitir evento de reserva cancelada
-        eventoGymService.emitirEvento(new EventoGym(
-                reserva.getClase().getIdClase().toString(),
-                TipoEvento.RESERVA_CANCELADA
-        ));
-
-        // Emitir evento de cupo disponible
-        eventoGymService.emitirEvento(new EventoGym(
-                reserva.getClase().getIdClase().toString(),
-                TipoEvento.CUPO_DISPONIBLE
-        ));
+        // Eventos de reserva cancelada y de cupo disponible, a la bandeja de salida
+        bandejaEventos.registrar(reserva.getClase().getIdClase(), TipoEvento.RESERVA_CANCELADA, idReserva);
+        bandejaEventos.registrar(reserva.getClase().getIdClase(), TipoEvento.CUPO_DISPONIBLE, null);
 
         return reservaMapper.toDTO(actualizada);
     }
 
+    // Cambio de estado por un administrador: solo se sale de CONFIRMADA (a CANCELADA o COMPLETADA)
+    @Transactional
+    public ReservaDTO cambiarEstado(Long idReserva, EstadoReserva nuevoEstado) {
+        Reserva reserva = reservaRepository.findById(idReserva)
+                .orElseThrow(() -> new ReservaNoEncontradaException(idReserva));
+
+        reservaValidator.validarCambioEstado(reserva, nuevoEstado);
 
+        reserva.setEstado(nuevoEstado);
+        Reserva actualizada = reservaRepository.save(reserva);
+        Long idClase = reserva.getClase().getIdClase();
+        agendaReservasSocios.liberarHueco(reserva.getUsuario().getIdUsuario(), idClase);
+        versionesCatalogo.reservasCambiadas(idClase);
+
+        if (nuevoEstado == EstadoReserva.CANCELADA) {
+            // Igual que una cancelación del socio: aviso, otros nodos e índice por la bandeja de salida
+            bandejaEventos.registrar(idClase, TipoEvento.RESERVA_CANCELADA, idReserva);
+            bandejaEventos.registrar(idClase, TipoEvento.CUPO_DISPONIBLE, null);
+        } else {
+            // Completada: sin aviso al socio, pero el cupo ya no cuenta
+            indiceAgendaClases.refrescarClase(idClase);
+        }
+
+        return reservaMapper.toDTO(actualizada);
+    }
+
+    // Todas las reservas del usuario, más recientes primero; para recorrerlas por páginas, la variante con cursor
     @Transactional(readOnly = true)
     public List<ReservaDTO> obtenerReservasPorUsuario(Long idUsuario) {
-        return reservaRepository.findByUsuario_IdUsuario(idUsuario).stream()
-                .map(reservaMapper::toDTO)
-                .collect(Collectors.toList());
+        return reservaRepository.proyectarPaginaPorUsuario(idUsuario,
+                CURSOR_FECHA_INICIAL, Long.MAX_VALUE, Limit.unlimited());
+    }
+
+    /**
+     * Reservas del usuario, más recientes primero. Para la siguiente página se pasa
+     * como cursor la fechaReserva y el idReserva del último elemento recibido.
+     */
+    @Transactional(readOnly = true)
+    public List<ReservaDTO> obtenerReservasPorUsuario(Long idUsuario, LocalDateTime antesDe, Long antesDeId, int limite) {
+        return reservaRepository.proyectarPaginaPorUsuario(idUsuario,
+                cursorFecha(antesDe), cursorId(antesDeId), limitar(limite));
     }
 
     @Transactional(readOnly = true)
     public List<ReservaDTO> obtenerReservasConfirmadasPorUsuario(Long idUsuario) {
-        return reservaRepository.obtenerReservasConfirmadasPorUsuario(idUsuario).stream()
-                .map(reservaMapper::toDTO)
-                .collect(Collectors.toList());
+        return reservaRepository.proyectarConfirmadasPorUsuario(idUsuario);
     }
 
     @Transactional(readOnly = true)
@@ -137,23 +182,50 @@ public class ReservaService {
                 .orElseThrow(() -> new ReservaNoEncontradaException(idReserva));
     }
 
+    // Historial completo (canceladas y completadas), más recientes primero
     @Transactional(readOnly = true)
     public List<ReservaDTO> obtenerHistorialPorUsuario(Long idUsuario) {
-        return reservaRepository.findByUsuario_IdUsuario(idUsuario).stream()
-                .filter(r -> r.getEstado().equals("CANCELADA") || r.getEstado().equals("COMPLETADA"))
-                .map(reservaMapper::toDTO)
-                .collect(Collectors.toList());
+        return reservaRepository.proyectarPaginaPorUsuarioYEstados(idUsuario, ESTADOS_HISTORIAL,
+                CURSOR_FECHA_INICIAL, Long.MAX_VALUE, Limit.unlimited());
+    }
+
+    // Historial (canceladas y completadas) filtrado y paginado en la consulta
+    @Transactional(readOnly = true)
+    public List<ReservaDTO> obtenerHistorialPorUsuario(Long idUsuario, LocalDateTime antesDe, Long antesDeId, int limite) {
+        return reservaRepository.proyectarPaginaPorUsuarioYEstados(idUsuario, ESTADOS_HISTORIAL,
+                cursorFecha(antesDe), cursorId(antesDeId), limitar(limite));
     }
 
     @Transactional
     public void completarReservasPasadas() {
         LocalDateTime ahora = LocalDateTime.now();
-        List<Reserva> reservasPasadas = reservaRepository.findByEstado("CONFIRMADA").stream()
+        List<Reserva> reservasPasadas = reservaRepository.findByEstado(EstadoReserva.CONFIRMADA).stream()
                 .filter(r -> r.getClase().getHorario().isBefore(ahora))
                 .collect(Collectors.toList());
         
-        reservasPasadas.forEach(r -> r.setEstado("COMPLETADA"));
+        reservasPasadas.forEach(r -> r.setEstado(EstadoReserva.COMPLETADA));
         reservaRepository.saveAll(reservasPasadas);
+        List<Long> clases = reservasPasadas.stream()
+                .map(r -> r.getClase().getIdClase())
+                .distinct()
+                .toList();
+        clases.forEach(versionesCatalogo::reservasCambiadas);
+        // Sin eventos: los cupos de estas clases se releen en el índice de una vez
+        if (!clases.isEmpty()) {
+            indiceAgendaClases.refrescarClases(clases);
+        }
+    }
+
+    private static LocalDateTime cursorFecha(LocalDateTime antesDe) {
+        return antesDe != null ? antesDe : CURSOR_FECHA_INICIAL;
+    }
+
+    private static Long cursorId(Long antesDeId) {
+        return antesDeId != null ? antesDeId : Long.MAX_VALUE;
+    }
+
+    private static Limit limitar(int limite) {
+        return Limit.of(Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
     }
 }
 
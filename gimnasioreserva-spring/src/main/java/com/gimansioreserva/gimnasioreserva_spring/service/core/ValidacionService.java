@@ -1,6 +1,7 @@
 package com.gimansioreserva.gimnasioreserva_spring.service.core;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
 import com.gimansioreserva.gimnasioreserva_spring.exception.CupoAgotadoException;
 import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaDuplicadaException;
@@ -54,7 +55,7 @@ public class ValidacionService {
     }
 
     public boolean validarReservaConfirmada(Reserva reserva) {
-        return reserva != null && reserva.getEstado().equals("CONFIRMADA");
+        return reserva != null && reserva.getEstado() == EstadoReserva.CONFIRMADA;
     }
 }
 
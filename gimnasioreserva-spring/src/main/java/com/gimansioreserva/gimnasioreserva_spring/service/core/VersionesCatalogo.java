@@ -0,0 +1,129 @@
+package com.gimansioreserva.gimnasioreserva_spring.service.core;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sellos de versión para las lecturas del catálogo de clases y de disponibilidad, usados como ETag.
+ *
+ * - catálogo: cambia con las altas, ediciones y bajas de clases y entrenadores
+ * - reservas: cambia con cualquier reserva creada, cancelada o borrada (los listados incluyen cupos)
+ * - por clase: cambia con las reservas de esa clase
+ *
+ * Los contadores viven en memoria: la época aleatoria del proceso evita que un ETag anterior a un
+ * reinicio, o de otro nodo, coincida por casualidad. Las reservas hechas en otros nodos llegan como
+ * eventos y también incrementan la versión de su clase.
+ */
+@Component
+public class VersionesCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionesCatalogo.class);
+
+    private final EventoGymService eventoGymService;
+    private final String epoca = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final AtomicLong catalogo = new AtomicLong();
+    private final AtomicLong reservas = new AtomicLong();
+    private final Map<Long, AtomicLong> porClase = new ConcurrentHashMap<>();
+
+    private Disposable suscripcion;
+
+    public VersionesCatalogo(EventoGymService eventoGymService) {
+        this.eventoGymService = eventoGymService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        suscripcion = eventoGymService.flujoEventos()
+                .subscribe(this::alRecibirEvento,
+                        e -> log.error("Suscripción de las versiones del catálogo terminada por error", e));
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (suscripcion != null) {
+            suscripcion.dispose();
+        }
+    }
+
+    // Alta, edición o baja de clases o entrenadores
+    public void catalogoCambiado() {
+        despuesDeCommit(catalogo::incrementAndGet);
+    }
+
+    // Reservas de la clase creadas, canceladas, borradas o con estado cambiado
+    public void reservasCambiadas(Long idClase) {
+        despuesDeCommit(() -> incrementarClase(idClase));
+    }
+
+    /**
+     * ETag de los listados de clases o de disponibilidad.
+     * @param dependeDeLaHora si el resultado depende de la hora actual (clases futuras, plazo de reserva):
+     *                        entonces el ETag cambia también cada minuto
+     */
+    public String etagListado(boolean dependeDeLaHora) {
+        return etag(catalogo.get(), reservas.get(), dependeDeLaHora);
+    }
+
+    // ETag de una clase concreta o de su disponibilidad
+    public String etagClase(Long idClase, boolean dependeDeLaHora) {
+        AtomicLong version = porClase.get(idClase);
+        return etag(catalogo.get(), version != null ? version.get() : 0, dependeDeLaHora);
+    }
+
+    private String etag(long versionCatalogo, long versionReservas, boolean dependeDeLaHora) {
+        StringBuilder etag = new StringBuilder(48).append('"')
+                .append(epoca).append('-').append(versionCatalogo).append('-').append(versionReservas);
+        if (dependeDeLaHora) {
+            etag.append('-').append(System.currentTimeMillis() / 60_000);
+        }
+        return etag.append('"').toString();
+    }
+
+    private void incrementarClase(Long idClase) {
+        porClase.computeIfAbsent(idClase, id -> new AtomicLong()).incrementAndGet();
+        reservas.incrementAndGet();
+    }
+
+    // Los servicios emiten dentro de la transacción; el incremento local tras el commit cubre ese hueco
+    private void alRecibirEvento(EventoGym evento) {
+        if (evento.getTipo() == TipoEvento.CAMBIO_HORARIO_LOTE) {
+            // Altas o bajas de varias clases: cambia el catálogo entero
+            catalogo.incrementAndGet();
+            return;
+        }
+        try {
+            incrementarClase(Long.parseLong(evento.getClaseId()));
+        } catch (NumberFormatException e) {
+            // Eventos de prueba con identificadores no numéricos
+        }
+    }
+
+    // Incrementar antes del commit dejaría a un lector guardar datos viejos con el ETag nuevo
+    private static void despuesDeCommit(Runnable incremento) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incremento.run();
+                }
+            });
+        } else {
+            incremento.run();
+        }
+    }
+}
@@ -22,8 +22,18 @@ public class CrearAdminManual {
         System.out.println();
         System.out.println("Ejecuta este SQL en tu base de datos MySQL:");
         System.out.println();
-        System.out.println("INSERT INTO usuarios (nombre, correo, contrasena, rol, activo)");
-        System.out.println("VALUES ('Administrador', 'admin@gimnasio.com', '" + hashedPassword + "', 'ADMIN', true);");
+        // El id sale de secuencias_id (V5__secuencias_id.sql), como en R__usuario_admin.sql: sin él,
+        // la aplicación volvería a repartir el id que toma la base de datos
+        System.out.println("INSERT INTO usuarios (id_usuario, nombre, correo, contrasena, rol, activo)");
+        System.out.println("SELECT s.ultimo + 1, 'Administrador', 'admin@gimnasio.com', '" + hashedPassword + "', 'ADMIN', true");
+        System.out.println("FROM secuencias_id s");
+        System.out.println("WHERE s.nombre = 'usuarios'");
+        System.out.println("AND NOT EXISTS (SELECT 1 FROM usuarios WHERE correo = 'admin@gimnasio.com');");
+        System.out.println();
+        System.out.println("UPDATE secuencias_id");
+        System.out.println("SET ultimo = (SELECT MAX(id_usuario) FROM usuarios)");
+        System.out.println("WHERE nombre = 'usuarios'");
+        System.out.println("AND ultimo < (SELECT MAX(id_usuario) FROM usuarios);");
         System.out.println();
         System.out.println("O si ya existe, actualiza la contraseña:");
         System.out.println();
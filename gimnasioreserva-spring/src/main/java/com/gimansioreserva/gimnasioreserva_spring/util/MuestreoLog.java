@@ -0,0 +1,34 @@
+package com.gimansioreserva.gimnasioreserva_spring.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Muestreo 1 de cada N para logs que se dispararían por cada evento.
+ * Uso: if (log.isDebugEnabled() && muestreo.tocaRegistrar()) { log.debug(...); }
+ */
+public class MuestreoLog {
+
+    private final long cadaN;
+    private final AtomicLong contador = new AtomicLong();
+
+    public MuestreoLog(long cadaN) {
+        if (cadaN < 1) {
+            throw new IllegalArgumentException("cadaN debe ser >= 1");
+        }
+        this.cadaN = cadaN;
+    }
+
+    /**
+     * Verifica si esta ocurrencia debe registrarse (la primera siempre lo hace)
+     */
+    public boolean tocaRegistrar() {
+        return cadaN == 1 || contador.getAndIncrement() % cadaN == 0;
+    }
+
+    /**
+     * Ocurrencias vistas hasta ahora, útil para incluirlas en el mensaje muestreado
+     */
+    public long getOcurrencias() {
+        return contador.get();
+    }
+}
@@ -1,153 +1,140 @@
 package com.gimansioreserva.gimnasioreserva_spring.util;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.Supplier;
 
 public class ResponseUtil {
 
+    // Respuestas por usuario autenticado: solo caché del navegador y siempre revalidando con el ETag
+    private static final CacheControl CACHE_REVALIDAR = CacheControl.noCache().cachePrivate();
+
     /**
      * Crea una respuesta exitosa genérica
      */
-    public static <T> ResponseEntity<Map<String, Object>> success(T data) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("data", data);
-        response.put("timestamp", LocalDateTime.now());
-        return ResponseEntity.ok(response);
+    public static <T> ResponseEntity<RespuestaApi<T>> success(T data) {
+        return ResponseEntity.ok(RespuestaApi.exito(data, null));
     }
 
     /**
      * Crea una respuesta exitosa con mensaje
      */
-    public static <T> ResponseEntity<Map<String, Object>> success(T data, String message) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", message);
-        response.put("data", data);
-        response.put("timestamp", LocalDateTime.now());
-        return ResponseEntity.ok(response);
+    public static <T> ResponseEntity<RespuestaApi<T>> success(T data, String message) {
+        return ResponseEntity.ok(RespuestaApi.exito(data, message));
     }
 
     /**
      * Crea una respuesta exitosa sin datos
      */
-    public static ResponseEntity<Map<String, Object>> success(String message) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", message);
-        response.put("timestamp", LocalDateTime.now());
-        return ResponseEntity.ok(response);
+    public static <T> ResponseEntity<RespuestaApi<T>> success(String message) {
+        return ResponseEntity.ok(RespuestaApi.exito(null, message));
     }
 
     /**
      * Crea una respuesta de creación exitosa (201)
      */
-    public static <T> ResponseEntity<Map<String, Object>> created(T data, String message) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", message);
-        response.put("data", data);
-        response.put("timestamp", LocalDateTime.now());
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public static <T> ResponseEntity<RespuestaApi<T>> created(T data, String message) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(RespuestaApi.exito(data, message));
     }
 
     /**
      * Crea una respuesta de error
      */
-    public static ResponseEntity<Map<String, Object>> error(String message, HttpStatus status) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", false);
-        response.put("message", message);
-        response.put("timestamp", LocalDateTime.now());
-        return ResponseEntity.status(status).body(response);
+    public static <T> ResponseEntity<RespuestaApi<T>> error(String message, HttpStatus status) {
+        return ResponseEntity.status(status).body(RespuestaApi.error(message, null));
     }
 
     /**
      * Crea una respuesta de error con detalles
      */
-    public static ResponseEntity<Map<String, Object>> error(String message, Object details, HttpStatus status) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", false);
-        response.put("message", message);
-        response.put("errors", details);
-        response.put("timestamp", LocalDateTime.now());
-        return ResponseEntity.status(status).body(response);
+    public static <T> ResponseEntity<RespuestaApi<T>> error(String message, Object details, HttpStatus status) {
+        return ResponseEntity.status(status).body(RespuestaApi.error(message, details));
     }
 
     /**
      * Crea una respuesta de error 400 Bad Request
      */
-    public static ResponseEntity<Map<String, Object>> badRequest(String message) {
+    public static <T> ResponseEntity<RespuestaApi<T>> badRequest(String message) {
         return error(message, HttpStatus.BAD_REQUEST);
     }
 
     /**
      * Crea una respuesta de error 400 Bad Request con detalles
      */
-    public static ResponseEntity<Map<String, Object>> badRequest(String message, Object details) {
+    public static <T> ResponseEntity<RespuestaApi<T>> badRequest(String message, Object details) {
         return error(message, details, HttpStatus.BAD_REQUEST);
     }
 
     /**
      * Crea una respuesta de error 401 Unauthorized
      */
-    public static ResponseEntity<Map<String, Object>> unauthorized(String message) {
+    public static <T> ResponseEntity<RespuestaApi<T>> unauthorized(String message) {
         return error(message, HttpStatus.UNAUTHORIZED);
     }
 
     /**
      * Crea una respuesta de error 403 Forbidden
      */
-    public static ResponseEntity<Map<String, Object>> forbidden(String message) {
+    public static <T> ResponseEntity<RespuestaApi<T>> forbidden(String message) {
         return error(message, HttpStatus.FORBIDDEN);
     }
 
     /**
      * Crea una respuesta de error 404 Not Found
      */
-    public static ResponseEntity<Map<String, Object>> notFound(String message) {
+    public static <T> ResponseEntity<RespuestaApi<T>> notFound(String message) {
         return error(message, HttpStatus.NOT_FOUND);
     }
 
     /**
      * Crea una respuesta de error 409 Conflict
      */
-    public static ResponseEntity<Map<String, Object>> conflict(String message) {
+    public static <T> ResponseEntity<RespuestaApi<T>> conflict(String message) {
         return error(message, HttpStatus.CONFLICT);
     }
 
     /**
      * Crea una respuesta de error 500 Internal Server Error
      */
-    public static ResponseEntity<Map<String, Object>> internalError(String message) {
+    public static <T> ResponseEntity<RespuestaApi<T>> internalError(String message) {
         return error(message, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     /**
      * Crea una respuesta paginada
      */
-    public static <T> ResponseEntity<Map<String, Object>> paginated(
+    public static <T> ResponseEntity<RespuestaApi<T>> paginated(
             T data,
             int page,
             int size,
             long totalElements,
             int totalPages) {
-        Map<String, Object> response = new HashMap<>();
-        Map<String, Object> pagination = new HashMap<>();
-        pagination.put("page", page);
-        pagination.put("size", size);
-        pagination.put("totalElements", totalElements);
-        pagination.put("totalPages", totalPages);
-        
-        response.put("success", true);
-        response.put("data", data);
-        response.put("pagination", pagination);
-        response.put("timestamp", LocalDateTime.now());
-        return ResponseEntity.ok(response);
+        RespuestaApi.Paginacion pagination = new RespuestaApi.Paginacion(page, size, totalElements, totalPages);
+        return ResponseEntity.ok(new RespuestaApi<>(true, null, data, null, pagination, LocalDateTime.now()));
     }
-}
 
+    /**
+     * GET condicional: si el If-None-Match coincide con el ETag responde 304 sin llamar a la
+     * respuesta (ni base de datos ni serialización); si no, la construye y le añade ETag y Cache-Control
+     */
+    public static ResponseEntity<?> condicional(WebRequest request, String etag,
+                                                Supplier<? extends ResponseEntity<?>> respuesta) {
+        if (request.checkNotModified(etag)) {
+            // checkNotModified ya dejó el 304 y el ETag en la respuesta
+            return null;
+        }
+        ResponseEntity<?> completa = respuesta.get();
+        if (!completa.getStatusCode().is2xxSuccessful()) {
+            return completa;
+        }
+        return ResponseEntity.status(completa.getStatusCode())
+                .headers(completa.getHeaders())
+                .eTag(etag)
+                .cacheControl(CACHE_REVALIDAR)
+                .body(completa.getBody());
+    }
+}
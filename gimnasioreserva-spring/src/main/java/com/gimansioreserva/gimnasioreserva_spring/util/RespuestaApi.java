@@ -0,0 +1,32 @@
+package com.gimansioreserva.gimnasioreserva_spring.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sobre común de las respuestas de la API. Mismo JSON que el antiguo HashMap de ResponseUtil
+ * (los campos nulos no se escriben), pero con tipo fijo: Jackson resuelve su serializador una vez
+ * y no tiene que inspeccionar un Map<String, Object> en cada respuesta.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"success", "message", "data", "errors", "pagination", "timestamp"})
+public record RespuestaApi<T>(boolean success,
+                              String message,
+                              T data,
+                              Object errors,
+                              Paginacion pagination,
+                              LocalDateTime timestamp) {
+
+    public static <T> RespuestaApi<T> exito(T data, String message) {
+        return new RespuestaApi<>(true, message, data, null, null, LocalDateTime.now());
+    }
+
+    public static <T> RespuestaApi<T> error(String message, Object errors) {
+        return new RespuestaApi<>(false, message, null, errors, null, LocalDateTime.now());
+    }
+
+    public record Paginacion(int page, int size, long totalElements, int totalPages) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.gimansioreserva.gimnasioreserva_spring.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Escribe listas grandes con el mismo sobre que RespuestaApi, pero elemento a elemento sobre la
+ * salida: el primer byte sale antes de serializar la lista entera y el hilo de la petición queda libre.
+ * Los serializadores se resuelven una vez por tipo de elemento y se reutilizan.
+ */
+@Component
+public class RespuestaListaStreaming {
+
+    // Por debajo de este tamaño la respuesta normal es más barata que pasar a modo asíncrono
+    public static final int UMBRAL = 1000;
+    private static final int ELEMENTOS_POR_FLUSH = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> escritores = new ConcurrentHashMap<>();
+
+    public RespuestaListaStreaming(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> ResponseEntity<?> success(List<T> datos) {
+        if (datos.size() < UMBRAL) {
+            return ResponseUtil.success(datos);
+        }
+        LocalDateTime timestamp = LocalDateTime.now();
+        StreamingResponseBody cuerpo = salida -> escribir(datos, timestamp, salida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
+    public void escribir(List<?> datos, LocalDateTime timestamp, OutputStream salida) throws IOException {
+        try (JsonGenerator generador = objectMapper.writer().createGenerator(salida)) {
+            // Cerrar el generador no debe cerrar la respuesta; eso lo hace el contenedor
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.writeStartObject();
+            generador.writeBooleanField("success", true);
+            generador.writeArrayFieldStart("data");
+            Class<?> tipo = null;
+            ObjectWriter escritor = null;
+            for (int i = 0; i < datos.size(); i++) {
+                Object elemento = datos.get(i);
+                if (elemento == null) {
+                    generador.writeNull();
+                } else {
+                    if (elemento.getClass() != tipo) {
+                        tipo = elemento.getClass();
+                        escritor = escritor(tipo);
+                    }
+                    escritor.writeValue(generador, elemento);
+                }
+                if ((i + 1) % ELEMENTOS_POR_FLUSH == 0) {
+                    generador.flush();
+                }
+            }
+            generador.writeEndArray();
+            generador.writeFieldName("timestamp");
+            escritor(LocalDateTime.class).writeValue(generador, timestamp);
+            generador.writeEndObject();
+        }
+    }
+
+    // Sin flush por elemento: se vacía cada ELEMENTOS_POR_FLUSH
+    private ObjectWriter escritor(Class<?> tipo) {
+        return escritores.computeIfAbsent(tipo,
+                t -> objectMapper.writerFor(t).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+    }
+}
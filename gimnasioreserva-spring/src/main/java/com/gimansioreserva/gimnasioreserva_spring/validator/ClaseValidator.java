@@ -1,10 +1,12 @@
 package com.gimansioreserva.gimnasioreserva_spring.validator;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.SerieClasesDTO;
 import com.gimansioreserva.gimnasioreserva_spring.exception.BusinessException;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Component
 public class ClaseValidator {
@@ -13,6 +15,8 @@ public class ClaseValidator {
     private static final int CUPO_MAXIMO = 100;
     private static final int DURACION_MINIMA = 15;
     private static final int DURACION_MAXIMA = 180;
+    // Una serie cubre como mucho un año: a lo sumo una clase por día
+    private static final int DIAS_MAXIMOS_SERIE = 366;
 
     public void validar(Clase clase) {
         validarNombre(clase.getNombre());
@@ -56,5 +60,26 @@ public class ClaseValidator {
             throw new BusinessException("El horario de la clase no puede ser en el pasado");
         }
     }
-}
 
+    // Regla de repetición; los datos de cada clase se validan después con validar(Clase)
+    public void validarSerie(SerieClasesDTO serie) {
+        if (serie.getIdEntrenador() == null) {
+            throw new BusinessException("El entrenador de la serie es obligatorio");
+        }
+        if (serie.getDiasSemana() == null || serie.getDiasSemana().isEmpty()) {
+            throw new BusinessException("La serie debe indicar al menos un día de la semana");
+        }
+        if (serie.getHora() == null || serie.getDesde() == null || serie.getHasta() == null) {
+            throw new BusinessException("La serie debe indicar hora, fecha de inicio y fecha de fin");
+        }
+        if (serie.getHasta().isBefore(serie.getDesde())) {
+            throw new BusinessException("La fecha de fin de la serie no puede ser anterior a la de inicio");
+        }
+        if (ChronoUnit.DAYS.between(serie.getDesde(), serie.getHasta()) >= DIAS_MAXIMOS_SERIE) {
+            throw new BusinessException("Una serie no puede abarcar más de " + DIAS_MAXIMOS_SERIE + " días");
+        }
+        if (serie.getIntervaloSemanas() != null && serie.getIntervaloSemanas() < 1) {
+            throw new BusinessException("El intervalo de semanas debe ser al menos 1");
+        }
+    }
+}
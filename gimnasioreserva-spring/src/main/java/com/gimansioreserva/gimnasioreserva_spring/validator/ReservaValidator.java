@@ -1,10 +1,12 @@
 package com.gimansioreserva.gimnasioreserva_spring.validator;
 
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
 import com.gimansioreserva.gimnasioreserva_spring.exception.BusinessException;
 import com.gimansioreserva.gimnasioreserva_spring.exception.CupoAgotadoException;
 import com.gimansioreserva.gimnasioreserva_spring.exception.TiempoMinimoException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.TransicionEstadoInvalidaException;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -14,32 +16,46 @@ public class ReservaValidator {
 
     private static final long HORAS_MINIMAS_ANTICIPACION = 2; // 2 horas antes
 
-    public void validarCrearReserva(Reserva reserva, Clase clase) {
+    // cuposLibres: Clase.cuposLibres con el conteo hecho bajo el bloqueo de la clase
+    public void validarCrearReserva(Reserva reserva, Clase clase, int cuposLibres) {
+        validarClaseDisponible(clase);
+        validarCuposDisponibles(clase, cuposLibres);
+        validarTiempoMinimo(clase.getHorario());
+        validarHorarioFuturo(clase.getHorario());
+    }
+
+    // Todo salvo los cupos: la cola de reservas los cuenta una vez por lote
+    public void validarClaseReservable(Clase clase) {
         validarClaseDisponible(clase);
-        validarCuposDisponibles(clase);
         validarTiempoMinimo(clase.getHorario());
         validarHorarioFuturo(clase.getHorario());
     }
 
     public void validarCancelarReserva(Reserva reserva, Clase clase) {
-        if (reserva.getEstado().equals("CANCELADA")) {
+        if (reserva.getEstado() == EstadoReserva.CANCELADA) {
             throw new BusinessException("La reserva ya está cancelada");
         }
-        if (reserva.getEstado().equals("COMPLETADA")) {
+        if (reserva.getEstado() == EstadoReserva.COMPLETADA) {
             throw new BusinessException("No se puede cancelar una reserva completada");
         }
         validarTiempoMinimoCancelacion(clase.getHorario());
     }
 
+    // Cambio de estado manual (admin): solo las transiciones que permite EstadoReserva
+    public void validarCambioEstado(Reserva reserva, EstadoReserva nuevoEstado) {
+        if (!reserva.getEstado().puedeTransicionarA(nuevoEstado)) {
+            throw new TransicionEstadoInvalidaException(reserva.getEstado(), nuevoEstado);
+        }
+    }
+
     private void validarClaseDisponible(Clase clase) {
         if (!clase.getActivo()) {
             throw new BusinessException("La clase no está disponible");
         }
     }
 
-    private void validarCuposDisponibles(Clase clase) {
-        int cuposDisponibles = clase.getCuposDisponibles();
-        if (cuposDisponibles <= 0) {
+    private void validarCuposDisponibles(Clase clase, int cuposLibres) {
+        if (cuposLibres <= 0) {
             throw new CupoAgotadoException(clase.getIdClase());
         }
     }
@@ -4,7 +4,10 @@ import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.LoginRequest;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.LoginResponse;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.PasswordResetRequest;
+import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RefreshRequest;
+import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RefreshResponse;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RegistroRequest;
+import com.gimansioreserva.gimnasioreserva_spring.exception.HashContrasenaSaturadoException;
 import com.gimansioreserva.gimnasioreserva_spring.service.auth.AuthenticationService;
 import com.gimansioreserva.gimnasioreserva_spring.service.auth.PasswordResetService;
 import com.gimansioreserva.gimnasioreserva_spring.util.ResponseUtil;
@@ -34,6 +37,9 @@ public class AuthController {
         try {
             LoginResponse response = authenticationService.login(request);
             return ResponseUtil.success(response, "Inicio de sesión exitoso");
+        } catch (HashContrasenaSaturadoException e) {
+            // 503 con Retry-After desde GlobalExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             return ResponseUtil.error(e.getMessage(), HttpStatus.UNAUTHORIZED);
         } catch (Exception e) {
@@ -46,6 +52,8 @@ public class AuthController {
         try {
             Usuario usuario = authenticationService.registrar(request);
             return ResponseUtil.created(usuario, "Usuario registrado exitosamente");
+        } catch (HashContrasenaSaturadoException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseUtil.error(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -53,6 +61,14 @@ public class AuthController {
         }
     }
 
+    // Renueva la sesión con el refresh token (rotatorio): sin contraseña ni BCrypt.
+    // Los errores (token inválido, expirado o reutilizado) los responde GlobalExceptionHandler con 401
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
+        RefreshResponse response = authenticationService.refrescar(request.getRefreshToken());
+        return ResponseUtil.success(response, "Sesión renovada");
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout(HttpServletRequest request) {
         try {
@@ -72,6 +88,8 @@ public class AuthController {
         try {
             passwordResetService.resetPassword(request);
             return ResponseUtil.success("Contraseña restablecida exitosamente");
+        } catch (HashContrasenaSaturadoException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseUtil.error(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -1,7 +1,9 @@
 package com.gimansioreserva.gimnasioreserva_spring.web.controller.admin;
 
 import com.gimansioreserva.gimnasioreserva_spring.dto.admin.ClaseAdminDTO;
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.SerieClasesDTO;
 import com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminClaseService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ColaReservas;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,15 +11,18 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin/clases")
 public class AdminClaseController {
 
     private final AdminClaseService adminClaseService;
+    private final ColaReservas colaReservas;
 
-    public AdminClaseController(AdminClaseService adminClaseService) {
+    public AdminClaseController(AdminClaseService adminClaseService, ColaReservas colaReservas) {
         this.adminClaseService = adminClaseService;
+        this.colaReservas = colaReservas;
     }
 
     // Listar todas las clases
@@ -92,6 +97,13 @@ public class AdminClaseController {
         }
     }
 
+    // Crear una serie semanal de clases (días, hora y rango de fechas) en una sola petición
+    @PostMapping("/serie")
+    public ResponseEntity<List<ClaseAdminDTO>> crearSerie(@RequestBody SerieClasesDTO serie) {
+        List<ClaseAdminDTO> clases = adminClaseService.crearSerie(serie);
+        return ResponseEntity.status(HttpStatus.CREATED).body(clases);
+    }
+
     // Actualizar clase
     @PutMapping("/{id}")
     public ResponseEntity<ClaseAdminDTO> actualizar(
@@ -123,6 +135,26 @@ public class AdminClaseController {
         return eliminada ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
+    // Clases en modo cola de reservas
+    @GetMapping("/cola")
+    public ResponseEntity<Set<Long>> listarEnCola() {
+        return ResponseEntity.ok(colaReservas.clasesActivas());
+    }
+
+    // Poner una clase en modo cola antes de abrir sus reservas
+    @PutMapping("/{id}/cola")
+    public ResponseEntity<Void> activarCola(@PathVariable Long id) {
+        colaReservas.activar(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Volver al camino normal de reservas
+    @DeleteMapping("/{id}/cola")
+    public ResponseEntity<Void> desactivarCola(@PathVariable Long id) {
+        colaReservas.desactivar(id);
+        return ResponseEntity.noContent().build();
+    }
+
     // Contar reservas confirmadas de una clase
     @GetMapping("/{id}/total-reservas")
     public ResponseEntity<Long> contarReservas(@PathVariable Long id) {
@@ -1,9 +1,14 @@
 package com.gimansioreserva.gimnasioreserva_spring.web.controller.admin;
 
-import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.exception.BusinessException;
 import com.gimansioreserva.gimnasioreserva_spring.mapper.ReservaMapper;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.AgendaReservasSocios;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,10 +22,20 @@ public class AdminReservaController {
 
     private final ReservaRepository reservaRepository;
     private final ReservaMapper reservaMapper;
+    private final ReservaService reservaService;
+    private final IndiceAgendaClases indiceAgendaClases;
+    private final VersionesCatalogo versionesCatalogo;
+    private final AgendaReservasSocios agendaReservasSocios;
 
-    public AdminReservaController(ReservaRepository reservaRepository, ReservaMapper reservaMapper) {
+    public AdminReservaController(ReservaRepository reservaRepository, ReservaMapper reservaMapper,
+                                  ReservaService reservaService, IndiceAgendaClases indiceAgendaClases,
+                                  VersionesCatalogo versionesCatalogo, AgendaReservasSocios agendaReservasSocios) {
         this.reservaRepository = reservaRepository;
         this.reservaMapper = reservaMapper;
+        this.reservaService = reservaService;
+        this.indiceAgendaClases = indiceAgendaClases;
+        this.versionesCatalogo = versionesCatalogo;
+        this.agendaReservasSocios = agendaReservasSocios;
     }
 
     // Listar todas las reservas
@@ -41,26 +56,20 @@ public class AdminReservaController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // Cambiar estado de reserva
+    // Cambiar estado de reserva (solo transiciones válidas: CONFIRMADA -> CANCELADA/COMPLETADA)
     @PatchMapping("/{id}/estado")
     public ResponseEntity<ReservaDTO> cambiarEstado(
             @PathVariable Long id,
             @RequestBody Map<String, String> body) {
-        String nuevoEstado = body.get("estado");
-
-        return reservaRepository.findById(id)
-                .map(reserva -> {
-                    reserva.setEstado(nuevoEstado);
-                    Reserva actualizada = reservaRepository.save(reserva);
-                    return ResponseEntity.ok(reservaMapper.toDTO(actualizada));
-                })
-                .orElse(ResponseEntity.notFound().build());
+        EstadoReserva nuevoEstado = parsearEstado(body.get("estado"));
+        // Una sola transacción: cambio, hueco del socio, catálogo y eventos de la bandeja
+        return ResponseEntity.ok(reservaService.cambiarEstado(id, nuevoEstado));
     }
 
     // Listar reservas por estado
     @GetMapping("/estado/{estado}")
     public ResponseEntity<List<ReservaDTO>> listarPorEstado(@PathVariable String estado) {
-        List<ReservaDTO> reservas = reservaRepository.findByEstado(estado).stream()
+        List<ReservaDTO> reservas = reservaRepository.findByEstado(parsearEstado(estado)).stream()
                 .map(reservaMapper::toDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(reservas);
@@ -69,10 +78,23 @@ public class AdminReservaController {
     // Eliminar reserva
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminar(@PathVariable Long id) {
-        if (reservaRepository.existsById(id)) {
-            reservaRepository.deleteById(id);
-            return ResponseEntity.noContent().build();
+        return reservaRepository.findById(id)
+                .map(reserva -> {
+                    reservaRepository.delete(reserva);
+                    agendaReservasSocios.liberarHueco(reserva.getUsuario().getIdUsuario(), reserva.getClase().getIdClase());
+                    // Los cupos disponibles de la clase cambian
+                    indiceAgendaClases.refrescarClase(reserva.getClase().getIdClase());
+                    versionesCatalogo.reservasCambiadas(reserva.getClase().getIdClase());
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private EstadoReserva parsearEstado(String estado) {
+        try {
+            return EstadoReserva.desdeNombre(estado);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
         }
-        return ResponseEntity.notFound().build();
     }
 }
@@ -1,68 +1,76 @@
 package com.gimansioreserva.gimnasioreserva_spring.web.controller.api;
 
-import com.gimansioreserva.gimnasioreserva_spring.dto.core.ClaseDTO;
 import com.gimansioreserva.gimnasioreserva_spring.service.core.ClaseService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
+import com.gimansioreserva.gimnasioreserva_spring.util.RespuestaListaStreaming;
 import com.gimansioreserva.gimnasioreserva_spring.util.ResponseUtil;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
+// Lecturas condicionales: con el If-None-Match vigente se responde 304 sin consultar nada
 @RestController
 @RequestMapping("/api/clases")
 public class ClaseController {
 
     private final ClaseService claseService;
+    private final RespuestaListaStreaming respuestaLista;
+    private final VersionesCatalogo versionesCatalogo;
 
-    public ClaseController(ClaseService claseService) {
+    public ClaseController(ClaseService claseService, RespuestaListaStreaming respuestaLista,
+                           VersionesCatalogo versionesCatalogo) {
         this.claseService = claseService;
+        this.respuestaLista = respuestaLista;
+        this.versionesCatalogo = versionesCatalogo;
     }
 
     @GetMapping
-    public ResponseEntity<?> obtenerClasesDisponibles() {
-        List<ClaseDTO> clases = claseService.obtenerClasesDisponibles();
-        return ResponseUtil.success(clases);
+    public ResponseEntity<?> obtenerClasesDisponibles(WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(false),
+                () -> respuestaLista.success(claseService.obtenerClasesDisponibles()));
     }
 
     @GetMapping("/proximas")
-    public ResponseEntity<?> obtenerClasesProximas() {
-        List<ClaseDTO> clases = claseService.obtenerClasesProximas();
-        return ResponseUtil.success(clases);
+    public ResponseEntity<?> obtenerClasesProximas(WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(true),
+                () -> respuestaLista.success(claseService.obtenerClasesProximas()));
     }
 
     @GetMapping("/activas")
-    public ResponseEntity<?> obtenerClasesActivas() {
-        List<ClaseDTO> clases = claseService.obtenerClasesActivas();
-        return ResponseUtil.success(clases);
+    public ResponseEntity<?> obtenerClasesActivas(WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(false),
+                () -> respuestaLista.success(claseService.obtenerClasesActivas()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> obtenerPorId(@PathVariable Long id) {
-        return claseService.obtenerPorId(id)
-                .map(clase -> ResponseUtil.success(clase))
-                .orElse(ResponseUtil.notFound("Clase no encontrada"));
+    public ResponseEntity<?> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagClase(id, false),
+                () -> claseService.obtenerPorId(id)
+                        .map(clase -> ResponseUtil.success(clase))
+                        .orElse(ResponseUtil.notFound("Clase no encontrada")));
     }
 
     @GetMapping("/buscar")
-    public ResponseEntity<?> buscarPorNombre(@RequestParam String nombre) {
-        List<ClaseDTO> clases = claseService.buscarPorNombre(nombre);
-        return ResponseUtil.success(clases);
+    public ResponseEntity<?> buscarPorNombre(@RequestParam String nombre, WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(false),
+                () -> respuestaLista.success(claseService.buscarPorNombre(nombre)));
     }
 
     @GetMapping("/entrenador/{idEntrenador}")
-    public ResponseEntity<?> obtenerPorEntrenador(@PathVariable Long idEntrenador) {
-        List<ClaseDTO> clases = claseService.obtenerPorEntrenador(idEntrenador);
-        return ResponseUtil.success(clases);
+    public ResponseEntity<?> obtenerPorEntrenador(@PathVariable Long idEntrenador, WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(false),
+                () -> respuestaLista.success(claseService.obtenerPorEntrenador(idEntrenador)));
     }
 
     @GetMapping("/rango-fechas")
     public ResponseEntity<?> obtenerPorRangoFechas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
-        List<ClaseDTO> clases = claseService.obtenerPorRangoFechas(inicio, fin);
-        return ResponseUtil.success(clases);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(false),
+                () -> respuestaLista.success(claseService.obtenerPorRangoFechas(inicio, fin)));
     }
 }
-
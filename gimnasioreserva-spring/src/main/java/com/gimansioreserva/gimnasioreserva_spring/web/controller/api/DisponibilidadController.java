@@ -2,42 +2,46 @@ package com.gimansioreserva.gimnasioreserva_spring.web.controller.api;
 
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.DisponibilidadDTO;
 import com.gimansioreserva.gimnasioreserva_spring.service.core.DisponibilidadService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
 import com.gimansioreserva.gimnasioreserva_spring.util.ResponseUtil;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
-
+// La disponibilidad depende del plazo mínimo de reserva: sus ETag cambian también cada minuto
 @RestController
 @RequestMapping("/api/disponibilidad")
 public class DisponibilidadController {
 
     private final DisponibilidadService disponibilidadService;
+    private final VersionesCatalogo versionesCatalogo;
 
-    public DisponibilidadController(DisponibilidadService disponibilidadService) {
+    public DisponibilidadController(DisponibilidadService disponibilidadService, VersionesCatalogo versionesCatalogo) {
         this.disponibilidadService = disponibilidadService;
+        this.versionesCatalogo = versionesCatalogo;
     }
 
     @GetMapping("/clase/{idClase}")
-    public ResponseEntity<?> verificarDisponibilidad(@PathVariable Long idClase) {
-        try {
-            DisponibilidadDTO disponibilidad = disponibilidadService.verificarDisponibilidad(idClase);
-            return ResponseUtil.success(disponibilidad);
-        } catch (Exception e) {
-            return ResponseUtil.error(e.getMessage(), org.springframework.http.HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<?> verificarDisponibilidad(@PathVariable Long idClase, WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagClase(idClase, true), () -> {
+            try {
+                DisponibilidadDTO disponibilidad = disponibilidadService.verificarDisponibilidad(idClase);
+                return ResponseUtil.success(disponibilidad);
+            } catch (Exception e) {
+                return ResponseUtil.error(e.getMessage(), org.springframework.http.HttpStatus.BAD_REQUEST);
+            }
+        });
     }
 
     @GetMapping("/clases")
-    public ResponseEntity<?> obtenerDisponibilidadClases() {
-        List<DisponibilidadDTO> disponibilidad = disponibilidadService.obtenerDisponibilidadClases();
-        return ResponseUtil.success(disponibilidad);
+    public ResponseEntity<?> obtenerDisponibilidadClases(WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(true),
+                () -> ResponseUtil.success(disponibilidadService.obtenerDisponibilidadClases()));
     }
 
     @GetMapping("/clases/disponibles")
-    public ResponseEntity<?> obtenerClasesConCuposDisponibles() {
-        List<DisponibilidadDTO> disponibilidad = disponibilidadService.obtenerClasesConCuposDisponibles();
-        return ResponseUtil.success(disponibilidad);
+    public ResponseEntity<?> obtenerClasesConCuposDisponibles(WebRequest request) {
+        return ResponseUtil.condicional(request, versionesCatalogo.etagListado(true),
+                () -> ResponseUtil.success(disponibilidadService.obtenerClasesConCuposDisponibles()));
     }
 }
-
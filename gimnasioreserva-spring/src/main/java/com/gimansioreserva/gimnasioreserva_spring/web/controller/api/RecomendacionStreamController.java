@@ -3,27 +3,40 @@ package com.gimansioreserva.gimnasioreserva_spring.web.controller.api;
 import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.EmitirEventoRequest;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.RecomendacionDTO;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
 import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
 import com.gimansioreserva.gimnasioreserva_spring.service.core.RecomendacionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux; // Importa Flux de Project Reactor para manejo de flujos reactivos.
 import java.time.Duration; // Importa Duration para el heartbeat
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/recomendaciones") // Define el prefijo de la URL para este controlador.
 public class RecomendacionStreamController {
 
+    private static final Logger log = LoggerFactory.getLogger(RecomendacionStreamController.class);
+
+    // Elementos pendientes de enviar por conexión; si el cliente no lee, se descartan los más viejos
+    private static final int TAMANO_COLA_SSE = 256;
+
     private final EventoGymService eventoGymService; // Servicio para la gestión de eventos del gimnasio.
     private final RecomendacionService recomendacionService; // Servicio para generar recomendaciones a partir de eventos.
+    private final MetricasGimnasio metricas;
 
     // Constructor que inyecta las dependencias de los servicios.
     public RecomendacionStreamController(EventoGymService eventoGymService,
-                                         RecomendacionService recomendacionService) {
+                                         RecomendacionService recomendacionService,
+                                         MetricasGimnasio metricas) {
         this.eventoGymService = eventoGymService;
         this.recomendacionService = recomendacionService;
+        this.metricas = metricas;
     }
 
     /**
@@ -35,7 +48,7 @@ public class RecomendacionStreamController {
      */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<RecomendacionDTO> streamRecomendaciones() {
-        System.out.println("Nueva conexión SSE establecida");
+        log.info("Nueva conexión SSE establecida");
         
         // Se conecta al flujo de eventos del gimnasio y luego utiliza el servicio de recomendaciones
         // para transformar estos eventos en un flujo de DTOs de recomendaciones.
@@ -45,32 +58,42 @@ public class RecomendacionStreamController {
         
         // Heartbeat cada 30 segundos para mantener la conexión activa
         Flux<RecomendacionDTO> heartbeat = Flux.interval(Duration.ofSeconds(30))
-                .map(tick -> {
-                    System.out.println("Enviando heartbeat SSE");
-                    return new RecomendacionDTO(
-                            "heartbeat", 
-                            "heartbeat", 
-                            "keep-alive", 
-                            4, 
-                            LocalDateTime.now()
-                    );
-                })
-                .doOnNext(hb -> System.out.println("Heartbeat enviado: " + hb.getTimestamp()));
+                .map(tick -> new RecomendacionDTO(
+                        "heartbeat",
+                        "heartbeat",
+                        "keep-alive",
+                        4,
+                        LocalDateTime.now()
+                ))
+                .doOnNext(hb -> log.trace("Heartbeat SSE enviado: {}", hb.getTimestamp()));
         
-        return recomendaciones
-                .mergeWith(heartbeat) // Combina recomendaciones con heartbeat
-                .doOnSubscribe(subscription -> {
-                    System.out.println("Cliente suscrito al stream SSE");
-                })
-                .doOnComplete(() -> {
-                    System.out.println("Stream SSE completado");
-                })
-                .doOnError(e -> {
-                    System.err.println("ERROR en stream SSE: " + e.getMessage());
-                })
-                .doOnCancel(() -> {
-                    System.out.println("Cliente canceló la suscripción SSE");
-                });
+        // Cola propia de la conexión, medida en las métricas SSE
+        return Flux.using(
+                metricas::abrirConexionSse,
+                pendientes -> conCola(recomendaciones.mergeWith(heartbeat), pendientes) // Combina recomendaciones con heartbeat
+                        .doOnSubscribe(subscription -> {
+                            log.debug("Cliente suscrito al stream SSE");
+                        })
+                        .doOnComplete(() -> {
+                            log.debug("Stream SSE completado");
+                        })
+                        .doOnError(e -> {
+                            log.warn("Error en stream SSE: {}", e.getMessage());
+                        })
+                        .doOnCancel(() -> {
+                            log.info("Cliente canceló la suscripción SSE");
+                        }),
+                metricas::cerrarConexionSse);
+    }
+
+    private Flux<RecomendacionDTO> conCola(Flux<RecomendacionDTO> flujo, AtomicInteger pendientes) {
+        return flujo
+                .doOnNext(r -> pendientes.incrementAndGet())
+                .onBackpressureBuffer(TAMANO_COLA_SSE, descartado -> {
+                    pendientes.decrementAndGet();
+                    metricas.sseDescartado();
+                }, BufferOverflowStrategy.DROP_OLDEST)
+                .doOnNext(r -> pendientes.decrementAndGet());
     }
 
     /**
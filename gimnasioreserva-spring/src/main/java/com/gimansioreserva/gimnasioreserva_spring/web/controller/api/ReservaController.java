@@ -1,26 +1,41 @@
 package com.gimansioreserva.gimnasioreserva_spring.web.controller.api;
 
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ColaReservasSaturadaException;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
 import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ColaReservas;
 import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
 import com.gimansioreserva.gimnasioreserva_spring.util.ResponseUtil;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/reservas")
 public class ReservaController {
 
     private final ReservaService reservaService;
+    private final ColaReservas colaReservas;
     private final JwtTokenProvider jwtTokenProvider;
+    private final MetricasGimnasio metricas;
 
-    public ReservaController(ReservaService reservaService, JwtTokenProvider jwtTokenProvider) {
+    public ReservaController(ReservaService reservaService, ColaReservas colaReservas,
+                             JwtTokenProvider jwtTokenProvider, MetricasGimnasio metricas) {
         this.reservaService = reservaService;
+        this.colaReservas = colaReservas;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.metricas = metricas;
     }
 
     private Long obtenerIdUsuarioDesdeToken(HttpServletRequest request) {
@@ -36,32 +51,63 @@ public class ReservaController {
     }
 
     @PostMapping
-    public ResponseEntity<?> crearReserva(@RequestBody Map<String, Long> body, HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<?>> crearReserva(@RequestBody Map<String, Long> body, HttpServletRequest request) {
+        // Se mide aquí y no en el servicio para incluir el commit de la transacción
+        Timer.Sample muestra = metricas.iniciar();
+        Long idUsuario = body.get("idUsuario");
+        Long idClase = body.get("idClase");
+
+        // Clase en modo cola: el hilo se libera y la respuesta sale cuando el procesador de la clase decide
+        CompletableFuture<ReservaDTO> reserva;
         try {
-            Long idUsuario = body.get("idUsuario");
-            Long idClase = body.get("idClase");
-            
-            ReservaDTO reserva = reservaService.crearReserva(idUsuario, idClase);
-            return ResponseUtil.created(reserva, "Reserva creada exitosamente");
+            reserva = colaReservas.encolar(idUsuario, idClase);
+            if (reserva == null) {
+                reserva = CompletableFuture.completedFuture(reservaService.crearReserva(idUsuario, idClase));
+            }
         } catch (Exception e) {
-            return ResponseUtil.error(e.getMessage(), org.springframework.http.HttpStatus.BAD_REQUEST);
+            reserva = CompletableFuture.failedFuture(e);
         }
+
+        return reserva.handle((creada, error) -> {
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            metricas.registrarOperacionReserva(muestra, MetricasGimnasio.OPERACION_CREAR, causa);
+            if (causa == null) {
+                return ResponseUtil.created(creada, "Reserva creada exitosamente");
+            }
+            if (causa instanceof ColaReservasSaturadaException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ResponseUtil.error(causa.getMessage(), HttpStatus.SERVICE_UNAVAILABLE).getBody());
+            }
+            return ResponseUtil.error(causa.getMessage(), HttpStatus.BAD_REQUEST);
+        });
     }
 
     @PostMapping("/{id}/cancelar")
     public ResponseEntity<?> cancelarReserva(@PathVariable Long id, @RequestBody Map<String, Long> body) {
+        Timer.Sample muestra = metricas.iniciar();
         try {
             Long idUsuario = body.get("idUsuario");
             ReservaDTO reserva = reservaService.cancelarReserva(id, idUsuario);
+            metricas.registrarOperacionReserva(muestra, MetricasGimnasio.OPERACION_CANCELAR, null);
             return ResponseUtil.success(reserva, "Reserva cancelada exitosamente");
         } catch (Exception e) {
+            metricas.registrarOperacionReserva(muestra, MetricasGimnasio.OPERACION_CANCELAR, e);
             return ResponseUtil.error(e.getMessage(), org.springframework.http.HttpStatus.BAD_REQUEST);
         }
     }
 
+    // Sin parámetros, la lista completa. Con antesDe/antesDeId/limite, paginación por cursor:
+    // antesDe/antesDeId = fechaReserva/idReserva del último elemento recibido
     @GetMapping("/usuario/{idUsuario}")
-    public ResponseEntity<?> obtenerReservasPorUsuario(@PathVariable Long idUsuario) {
-        List<ReservaDTO> reservas = reservaService.obtenerReservasPorUsuario(idUsuario);
+    public ResponseEntity<?> obtenerReservasPorUsuario(
+            @PathVariable Long idUsuario,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime antesDe,
+            @RequestParam(required = false) Long antesDeId,
+            @RequestParam(required = false) Integer limite) {
+        List<ReservaDTO> reservas = paginada(antesDe, antesDeId, limite)
+                ? reservaService.obtenerReservasPorUsuario(idUsuario, antesDe, antesDeId, limiteODefecto(limite))
+                : reservaService.obtenerReservasPorUsuario(idUsuario);
         return ResponseUtil.success(reservas);
     }
 
@@ -72,8 +118,14 @@ public class ReservaController {
     }
 
     @GetMapping("/usuario/{idUsuario}/historial")
-    public ResponseEntity<?> obtenerHistorial(@PathVariable Long idUsuario) {
-        List<ReservaDTO> reservas = reservaService.obtenerHistorialPorUsuario(idUsuario);
+    public ResponseEntity<?> obtenerHistorial(
+            @PathVariable Long idUsuario,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime antesDe,
+            @RequestParam(required = false) Long antesDeId,
+            @RequestParam(required = false) Integer limite) {
+        List<ReservaDTO> reservas = paginada(antesDe, antesDeId, limite)
+                ? reservaService.obtenerHistorialPorUsuario(idUsuario, antesDe, antesDeId, limiteODefecto(limite))
+                : reservaService.obtenerHistorialPorUsuario(idUsuario);
         return ResponseUtil.success(reservas);
     }
 
@@ -86,5 +138,12 @@ public class ReservaController {
             return ResponseUtil.error(e.getMessage(), org.springframework.http.HttpStatus.NOT_FOUND);
         }
     }
-}
 
+    private static boolean paginada(LocalDateTime antesDe, Long antesDeId, Integer limite) {
+        return antesDe != null || antesDeId != null || limite != null;
+    }
+
+    private static int limiteODefecto(Integer limite) {
+        return limite != null ? limite : ReservaService.LIMITE_POR_DEFECTO;
+    }
+}
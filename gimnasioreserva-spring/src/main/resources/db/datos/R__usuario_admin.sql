@@ -0,0 +1,17 @@
+-- Datos iniciales: usuario administrador por defecto
+-- Correo: admin@gimnasio.com
+-- Contraseña: admin123
+-- El hash BCrypt corresponde a la contraseña "admin123"
+-- El id sale de secuencias_id (ver V5__secuencias_id.sql), igual que los que asigna la aplicación
+INSERT INTO usuarios (id_usuario, nombre, correo, contrasena, rol, activo)
+SELECT s.ultimo + 1, 'Administrador', 'admin@gimnasio.com', '$2a$10$8cjz47bjbR4Mn8GMg9IZx.vyjhLXR/SKKMSZ9.mP9vpMu0ssKi8GW', 'ADMIN', true
+FROM secuencias_id s
+WHERE s.nombre = 'usuarios'
+AND NOT EXISTS (
+    SELECT 1 FROM usuarios WHERE correo = 'admin@gimnasio.com'
+);
+
+UPDATE secuencias_id
+SET ultimo = (SELECT MAX(id_usuario) FROM usuarios)
+WHERE nombre = 'usuarios'
+AND ultimo < (SELECT MAX(id_usuario) FROM usuarios);
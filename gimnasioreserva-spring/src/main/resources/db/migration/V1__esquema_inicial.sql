@@ -0,0 +1,46 @@
+-- Esquema inicial (equivalente al generado por Hibernate con ddl-auto=update).
+-- En bases ya existentes Flyway la toma como línea base y no la ejecuta.
+
+CREATE TABLE usuarios (
+    id_usuario BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(120) NOT NULL,
+    correo VARCHAR(120) NOT NULL,
+    contrasena VARCHAR(255) NOT NULL,
+    rol VARCHAR(20) NOT NULL,
+    activo BOOLEAN NOT NULL,
+    PRIMARY KEY (id_usuario),
+    CONSTRAINT uk_usuarios_correo UNIQUE (correo)
+);
+
+CREATE TABLE entrenadores (
+    id_entrenador BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(120) NOT NULL,
+    especialidad VARCHAR(100) NOT NULL,
+    certificaciones VARCHAR(500),
+    activo BOOLEAN NOT NULL,
+    PRIMARY KEY (id_entrenador)
+);
+
+CREATE TABLE clases (
+    id_clase BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(120) NOT NULL,
+    descripcion VARCHAR(500),
+    horario DATETIME(6) NOT NULL,
+    cupo INT NOT NULL,
+    duracion_minutos INT NOT NULL,
+    activo BOOLEAN NOT NULL,
+    id_entrenador BIGINT NOT NULL,
+    PRIMARY KEY (id_clase),
+    CONSTRAINT fk_clases_entrenador FOREIGN KEY (id_entrenador) REFERENCES entrenadores (id_entrenador)
+);
+
+CREATE TABLE reservas (
+    id_reserva BIGINT NOT NULL AUTO_INCREMENT,
+    fecha_reserva DATETIME(6),
+    estado VARCHAR(20) NOT NULL,
+    id_usuario BIGINT NOT NULL,
+    id_clase BIGINT NOT NULL,
+    PRIMARY KEY (id_reserva),
+    CONSTRAINT fk_reservas_usuario FOREIGN KEY (id_usuario) REFERENCES usuarios (id_usuario),
+    CONSTRAINT fk_reservas_clase FOREIGN KEY (id_clase) REFERENCES clases (id_clase)
+);
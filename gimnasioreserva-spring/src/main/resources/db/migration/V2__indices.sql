@@ -0,0 +1,33 @@
+-- Índices para los predicados de los repositorios.
+-- Las búsquedas LIKE '%texto%' por nombre no pueden usar índice y quedan fuera.
+
+-- ReservaRepository
+-- buscarReservaDuplicada: usuario + clase + estado
+CREATE INDEX idx_reservas_usuario_clase_estado ON reservas (id_usuario, id_clase, estado);
+-- historial y listados por usuario (filtrados por estado y ordenados por fecha)
+CREATE INDEX idx_reservas_usuario_estado_fecha ON reservas (id_usuario, estado, fecha_reserva);
+CREATE INDEX idx_reservas_usuario_fecha ON reservas (id_usuario, fecha_reserva);
+-- findByEstado, contarPorEstado, obtenerReservasDelDia
+CREATE INDEX idx_reservas_estado_fecha ON reservas (estado, fecha_reserva);
+-- buscarPorRangoFechas
+CREATE INDEX idx_reservas_fecha ON reservas (fecha_reserva);
+-- findByClase_IdClase, contarReservasConfirmadas
+CREATE INDEX idx_reservas_clase_estado ON reservas (id_clase, estado);
+
+-- ClaseRepository
+-- findByActivo, buscarPorRangoFechas, obtenerClasesProximas
+CREATE INDEX idx_clases_activo_horario ON clases (activo, horario);
+-- findByEntrenador_IdEntrenador(AndActivo), contarClasesPorEntrenador
+CREATE INDEX idx_clases_entrenador_activo ON clases (id_entrenador, activo);
+
+-- EntrenadorRepository
+-- findByEspecialidad(AndActivo)
+CREATE INDEX idx_entrenadores_especialidad_activo ON entrenadores (especialidad, activo);
+-- findByActivo, obtenerEspecialidadesDisponibles
+CREATE INDEX idx_entrenadores_activo_especialidad ON entrenadores (activo, especialidad);
+
+-- UsuarioRepository (findByCorreo/existsByCorreo usan uk_usuarios_correo)
+-- findByRol(AndActivo), contarPorRol
+CREATE INDEX idx_usuarios_rol_activo ON usuarios (rol, activo);
+-- findByActivo
+CREATE INDEX idx_usuarios_activo ON usuarios (activo);
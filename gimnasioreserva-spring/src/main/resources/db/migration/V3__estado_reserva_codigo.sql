@@ -0,0 +1,12 @@
+-- reservas.estado pasa de VARCHAR(20) a un código TINYINT (ver EstadoReserva):
+-- 1 = CONFIRMADA, 2 = CANCELADA, 3 = COMPLETADA.
+-- Valores desconocidos (el admin podía guardar cualquier texto) se tratan como cancelados.
+UPDATE reservas SET estado = CASE UPPER(TRIM(estado))
+    WHEN 'CONFIRMADA' THEN '1'
+    WHEN 'CANCELADA' THEN '2'
+    WHEN 'COMPLETADA' THEN '3'
+    ELSE '2'
+END;
+
+-- Los índices que incluyen estado se conservan y quedan más compactos
+ALTER TABLE reservas MODIFY COLUMN estado TINYINT NOT NULL;
@@ -0,0 +1,15 @@
+-- Familias de refresh tokens (ver RefreshTokenService): una fila por inicio de sesión.
+-- Cada renovación sube la generación; presentar un refresh token de una generación anterior
+-- (reutilización) revoca la familia entera.
+CREATE TABLE familias_refresh (
+    id_familia BIGINT NOT NULL,
+    id_usuario BIGINT NOT NULL,
+    generacion INT NOT NULL,
+    expira DATETIME(6) NOT NULL,
+    revocada BOOLEAN NOT NULL,
+    PRIMARY KEY (id_familia),
+    CONSTRAINT fk_familias_refresh_usuario FOREIGN KEY (id_usuario) REFERENCES usuarios (id_usuario) ON DELETE CASCADE
+);
+
+-- Revocar las sesiones de un usuario y limpiar sus familias expiradas
+CREATE INDEX idx_familias_refresh_usuario_expira ON familias_refresh (id_usuario, expira);
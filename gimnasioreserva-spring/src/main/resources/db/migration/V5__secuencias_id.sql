@@ -0,0 +1,13 @@
+-- Identificadores por bloques (ver GeneradorIdPorBloques): una fila por tabla con el último id reservado.
+-- Las claves AUTO_INCREMENT se mantienen, pero la aplicación ya no las usa: quien inserte a mano
+-- debe usar ultimo + 1 y apuntarlo en la fila en la misma transacción.
+CREATE TABLE secuencias_id (
+    nombre VARCHAR(255) NOT NULL,
+    ultimo BIGINT NOT NULL,
+    PRIMARY KEY (nombre)
+);
+
+INSERT INTO secuencias_id (nombre, ultimo) SELECT 'usuarios', COALESCE(MAX(id_usuario), 0) FROM usuarios;
+INSERT INTO secuencias_id (nombre, ultimo) SELECT 'entrenadores', COALESCE(MAX(id_entrenador), 0) FROM entrenadores;
+INSERT INTO secuencias_id (nombre, ultimo) SELECT 'clases', COALESCE(MAX(id_clase), 0) FROM clases;
+INSERT INTO secuencias_id (nombre, ultimo) SELECT 'reservas', COALESCE(MAX(id_reserva), 0) FROM reservas;
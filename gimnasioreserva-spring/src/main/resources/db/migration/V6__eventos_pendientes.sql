@@ -0,0 +1,16 @@
+-- Bandeja de salida de eventos (ver BandejaEventos): cada evento se escribe en la misma transacción
+-- que el cambio que lo origina y RelevoEventos lo publica después del commit. Una fila publicada se borra.
+CREATE TABLE eventos_pendientes (
+    id_evento BIGINT NOT NULL,
+    -- Id del EventoGym: si el evento se publica dos veces, el bus descarta la repetición
+    uuid VARCHAR(36) NOT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    id_clase BIGINT NOT NULL,
+    -- Reserva a notificar, si la hay; sin clave foránea porque puede borrarse antes de publicar
+    id_reserva BIGINT NULL,
+    creado_en DATETIME(6) NOT NULL,
+    intentos INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id_evento)
+);
+
+INSERT INTO secuencias_id (nombre, ultimo) VALUES ('eventos_pendientes', 0);
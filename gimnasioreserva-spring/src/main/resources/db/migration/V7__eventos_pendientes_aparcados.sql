@@ -0,0 +1,3 @@
+-- Eventos de la bandeja que agotaron sus intentos (ver RelevoEventos): se quedan para revisarlos a mano
+-- y dejan de bloquear a los siguientes de su clase.
+ALTER TABLE eventos_pendientes ADD COLUMN aparcado BOOLEAN NOT NULL DEFAULT FALSE;
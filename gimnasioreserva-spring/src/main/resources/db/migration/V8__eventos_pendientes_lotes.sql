@@ -0,0 +1,3 @@
+-- Eventos CAMBIO_HORARIO_LOTE (series, baja de un entrenador): un solo evento con los ids de todas las
+-- clases separados por comas, en lugar de uno por clase. id_clase guarda la primera.
+ALTER TABLE eventos_pendientes ADD COLUMN ids_clases VARCHAR(2000) NULL;
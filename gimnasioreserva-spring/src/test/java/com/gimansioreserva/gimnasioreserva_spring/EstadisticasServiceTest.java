@@ -1,5 +1,6 @@
 package com.gimansioreserva.gimnasioreserva_spring;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.EstadisticaDTO;
@@ -48,9 +49,9 @@ public class EstadisticasServiceTest {
         // ===== ARRANGE: Preparar datos de prueba =====
         when(claseRepository.count()).thenReturn(10L);
         when(reservaRepository.count()).thenReturn(50L);
-        when(reservaRepository.contarPorEstado("CONFIRMADA")).thenReturn(20L);
-        when(reservaRepository.contarPorEstado("CANCELADA")).thenReturn(15L);
-        when(reservaRepository.contarPorEstado("COMPLETADA")).thenReturn(15L);
+        when(reservaRepository.contarPorEstado(EstadoReserva.CONFIRMADA)).thenReturn(20L);
+        when(reservaRepository.contarPorEstado(EstadoReserva.CANCELADA)).thenReturn(15L);
+        when(reservaRepository.contarPorEstado(EstadoReserva.COMPLETADA)).thenReturn(15L);
 
         // 3 usuarios activos
         Usuario u1 = new Usuario();
@@ -76,9 +77,9 @@ public class EstadisticasServiceTest {
         // Verificar que se llamaron los repositorios
         verify(claseRepository).count();
         verify(reservaRepository).count();
-        verify(reservaRepository).contarPorEstado("CONFIRMADA");
-        verify(reservaRepository).contarPorEstado("CANCELADA");
-        verify(reservaRepository).contarPorEstado("COMPLETADA");
+        verify(reservaRepository).contarPorEstado(EstadoReserva.CONFIRMADA);
+        verify(reservaRepository).contarPorEstado(EstadoReserva.CANCELADA);
+        verify(reservaRepository).contarPorEstado(EstadoReserva.COMPLETADA);
         verify(usuarioRepository).findByActivo(true);
     }
 
@@ -87,7 +88,7 @@ public class EstadisticasServiceTest {
         // ===== ARRANGE: Preparar datos mínimos para totales =====
         when(claseRepository.count()).thenReturn(3L);
         when(reservaRepository.count()).thenReturn(25L);
-        when(reservaRepository.contarPorEstado(anyString())).thenReturn(0L);
+        when(reservaRepository.contarPorEstado(any(EstadoReserva.class))).thenReturn(0L);
         when(usuarioRepository.findByActivo(true)).thenReturn(Collections.emptyList());
         when(reservaRepository.buscarPorRangoFechas(any(), any())).thenReturn(Collections.emptyList());
 
@@ -117,7 +118,7 @@ public class EstadisticasServiceTest {
         // ===== ARRANGE: Preparar datos mínimos para totales =====
         when(claseRepository.count()).thenReturn(0L);
         when(reservaRepository.count()).thenReturn(0L);
-        when(reservaRepository.contarPorEstado(anyString())).thenReturn(0L);
+        when(reservaRepository.contarPorEstado(any(EstadoReserva.class))).thenReturn(0L);
         when(usuarioRepository.findByActivo(true)).thenReturn(Collections.emptyList());
         when(reservaRepository.obtenerEstadisticasPorClase()).thenReturn(Collections.emptyList());
 
@@ -125,15 +126,15 @@ public class EstadisticasServiceTest {
         // Crear reservas en distintos meses
         Reserva r1 = new Reserva();
         r1.setFechaReserva(LocalDateTime.of(2026, 1, 15, 10, 0));
-        r1.setEstado("CONFIRMADA");
+        r1.setEstado(EstadoReserva.CONFIRMADA);
 
         Reserva r2 = new Reserva();
         r2.setFechaReserva(LocalDateTime.of(2026, 1, 20, 14, 0));
-        r2.setEstado("CANCELADA");
+        r2.setEstado(EstadoReserva.CANCELADA);
 
         Reserva r3 = new Reserva();
         r3.setFechaReserva(LocalDateTime.of(2026, 2, 5, 9, 0));
-        r3.setEstado("COMPLETADA");
+        r3.setEstado(EstadoReserva.COMPLETADA);
 
         when(reservaRepository.buscarPorRangoFechas(any(), any()))
                 .thenReturn(List.of(r1, r2, r3));
@@ -156,7 +157,7 @@ public class EstadisticasServiceTest {
         // ===== ARRANGE: Todo vacío / cero =====
         when(claseRepository.count()).thenReturn(0L);
         when(reservaRepository.count()).thenReturn(0L);
-        when(reservaRepository.contarPorEstado(anyString())).thenReturn(0L);
+        when(reservaRepository.contarPorEstado(any(EstadoReserva.class))).thenReturn(0L);
         when(usuarioRepository.findByActivo(true)).thenReturn(Collections.emptyList());
         when(reservaRepository.obtenerEstadisticasPorClase()).thenReturn(Collections.emptyList());
         when(reservaRepository.buscarPorRangoFechas(any(), any())).thenReturn(Collections.emptyList());
@@ -190,17 +191,17 @@ public class EstadisticasServiceTest {
         LocalDateTime fin = LocalDateTime.of(2026, 1, 31, 23, 59);
 
         Reserva r1 = new Reserva();
-        r1.setEstado("CONFIRMADA");
+        r1.setEstado(EstadoReserva.CONFIRMADA);
         Reserva r2 = new Reserva();
-        r2.setEstado("CONFIRMADA");
+        r2.setEstado(EstadoReserva.CONFIRMADA);
         Reserva r3 = new Reserva();
-        r3.setEstado("CANCELADA");
+        r3.setEstado(EstadoReserva.CANCELADA);
         Reserva r4 = new Reserva();
-        r4.setEstado("COMPLETADA");
+        r4.setEstado(EstadoReserva.COMPLETADA);
         Reserva r5 = new Reserva();
-        r5.setEstado("COMPLETADA");
+        r5.setEstado(EstadoReserva.COMPLETADA);
         Reserva r6 = new Reserva();
-        r6.setEstado("COMPLETADA");
+        r6.setEstado(EstadoReserva.COMPLETADA);
 
         when(reservaRepository.buscarPorRangoFechas(inicio, fin))
                 .thenReturn(List.of(r1, r2, r3, r4, r5, r6));
@@ -243,9 +244,9 @@ public class EstadisticasServiceTest {
         LocalDateTime fin = LocalDateTime.of(2026, 3, 31, 23, 59);
 
         Reserva r1 = new Reserva();
-        r1.setEstado("CANCELADA");
+        r1.setEstado(EstadoReserva.CANCELADA);
         Reserva r2 = new Reserva();
-        r2.setEstado("CANCELADA");
+        r2.setEstado(EstadoReserva.CANCELADA);
 
         when(reservaRepository.buscarPorRangoFechas(inicio, fin))
                 .thenReturn(List.of(r1, r2));
@@ -267,13 +268,13 @@ public class EstadisticasServiceTest {
         LocalDateTime fin = LocalDateTime.of(2026, 2, 28, 23, 59);
 
         Reserva r1 = new Reserva();
-        r1.setEstado("CONFIRMADA");
+        r1.setEstado(EstadoReserva.CONFIRMADA);
         Reserva r2 = new Reserva();
-        r2.setEstado("CONFIRMADA");
+        r2.setEstado(EstadoReserva.CONFIRMADA);
         Reserva r3 = new Reserva();
-        r3.setEstado("CONFIRMADA");
+        r3.setEstado(EstadoReserva.CONFIRMADA);
         Reserva r4 = new Reserva();
-        r4.setEstado("CANCELADA");
+        r4.setEstado(EstadoReserva.CANCELADA);
 
         List<Reserva> reservas = List.of(r1, r2, r3, r4);
         when(reservaRepository.buscarPorRangoFechas(inicio, fin))
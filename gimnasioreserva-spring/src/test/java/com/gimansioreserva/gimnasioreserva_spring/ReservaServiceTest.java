@@ -9,7 +9,10 @@ import com.gimansioreserva.gimnasioreserva_spring.mapper.ReservaMapper;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
 import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
 import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
-import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.BandejaEventos;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.AgendaReservasSocios;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
 import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
 import com.gimansioreserva.gimnasioreserva_spring.validator.ReservaValidator;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,7 +32,8 @@ public class ReservaServiceTest {
     private UsuarioRepository usuarioRepository;
     private ReservaMapper reservaMapper;
     private ReservaValidator reservaValidator;
-    private EventoGymService eventoGymService;
+    private BandejaEventos bandejaEventos;
+    private IndiceAgendaClases indiceAgendaClases;
 
     private
     ReservaService reservaService;
@@ -41,7 +45,8 @@ public class ReservaServiceTest {
         usuarioRepository = mock(UsuarioRepository.class);
         reservaMapper = mock(ReservaMapper.class);
         reservaValidator = mock(ReservaValidator.class);
-        eventoGymService = mock(EventoGymService.class);
+        bandejaEventos = mock(BandejaEventos.class);
+        indiceAgendaClases = mock(IndiceAgendaClases.class);
 
         reservaService = new ReservaService(
                 reservaRepository,
@@ -49,7 +54,10 @@ public class ReservaServiceTest {
                 usuarioRepository,
                 reservaMapper,
                 reservaValidator,
-                eventoGymService
+                bandejaEventos,
+                mock(VersionesCatalogo.class),
+                mock(AgendaReservasSocios.class),
+                indiceAgendaClases
         );
     }
 
@@ -71,7 +79,7 @@ public class ReservaServiceTest {
 
         // Verificaciones: falla temprano
         verify(usuarioRepository).findById(idUsuario);
-        verifyNoInteractions(claseRepository, reservaRepository, reservaMapper, reservaValidator, eventoGymService);
+        verifyNoInteractions(claseRepository, reservaRepository, reservaMapper, reservaValidator, bandejaEventos);
     }
 
     @Test
@@ -83,17 +91,17 @@ public class ReservaServiceTest {
         Usuario usuario = mock(Usuario.class);
 
         when(usuarioRepository.findById(idUsuario)).thenReturn(Optional.of(usuario));
-        when(claseRepository.findById(idClase)).thenReturn(Optional.empty());
+        when(claseRepository.bloquearPorId(idClase)).thenReturn(Optional.empty());
 
         // Act + Assert
         assertThrows(ClaseNoDisponibleException.class,
                 () -> reservaService.crearReserva(idUsuario, idClase));
 
         verify(usuarioRepository).findById(idUsuario);
-        verify(claseRepository).findById(idClase);
+        verify(claseRepository).bloquearPorId(idClase);
 
         verify(reservaRepository, never()).save(any());
-        verifyNoInteractions(reservaMapper, reservaValidator, eventoGymService);
+        verifyNoInteractions(reservaMapper, reservaValidator, bandejaEventos);
     }
 
     @Test
@@ -106,7 +114,7 @@ public class ReservaServiceTest {
         Clase clase = mock(Clase.class);
 
         when(usuarioRepository.findById(idUsuario)).thenReturn(Optional.of(usuario));
-        when(claseRepository.findById(idClase)).thenReturn(Optional.of(clase));
+        when(claseRepository.bloquearPorId(idClase)).thenReturn(Optional.of(clase));
         when(reservaRepository.buscarReservaDuplicada(idUsuario, idClase))
                 .thenReturn(Optional.of(new Reserva()));
 
@@ -117,7 +125,7 @@ public class ReservaServiceTest {
         verify(reservaRepository).buscarReservaDuplicada(idUsuario, idClase);
         verify(reservaRepository, never()).save(any());
 
-        verifyNoInteractions(reservaMapper, reservaValidator, eventoGymService);
+        verifyNoInteractions(reservaMapper, reservaValidator, bandejaEventos);
     }
 
     @Test
@@ -131,11 +139,11 @@ public class ReservaServiceTest {
 
         Clase clase = mock(Clase.class);
         when(clase.getIdClase()).thenReturn(idClase);
-        when(clase.getCuposDisponibles()).thenReturn(5); // No se llena
+        when(clase.cuposLibres(anyLong())).thenReturn(5); // No se llena
         when(clase.getHorario()).thenReturn(LocalDateTime.now().plusDays(1));
 
         when(usuarioRepository.findById(idUsuario)).thenReturn(Optional.of(usuario));
-        when(claseRepository.findById(idClase)).thenReturn(Optional.of(clase));
+        when(claseRepository.bloquearPorId(idClase)).thenReturn(Optional.of(clase));
         when(reservaRepository.buscarReservaDuplicada(idUsuario, idClase)).thenReturn(Optional.empty());
 
         when(reservaRepository.save(any(Reserva.class))).thenAnswer(i -> i.getArguments()[0]);
@@ -144,7 +152,7 @@ public class ReservaServiceTest {
         when(reservaMapper.toDTO(any(Reserva.class))).thenReturn(dto);
 
         ArgumentCaptor<Reserva> reservaCaptor = ArgumentCaptor.forClass(Reserva.class);
-        ArgumentCaptor<EventoGym> eventoCaptor = ArgumentCaptor.forClass(EventoGym.class);
+        ArgumentCaptor<TipoEvento> eventoCaptor = ArgumentCaptor.forClass(TipoEvento.class);
 
         // Act
         ReservaDTO result = reservaService.crearReserva(idUsuario, idClase);
@@ -153,19 +161,18 @@ public class ReservaServiceTest {
         assertNotNull(result);
 
         // Debe validar y guardar
-        verify(reservaValidator).validarCrearReserva(any(Reserva.class), eq(clase));
+        verify(reservaValidator).validarCrearReserva(any(Reserva.class), eq(clase), eq(5));
         verify(reservaRepository).save(reservaCaptor.capture());
 
         Reserva guardada = reservaCaptor.getValue();
         assertNotNull(guardada.getUsuario());
         assertNotNull(guardada.getClase());
         assertNotNull(guardada.getFechaReserva());
-        assertEquals("CONFIRMADA", guardada.getEstado());
+        assertEquals(EstadoReserva.CONFIRMADA, guardada.getEstado());
 
-        // Debe emitir evento RESERVA_CREADA
-        verify(eventoGymService, times(1)).emitirEvento(eventoCaptor.capture());
-        EventoGym eventoEmitido = eventoCaptor.getValue();
-        assertEquals(TipoEvento.RESERVA_CREADA, eventoEmitido.getTipo());
+        // Debe dejar en la bandeja el evento RESERVA_CREADA
+        verify(bandejaEventos, times(1)).registrar(eq(idClase), eventoCaptor.capture(), any());
+        assertEquals(TipoEvento.RESERVA_CREADA, eventoCaptor.getValue());
     }
 
     @Test
@@ -179,27 +186,24 @@ public class ReservaServiceTest {
 
         Clase clase = mock(Clase.class);
         when(clase.getIdClase()).thenReturn(idClase);
-        when(clase.getCuposDisponibles()).thenReturn(1); // (1 - 1 == 0) -> se llena
+        when(clase.cuposLibres(anyLong())).thenReturn(1); // (1 - 1 == 0) -> se llena
         when(clase.getHorario()).thenReturn(LocalDateTime.now().plusDays(1));
 
         when(usuarioRepository.findById(idUsuario)).thenReturn(Optional.of(usuario));
-        when(claseRepository.findById(idClase)).thenReturn(Optional.of(clase));
+        when(claseRepository.bloquearPorId(idClase)).thenReturn(Optional.of(clase));
         when(reservaRepository.buscarReservaDuplicada(idUsuario, idClase)).thenReturn(Optional.empty());
 
         when(reservaRepository.save(any(Reserva.class))).thenAnswer(i -> i.getArguments()[0]);
         when(reservaMapper.toDTO(any(Reserva.class))).thenReturn(new ReservaDTO());
 
-        ArgumentCaptor<EventoGym> eventoCaptor = ArgumentCaptor.forClass(EventoGym.class);
+        ArgumentCaptor<TipoEvento> eventoCaptor = ArgumentCaptor.forClass(TipoEvento.class);
 
         // Act
         reservaService.crearReserva(idUsuario, idClase);
 
-        // Assert: se emiten 2 eventos (RESERVA_CREADA y CLASE_LLENA)
-        verify(eventoGymService, times(2)).emitirEvento(eventoCaptor.capture());
-        List<EventoGym> eventos = eventoCaptor.getAllValues();
-
-        assertTrue(eventos.stream().anyMatch(e -> e.getTipo() == TipoEvento.RESERVA_CREADA));
-        assertTrue(eventos.stream().anyMatch(e -> e.getTipo() == TipoEvento.CLASE_LLENA));
+        // Assert: 2 eventos en la bandeja (RESERVA_CREADA y CLASE_LLENA)
+        verify(bandejaEventos, times(2)).registrar(eq(idClase), eventoCaptor.capture(), any());
+        assertEquals(List.of(TipoEvento.RESERVA_CREADA, TipoEvento.CLASE_LLENA), eventoCaptor.getAllValues());
     }
 
     // =========================================================
@@ -220,7 +224,7 @@ public class ReservaServiceTest {
 
         verify(reservaRepository).findById(idReserva);
         verify(reservaRepository, never()).save(any());
-        verifyNoInteractions(reservaMapper, reservaValidator, eventoGymService);
+        verifyNoInteractions(reservaMapper, reservaValidator, bandejaEventos);
     }
 
     @Test
@@ -240,7 +244,7 @@ public class ReservaServiceTest {
         reserva.setIdReserva(idReserva);
         reserva.setUsuario(dueno);
         reserva.setClase(clase);
-        reserva.setEstado("CONFIRMADA");
+        reserva.setEstado(EstadoReserva.CONFIRMADA);
         reserva.setFechaReserva(LocalDateTime.now().minusHours(1));
 
         when(reservaRepository.findById(idReserva)).thenReturn(Optional.of(reserva));
@@ -253,7 +257,7 @@ public class ReservaServiceTest {
 
         verify(reservaRepository).findById(idReserva);
         verify(reservaRepository, never()).save(any());
-        verifyNoInteractions(reservaMapper, reservaValidator, eventoGymService);
+        verifyNoInteractions(reservaMapper, reservaValidator, bandejaEventos);
     }
 
     @Test
@@ -272,7 +276,7 @@ public class ReservaServiceTest {
         reserva.setIdReserva(idReserva);
         reserva.setUsuario(usuario);
         reserva.setClase(clase);
-        reserva.setEstado("CONFIRMADA");
+        reserva.setEstado(EstadoReserva.CONFIRMADA);
         reserva.setFechaReserva(LocalDateTime.now().minusHours(1));
 
         when(reservaRepository.findById(idReserva)).thenReturn(Optional.of(reserva));
@@ -280,7 +284,6 @@ public class ReservaServiceTest {
         when(reservaMapper.toDTO(any(Reserva.class))).thenReturn(new ReservaDTO());
 
         ArgumentCaptor<Reserva> reservaCaptor = ArgumentCaptor.forClass(Reserva.class);
-        ArgumentCaptor<EventoGym> eventoCaptor = ArgumentCaptor.forClass(EventoGym.class);
 
         // Act
         ReservaDTO dto = reservaService.cancelarReserva(idReserva, idUsuario);
@@ -292,14 +295,75 @@ public class ReservaServiceTest {
 
         verify(reservaRepository).save(reservaCaptor.capture());
         Reserva actualizada = reservaCaptor.getValue();
-        assertEquals("CANCELADA", actualizada.getEstado());
+        assertEquals(EstadoReserva.CANCELADA, actualizada.getEstado());
+
+        // 2 eventos en la bandeja: RESERVA_CANCELADA (con la reserva, para notificar) y CUPO_DISPONIBLE
+        verify(bandejaEventos).registrar(10L, TipoEvento.RESERVA_CANCELADA, idReserva);
+        verify(bandejaEventos).registrar(10L, TipoEvento.CUPO_DISPONIBLE, null);
+    }
+
+    // =========================================================
+    // cambiarEstado(...) (administrador)
+    // =========================================================
+
+    @Test
+    void cambiarEstado_aCancelada_shouldRegistrarLosEventosEnLaBandeja() {
+        // Arrange
+        Reserva reserva = reservaConfirmada(55L, 10L);
+        when(reservaRepository.findById(55L)).thenReturn(Optional.of(reserva));
+        when(reservaRepository.save(any(Reserva.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(reservaMapper.toDTO(any(Reserva.class))).thenReturn(new ReservaDTO());
+
+        // Act
+        reservaService.cambiarEstado(55L, EstadoReserva.CANCELADA);
+
+        // Assert: mismo rastro que la cancelación del socio (aviso y otros nodos)
+        verify(reservaValidator).validarCambioEstado(reserva, EstadoReserva.CANCELADA);
+        assertEquals(EstadoReserva.CANCELADA, reserva.getEstado());
+        verify(bandejaEventos).registrar(10L, TipoEvento.RESERVA_CANCELADA, 55L);
+        verify(bandejaEventos).registrar(10L, TipoEvento.CUPO_DISPONIBLE, null);
+    }
+
+    @Test
+    void cambiarEstado_aCompletada_shouldRefrescarElIndiceSinAvisar() {
+        // Arrange
+        Reserva reserva = reservaConfirmada(56L, 11L);
+        when(reservaRepository.findById(56L)).thenReturn(Optional.of(reserva));
+        when(reservaRepository.save(any(Reserva.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(reservaMapper.toDTO(any(Reserva.class))).thenReturn(new ReservaDTO());
 
-        // 2 eventos: RESERVA_CANCELADA y CUPO_DISPONIBLE
-        verify(eventoGymService, times(2)).emitirEvento(eventoCaptor.capture());
-        List<EventoGym> eventos = eventoCaptor.getAllValues();
+        // Act
+        reservaService.cambiarEstado(56L, EstadoReserva.COMPLETADA);
+
+        // Assert
+        assertEquals(EstadoReserva.COMPLETADA, reserva.getEstado());
+        verify(indiceAgendaClases).refrescarClase(11L);
+        verifyNoInteractions(bandejaEventos);
+    }
+
+    @Test
+    void cambiarEstado_reservaNoExiste_shouldLanzarNoEncontrada() {
+        // Arrange
+        when(reservaRepository.findById(57L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ReservaNoEncontradaException.class,
+                () -> reservaService.cambiarEstado(57L, EstadoReserva.CANCELADA));
+        verify(reservaRepository, never()).save(any());
+    }
+
+    private static Reserva reservaConfirmada(Long idReserva, Long idClase) {
+        Usuario usuario = mock(Usuario.class);
+        when(usuario.getIdUsuario()).thenReturn(1L);
+        Clase clase = mock(Clase.class);
+        when(clase.getIdClase()).thenReturn(idClase);
 
-        assertTrue(eventos.stream().anyMatch(e -> e.getTipo() == TipoEvento.RESERVA_CANCELADA));
-        assertTrue(eventos.stream().anyMatch(e -> e.getTipo() == TipoEvento.CUPO_DISPONIBLE));
+        Reserva reserva = new Reserva();
+        reserva.setIdReserva(idReserva);
+        reserva.setUsuario(usuario);
+        reserva.setClase(clase);
+        reserva.setEstado(EstadoReserva.CONFIRMADA);
+        return reserva;
     }
 
     // =========================================================
@@ -313,6 +377,7 @@ public class ReservaServiceTest {
 
         Clase clasePasada = mock(Clase.class);
         when(clasePasada.getHorario()).thenReturn(ahora.minusHours(3));
+        when(clasePasada.getIdClase()).thenReturn(7L);
 
         Clase claseFutura = mock(Clase.class);
         when(claseFutura.getHorario()).thenReturn(ahora.plusHours(3));
@@ -320,14 +385,14 @@ public class ReservaServiceTest {
         Reserva rPasada = new Reserva();
         rPasada.setIdReserva(1L);
         rPasada.setClase(clasePasada);
-        rPasada.setEstado("CONFIRMADA");
+        rPasada.setEstado(EstadoReserva.CONFIRMADA);
 
         Reserva rFutura = new Reserva();
         rFutura.setIdReserva(2L);
         rFutura.setClase(claseFutura);
-        rFutura.setEstado("CONFIRMADA");
+        rFutura.setEstado(EstadoReserva.CONFIRMADA);
 
-        when(reservaRepository.findByEstado("CONFIRMADA")).thenReturn(List.of(rPasada, rFutura));
+        when(reservaRepository.findByEstado(EstadoReserva.CONFIRMADA)).thenReturn(List.of(rPasada, rFutura));
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Reserva>> listCaptor = ArgumentCaptor.forClass(List.class);
@@ -342,10 +407,13 @@ public class ReservaServiceTest {
         // Solo debe guardar 1 (la pasada)
         assertEquals(1, guardadas.size());
         assertEquals(1L, guardadas.get(0).getIdReserva());
-        assertEquals("COMPLETADA", guardadas.get(0).getEstado());
+        assertEquals(EstadoReserva.COMPLETADA, guardadas.get(0).getEstado());
 
         // La futura NO se toca (sigue CONFIRMADA) y no se guarda
-        assertEquals("CONFIRMADA", rFutura.getEstado());
+        assertEquals(EstadoReserva.CONFIRMADA, rFutura.getEstado());
+
+        // Los cupos de la clase pasada se releen en el índice de agenda
+        verify(indiceAgendaClases).refrescarClases(List.of(7L));
     }
 
     @Test
@@ -359,9 +427,9 @@ public class ReservaServiceTest {
         Reserva rFutura = new Reserva();
         rFutura.setIdReserva(1L);
         rFutura.setClase(claseFutura);
-        rFutura.setEstado("CONFIRMADA");
+        rFutura.setEstado(EstadoReserva.CONFIRMADA);
 
-        when(reservaRepository.findByEstado("CONFIRMADA")).thenReturn(List.of(rFutura));
+        when(reservaRepository.findByEstado(EstadoReserva.CONFIRMADA)).thenReturn(List.of(rFutura));
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Reserva>> captor = ArgumentCaptor.forClass(List.class);
@@ -377,7 +445,7 @@ public class ReservaServiceTest {
         assertTrue(guardadas.isEmpty());
 
         // La reserva futura no debe cambiar
-        assertEquals("CONFIRMADA", rFutura.getEstado());
+        assertEquals(EstadoReserva.CONFIRMADA, rFutura.getEstado());
     }
 
 
@@ -0,0 +1,134 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ColaReservas;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Apertura de una clase muy demandada: muchas solicitudes simultáneas para pocos cupos.
+ * Compara el camino directo (una transacción por solicitud) con el modo cola en tiempo total,
+ * cupos vendidos de más y equidad (cuántos de los primeros en llegar se llevan cupo).
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=20")
+class ColaReservasBenchmarkTest {
+
+    private static final int SOLICITUDES = 1000;
+    private static final int CUPO = 20;
+    private static final int CLIENTES = 64;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ColaReservas colaReservas;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Test
+    void aperturaDeClase_directoFrenteACola() throws Exception {
+        Entrenador entrenador = entrenadorRepository.save(new Entrenador("Entrenador Carga", "Spinning"));
+        List<Long> usuarios = new ArrayList<>();
+        for (int i = 0; i < SOLICITUDES; i++) {
+            Usuario usuario = new Usuario("Socio " + i, "apertura" + i + "@test.com", "hash", "USER");
+            usuario.setActivo(true);
+            usuarios.add(usuarioRepository.save(usuario).getIdUsuario());
+        }
+
+        // Calentamiento de ambos caminos con una clase aparte
+        abrir(crearClase(entrenador), usuarios.subList(0, 100), false);
+        abrir(crearClase(entrenador), usuarios.subList(0, 100), true);
+
+        Resultado directo = abrir(crearClase(entrenador), usuarios, false);
+        Resultado cola = abrir(crearClase(entrenador), usuarios, true);
+
+        System.out.printf("Apertura de clase: %d solicitudes simultáneas para %d cupos (%d clientes)%n",
+                SOLICITUDES, CUPO, CLIENTES);
+        System.out.println("  directo: " + directo);
+        System.out.println("  cola:    " + cola);
+    }
+
+    private Long crearClase(Entrenador entrenador) {
+        return claseRepository.save(new Clase("Apertura", LocalDateTime.now().plusDays(1), CUPO, entrenador)).getIdClase();
+    }
+
+    private Resultado abrir(Long idClase, List<Long> usuarios, boolean enCola) throws Exception {
+        if (enCola) {
+            colaReservas.activar(idClase);
+        }
+        // Turno de llegada: se toma justo antes de lanzar la solicitud
+        AtomicInteger turnos = new AtomicInteger();
+        ConcurrentLinkedQueue<Integer> turnosGanadores = new ConcurrentLinkedQueue<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        try {
+            for (Long idUsuario : usuarios) {
+                clientes.execute(() -> {
+                    try {
+                        salida.await();
+                        int turno = turnos.getAndIncrement();
+                        if (enCola) {
+                            colaReservas.encolar(idUsuario, idClase).join();
+                        } else {
+                            reservaService.crearReserva(idUsuario, idClase);
+                        }
+                        turnosGanadores.add(turno);
+                    } catch (Exception e) {
+                        // Cupo agotado o conflicto: la solicitud pierde
+                    }
+                });
+            }
+            long inicio = System.nanoTime();
+            salida.countDown();
+            clientes.shutdown();
+            clientes.awaitTermination(5, TimeUnit.MINUTES);
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+            int enPrimeros = (int) turnosGanadores.stream().filter(t -> t < CUPO).count();
+            double turnoMedio = turnosGanadores.stream().mapToInt(Integer::intValue).average().orElse(0);
+            return new Resultado(ms, turnosGanadores.size(), claseRepository.contarReservasConfirmadas(idClase).intValue(),
+                    enPrimeros, turnoMedio, usuarios.size());
+        } finally {
+            colaReservas.desactivar(idClase);
+        }
+    }
+
+    private record Resultado(long ms, int aceptadas, int enBaseDeDatos, int enPrimeros, double turnoMedio, int total) {
+
+        @Override
+        public String toString() {
+            return String.format("%d ms (%.0f solicitudes/s), %d aceptadas, %d en BD (sobreventa %d), "
+                            + "%d/%d cupos para los %d primeros en llegar, turno medio ganador %.0f",
+                    ms, total * 1000.0 / Math.max(ms, 1), aceptadas, enBaseDeDatos, Math.max(0, enBaseDeDatos - CUPO),
+                    enPrimeros, CUPO, CUPO, turnoMedio);
+        }
+    }
+}
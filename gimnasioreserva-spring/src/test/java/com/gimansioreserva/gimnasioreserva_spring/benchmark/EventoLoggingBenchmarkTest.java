@@ -0,0 +1,137 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.HubEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rendimiento del bus de eventos con el log de EventoGymService apagado, encendido (asíncrono y
+ * muestreado) y con el println síncrono por evento que había antes, como referencia.
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+class EventoLoggingBenchmarkTest {
+
+    private static final int SUSCRIPTORES = 4;
+    private static final int EVENTOS = 200_000;
+    private static final int RONDAS_CALENTAMIENTO = 3;
+    private static final int RONDAS_MEDIDAS = 5;
+
+    // Salida descartada: se mide el coste del logging, no el de la terminal
+    private static final OutputStream NULA = OutputStream.nullOutputStream();
+
+    private Logger logger;
+    private Level nivelOriginal;
+    private AsyncAppender asincrono;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = contexto.getLogger(EventoGymService.class);
+        nivelOriginal = logger.getLevel();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(contexto);
+        encoder.setPattern("%d %level %logger - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> salida = new OutputStreamAppender<>();
+        salida.setContext(contexto);
+        salida.setEncoder(encoder);
+        salida.setOutputStream(NULA);
+        salida.start();
+
+        asincrono = new AsyncAppender();
+        asincrono.setContext(contexto);
+        asincrono.setQueueSize(8192);
+        asincrono.setNeverBlock(true);
+        asincrono.addAppender(salida);
+        asincrono.start();
+
+        logger.setAdditive(false);
+        logger.addAppender(asincrono);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(asincrono);
+        asincrono.stop();
+        logger.setAdditive(true);
+        logger.setLevel(nivelOriginal);
+    }
+
+    @Test
+    void throughputEventos_conYSinLogging() {
+        PrintStream consolaSincrona = new PrintStream(NULA, true);
+
+        logger.setLevel(Level.OFF);
+        double apagado = medir(evento -> { });
+
+        logger.setLevel(Level.DEBUG);
+        double muestreado = medir(evento -> { });
+
+        logger.setLevel(Level.OFF);
+        double printlnPorEvento = medir(evento -> consolaSincrona.println("onNext: Evento emitido -> " + evento.getTipo()));
+
+        System.out.printf("Eventos/s con %d suscriptores: log apagado=%.0f, log DEBUG async muestreado=%.0f, println síncrono=%.0f%n",
+                SUSCRIPTORES, apagado, muestreado, printlnPorEvento);
+    }
+
+    // Mediana de eventos emitidos por segundo; cada ronda usa un bus nuevo
+    private double medir(Consumer<EventoGym> porEvento) {
+        List<Double> rondas = new ArrayList<>();
+        for (int ronda = 0; ronda < RONDAS_CALENTAMIENTO + RONDAS_MEDIDAS; ronda++) {
+            TransporteEventosMemoria transporte = new TransporteEventosMemoria(new HubEventosMemoria());
+            transporte.start();
+            EventoGymService bus = new EventoGymService(new MetricasGimnasio(new SimpleMeterRegistry()), transporte);
+            AtomicLong recibidos = new AtomicLong();
+            List<Disposable> suscripciones = new ArrayList<>();
+            for (int i = 0; i < SUSCRIPTORES; i++) {
+                suscripciones.add(bus.flujoEventos()
+                        .doOnNext(porEvento)
+                        .subscribe(evento -> recibidos.incrementAndGet()));
+            }
+
+            long inicio = System.nanoTime();
+            for (int i = 0; i < EVENTOS; i++) {
+                bus.emitirEvento(new EventoGym(String.valueOf(i % 50), TipoEvento.RESERVA_CREADA));
+            }
+            long nanos = System.nanoTime() - inicio;
+
+            suscripciones.forEach(Disposable::dispose);
+            transporte.close();
+            assertEquals((long) EVENTOS * SUSCRIPTORES, recibidos.get());
+            if (ronda >= RONDAS_CALENTAMIENTO) {
+                rondas.add(EVENTOS / (nanos / 1_000_000_000.0));
+            }
+        }
+        rondas.sort(Double::compare);
+        return rondas.get(rondas.size() / 2);
+    }
+}
@@ -0,0 +1,121 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import com.gimansioreserva.gimnasioreserva_spring.util.ContadorSentencias;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserciones y actualizaciones masivas: alta de clases, alta de reservas y completarReservasPasadas.
+ * Mide tiempo y sentencias preparadas (con lotes JDBC, una por lote y no una por fila).
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+class InsercionMasivaBenchmarkTest {
+
+    private static final int FILAS = 1_000;
+    private static final int RONDAS_CALENTAMIENTO = 2;
+    private static final int RONDAS_MEDIDAS = 5;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void altasYActualizacionesMasivas() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        ContadorSentencias contador = new ContadorSentencias(entityManagerFactory);
+        Entrenador entrenador = entrenadorRepository.save(new Entrenador("Entrenador Lotes", "Funcional"));
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            usuarios.add(new Usuario("Socio " + i, "lotes" + i + "@test.com", "hash", "USER"));
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+
+        Medida clases = new Medida();
+        Medida reservas = new Medida();
+        Medida completar = new Medida();
+        for (int ronda = 0; ronda < RONDAS_CALENTAMIENTO + RONDAS_MEDIDAS; ronda++) {
+            boolean medida = ronda >= RONDAS_CALENTAMIENTO;
+            List<Clase> nuevas = new ArrayList<>();
+            for (int i = 0; i < FILAS; i++) {
+                nuevas.add(new Clase("Clase " + i, LocalDateTime.now().plusDays(1 + i % 30), 20, entrenador));
+            }
+            clases.medir(medida, contador, () -> transaccion.executeWithoutResult(estado -> claseRepository.saveAll(nuevas)));
+
+            // Clase ya pasada, para que completarReservasPasadas actualice todas sus reservas
+            Clase pasada = claseRepository.save(new Clase("Pasada", LocalDateTime.now().minusDays(1), FILAS, entrenador));
+            List<Reserva> nuevasReservas = new ArrayList<>();
+            for (Usuario usuario : usuarios) {
+                nuevasReservas.add(new Reserva(usuario, pasada, LocalDateTime.now(), EstadoReserva.CONFIRMADA));
+            }
+            reservas.medir(medida, contador,
+                    () -> transaccion.executeWithoutResult(estado -> reservaRepository.saveAll(nuevasReservas)));
+            completar.medir(medida, contador, reservaService::completarReservasPasadas);
+        }
+
+        System.out.printf("Operaciones masivas de %d filas (mediana de %d rondas):%n", FILAS, RONDAS_MEDIDAS);
+        System.out.println("  alta de clases:          " + clases);
+        System.out.println("  alta de reservas:        " + reservas);
+        System.out.println("  completarReservasPasadas: " + completar);
+    }
+
+    private static final class Medida {
+
+        private final List<Long> micros = new ArrayList<>();
+        private long sentencias;
+
+        void medir(boolean registrar, ContadorSentencias contador, Runnable accion) {
+            long inicio = System.nanoTime();
+            long preparadas = contador.contar(accion);
+            long transcurrido = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio);
+            if (registrar) {
+                micros.add(transcurrido);
+                sentencias = preparadas;
+            }
+        }
+
+        @Override
+        public String toString() {
+            List<Long> ordenadas = micros.stream().sorted().toList();
+            return String.format("%.1f ms, %d sentencias preparadas", ordenadas.get(ordenadas.size() / 2) / 1000.0, sentencias);
+        }
+    }
+}
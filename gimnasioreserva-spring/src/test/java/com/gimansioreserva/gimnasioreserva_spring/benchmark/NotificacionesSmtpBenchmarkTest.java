@@ -0,0 +1,123 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.CanalNotificacionesSmtp;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.ConexionSmtp;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.DespachadorNotificaciones;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.Notificacion;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.NotificacionesProperties;
+import com.gimansioreserva.gimnasioreserva_spring.util.ServidorSmtpFalso;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Avisos por segundo contra un servidor SMTP local con latencia de red simulada: un correo por aviso,
+ * con conexión nueva y orden por orden desde varios hilos (como hacía el envío @Async), frente al
+ * despachador con agrupación por socio, pool de conexiones y PIPELINING.
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+class NotificacionesSmtpBenchmarkTest {
+
+    private static final int AVISOS = 2_000;
+    private static final int SOCIOS = 500;
+    private static final long LATENCIA_MS = 2;
+    private static final int HILOS_REFERENCIA = 10;
+    private static final int CONEXIONES = 4;
+
+    @Test
+    void throughputAvisos_conexionPorAvisoVsDespachador() throws Exception {
+        // Cada socio recibe sus avisos seguidos, como al reservar una serie de clases
+        List<Notificacion> avisos = new ArrayList<>(AVISOS);
+        for (int i = 0; i < AVISOS; i++) {
+            avisos.add(new Notificacion("socio" + (i / (AVISOS / SOCIOS)) + "@correo.test",
+                    "Reserva confirmada: clase " + i, "Tu reserva para la clase " + i + " ha sido confirmada."));
+        }
+
+        Medida referencia = medirConexionPorAviso(avisos);
+        Medida despachador = medirDespachador(avisos);
+
+        System.out.printf("%d avisos a %d socios, latencia %d ms:%n", AVISOS, SOCIOS, LATENCIA_MS);
+        System.out.printf("  conexión por aviso (%d hilos): %.0f avisos/s, %d correos, %d conexiones, %d idas y vueltas%n",
+                HILOS_REFERENCIA, referencia.avisosPorSegundo(), referencia.correos(), referencia.conexiones(),
+                referencia.idasYVueltas());
+        System.out.printf("  despachador (%d conexiones, pipelining): %.0f avisos/s, %d correos, %d conexiones, %d idas y vueltas%n",
+                CONEXIONES, despachador.avisosPorSegundo(), despachador.correos(), despachador.conexiones(),
+                despachador.idasYVueltas());
+    }
+
+    private record Medida(double avisosPorSegundo, int correos, int conexiones, int idasYVueltas) {
+    }
+
+    private static Medida medirConexionPorAviso(List<Notificacion> avisos) throws Exception {
+        try (ServidorSmtpFalso servidor = new ServidorSmtpFalso(true)) {
+            servidor.setLatenciaMs(LATENCIA_MS);
+            ExecutorService hilos = Executors.newFixedThreadPool(HILOS_REFERENCIA);
+            long inicio = System.nanoTime();
+            List<Future<?>> envios = new ArrayList<>(avisos.size());
+            for (Notificacion aviso : avisos) {
+                envios.add(hilos.submit(() -> {
+                    try (ConexionSmtp conexion = ConexionSmtp.abrir("127.0.0.1", servidor.getPuerto(),
+                            "gimnasio.test", 5000, false)) {
+                        byte[] datos = ("Subject: " + aviso.asunto() + "\r\n\r\n" + aviso.texto() + "\r\n.\r\n")
+                                .getBytes(StandardCharsets.US_ASCII);
+                        int[] codigos = new int[1];
+                        conexion.enviar("no-responder@gimnasio.test",
+                                List.of(new ConexionSmtp.Mensaje(aviso.destinatario(), datos)), codigos);
+                        return codigos[0];
+                    }
+                }));
+            }
+            for (Future<?> envio : envios) {
+                envio.get();
+            }
+            long nanos = System.nanoTime() - inicio;
+            hilos.shutdown();
+
+            assertEquals(avisos.size(), servidor.getMensajes().size());
+            return new Medida(avisos.size() * 1e9 / nanos, servidor.getMensajes().size(),
+                    servidor.getConexiones(), servidor.getIdasYVueltas());
+        }
+    }
+
+    private static Medida medirDespachador(List<Notificacion> avisos) throws InterruptedException {
+        try (ServidorSmtpFalso servidor = new ServidorSmtpFalso(true)) {
+            servidor.setLatenciaMs(LATENCIA_MS);
+            NotificacionesProperties propiedades = new NotificacionesProperties();
+            propiedades.setVentanaMs(50);
+            propiedades.getSmtp().setHost("127.0.0.1");
+            propiedades.getSmtp().setPuerto(servidor.getPuerto());
+            propiedades.getSmtp().setConexiones(CONEXIONES);
+            SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+            try (CanalNotificacionesSmtp canal = new CanalNotificacionesSmtp(propiedades.getSmtp(),
+                    "no-responder@gimnasio.test", true);
+                 DespachadorNotificaciones despachador = new DespachadorNotificaciones(canal, propiedades,
+                         new MetricasGimnasio(registro))) {
+                long inicio = System.nanoTime();
+                avisos.forEach(despachador::encolar);
+                long limite = inicio + TimeUnit.SECONDS.toNanos(60);
+                while (registro.get(MetricasGimnasio.NOTIFICACIONES_AVISOS).counter().count() < avisos.size()) {
+                    assertTrue(System.nanoTime() < limite, "El despachador no entregó todos los avisos a tiempo");
+                    Thread.sleep(1);
+                }
+                long nanos = System.nanoTime() - inicio;
+
+                return new Medida(avisos.size() * 1e9 / nanos, servidor.getMensajes().size(),
+                        servidor.getConexiones(), servidor.getIdasYVueltas());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prueba de carga de la renovación de sesión: CPU del proceso por renovación cuando el cliente
+ * vuelve a hacer login (antes: BCrypt + findByCorreo) frente a /api/auth/refresh (ahora: HMAC + UPDATE).
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+// BCrypt con el coste mínimo de producción, no el abaratado de los tests, y sin limitador de login
+@SpringBootTest(properties = {"gimnasio.contrasenas.coste-minimo=10", "gimnasio.contrasenas.coste-maximo=10",
+        "gimnasio.limite-login.habilitado=false"})
+@AutoConfigureMockMvc
+class RenovacionSesionCpuBenchmarkTest {
+
+    private static final int CLIENTES = 8;
+    private static final int RENOVACIONES_POR_CLIENTE = 25;
+    private static final String CONTRASENA = "password123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void cpuPorRenovacion_loginFrenteARefresh() throws Exception {
+        List<String> correos = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            String correo = "carga" + i + "@test.com";
+            mockMvc.perform(post("/api/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"nombre\":\"Carga\",\"correo\":\"" + correo + "\",\"contrasena\":\"" + CONTRASENA + "\",\"rol\":\"USER\"}"))
+                    .andExpect(status().isCreated());
+            correos.add(correo);
+        }
+
+        // Calentamiento de ambos caminos
+        cargar(correos, 5, true);
+        cargar(correos, 5, false);
+
+        double[] login = cargar(correos, RENOVACIONES_POR_CLIENTE, true);
+        double[] refresh = cargar(correos, RENOVACIONES_POR_CLIENTE, false);
+
+        System.out.printf("Renovación de sesión con %d clientes concurrentes:%n", CLIENTES);
+        System.out.printf("  login (BCrypt):   %.2f ms CPU por renovación, %.0f renovaciones/s%n", login[0], login[1]);
+        System.out.printf("  refresh (HMAC):   %.2f ms CPU por renovación, %.0f renovaciones/s%n", refresh[0], refresh[1]);
+    }
+
+    // Devuelve {ms de CPU del proceso por renovación, renovaciones por segundo}
+    private double[] cargar(List<String> correos, int porCliente, boolean relogin) throws Exception {
+        List<String> refreshTokens = new ArrayList<>();
+        for (String correo : correos) {
+            refreshTokens.add(login(correo, "refreshToken"));
+        }
+
+        ExecutorService clientes = Executors.newFixedThreadPool(correos.size());
+        try {
+            long cpuInicio = cpuProceso();
+            long inicio = System.nanoTime();
+            List<Future<?>> pendientes = new ArrayList<>();
+            for (int c = 0; c < correos.size(); c++) {
+                String correo = correos.get(c);
+                String primerRefresh = refreshTokens.get(c);
+                pendientes.add(clientes.submit(() -> {
+                    String refreshToken = primerRefresh;
+                    for (int i = 0; i < porCliente; i++) {
+                        refreshToken = relogin ? login(correo, "refreshToken") : refrescar(refreshToken);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get();
+            }
+            double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+            long cpuNanos = cpuProceso() - cpuInicio;
+            int total = correos.size() * porCliente;
+            return new double[] {cpuNanos / 1_000_000.0 / total, total / segundos};
+        } finally {
+            clientes.shutdownNow();
+        }
+    }
+
+    private String login(String correo, String campo) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"correo\":\"" + correo + "\",\"contrasena\":\"" + CONTRASENA + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(cuerpo, "$.data." + campo);
+    }
+
+    private String refrescar(String refreshToken) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(cuerpo, "$.data.refreshToken");
+    }
+
+    private static long cpuProceso() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
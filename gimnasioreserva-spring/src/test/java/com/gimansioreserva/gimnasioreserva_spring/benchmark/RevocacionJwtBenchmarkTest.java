@@ -0,0 +1,140 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.AlmacenRevocacionesArchivo;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtProperties;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenBlacklist;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.RevocacionProperties;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Coste de la comprobación de revocación en el filtro JWT: caché local frente a leer el almacén
+ * mapeado en cada petición (con uno y varios hilos), y el camino completo (parseo del token + caché) como referencia.
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+class RevocacionJwtBenchmarkTest {
+
+    private static final int REVOCADOS = 10_000;
+    private static final int TOKENS = 1_000;
+    private static final int CONSULTAS = 2_000_000;
+    private static final int RONDAS_CALENTAMIENTO = 3;
+    private static final int RONDAS_MEDIDAS = 5;
+    private static final int HILOS = 4;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void comprobacionRevocacion_cacheLocalFrenteAAlmacen() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("test-secret-key-that-is-long-enough-for-the-algorithm-to-work-properly");
+        jwtProperties.setExpiration(3_600_000);
+        JwtTokenProvider provider = new JwtTokenProvider(jwtProperties);
+        RevocacionProperties propiedades = new RevocacionProperties();
+        propiedades.setSincronizacionMs(3_600_000);
+
+        try (AlmacenRevocacionesArchivo almacen = new AlmacenRevocacionesArchivo(directorio.resolve("revocaciones.dat"), 32_768)) {
+            long expira = System.currentTimeMillis() + 3_600_000;
+            for (int i = 0; i < REVOCADOS; i++) {
+                almacen.revocar(UUID.randomUUID(), expira);
+            }
+            JwtTokenBlacklist lista = new JwtTokenBlacklist(almacen, provider, propiedades);
+
+            // La mitad de los tokens consultados están revocados
+            List<String> tokens = new ArrayList<>();
+            List<Claims> claims = new ArrayList<>();
+            for (int i = 0; i < TOKENS; i++) {
+                String token = provider.generarToken("usuario" + i + "@test.com", "USER");
+                if (i % 2 == 0) {
+                    lista.agregar(token);
+                }
+                tokens.add(token);
+                claims.add(provider.leerClaims(token).orElseThrow());
+            }
+
+            long ahora = System.currentTimeMillis();
+            IntPredicate porCache = i -> lista.estaRevocado(tokens.get(i % TOKENS), claims.get(i % TOKENS));
+            // Lo que haría el filtro sin caché: sacar el jti de los claims y leer la tabla mapeada
+            IntPredicate porArchivo = i -> almacen.estaRevocado(UUID.fromString(claims.get(i % TOKENS).getId()), ahora);
+            double cache = medir(CONSULTAS, porCache);
+            double archivo = medir(CONSULTAS, porArchivo);
+            double cacheConcurrente = medirConcurrente(porCache);
+            double archivoConcurrente = medirConcurrente(porArchivo);
+            // Camino completo del filtro: parseo del token y después la caché
+            double filtro = medir(CONSULTAS / 100, i -> {
+                String token = tokens.get(i % TOKENS);
+                return provider.leerClaims(token).map(c -> lista.estaRevocado(token, c)).orElse(false);
+            });
+
+            lista.detener();
+            System.out.printf("ns por comprobación con %d revocados: caché local=%.1f, almacén mapeado=%.1f, parseo del JWT + caché=%.1f%n",
+                    REVOCADOS + TOKENS / 2, cache, archivo, filtro);
+            System.out.printf("Comprobaciones/s con %d hilos: caché local=%.0f, almacén mapeado=%.0f%n",
+                    HILOS, cacheConcurrente, archivoConcurrente);
+        }
+    }
+
+    // Mediana de ns por operación; cada ronda comprueba que la mitad salgan positivas
+    private double medir(int operaciones, IntPredicate operacion) {
+        List<Double> rondas = new ArrayList<>();
+        for (int ronda = 0; ronda < RONDAS_CALENTAMIENTO + RONDAS_MEDIDAS; ronda++) {
+            int positivos = 0;
+            long inicio = System.nanoTime();
+            for (int i = 0; i < operaciones; i++) {
+                if (operacion.test(i)) {
+                    positivos++;
+                }
+            }
+            long nanos = System.nanoTime() - inicio;
+            assertEquals(operaciones / 2, positivos, 1);
+            if (ronda >= RONDAS_CALENTAMIENTO) {
+                rondas.add((double) nanos / operaciones);
+            }
+        }
+        rondas.sort(Double::compare);
+        return rondas.get(rondas.size() / 2);
+    }
+
+    // Varias peticiones a la vez: el almacén serializa las lecturas, la caché no
+    private double medirConcurrente(IntPredicate operacion) {
+        List<Double> rondas = new ArrayList<>();
+        for (int ronda = 0; ronda < RONDAS_CALENTAMIENTO + RONDAS_MEDIDAS; ronda++) {
+            List<Thread> hilos = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                hilos.add(new Thread(() -> {
+                    for (int i = 0; i < CONSULTAS; i++) {
+                        operacion.test(i);
+                    }
+                }));
+            }
+            long inicio = System.nanoTime();
+            hilos.forEach(Thread::start);
+            for (Thread hilo : hilos) {
+                try {
+                    hilo.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            long nanos = System.nanoTime() - inicio;
+            if (ronda >= RONDAS_CALENTAMIENTO) {
+                rondas.add((double) HILOS * CONSULTAS / (nanos / 1_000_000_000.0));
+            }
+        }
+        rondas.sort(Double::compare);
+        return rondas.get(rondas.size() / 2);
+    }
+}
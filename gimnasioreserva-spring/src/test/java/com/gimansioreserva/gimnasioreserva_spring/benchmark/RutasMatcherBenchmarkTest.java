@@ -0,0 +1,113 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad.Acceso;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Coste por petición de decidir si el filtro JWT se salta la ruta: la lista anterior con startsWith,
+ * el trie de RutasSeguridad y, como referencia, recorrer PathPattern de Spring.
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+class RutasMatcherBenchmarkTest {
+
+    private static final int CONSULTAS = 5_000_000;
+    private static final int RONDAS_CALENTAMIENTO = 3;
+    private static final int RONDAS_MEDIDAS = 5;
+
+    // Tabla de exclusiones de JwtAuthenticationFilter antes del trie
+    private static final List<String> EXCLUIDAS_ANTES = Arrays.asList(
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/auth/refresh",
+            "/api/auth/password-reset",
+            "/api/recomendaciones/stream",
+            "/api/recomendaciones/simular",
+            "/swagger-ui/index.html",
+            "/swagger-ui/**",
+            "/v3/api-docs/**"
+    );
+
+    // Mezcla típica: la mayoría son rutas autenticadas, que recorren la lista entera
+    private static final String[] RUTAS = {
+            "/api/reservas/mias",
+            "/api/clases/12",
+            "/api/disponibilidad/clase/3",
+            "/api/admin/usuarios/7",
+            "/api/estadisticas/resumen",
+            "/api/auth/login",
+            "/swagger-ui/index.html",
+            "/actuator/prometheus"
+    };
+
+    @Test
+    void exclusionFiltroJwt_listaFrenteATrie() {
+        RutasSeguridad rutas = new RutasSeguridad();
+        List<PathPattern> patrones = new ArrayList<>();
+        List<Acceso> accesos = new ArrayList<>();
+        RutasSeguridad.REGLAS.forEach((patron, acceso) -> {
+            patrones.add(PathPatternParser.defaultInstance.parse(patron));
+            accesos.add(acceso);
+        });
+
+        IntPredicate lista = i -> {
+            String ruta = RUTAS[i % RUTAS.length];
+            return EXCLUIDAS_ANTES.stream().anyMatch(ruta::startsWith);
+        };
+        IntPredicate trie = i -> rutas.buscar(RUTAS[i % RUTAS.length], 0) == Acceso.PUBLICA_SIN_TOKEN;
+        IntPredicate pathPattern = i -> {
+            PathContainer camino = PathContainer.parsePath(RUTAS[i % RUTAS.length]);
+            PathPattern mejor = null;
+            Acceso acceso = null;
+            for (int p = 0; p < patrones.size(); p++) {
+                PathPattern patron = patrones.get(p);
+                if (patron.matches(camino) && (mejor == null || PathPattern.SPECIFICITY_COMPARATOR.compare(patron, mejor) < 0)) {
+                    mejor = patron;
+                    acceso = accesos.get(p);
+                }
+            }
+            return acceso == Acceso.PUBLICA_SIN_TOKEN;
+        };
+
+        // La lista anterior solo acierta login y index.html (los "/**" y actuator no casan con startsWith)
+        double nsTrie = medir(trie, 3);
+        double nsLista = medir(lista, 2);
+        double nsPathPattern = medir(pathPattern, 3);
+
+        System.out.printf("ns por petición (%d rutas de muestra): lista+startsWith=%.1f, trie=%.1f, PathPattern=%.1f%n",
+                RUTAS.length, nsLista, nsTrie, nsPathPattern);
+    }
+
+    // Mediana de ns por operación; cada ronda comprueba cuántas rutas de la muestra se excluyen
+    private double medir(IntPredicate operacion, int excluidasPorVuelta) {
+        List<Double> rondas = new ArrayList<>();
+        for (int ronda = 0; ronda < RONDAS_CALENTAMIENTO + RONDAS_MEDIDAS; ronda++) {
+            int positivos = 0;
+            long inicio = System.nanoTime();
+            for (int i = 0; i < CONSULTAS; i++) {
+                if (operacion.test(i)) {
+                    positivos++;
+                }
+            }
+            long nanos = System.nanoTime() - inicio;
+            assertEquals(CONSULTAS / RUTAS.length * excluidasPorVuelta, positivos);
+            if (ronda >= RONDAS_CALENTAMIENTO) {
+                rondas.add((double) nanos / CONSULTAS);
+            }
+        }
+        rondas.sort(Double::compare);
+        return rondas.get(rondas.size() / 2);
+    }
+}
@@ -0,0 +1,131 @@
+package com.gimansioreserva.gimnasioreserva_spring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ClaseDTO;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.util.RespuestaApi;
+import com.gimansioreserva.gimnasioreserva_spring.util.RespuestaListaStreaming;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Coste de serializar las respuestas de lista de ClaseController y ReservaController:
+ * el sobre HashMap anterior, el record RespuestaApi, el record con Blackbird y el escritor en streaming.
+ * Se ejecuta con: gradle benchmark
+ */
+@Tag("benchmark")
+class SerializacionRespuestasBenchmarkTest {
+
+    private static final int[] TAMANOS = {10, 1_000, 10_000};
+    // Elementos serializados por ronda, para que cada tamaño tarde parecido
+    private static final int ELEMENTOS_POR_RONDA = 200_000;
+    private static final int RONDAS_CALENTAMIENTO = 10;
+    private static final int RONDAS_MEDIDAS = 5;
+
+    // Mismos módulos y formato de fechas que el ObjectMapper de Spring Boot
+    private final ObjectMapper reflexion = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper blackbird = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+
+    @Test
+    void sobreDeRespuesta_mapFrenteARecord() throws Exception {
+        medirLista("List<ClaseDTO>", SerializacionRespuestasBenchmarkTest::clase);
+        medirLista("List<ReservaDTO>", SerializacionRespuestasBenchmarkTest::reserva);
+    }
+
+    private void medirLista(String nombre, IntFunction<Object> crear) throws Exception {
+        RespuestaListaStreaming streaming = new RespuestaListaStreaming(blackbird);
+        System.out.printf("%s, µs por respuesta:%n", nombre);
+        for (int tamano : TAMANOS) {
+            List<Object> datos = new ArrayList<>();
+            for (int i = 0; i < tamano; i++) {
+                datos.add(crear.apply(i));
+            }
+            double map = medir(tamano, salida -> reflexion.writeValue(salida, sobreMap(datos)));
+            double record = medir(tamano, salida -> reflexion.writeValue(salida, RespuestaApi.exito(datos, null)));
+            double recordBlackbird = medir(tamano, salida -> blackbird.writeValue(salida, RespuestaApi.exito(datos, null)));
+            double enStreaming = medir(tamano, salida -> streaming.escribir(datos, LocalDateTime.now(), salida));
+            System.out.printf("  %6d elementos: HashMap=%.1f, record=%.1f, record+Blackbird=%.1f, streaming+Blackbird=%.1f%n",
+                    tamano, map, record, recordBlackbird, enStreaming);
+        }
+    }
+
+    // Lo que construía ResponseUtil.success(data) antes de RespuestaApi
+    private static Map<String, Object> sobreMap(Object datos) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", datos);
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+
+    // Mediana de µs por respuesta; la salida se descarta para medir solo la serialización
+    private double medir(int tamano, Escritura escritura) throws Exception {
+        int respuestas = Math.max(1, ELEMENTOS_POR_RONDA / tamano);
+        OutputStream nula = new Descarte();
+        List<Double> rondas = new ArrayList<>();
+        for (int ronda = 0; ronda < RONDAS_CALENTAMIENTO + RONDAS_MEDIDAS; ronda++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < respuestas; i++) {
+                escritura.escribir(nula);
+            }
+            long nanos = System.nanoTime() - inicio;
+            if (ronda >= RONDAS_CALENTAMIENTO) {
+                rondas.add(nanos / 1_000.0 / respuestas);
+            }
+        }
+        rondas.sort(Double::compare);
+        return rondas.get(rondas.size() / 2);
+    }
+
+    private static ClaseDTO clase(int i) {
+        ClaseDTO clase = new ClaseDTO();
+        clase.setIdClase((long) i);
+        clase.setNombre("Clase " + i);
+        clase.setDescripcion("Sesión de entrenamiento funcional");
+        clase.setHorario(LocalDateTime.of(2030, 1, 1, 8, 0).plusHours(i));
+        clase.setCupo(20);
+        clase.setCuposDisponibles(i % 20);
+        clase.setDuracionMinutos(60);
+        clase.setActivo(true);
+        clase.setIdEntrenador((long) (i % 10));
+        clase.setNombreEntrenador("Entrenador " + i % 10);
+        clase.setEspecialidadEntrenador("Funcional");
+        return clase;
+    }
+
+    private static ReservaDTO reserva(int i) {
+        LocalDateTime horario = LocalDateTime.of(2030, 1, 1, 8, 0).plusHours(i);
+        return new ReservaDTO((long) i, horario.minusDays(2), EstadoReserva.CONFIRMADA,
+                (long) i, "Socio " + i, "socio" + i + "@test.com",
+                (long) (i % 50), "Clase " + i % 50, horario, 60,
+                (long) (i % 10), "Entrenador " + i % 10, "Funcional");
+    }
+
+    @FunctionalInterface
+    private interface Escritura {
+        void escribir(OutputStream salida) throws Exception;
+    }
+
+    // Como OutputStream.nullOutputStream(), pero admite seguir escribiendo después de que Jackson lo cierre
+    private static final class Descarte extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
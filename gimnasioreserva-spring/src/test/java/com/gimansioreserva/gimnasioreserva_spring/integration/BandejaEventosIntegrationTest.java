@@ -0,0 +1,171 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoPendiente;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ClaseDTO;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EventoPendienteRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.RelevoEventos;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BandejaEventosIntegrationTest {
+
+    private static final Duration ESPERA = Duration.ofSeconds(5);
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private RelevoEventos relevoEventos;
+
+    @Autowired
+    private EventoGymService eventoGymService;
+
+    @Autowired
+    private EventoPendienteRepository eventoPendienteRepository;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IndiceAgendaClases indiceAgendaClases;
+
+    private Usuario usuario;
+    private Clase clase;
+
+    @BeforeEach
+    void setUp() {
+        Entrenador entrenador = entrenadorRepository.save(new Entrenador("Entrenador Bandeja", "Funcional"));
+        clase = claseRepository.save(new Clase("Funcional", LocalDateTime.now().plusDays(2), 10, entrenador));
+
+        usuario = new Usuario("Socio Bandeja", "bandeja-" + UUID.randomUUID() + "@test.com", "hash", "USER");
+        usuario.setActivo(true);
+        usuario = usuarioRepository.save(usuario);
+    }
+
+    @Test
+    void crearReserva_shouldPublicarElEventoTrasElCommitYVaciarLaBandeja() {
+        // Act & Assert: el commit despierta al relevo, sin esperar a la revisión periódica
+        StepVerifier.create(eventosDeLaClase().take(1))
+                .then(() -> reservaService.crearReserva(usuario.getIdUsuario(), clase.getIdClase()))
+                .assertNext(evento -> assertThat(evento.getTipo()).isEqualTo(TipoEvento.RESERVA_CREADA))
+                .expectComplete()
+                .verify(ESPERA);
+
+        // El lote bloqueado se espera: al terminar, lo publicado ya está borrado
+        relevoEventos.relevarPendientes();
+        assertThat(pendientesDeLaClase()).isEmpty();
+    }
+
+    @Test
+    void crearReserva_transaccionRevertida_shouldNoDejarNingunEvento() {
+        // Arrange
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        // Act & Assert
+        StepVerifier.create(eventosDeLaClase())
+                .then(() -> transaccion.executeWithoutResult(estado -> {
+                    reservaService.crearReserva(usuario.getIdUsuario(), clase.getIdClase());
+                    estado.setRollbackOnly();
+                }))
+                .expectNoEvent(Duration.ofMillis(300))
+                .thenCancel()
+                .verify(ESPERA);
+
+        assertThat(pendientesDeLaClase()).isEmpty();
+    }
+
+    @Test
+    void relevarPendientes_eventosSinPublicar_shouldPublicarlosEnOrdenYConSuId() {
+        // Arrange: eventos confirmados sin que nadie avisara al relevo (p. ej. caída justo tras el commit)
+        List<EventoPendiente> guardados = eventoPendienteRepository.saveAll(List.of(
+                new EventoPendiente(clase.getIdClase(), TipoEvento.RESERVA_CREADA, null),
+                new EventoPendiente(clase.getIdClase(), TipoEvento.RESERVA_CANCELADA, null),
+                new EventoPendiente(clase.getIdClase(), TipoEvento.CUPO_DISPONIBLE, null)));
+
+        // Act & Assert
+        StepVerifier.create(eventosDeLaClase().take(3))
+                .then(relevoEventos::relevarPendientes)
+                .assertNext(evento -> assertThat(evento.getId()).isEqualTo(guardados.get(0).getUuid()))
+                .assertNext(evento -> assertThat(evento.getTipo()).isEqualTo(TipoEvento.RESERVA_CANCELADA))
+                .assertNext(evento -> assertThat(evento.getTipo()).isEqualTo(TipoEvento.CUPO_DISPONIBLE))
+                .expectComplete()
+                .verify(ESPERA);
+
+        assertThat(pendientesDeLaClase()).isEmpty();
+    }
+
+    @Test
+    void cancelarReserva_shouldDevolverElCupoEnElIndiceDeAgenda() throws InterruptedException {
+        // Arrange
+        ReservaDTO reserva = reservaService.crearReserva(usuario.getIdUsuario(), clase.getIdClase());
+        esperarCuposEnIndice(9);
+
+        // Act
+        reservaService.cancelarReserva(reserva.getIdReserva(), usuario.getIdUsuario());
+
+        // Assert: el evento de cancelación refresca la clase en el índice
+        esperarCuposEnIndice(10);
+    }
+
+    private void esperarCuposEnIndice(int esperados) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        Integer cupos = null;
+        while (System.nanoTime() < limite) {
+            cupos = indiceAgendaClases.buscarEntre(clase.getHorario(), clase.getHorario()).orElseThrow().stream()
+                    .filter(dto -> dto.getIdClase().equals(clase.getIdClase()))
+                    .map(ClaseDTO::getCuposDisponibles)
+                    .findFirst().orElse(null);
+            if (Integer.valueOf(esperados).equals(cupos)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        assertThat(cupos).as("Cupos de la clase en el índice de agenda").isEqualTo(esperados);
+    }
+
+    private Flux<EventoGym> eventosDeLaClase() {
+        String idClase = clase.getIdClase().toString();
+        return eventoGymService.flujoEventos().filter(evento -> idClase.equals(evento.getClaseId()));
+    }
+
+    private List<EventoPendiente> pendientesDeLaClase() {
+        return eventoPendienteRepository.findAll().stream()
+                .filter(evento -> evento.getIdClase().equals(clase.getIdClase()))
+                .toList();
+    }
+}
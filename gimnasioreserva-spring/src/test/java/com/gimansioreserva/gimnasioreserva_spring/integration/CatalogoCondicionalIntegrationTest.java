@@ -0,0 +1,131 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
+import com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminClaseService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import com.gimansioreserva.gimnasioreserva_spring.util.ContadorSentencias;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogoCondicionalIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private AdminClaseService adminClaseService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Clase clase;
+    private Usuario usuario;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        Entrenador entrenador = entrenadorRepository.save(new Entrenador("Entrenador ETag", "Yoga"));
+        clase = claseRepository.save(new Clase("Yoga ETag", LocalDateTime.now().plusDays(2), 10, entrenador));
+        usuario = new Usuario("Socio ETag", "etag-" + UUID.randomUUID() + "@test.com", "hash", "USER");
+        usuario.setActivo(true);
+        usuario = usuarioRepository.save(usuario);
+        token = "Bearer " + jwtTokenProvider.generarToken(usuario.getCorreo(), usuario.getRol());
+    }
+
+    @Test
+    void listarActivas_conEtagVigente_shouldResponder304SinConsultarClases() throws Exception {
+        // Arrange
+        MvcResult primera = mockMvc.perform(get("/api/clases/activas").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+        ContadorSentencias contador = new ContadorSentencias(entityManagerFactory);
+
+        // Act
+        long sentenciasCompleta = contador.contar(() -> pedir("/api/clases/activas", "\"otro\"", 200));
+        long sentenciasCondicional = contador.contar(() -> pedir("/api/clases/activas", etag, 304));
+
+        // Assert: la condicional solo hace las consultas de la autenticación
+        assertThat(etag).startsWith("\"");
+        assertThat(sentenciasCondicional).isLessThan(sentenciasCompleta);
+        mockMvc.perform(get("/api/clases/activas").header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void mutaciones_shouldInvalidarLosEtagAfectados() throws Exception {
+        // Arrange
+        String etagCatalogo = etag("/api/clases/activas");
+        String etagDisponibilidad = etag("/api/disponibilidad/clase/" + clase.getIdClase());
+
+        // Act & Assert: una reserva cambia la versión de su clase y la de los listados
+        reservaService.crearReserva(usuario.getIdUsuario(), clase.getIdClase());
+        pedir("/api/disponibilidad/clase/" + clase.getIdClase(), etagDisponibilidad, 200);
+        pedir("/api/clases/activas", etagCatalogo, 200);
+
+        // Un cambio de catálogo invalida también las lecturas por clase
+        String etagClase = etag("/api/clases/" + clase.getIdClase());
+        pedir("/api/clases/" + clase.getIdClase(), etagClase, 304);
+        adminClaseService.desactivar(clase.getIdClase());
+        pedir("/api/clases/" + clase.getIdClase(), etagClase, 200);
+    }
+
+    private String etag(String ruta) throws Exception {
+        return mockMvc.perform(get(ruta).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void pedir(String ruta, String ifNoneMatch, int estadoEsperado) {
+        try {
+            mockMvc.perform(get(ruta).header(HttpHeaders.AUTHORIZATION, token)
+                            .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().is(estadoEsperado));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
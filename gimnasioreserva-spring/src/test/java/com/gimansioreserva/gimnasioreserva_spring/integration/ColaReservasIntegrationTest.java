@@ -0,0 +1,185 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.exception.CupoAgotadoException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaDuplicadaException;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ColaReservas;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ColaReservasIntegrationTest {
+
+    private static final int USUARIOS = 8;
+    private static final int CUPO = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ColaReservas colaReservas;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private Clase clase;
+    private final List<Usuario> usuarios = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Entrenador entrenador = new Entrenador("Entrenador Cola", "Spinning");
+        entrenador.setActivo(true);
+        entrenadorRepository.save(entrenador);
+        clase = claseRepository.save(new Clase("Spinning premium", LocalDateTime.now().plusDays(1), CUPO, entrenador));
+        for (int i = 0; i < USUARIOS; i++) {
+            Usuario usuario = new Usuario("Socio " + i, "cola-" + UUID.randomUUID() + "@test.com", "hash", "USER");
+            usuario.setActivo(true);
+            usuarios.add(usuarioRepository.save(usuario));
+        }
+        colaReservas.activar(clase.getIdClase());
+    }
+
+    @AfterEach
+    void tearDown() {
+        colaReservas.desactivar(clase.getIdClase());
+    }
+
+    @Test
+    void encolar_masSolicitudesQueCupos_shouldAdjudicarEnOrdenDeLlegada() {
+        // Arrange: el primer socio lo intenta dos veces seguidas
+        List<CompletableFuture<ReservaDTO>> resultados = new ArrayList<>();
+        resultados.add(colaReservas.encolar(usuarios.get(0).getIdUsuario(), clase.getIdClase()));
+        resultados.add(colaReservas.encolar(usuarios.get(0).getIdUsuario(), clase.getIdClase()));
+        for (int i = 1; i < USUARIOS; i++) {
+            resultados.add(colaReservas.encolar(usuarios.get(i).getIdUsuario(), clase.getIdClase()));
+        }
+
+        // Act
+        List<Object> desenlaces = resultados.stream().map(ColaReservasIntegrationTest::esperar).toList();
+
+        // Assert: ganan los tres primeros socios distintos, el resto recibe cupo agotado
+        assertThat(desenlaces.get(0)).isInstanceOf(ReservaDTO.class);
+        assertThat(desenlaces.get(1)).isInstanceOf(ReservaDuplicadaException.class);
+        assertThat(desenlaces.get(2)).isInstanceOf(ReservaDTO.class);
+        assertThat(desenlaces.get(3)).isInstanceOf(ReservaDTO.class);
+        assertThat(desenlaces.subList(4, desenlaces.size())).allMatch(CupoAgotadoException.class::isInstance);
+        assertThat(claseRepository.contarReservasConfirmadas(clase.getIdClase())).isEqualTo(CUPO);
+    }
+
+    @Test
+    void encolarYReservaDirecta_aLaVez_shouldNoVenderMasCuposQueLaClase() throws Exception {
+        // Arrange: una reserva cancelada no ocupa plaza en ninguna de las dos vías
+        Usuario cancelado = new Usuario("Socio cancelado", "cola-" + UUID.randomUUID() + "@test.com", "hash", "USER");
+        cancelado.setActivo(true);
+        usuarioRepository.save(cancelado);
+        reservaRepository.save(new Reserva(cancelado, clase, LocalDateTime.now(), EstadoReserva.CANCELADA));
+
+        // Act: la mitad de los socios por la cola y la otra mitad por la reserva directa, como al desactivar
+        // la cola mientras aún se reparte
+        ExecutorService hilos = Executors.newFixedThreadPool(USUARIOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<CompletableFuture<ReservaDTO>> resultados = new ArrayList<>();
+        for (int i = 0; i < USUARIOS; i++) {
+            Long idUsuario = usuarios.get(i).getIdUsuario();
+            boolean porCola = i % 2 == 0;
+            resultados.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                return porCola ? colaReservas.encolar(idUsuario, clase.getIdClase())
+                        : CompletableFuture.completedFuture(reservaService.crearReserva(idUsuario, clase.getIdClase()));
+            }, hilos).thenCompose(futuro -> futuro));
+        }
+        salida.countDown();
+        List<Object> desenlaces = resultados.stream().map(ColaReservasIntegrationTest::esperar).toList();
+        hilos.shutdown();
+
+        // Assert
+        assertThat(desenlaces).filteredOn(ReservaDTO.class::isInstance).hasSize(CUPO);
+        assertThat(desenlaces).filteredOn(d -> !(d instanceof ReservaDTO)).allMatch(CupoAgotadoException.class::isInstance);
+        assertThat(claseRepository.contarReservasConfirmadas(clase.getIdClase())).isEqualTo(CUPO);
+    }
+
+    @Test
+    void crearReserva_claseEnCola_shouldResponderDeFormaDiferida() throws Exception {
+        // Arrange
+        Usuario usuario = usuarios.get(0);
+        String token = jwtTokenProvider.generarToken(usuario.getCorreo(), usuario.getRol());
+
+        // Act
+        MvcResult resultado = mockMvc.perform(post("/api/reservas")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idUsuario\":" + usuario.getIdUsuario() + ",\"idClase\":" + clase.getIdClase() + "}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.idClase").value(clase.getIdClase()));
+    }
+
+    private static Object esperar(CompletableFuture<ReservaDTO> futuro) {
+        try {
+            return futuro.orTimeout(10, TimeUnit.SECONDS).join();
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+    }
+}
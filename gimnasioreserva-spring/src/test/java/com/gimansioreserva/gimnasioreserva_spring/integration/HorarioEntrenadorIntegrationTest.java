@@ -0,0 +1,246 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.ClaseAdminDTO;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ClaseDTO;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ConflictoHorarioEntrenadorException;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminClaseService;
+import com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminEntrenadorService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceHorariosEntrenadores;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class HorarioEntrenadorIntegrationTest {
+
+    @Autowired
+    private AdminClaseService adminClaseService;
+
+    @Autowired
+    private IndiceHorariosEntrenadores indiceHorarios;
+
+    @Autowired
+    private EventoGymService eventoGymService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AdminEntrenadorService adminEntrenadorService;
+
+    @Autowired
+    private IndiceAgendaClases indiceAgendaClases;
+
+    @Autowired
+    private VersionesCatalogo versionesCatalogo;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    private Entrenador entrenador;
+    private LocalDateTime manana;
+
+    @BeforeEach
+    void setUp() {
+        Entrenador nuevo = new Entrenador("Entrenador Horario", "Boxeo");
+        nuevo.setActivo(true);
+        entrenador = entrenadorRepository.save(nuevo);
+        manana = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS).withHour(10);
+    }
+
+    @Test
+    void crear_solapaConOtraClaseDelEntrenador_shouldLanzarConflictoSinGuardar() {
+        // Arrange: 10:00-11:00
+        Long existente = adminClaseService.crear(clase(manana, 60)).orElseThrow().getIdClase();
+
+        // Act & Assert: 10:30-11:30 choca
+        assertThatThrownBy(() -> adminClaseService.crear(clase(manana.plusMinutes(30), 60)))
+                .isInstanceOf(ConflictoHorarioEntrenadorException.class)
+                .satisfies(e -> assertThat(((ConflictoHorarioEntrenadorException) e).getClasesEnConflicto())
+                        .containsExactly(existente));
+        assertThat(claseRepository.findByEntrenador_IdEntrenador(entrenador.getIdEntrenador())).hasSize(1);
+
+        // Contigua (11:00-12:00): no hay solape
+        assertThat(adminClaseService.crear(clase(manana.plusMinutes(60), 60))).isPresent();
+    }
+
+    @Test
+    void actualizar_moverSobreOtraClase_shouldRechazarseYConservarElHorarioAnterior() {
+        // Arrange: 10:00-11:00 y 12:00-13:00
+        Long primera = adminClaseService.crear(clase(manana, 60)).orElseThrow().getIdClase();
+        Long segunda = adminClaseService.crear(clase(manana.plusHours(2), 60)).orElseThrow().getIdClase();
+        ClaseAdminDTO movida = clase(manana.plusMinutes(30), 60);
+        movida.setActivo(true);
+
+        // Act
+        assertThatThrownBy(() -> adminClaseService.actualizar(segunda, movida))
+                .isInstanceOf(ConflictoHorarioEntrenadorException.class);
+
+        // Assert: tras el rollback el índice vuelve a tener la segunda a las 12:00
+        assertThat(claseRepository.findById(segunda).orElseThrow().getHorario()).isEqualTo(manana.plusHours(2));
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(3)))
+                .containsExactly(primera, segunda);
+    }
+
+    @Test
+    void desactivar_shouldLiberarElHueco() {
+        // Arrange
+        Long clase = adminClaseService.crear(clase(manana, 60)).orElseThrow().getIdClase();
+
+        // Act
+        adminClaseService.desactivar(clase);
+
+        // Assert
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(1))).isEmpty();
+        assertThat(adminClaseService.crear(clase(manana, 45))).isPresent();
+        assertThatThrownBy(() -> adminClaseService.activar(clase))
+                .isInstanceOf(ConflictoHorarioEntrenadorException.class);
+    }
+
+    @Test
+    void otroEntrenador_mismaHora_shouldPermitirse() {
+        // Arrange
+        adminClaseService.crear(clase(manana, 60));
+        Entrenador otro = entrenadorRepository.save(new Entrenador("Otro Entrenador", "Boxeo"));
+        ClaseAdminDTO mismaHora = clase(manana, 60);
+        mismaHora.setIdEntrenador(otro.getIdEntrenador());
+
+        // Act & Assert
+        assertThat(adminClaseService.crear(mismaHora)).isPresent();
+        assertThat(indiceHorarios.buscarSolapes(otro.getIdEntrenador(), manana, manana.plusHours(1))).hasSize(1);
+    }
+
+    @Test
+    void cambioHorarioDeOtroNodo_shouldActualizarElIndiceAlRecibirElEvento() {
+        // Arrange: otro nodo guardó la clase; aquí solo llega su evento
+        Clase deOtroNodo = claseRepository.save(new Clase("Boxeo", manana, 10, entrenador));
+
+        // Act
+        eventoGymService.emitirEvento(new EventoGym(String.valueOf(deOtroNodo.getIdClase()), TipoEvento.CAMBIO_HORARIO));
+
+        // Assert: el hueco ya está ocupado en este nodo
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(1)))
+                .containsExactly(deOtroNodo.getIdClase());
+        assertThatThrownBy(() -> adminClaseService.crear(clase(manana.plusMinutes(30), 60)))
+                .isInstanceOf(ConflictoHorarioEntrenadorException.class);
+    }
+
+    @Test
+    void cambioHorarioLoteDeOtroNodo_shouldActualizarAmbosIndicesConTodasLasClases() {
+        // Arrange: otro nodo creó una serie; aquí solo llega su evento
+        Clase primera = claseRepository.save(new Clase("Boxeo", manana, 10, entrenador));
+        Clase segunda = claseRepository.save(new Clase("Boxeo", manana.plusDays(7), 10, entrenador));
+
+        // Act
+        eventoGymService.emitirEvento(new EventoGym(primera.getIdClase() + "," + segunda.getIdClase(),
+                TipoEvento.CAMBIO_HORARIO_LOTE));
+
+        // Assert
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusDays(8)))
+                .containsExactly(primera.getIdClase(), segunda.getIdClase());
+        assertThat(indiceAgendaClases.buscarEntre(manana, manana.plusDays(7)).orElseThrow())
+                .extracting(ClaseDTO::getIdClase).contains(primera.getIdClase(), segunda.getIdClase());
+    }
+
+    @Test
+    void refrescarClase_conEscrituraLocalSinConfirmar_shouldNoPisarlaConElEstadoAnterior() {
+        // Arrange
+        Long clase = adminClaseService.crear(clase(manana, 60)).orElseThrow().getIdClase();
+
+        // Act: un evento viejo de la clase llega mientras su desactivación sigue sin confirmar
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            adminClaseService.desactivar(clase);
+            indiceHorarios.refrescarClase(clase);
+
+            // Assert: en la base de datos confirmada sigue activa, pero el índice no la recupera
+            assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(1)))
+                    .isEmpty();
+        });
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(1))).isEmpty();
+    }
+
+    @Test
+    void reconciliar_eventoDeOtroNodoPerdido_shouldCorregirElIndice() {
+        // Arrange: otro nodo guardó una clase y su evento no llegó; la local sí está en el índice
+        Long local = adminClaseService.crear(clase(manana, 60)).orElseThrow().getIdClase();
+        Clase deOtroNodo = claseRepository.save(new Clase("Boxeo", manana.plusHours(2), 10, entrenador));
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(3)))
+                .containsExactly(local);
+
+        // Act
+        int corregidas = indiceHorarios.reconciliar();
+
+        // Assert
+        assertThat(corregidas).isPositive();
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(3)))
+                .containsExactly(local, deOtroNodo.getIdClase());
+    }
+
+    @Test
+    void eliminarEntrenador_shouldQuitarSusClasesDeLosIndicesYCambiarElCatalogo() {
+        // Arrange
+        Long clase = adminClaseService.crear(clase(manana, 60)).orElseThrow().getIdClase();
+        assertThat(indiceAgendaClases.buscarEntre(manana, manana).orElseThrow())
+                .extracting(ClaseDTO::getIdClase).contains(clase);
+        String versionAntes = versionesCatalogo.etagListado(false);
+
+        // Act: las clases se borran en cascada con el entrenador
+        assertThat(adminEntrenadorService.eliminar(entrenador.getIdEntrenador())).isTrue();
+
+        // Assert
+        assertThat(claseRepository.findById(clase)).isEmpty();
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(1))).isEmpty();
+        assertThat(indiceAgendaClases.buscarEntre(manana, manana).orElseThrow())
+                .extracting(ClaseDTO::getIdClase).doesNotContain(clase);
+        assertThat(versionesCatalogo.etagListado(false)).isNotEqualTo(versionAntes);
+    }
+
+    @Test
+    void podarTerminadas_shouldQuitarLasClasesQueYaAcabaron() {
+        // Arrange: una clase que terminó hace una hora y otra de mañana
+        LocalDateTime haceTresHoras = LocalDateTime.now().minusHours(3);
+        Clase terminada = claseRepository.save(new Clase("Boxeo", haceTresHoras, 10, entrenador));
+        indiceHorarios.refrescarClase(terminada.getIdClase());
+        Long futura = adminClaseService.crear(clase(manana, 60)).orElseThrow().getIdClase();
+
+        // Act
+        indiceHorarios.podarTerminadas();
+
+        // Assert
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), haceTresHoras, haceTresHoras.plusHours(2)))
+                .isEmpty();
+        assertThat(indiceHorarios.buscarSolapes(entrenador.getIdEntrenador(), manana, manana.plusHours(1)))
+                .containsExactly(futura);
+    }
+
+    private ClaseAdminDTO clase(LocalDateTime horario, int duracion) {
+        ClaseAdminDTO dto = new ClaseAdminDTO();
+        dto.setNombre("Boxeo");
+        dto.setHorario(horario);
+        dto.setCupo(10);
+        dto.setDuracionMinutos(duracion);
+        dto.setIdEntrenador(entrenador.getIdEntrenador());
+        return dto;
+    }
+}
@@ -0,0 +1,51 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"gimnasio.limite-login.rafaga-correo=2", "gimnasio.limite-login.por-minuto-correo=1"})
+@AutoConfigureMockMvc
+class LimiteLoginIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void login_mismoCorreoTrasAgotarRafaga_shouldResponder429ConRetryAfter() throws Exception {
+        // Arrange
+        double antes = meterRegistry.get(MetricasGimnasio.LOGIN_RECHAZADOS).tag("clave", "correo").counter().count();
+
+        // Act & Assert: los dos primeros llegan al controlador (el cuerpo se relee) y fallan por credenciales
+        login("Atacado@Test.com").andExpect(status().isUnauthorized());
+        login("atacado@test.com").andExpect(status().isUnauthorized());
+        login("atacado@test.com")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+
+        // Otro correo desde la misma IP sigue pudiendo intentarlo
+        login("otro@test.com").andExpect(status().isUnauthorized());
+        assertThat(meterRegistry.get(MetricasGimnasio.LOGIN_RECHAZADOS).tag("clave", "correo").counter().count())
+                .isEqualTo(antes + 1);
+    }
+
+    private ResultActions login(String correo) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"correo\":\"" + correo + "\",\"contrasena\":\"incorrecta\"}"));
+    }
+}
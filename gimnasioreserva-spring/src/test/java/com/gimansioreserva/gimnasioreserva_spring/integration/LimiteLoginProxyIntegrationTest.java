@@ -0,0 +1,45 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Detrás del proxy todas las peticiones llegan desde su IP: el límite va por la de X-Forwarded-For
+@SpringBootTest(properties = {"server.forward-headers-strategy=framework",
+        "gimnasio.limite-login.rafaga-ip=2", "gimnasio.limite-login.por-minuto-ip=1"})
+@AutoConfigureMockMvc
+class LimiteLoginProxyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void login_dosClientesTrasElMismoProxy_shouldLimitarCadaIpPorSeparado() throws Exception {
+        // Act & Assert: el primer cliente agota su ráfaga
+        login("203.0.113.10", "uno@test.com").andExpect(status().isUnauthorized());
+        login("203.0.113.10", "dos@test.com").andExpect(status().isUnauthorized());
+        login("203.0.113.10", "tres@test.com").andExpect(status().isTooManyRequests());
+
+        // El segundo, con la misma IP remota (la del proxy), sigue pudiendo intentarlo
+        login("198.51.100.20", "cuatro@test.com").andExpect(status().isUnauthorized());
+        login("198.51.100.20", "cinco@test.com").andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions login(String ipCliente, String correo) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.1");
+                    return request;
+                })
+                .header("X-Forwarded-For", ipCliente)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"correo\":\"" + correo + "\",\"contrasena\":\"incorrecta\"}"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.ReporteDTO;
+import com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminReporteService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Enrutado de lectura/escritura con una sola base H2 a la que cada pool entra con su usuario:
+ * SA (primaria), LECTOR (réplica) e INFORMES (pool de informes). CURRENT_USER dice qué pool atendió.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrutado;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;"
+                + "INIT=CREATE USER IF NOT EXISTS LECTOR PASSWORD 'lector' ADMIN\\\\;"
+                + "CREATE USER IF NOT EXISTS INFORMES PASSWORD 'informes' ADMIN",
+        "gimnasio.datasource.lectura.url=jdbc:h2:mem:enrutado;MODE=MySQL",
+        "gimnasio.datasource.lectura.username=LECTOR",
+        "gimnasio.datasource.lectura.password=lector",
+        "gimnasio.datasource.reportes.url=jdbc:h2:mem:enrutado;MODE=MySQL",
+        "gimnasio.datasource.reportes.username=INFORMES",
+        "gimnasio.datasource.reportes.password=informes"
+})
+class OrigenDatosEnrutadoIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AdminReporteService adminReporteService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate escritura;
+    private TransactionTemplate lectura;
+
+    @BeforeEach
+    void setUp() {
+        escritura = new TransactionTemplate(transactionManager);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+    }
+
+    @Test
+    void transaccionDeEscritura_shouldUsarLaPrimaria() {
+        assertThat(usuarioEn(escritura)).isEqualToIgnoringCase("SA");
+    }
+
+    @Test
+    void transaccionDeSoloLectura_shouldUsarLaReplica() {
+        assertThat(usuarioEn(lectura)).isEqualToIgnoringCase("LECTOR");
+    }
+
+    @Test
+    void transaccionDeSoloLectura_abiertaPorServicioDeInformes_shouldUsarElPoolDeInformes() {
+        // Arrange: mismo nombre que da @Transactional a la transacción del servicio
+        lectura.setName(AdminReporteService.class.getName() + ".generarReporteGeneral");
+
+        // Act
+        String usuario = usuarioEn(lectura);
+
+        // Assert
+        assertThat(usuario).isEqualToIgnoringCase("INFORMES");
+    }
+
+    @Test
+    void generarReporteGeneral_shouldLeerDesdeElPoolDeInformes() {
+        // Act
+        ReporteDTO reporte = adminReporteService.generarReporteGeneral();
+
+        // Assert
+        assertThat(reporte.getTotalClases()).isNotNull();
+        assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "gimnasio-reportes").gauge().value())
+                .isPositive();
+    }
+
+    private String usuarioEn(TransactionTemplate transaccion) {
+        return transaccion.execute(estado -> jdbcTemplate.queryForObject("SELECT CURRENT_USER", String.class));
+    }
+}
@@ -0,0 +1,134 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RefreshTokenIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String correo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        correo = "refresh-" + UUID.randomUUID() + "@test.com";
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Refresh\",\"correo\":\"" + correo + "\",\"contrasena\":\"password123\",\"rol\":\"USER\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void refresh_tokenVigente_shouldRotarYAceptarElNuevo() throws Exception {
+        // Arrange
+        String inicial = dato(login(), "refreshToken");
+
+        // Act
+        String rotado = dato(refresh(inicial).andExpect(status().isOk()), "refreshToken");
+
+        // Assert
+        assertThat(rotado).isNotEqualTo(inicial);
+        refresh(rotado).andExpect(status().isOk());
+    }
+
+    @Test
+    void refresh_tokenYaRotado_shouldRevocarLaFamilia() throws Exception {
+        // Arrange
+        String inicial = dato(login(), "refreshToken");
+        String rotado = dato(refresh(inicial).andExpect(status().isOk()), "refreshToken");
+
+        // Act: se reutiliza el token anterior
+        refresh(inicial).andExpect(status().isUnauthorized());
+
+        // Assert: el último emitido tampoco sirve ya
+        refresh(rotado).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refresh_conAccessToken_shouldRechazarlo() throws Exception {
+        // Arrange
+        String accessToken = dato(login(), "accessToken");
+
+        // Act & Assert
+        refresh(accessToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refresh_trasLogout_shouldRechazarlo() throws Exception {
+        // Arrange
+        ResultActions login = login();
+        String accessToken = dato(login, "accessToken");
+        String refreshToken = dato(login, "refreshToken");
+
+        // Act
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        // Assert
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void peticion_conRefreshTokenComoBearer_shouldRechazarla() throws Exception {
+        // Arrange
+        ResultActions login = login();
+        String accessToken = dato(login, "accessToken");
+        String refreshToken = dato(login, "refreshToken");
+
+        // Act & Assert: el refresh token está bien firmado, pero no es de acceso
+        mockMvc.perform(get("/api/clases/activas").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/clases/activas").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void peticion_conAccessTokenDeFamiliaRevocada_shouldRechazarla() throws Exception {
+        // Arrange
+        ResultActions login = login();
+        String accessToken = dato(login, "accessToken");
+        String inicial = dato(login, "refreshToken");
+        refresh(inicial).andExpect(status().isOk());
+
+        // Act: reutilizar el refresh rotado revoca la familia
+        refresh(inicial).andExpect(status().isUnauthorized());
+
+        // Assert: el access token de esa sesión, aún sin expirar, tampoco sirve
+        mockMvc.perform(get("/api/clases/activas").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions login() throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"correo\":\"" + correo + "\",\"contrasena\":\"password123\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private static String dato(ResultActions respuesta, String campo) throws Exception {
+        return JsonPath.read(respuesta.andReturn().getResponse().getContentAsString(), "$.data." + campo);
+    }
+}
@@ -0,0 +1,63 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RehashContrasenaIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Test
+    void login_hashAntiguoSinPrefijo_shouldRehashearloConElEsquemaActual() throws Exception {
+        // Arrange: usuario guardado antes del esquema {id}hash
+        Usuario usuario = new Usuario("Antiguo", "antiguo@test.com",
+                new BCryptPasswordEncoder(4).encode("password123"), "USER");
+        usuario.setActivo(true);
+        usuarioRepository.save(usuario);
+
+        // Act
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"correo\":\"antiguo@test.com\",\"contrasena\":\"password123\"}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        String hash = usuarioRepository.findByCorreo("antiguo@test.com").orElseThrow().getContrasena();
+        assertThat(hash).startsWith("{bcrypt}");
+    }
+
+    @Test
+    void login_contrasenaIncorrecta_shouldNoTocarElHash() throws Exception {
+        // Arrange
+        String hashAntiguo = new BCryptPasswordEncoder(4).encode("password123");
+        Usuario usuario = new Usuario("Otro", "otro@test.com", hashAntiguo, "USER");
+        usuario.setActivo(true);
+        usuarioRepository.save(usuario);
+
+        // Act
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"correo\":\"otro@test.com\",\"contrasena\":\"incorrecta\"}"))
+                .andExpect(status().isUnauthorized());
+
+        // Assert
+        assertThat(usuarioRepository.findByCorreo("otro@test.com").orElseThrow().getContrasena()).isEqualTo(hashAntiguo);
+    }
+}
@@ -0,0 +1,130 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaSolapadaException;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ColaReservas;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import com.gimansioreserva.gimnasioreserva_spring.util.ContadorSentencias;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ReservaSolapadaIntegrationTest {
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ColaReservas colaReservas;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Usuario usuario;
+    private Clase yoga;
+    private Clase spinning;
+    private Clase pilates;
+
+    @BeforeEach
+    void setUp() {
+        Entrenador entrenadorA = entrenadorRepository.save(new Entrenador("Entrenador Yoga", "Yoga"));
+        Entrenador entrenadorB = entrenadorRepository.save(new Entrenador("Entrenador Spinning", "Spinning"));
+        LocalDateTime manana = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS).withHour(18);
+        // Yoga 18:00-19:00, spinning 18:30-19:15 y pilates 19:00-20:00
+        yoga = claseRepository.save(new Clase("Yoga", manana, 10, entrenadorA));
+        spinning = new Clase("Spinning", manana.plusMinutes(30), 10, entrenadorB);
+        spinning.setDuracionMinutos(45);
+        spinning = claseRepository.save(spinning);
+        pilates = claseRepository.save(new Clase("Pilates", manana.plusHours(1), 10, entrenadorB));
+
+        usuario = new Usuario("Socio Agenda", "agenda-" + UUID.randomUUID() + "@test.com", "hash", "USER");
+        usuario.setActivo(true);
+        usuario = usuarioRepository.save(usuario);
+    }
+
+    @Test
+    void crearReserva_claseSolapada_shouldRechazarlaSinConsultarDeNuevoLaAgenda() {
+        // Arrange
+        ContadorSentencias contador = new ContadorSentencias(entityManagerFactory);
+
+        // Act
+        contador.contar(() -> {
+            reservaService.crearReserva(usuario.getIdUsuario(), yoga.getIdClase());
+            assertThatThrownBy(() -> reservaService.crearReserva(usuario.getIdUsuario(), spinning.getIdClase()))
+                    .isInstanceOf(ReservaSolapadaException.class)
+                    .satisfies(e -> assertThat(((ReservaSolapadaException) e).getClasesEnConflicto())
+                            .containsExactly(yoga.getIdClase()));
+            reservaService.crearReserva(usuario.getIdUsuario(), pilates.getIdClase());
+        });
+
+        // Assert: la agenda del socio se leyó solo en la primera reserva
+        assertThat(ejecucionesConsultaAgenda(contador.getEstadisticas())).isEqualTo(1);
+        assertThat(claseRepository.contarReservasConfirmadas(spinning.getIdClase())).isZero();
+    }
+
+    @Test
+    void cancelarReserva_shouldLiberarElHueco() {
+        // Arrange
+        ReservaDTO reserva = reservaService.crearReserva(usuario.getIdUsuario(), yoga.getIdClase());
+
+        // Act
+        reservaService.cancelarReserva(reserva.getIdReserva(), usuario.getIdUsuario());
+
+        // Assert
+        assertThat(reservaService.crearReserva(usuario.getIdUsuario(), spinning.getIdClase()).getIdClase())
+                .isEqualTo(spinning.getIdClase());
+    }
+
+    @Test
+    void encolar_claseSolapada_shouldRechazarLaSolicitudEnLaCola() {
+        // Arrange
+        reservaService.crearReserva(usuario.getIdUsuario(), yoga.getIdClase());
+        colaReservas.activar(spinning.getIdClase());
+
+        // Act & Assert
+        try {
+            assertThatThrownBy(() -> colaReservas.encolar(usuario.getIdUsuario(), spinning.getIdClase())
+                    .orTimeout(10, TimeUnit.SECONDS).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(ReservaSolapadaException.class);
+        } finally {
+            colaReservas.desactivar(spinning.getIdClase());
+        }
+    }
+
+    private static long ejecucionesConsultaAgenda(Statistics estadisticas) {
+        return Arrays.stream(estadisticas.getQueries())
+                .filter(consulta -> consulta.contains("c.horario >= :desde"))
+                .mapToLong(consulta -> estadisticas.getQueryStatistics(consulta).getExecutionCount())
+                .sum();
+    }
+}
@@ -0,0 +1,209 @@
+package com.gimansioreserva.gimnasioreserva_spring.integration;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.ClaseAdminDTO;
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.SerieClasesDTO;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EntrenadorRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
+import com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminClaseService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import com.gimansioreserva.gimnasioreserva_spring.util.ContadorSentencias;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.Disposable;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SerieClasesIntegrationTest {
+
+    private static final LocalTime HORA = LocalTime.of(18, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdminClaseService adminClaseService;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EventoGymService eventoGymService;
+
+    private Entrenador entrenador;
+    private LocalDate primerLunes;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        Entrenador nuevo = new Entrenador("Entrenador Serie", "Pilates");
+        nuevo.setActivo(true);
+        entrenador = entrenadorRepository.save(nuevo);
+        primerLunes = LocalDate.now().plusDays(7).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+        Usuario admin = new Usuario("Admin Serie", "serie-" + UUID.randomUUID() + "@test.com", "hash", "ADMIN");
+        admin.setActivo(true);
+        admin = usuarioRepository.save(admin);
+        token = "Bearer " + jwtTokenProvider.generarToken(admin.getCorreo(), admin.getRol());
+    }
+
+    @Test
+    void crearSerie_cuatroSemanasLunesYMiercoles_shouldCrearOchoClasesEnLote() {
+        // Arrange
+        SerieClasesDTO serie = serie(primerLunes, primerLunes.plusDays(27), 1);
+        ContadorSentencias contador = new ContadorSentencias(entityManagerFactory);
+        List<ClaseAdminDTO> creadas = new ArrayList<>();
+
+        // Act
+        long sentencias = contador.contar(() -> creadas.addAll(adminClaseService.crearSerie(serie)));
+
+        // Assert: bloque de ids, inserción en lote y recarga del índice; los solapes no van a la base de datos
+        assertThat(creadas).hasSize(8);
+        assertThat(creadas).extracting(ClaseAdminDTO::getHorario)
+                .isSorted()
+                .allMatch(h -> h.toLocalTime().equals(HORA))
+                .allMatch(h -> h.getDayOfWeek() == DayOfWeek.MONDAY || h.getDayOfWeek() == DayOfWeek.WEDNESDAY);
+        assertThat(sentencias).isLessThanOrEqualTo(6);
+        assertThat(clasesDelEntrenador()).hasSize(8);
+    }
+
+    @Test
+    void crearSerie_shouldPublicarUnSoloEventoConTodasSusClases() throws InterruptedException {
+        // Arrange
+        List<EventoGym> recibidos = new CopyOnWriteArrayList<>();
+        Disposable suscripcion = eventoGymService.flujoEventos().subscribe(recibidos::add);
+        try {
+            // Act
+            List<Long> ids = adminClaseService.crearSerie(serie(primerLunes, primerLunes.plusDays(27), 1)).stream()
+                    .map(ClaseAdminDTO::getIdClase).toList();
+
+            // Assert: un CAMBIO_HORARIO_LOTE con las ocho clases y ningún evento por clase
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (eventosDeLaSerie(recibidos, ids).isEmpty() && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            assertThat(eventosDeLaSerie(recibidos, ids)).singleElement()
+                    .satisfies(evento -> {
+                        assertThat(evento.getTipo()).isEqualTo(TipoEvento.CAMBIO_HORARIO_LOTE);
+                        assertThat(evento.idsClases()).containsExactlyElementsOf(ids);
+                    });
+        } finally {
+            suscripcion.dispose();
+        }
+    }
+
+    @Test
+    void crearSerie_cadaDosSemanas_shouldSaltarLasSemanasIntermedias() {
+        // Act
+        List<ClaseAdminDTO> creadas = adminClaseService.crearSerie(serie(primerLunes, primerLunes.plusDays(27), 2));
+
+        // Assert: semanas primera y tercera
+        assertThat(creadas).extracting(c -> c.getHorario().toLocalDate())
+                .containsExactly(primerLunes, primerLunes.plusDays(2), primerLunes.plusDays(14), primerLunes.plusDays(16));
+    }
+
+    @Test
+    void crearSerie_solapaConClaseDelEntrenador_shouldResponder409SinCrearNinguna() throws Exception {
+        // Arrange: clase existente el segundo miércoles, empezando media hora antes
+        ClaseAdminDTO previa = new ClaseAdminDTO();
+        previa.setNombre("Clase previa");
+        previa.setHorario(LocalDateTime.of(primerLunes.plusDays(9), HORA.minusMinutes(30)));
+        previa.setCupo(10);
+        previa.setDuracionMinutos(60);
+        previa.setIdEntrenador(entrenador.getIdEntrenador());
+        ClaseAdminDTO existente = adminClaseService.crear(previa).orElseThrow();
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/clases/serie")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(primerLunes, primerLunes.plusDays(27), 1)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errors.clasesEnConflicto[0]").value(existente.getIdClase()));
+        assertThat(clasesDelEntrenador()).hasSize(1);
+    }
+
+    @Test
+    void crearSerie_reglaInvalida_shouldResponder400() throws Exception {
+        // Act & Assert: hasta anterior a desde
+        mockMvc.perform(post("/api/admin/clases/serie")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(primerLunes, primerLunes.minusDays(1), 1)))
+                .andExpect(status().isBadRequest());
+        assertThat(clasesDelEntrenador()).isEmpty();
+    }
+
+    private SerieClasesDTO serie(LocalDate desde, LocalDate hasta, int intervalo) {
+        SerieClasesDTO serie = new SerieClasesDTO();
+        serie.setNombre("Pilates serie");
+        serie.setCupo(12);
+        serie.setDuracionMinutos(60);
+        serie.setIdEntrenador(entrenador.getIdEntrenador());
+        serie.setDiasSemana(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        serie.setHora(HORA);
+        serie.setDesde(desde);
+        serie.setHasta(hasta);
+        serie.setIntervaloSemanas(intervalo);
+        return serie;
+    }
+
+    private String json(LocalDate desde, LocalDate hasta, int intervalo) {
+        return "{\"nombre\":\"Pilates serie\",\"cupo\":12,\"duracionMinutos\":60,\"idEntrenador\":" + entrenador.getIdEntrenador()
+                + ",\"diasSemana\":[\"MONDAY\",\"WEDNESDAY\"],\"hora\":\"" + HORA + "\",\"desde\":\"" + desde
+                + "\",\"hasta\":\"" + hasta + "\",\"intervaloSemanas\":" + intervalo + "}";
+    }
+
+    private static List<EventoGym> eventosDeLaSerie(List<EventoGym> recibidos, List<Long> ids) {
+        return recibidos.stream()
+                .filter(evento -> evento.getClaseId() != null && evento.getClaseId().matches("[0-9,]+"))
+                .filter(evento -> evento.idsClases().stream().anyMatch(ids::contains))
+                .toList();
+    }
+
+    private List<Clase> clasesDelEntrenador() {
+        return claseRepository.findByEntrenador_IdEntrenador(entrenador.getIdEntrenador());
+    }
+}
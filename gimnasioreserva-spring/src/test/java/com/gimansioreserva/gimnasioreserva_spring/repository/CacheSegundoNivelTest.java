@@ -0,0 +1,101 @@
+package com.gimansioreserva.gimnasioreserva_spring.repository;
+
+import com.gimansioreserva.gimnasioreserva_spring.config.general.CacheHibernateConfig;
+import com.gimansioreserva.gimnasioreserva_spring.config.general.CacheHibernateProperties;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.util.ContadorSentencias;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caché de segundo nivel: repetir lecturas de Clase/Entrenador y de las clases activas
+ * en transacciones distintas no debe llegar a la base de datos.
+ */
+@DataJpaTest
+@Import({CacheHibernateConfig.class, MetricasGimnasio.class, SimpleMeterRegistry.class})
+@EnableConfigurationProperties(CacheHibernateProperties.class)
+// Sin la transacción del test: cada lectura va en la suya, como en una petición real
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSegundoNivelTest {
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaccion;
+    private ContadorSentencias contador;
+    private Long idClase;
+
+    @BeforeEach
+    void setUp() {
+        transaccion = new TransactionTemplate(transactionManager);
+        contador = new ContadorSentencias(entityManagerFactory);
+
+        Entrenador entrenador = entrenadorRepository.save(new Entrenador("Entrenador Caché", "Pilates"));
+        idClase = claseRepository.save(new Clase("Pilates caché", LocalDateTime.now().plusDays(1), 12, entrenador))
+                .getIdClase();
+    }
+
+    @Test
+    void findById_lecturaRepetida_shouldNoEjecutarSql() {
+        // Arrange: primera lectura, que puede ir a la base de datos
+        leerClaseConEntrenador();
+
+        // Act
+        long sentencias = contador.contar(this::leerClaseConEntrenador);
+
+        // Assert
+        assertThat(sentencias).isZero();
+        assertThat(contador.getEstadisticas().getDomainDataRegionStatistics("clases").getHitCount()).isPositive();
+        assertThat(contador.getEstadisticas().getDomainDataRegionStatistics("entrenadores").getHitCount()).isPositive();
+    }
+
+    @Test
+    void findByActivo_repetida_shouldResolverseDesdeLaCacheHastaQueCambieUnaClase() {
+        // Arrange
+        transaccion.executeWithoutResult(estado -> claseRepository.findByActivo(true));
+
+        // Act
+        long repetida = contador.contar(() ->
+                transaccion.executeWithoutResult(estado -> claseRepository.findByActivo(true)));
+        transaccion.executeWithoutResult(estado -> claseRepository.findById(idClase).orElseThrow().setCupo(15));
+        long trasCambio = contador.contar(() -> transaccion.execute(estado -> claseRepository.findByActivo(true)));
+
+        // Assert: la escritura en clases invalida la consulta cacheada
+        assertThat(repetida).isZero();
+        assertThat(trasCambio).isPositive();
+        Clase actualizada = transaccion.execute(estado -> claseRepository.findById(idClase).orElseThrow());
+        assertThat(actualizada.getCupo()).isEqualTo(15);
+    }
+
+    private void leerClaseConEntrenador() {
+        transaccion.executeWithoutResult(estado -> {
+            Clase clase = claseRepository.findById(idClase).orElseThrow();
+            assertThat(clase.getEntrenador().getNombre()).isEqualTo("Entrenador Caché");
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.gimansioreserva.gimnasioreserva_spring.repository;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.GeneradorIdPorBloques;
+import com.gimansioreserva.gimnasioreserva_spring.util.ContadorSentencias;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ids por bloques desde secuencias_id: consecutivos dentro del bloque, la fila avanza un bloque
+ * por acceso y las inserciones salen en lotes JDBC.
+ */
+@DataJpaTest
+class GeneracionIdsTest {
+
+    private static final int CLASES = 120;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void saveAll_muchasClases_shouldAsignarIdsPorBloquesEInsertarEnLotes() {
+        // Arrange
+        Entrenador entrenador = entityManager.persistAndFlush(new Entrenador("Entrenador Lotes", "Funcional"));
+        List<Clase> clases = new ArrayList<>();
+        for (int i = 0; i < CLASES; i++) {
+            clases.add(new Clase("Clase " + i, LocalDateTime.now().plusDays(1), 10, entrenador));
+        }
+        ContadorSentencias contador = new ContadorSentencias(entityManagerFactory);
+        long ultimoAntes = ultimoReservado("clases");
+
+        // Act
+        long sentencias = contador.contar(() -> {
+            claseRepository.saveAll(clases);
+            entityManager.flush();
+        });
+
+        // Assert: ids consecutivos (otros tests del contexto pueden haber empezado el bloque en curso)
+        long primero = clases.get(0).getIdClase();
+        for (int i = 0; i < CLASES; i++) {
+            assertThat(clases.get(i).getIdClase()).isEqualTo(primero + i);
+        }
+        // La fila avanza bloques enteros y apunta al final del bloque que contiene el último id
+        int bloque = GeneradorIdPorBloques.TAMANO_BLOQUE_POR_DEFECTO;
+        long ultimoId = primero + CLASES - 1;
+        long ultimoDespues = ultimoReservado("clases");
+        assertThat((ultimoDespues - ultimoAntes) % bloque).isZero();
+        assertThat(ultimoDespues - ultimoId).isBetween(0L, bloque - 1L);
+        // Un único INSERT preparado para todas las filas, enviado en lotes
+        assertThat(sentencias).isEqualTo(1);
+    }
+
+    private long ultimoReservado(String secuencia) {
+        return jdbcTemplate.queryForObject("SELECT ultimo FROM secuencias_id WHERE nombre = ?", Long.class, secuencia);
+    }
+}
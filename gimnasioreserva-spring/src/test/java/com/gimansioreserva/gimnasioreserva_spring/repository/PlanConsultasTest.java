@@ -0,0 +1,163 @@
+package com.gimansioreserva.gimnasioreserva_spring.repository;
+
+import com.gimansioreserva.gimnasioreserva_spring.util.CapturaConsultasJdbc;
+import com.gimansioreserva.gimnasioreserva_spring.util.CapturaConsultasJdbc.ConsultaCapturada;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ejecuta cada consulta declarada en los repositorios, captura el SQL real que genera
+ * Hibernate y lo pasa por EXPLAIN (H2). Falla si alguna hace un recorrido completo
+ * de tabla que no esté justificado abajo.
+ */
+@DataJpaTest
+class PlanConsultasTest {
+
+    private static final Pattern RECORRIDO_COMPLETO = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    // Recorridos completos aceptados: búsquedas LIKE '%texto%' y listados/reportes sobre toda la tabla
+    private static final Map<String, String> RECORRIDOS_PERMITIDOS = Map.of(
+            "ClaseRepository.buscarPorNombre", "LIKE con comodín inicial",
+            "EntrenadorRepository.buscarPorNombre", "LIKE con comodín inicial",
+            "UsuarioRepository.buscarPorNombre", "LIKE con comodín inicial",
+            "ReservaRepository.findAll", "listado completo (admin)",
+            "ReservaRepository.obtenerEstadisticasPorClase", "reporte agregado sobre todas las reservas"
+    );
+
+    private static final CapturaConsultasJdbc CAPTURA = new CapturaConsultasJdbc();
+
+    @TestConfiguration
+    static class CapturaConfig {
+        @Bean
+        static BeanPostProcessor envolverDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? CAPTURA.envolver(ds) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ClaseRepository claseRepository;
+
+    @Autowired
+    private EntrenadorRepository entrenadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Test
+    void consultasDeRepositorios_noDebenRecorrerTablasCompletas() throws Exception {
+        Map<Class<?>, Object> repositorios = Map.of(
+                ReservaRepository.class, reservaRepository,
+                ClaseRepository.class, claseRepository,
+                EntrenadorRepository.class, entrenadorRepository,
+                UsuarioRepository.class, usuarioRepository);
+
+        List<String> problemas = new ArrayList<>();
+        int analizadas = 0;
+
+        for (Map.Entry<Class<?>, Object> repositorio : repositorios.entrySet()) {
+            List<Method> metodos = Arrays.stream(repositorio.getKey().getDeclaredMethods())
+                    .filter(m -> !Modifier.isStatic(m.getModifiers()) && !m.isBridge() && !m.isSynthetic())
+                    .sorted(Comparator.comparing(Method::getName))
+                    .toList();
+
+            for (Method metodo : metodos) {
+                String nombre = repositorio.getKey().getSimpleName() + "." + metodo.getName();
+
+                // Act: ejecutar la consulta con argumentos de ejemplo y capturar el SQL
+                CAPTURA.iniciar();
+                metodo.invoke(repositorio.getValue(), argumentosDeEjemplo(metodo));
+                List<ConsultaCapturada> consultas = CAPTURA.detener();
+                assertThat(consultas).as("SQL capturado para %s", nombre).isNotEmpty();
+
+                for (ConsultaCapturada consulta : consultas) {
+                    analizadas++;
+                    String plan = explicar(consulta);
+                    Set<String> tablas = recorridosCompletos(plan);
+                    if (!tablas.isEmpty() && !RECORRIDOS_PERMITIDOS.containsKey(nombre)) {
+                        problemas.add(nombre + " recorre " + tablas + "\n" + plan);
+                    }
+                }
+            }
+        }
+
+        // Assert
+        assertThat(analizadas).isGreaterThan(0);
+        assertThat(problemas).as("Consultas con recorrido completo de tabla").isEmpty();
+    }
+
+    private String explicar(ConsultaCapturada consulta) throws Exception {
+        try (Connection conexion = dataSource.getConnection()) {
+            return consulta.ejecutarConPrefijo(conexion, "EXPLAIN ");
+        }
+    }
+
+    private static Set<String> recorridosCompletos(String plan) {
+        Set<String> tablas = new LinkedHashSet<>();
+        Matcher matcher = RECORRIDO_COMPLETO.matcher(plan);
+        while (matcher.find()) {
+            tablas.add(matcher.group(1));
+        }
+        return tablas;
+    }
+
+    private static Object[] argumentosDeEjemplo(Method metodo) {
+        Type[] tipos = metodo.getGenericParameterTypes();
+        Object[] argumentos = new Object[tipos.length];
+        for (int i = 0; i < tipos.length; i++) {
+            argumentos[i] = ejemplo(tipos[i]);
+        }
+        return argumentos;
+    }
+
+    private static Object ejemplo(Type tipo) {
+        if (tipo instanceof ParameterizedType parametrizado
+                && Collection.class.isAssignableFrom((Class<?>) parametrizado.getRawType())) {
+            return List.of(ejemplo(parametrizado.getActualTypeArguments()[0]));
+        }
+        Class<?> clase = (Class<?>) tipo;
+        if (clase == Long.class || clase == long.class) return 1L;
+        if (clase == Integer.class || clase == int.class) return 1;
+        if (clase == Boolean.class || clase == boolean.class) return true;
+        if (clase == String.class) return "CONFIRMADA";
+        if (clase == LocalDateTime.class) return LocalDateTime.now();
+        if (clase == Limit.class) return Limit.of(10);
+        if (clase.isEnum()) return clase.getEnumConstants()[0];
+        throw new IllegalArgumentException("Sin valor de ejemplo para " + tipo);
+    }
+}
@@ -0,0 +1,188 @@
+package com.gimansioreserva.gimnasioreserva_spring.repository;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventos;
+import com.gimansioreserva.gimnasioreserva_spring.mapper.ReservaMapper;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.AgendaReservasProperties;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.AgendaReservasSocios;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.BandejaEventos;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.VersionesCatalogo;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ReservaService;
+import com.gimansioreserva.gimnasioreserva_spring.util.ContadorSentencias;
+import com.gimansioreserva.gimnasioreserva_spring.validator.ReservaValidator;
+import jakarta.persistence.EntityManagerFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Presupuesto de sentencias SQL para las lecturas de reservas.
+ * Falla si algún camino de lectura vuelve a disparar cargas LAZY por cada reserva (N+1).
+ */
+@DataJpaTest
+@Import({ReservaService.class, ReservaMapper.class, ReservaValidator.class, EventoGymService.class,
+        VersionesCatalogo.class, MetricasGimnasio.class, SimpleMeterRegistry.class,
+        AgendaReservasSocios.class, AgendaReservasProperties.class})
+class ReservaLecturaPresupuestoTest {
+
+    private static final int RESERVAS_POR_USUARIO = 6;
+
+    @MockitoBean
+    private TransporteEventos transporteEventos;
+
+    // Solo lecturas: la bandeja de eventos y el índice de agenda no intervienen
+    @MockitoBean
+    private BandejaEventos bandejaEventos;
+
+    @MockitoBean
+    private IndiceAgendaClases indiceAgendaClases;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ReservaMapper reservaMapper;
+
+    private ContadorSentencias contador;
+    private Usuario usuario;
+    private Long idReserva;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorSentencias(entityManagerFactory);
+
+        usuario = new Usuario("Usuario Presupuesto", "presupuesto@test.com", "hash", "USER");
+        usuario.setActivo(true);
+        entityManager.persist(usuario);
+
+        // Cada clase con su propio entrenador para que un N+1 sea visible
+        for (int i = 0; i < RESERVAS_POR_USUARIO; i++) {
+            Entrenador entrenador = new Entrenador();
+            entrenador.setNombre("Entrenador " + i);
+            entrenador.setEspecialidad("Especialidad " + i);
+            entrenador.setActivo(true);
+            entityManager.persist(entrenador);
+
+            Clase clase = new Clase();
+            clase.setNombre("Clase " + i);
+            clase.setHorario(LocalDateTime.now().plusDays(i + 1));
+            clase.setCupo(20);
+            clase.setActivo(true);
+            clase.setEntrenador(entrenador);
+            entityManager.persist(clase);
+
+            EstadoReserva estado = EstadoReserva.values()[i % 3];
+            Reserva reserva = new Reserva(usuario, clase, LocalDateTime.now().minusHours(i), estado);
+            entityManager.persist(reserva);
+            idReserva = reserva.getIdReserva();
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void lecturasDeReservas_noDebenSuperarSuPresupuestoDeSentencias() {
+        Long idUsuario = usuario.getIdUsuario();
+
+        // Arrange: cada lectura con su presupuesto máximo de sentencias
+        Map<String, Presupuesto> lecturas = new LinkedHashMap<>();
+        lecturas.put("obtenerReservasPorUsuario",
+                new Presupuesto(1, () -> reservaService.obtenerReservasPorUsuario(idUsuario)));
+        lecturas.put("obtenerReservasConfirmadasPorUsuario",
+                new Presupuesto(1, () -> reservaService.obtenerReservasConfirmadasPorUsuario(idUsuario)));
+        lecturas.put("obtenerHistorialPorUsuario",
+                new Presupuesto(1, () -> reservaService.obtenerHistorialPorUsuario(idUsuario)));
+        lecturas.put("obtenerPorId",
+                new Presupuesto(1, () -> reservaService.obtenerPorId(idReserva)));
+        lecturas.put("findAll + toDTO (admin)",
+                new Presupuesto(1, () -> reservaRepository.findAll().stream().map(reservaMapper::toDTO).toList()));
+        lecturas.put("findByEstado + toDTO (admin)",
+                new Presupuesto(1, () -> reservaRepository.findByEstado(EstadoReserva.CONFIRMADA).stream().map(reservaMapper::toDTO).toList()));
+
+        lecturas.forEach((nombre, presupuesto) -> {
+            entityManager.clear();
+            AtomicReference<Object> resultado = new AtomicReference<>();
+
+            // Act
+            long sentencias = contador.contar(() -> resultado.set(presupuesto.lectura().get()));
+
+            // Assert
+            assertThat(resultado.get()).as(nombre).isNotNull();
+            assertThat(sentencias)
+                    .as("Sentencias SQL de %s", nombre)
+                    .isLessThanOrEqualTo(presupuesto.maximo());
+        });
+    }
+
+    @Test
+    void proyeccionPorUsuario_shouldIncluirDatosDeClaseYEntrenador() {
+        // Act
+        List<ReservaDTO> reservas = reservaService.obtenerReservasPorUsuario(usuario.getIdUsuario());
+
+        // Assert
+        assertThat(reservas).hasSize(RESERVAS_POR_USUARIO);
+        assertThat(reservas).allSatisfy(dto -> {
+            assertThat(dto.getCorreoUsuario()).isEqualTo("presupuesto@test.com");
+            assertThat(dto.getNombreClase()).startsWith("Clase ");
+            assertThat(dto.getNombreEntrenador()).startsWith("Entrenador ");
+        });
+    }
+
+    @Test
+    void obtenerReservasPorUsuario_sinPaginar_shouldDevolverTodasAunqueSuperenElLimitePorDefecto() {
+        // Arrange
+        Clase clase = entityManager.find(Clase.class, reservaRepository.findById(idReserva).orElseThrow().getClase().getIdClase());
+        for (int i = 0; i < ReservaService.LIMITE_POR_DEFECTO; i++) {
+            entityManager.persist(new Reserva(usuario, clase, LocalDateTime.now().minusDays(i + 1), EstadoReserva.CANCELADA));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        int total = RESERVAS_POR_USUARIO + ReservaService.LIMITE_POR_DEFECTO;
+
+        // Act
+        List<ReservaDTO> todas = reservaService.obtenerReservasPorUsuario(usuario.getIdUsuario());
+        List<ReservaDTO> primeraPagina = reservaService.obtenerReservasPorUsuario(
+                usuario.getIdUsuario(), null, null, ReservaService.LIMITE_POR_DEFECTO);
+
+        // Assert
+        assertThat(todas).hasSize(total);
+        assertThat(primeraPagina).hasSize(ReservaService.LIMITE_POR_DEFECTO);
+        assertThat(reservaService.obtenerHistorialPorUsuario(usuario.getIdUsuario()))
+                .hasSizeGreaterThan(ReservaService.LIMITE_POR_DEFECTO);
+    }
+
+    private record Presupuesto(long maximo, Supplier<Object> lectura) {
+    }
+}
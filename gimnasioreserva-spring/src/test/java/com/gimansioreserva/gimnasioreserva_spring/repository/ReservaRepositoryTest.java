@@ -0,0 +1,127 @@
+package com.gimansioreserva.gimnasioreserva_spring.repository;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ReservaRepositoryTest {
+
+    private static final LocalDateTime SIN_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final List<EstadoReserva> HISTORIAL = List.of(EstadoReserva.CANCELADA, EstadoReserva.COMPLETADA);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private Usuario usuario;
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 10, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        usuario = new Usuario("Socio", "socio@test.com", "hash", "USER");
+        usuario.setActivo(true);
+        entityManager.persist(usuario);
+
+        Usuario otro = new Usuario("Otro", "otro@test.com", "hash", "USER");
+        otro.setActivo(true);
+        entityManager.persist(otro);
+
+        Entrenador entrenador = new Entrenador();
+        entrenador.setNombre("Entrenador");
+        entrenador.setEspecialidad("Yoga");
+        entrenador.setActivo(true);
+        entityManager.persist(entrenador);
+
+        Clase clase = new Clase();
+        clase.setNombre("Yoga");
+        clase.setHorario(base.plusDays(30));
+        clase.setCupo(50);
+        clase.setActivo(true);
+        clase.setEntrenador(entrenador);
+        entityManager.persist(clase);
+
+        // 6 reservas del socio: alternando estados, una por día
+        EstadoReserva[] estados = {EstadoReserva.CONFIRMADA, EstadoReserva.CANCELADA, EstadoReserva.COMPLETADA,
+                EstadoReserva.CANCELADA, EstadoReserva.COMPLETADA, EstadoReserva.CONFIRMADA};
+        for (int i = 0; i < estados.length; i++) {
+            entityManager.persist(new Reserva(usuario, clase, base.plusDays(i), estados[i]));
+        }
+        // Dos reservas con la misma fecha para probar el desempate por ID
+        entityManager.persist(new Reserva(usuario, clase, base.plusDays(2), EstadoReserva.CANCELADA));
+        entityManager.persist(new Reserva(otro, clase, base.plusDays(3), EstadoReserva.CANCELADA));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void proyectarPaginaPorUsuarioYEstados_shouldFiltrarYOrdenarPorFechaDesc() {
+        // Act
+        List<ReservaDTO> historial = reservaRepository.proyectarPaginaPorUsuarioYEstados(
+                usuario.getIdUsuario(), HISTORIAL, SIN_CURSOR, Long.MAX_VALUE, Limit.of(10));
+
+        // Assert
+        assertThat(historial).hasSize(5);
+        assertThat(historial).extracting(ReservaDTO::getEstado).allMatch(e -> HISTORIAL.contains(EstadoReserva.valueOf(e)));
+        assertThat(historial).extracting(ReservaDTO::getIdUsuario).containsOnly(usuario.getIdUsuario());
+        assertThat(historial).isSortedAccordingTo((a, b) -> {
+            int porFecha = b.getFechaReserva().compareTo(a.getFechaReserva());
+            return porFecha != 0 ? porFecha : b.getIdReserva().compareTo(a.getIdReserva());
+        });
+    }
+
+    @Test
+    void proyectarPaginaPorUsuarioYEstados_conCursor_shouldRecorrerSinRepetirNiSaltar() {
+        // Arrange
+        List<ReservaDTO> completo = reservaRepository.proyectarPaginaPorUsuarioYEstados(
+                usuario.getIdUsuario(), HISTORIAL, SIN_CURSOR, Long.MAX_VALUE, Limit.of(100));
+
+        // Act: recorrer de 2 en 2
+        List<ReservaDTO> recorrido = new ArrayList<>();
+        LocalDateTime fecha = SIN_CURSOR;
+        Long id = Long.MAX_VALUE;
+        List<ReservaDTO> pagina;
+        do {
+            pagina = reservaRepository.proyectarPaginaPorUsuarioYEstados(
+                    usuario.getIdUsuario(), HISTORIAL, fecha, id, Limit.of(2));
+            recorrido.addAll(pagina);
+            if (!pagina.isEmpty()) {
+                ReservaDTO ultima = pagina.get(pagina.size() - 1);
+                fecha = ultima.getFechaReserva();
+                id = ultima.getIdReserva();
+            }
+        } while (pagina.size() == 2);
+
+        // Assert
+        assertThat(recorrido).extracting(ReservaDTO::getIdReserva)
+                .containsExactlyElementsOf(completo.stream().map(ReservaDTO::getIdReserva).toList());
+    }
+
+    @Test
+    void proyectarPaginaPorUsuario_shouldRespetarLimite() {
+        // Act
+        List<ReservaDTO> reservas = reservaRepository.proyectarPaginaPorUsuario(
+                usuario.getIdUsuario(), SIN_CURSOR, Long.MAX_VALUE, Limit.of(3));
+
+        // Assert
+        assertThat(reservas).hasSize(3);
+        assertThat(reservas.get(0).getFechaReserva()).isEqualTo(base.plusDays(5));
+    }
+}
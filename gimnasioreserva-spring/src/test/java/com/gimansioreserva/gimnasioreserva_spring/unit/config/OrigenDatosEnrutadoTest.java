@@ -0,0 +1,125 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.config;
+
+import com.gimansioreserva.gimnasioreserva_spring.config.general.OrigenDatosEnrutado;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrigenDatosEnrutadoTest {
+
+    private static final String SERVICIO_INFORMES = "com.ejemplo.ServicioInformes";
+    private static final String SERVICIO_CON_ETAG = "com.ejemplo.ServicioCatalogo";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DataSource primario = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final DataSource reportes = mock(DataSource.class);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primario.getConnection()).thenReturn(mock(Connection.class));
+        when(reportes.getConnection()).thenReturn(mock(Connection.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionName(null);
+    }
+
+    @Test
+    void replicaCaida_shouldLeerEnLaPrimariaSinReintentarDuranteLaVentana() throws SQLException {
+        // Arrange
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("réplica caída"));
+        OrigenDatosEnrutado enrutado = crear(60_000);
+
+        // Act
+        leer(enrutado);
+        leer(enrutado);
+
+        // Assert: un único intento con la réplica; las dos lecturas salen de la primaria
+        verify(replica, times(1)).getConnection();
+        verify(primario, times(2)).getConnection();
+        assertEquals(2, registry.get(MetricasGimnasio.DATASOURCE_RESPALDO).tag("destino", "lectura").counter().count());
+    }
+
+    @Test
+    void replicaCaida_sinVentana_shouldReintentarEnCadaLectura() throws SQLException {
+        // Arrange
+        when(replica.getConnection())
+                .thenThrow(new SQLTransientConnectionException("réplica caída"))
+                .thenReturn(mock(Connection.class));
+        OrigenDatosEnrutado enrutado = crear(0);
+
+        // Act
+        leer(enrutado);
+        leer(enrutado);
+
+        // Assert: la segunda lectura ya vuelve a la réplica
+        verify(replica, times(2)).getConnection();
+        verify(primario, times(1)).getConnection();
+    }
+
+    @Test
+    void lecturaDeServicioDeInformes_shouldUsarElPoolDeInformesYNoLaReplica() throws SQLException {
+        // Arrange
+        OrigenDatosEnrutado enrutado = crear(60_000);
+        TransactionSynchronizationManager.setCurrentTransactionName(SERVICIO_INFORMES + ".generar");
+
+        // Act
+        leer(enrutado);
+
+        // Assert
+        verify(reportes).getConnection();
+        verify(replica, never()).getConnection();
+        verify(primario, never()).getConnection();
+    }
+
+    @Test
+    void lecturaDeServicioConEtag_shouldUsarLaPrimariaYNoLaReplica() throws SQLException {
+        // Arrange: la versión del ETag ya subió en la primaria; la réplica podría no tener el cambio
+        OrigenDatosEnrutado enrutado = crear(60_000);
+        TransactionSynchronizationManager.setCurrentTransactionName(SERVICIO_CON_ETAG + ".listar");
+
+        // Act
+        leer(enrutado);
+
+        // Assert
+        verify(primario).getConnection();
+        verify(replica, never()).getConnection();
+        verify(reportes, never()).getConnection();
+    }
+
+    private OrigenDatosEnrutado crear(long reintentoMs) {
+        OrigenDatosEnrutado enrutado = new OrigenDatosEnrutado(primario, replica, reportes,
+                Set.of(SERVICIO_INFORMES), Set.of(SERVICIO_CON_ETAG), reintentoMs, new MetricasGimnasio(registry));
+        // El proxy lee autocommit y aislamiento de la primaria una vez; no cuenta como lectura
+        enrutado.checkDefaultConnectionProperties();
+        clearInvocations(primario);
+        return enrutado;
+    }
+
+    // Como una transacción readOnly: se marca la conexión y la física se pide en la primera sentencia
+    private static void leer(DataSource dataSource) throws SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setReadOnly(true);
+            conexion.createStatement();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.gimansioreserva.gimnasioreserva_spring.unit.controller;
 
 import com.gimansioreserva.gimnasioreserva_spring.dto.admin.ClaseAdminDTO;
+import com.gimansioreserva.gimnasioreserva_spring.dto.admin.SerieClasesDTO;
 import com.gimansioreserva.gimnasioreserva_spring.service.admin.AdminClaseService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ColaReservas;
 import com.gimansioreserva.gimnasioreserva_spring.web.controller.admin.AdminClaseController;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +28,9 @@ class AdminClaseControllerTest {
     @Mock
     private AdminClaseService adminClaseService;
 
+    @Mock
+    private ColaReservas colaReservas;
+
     @InjectMocks
     private AdminClaseController adminClaseController;
 
@@ -81,4 +86,23 @@ class AdminClaseControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         assertThat(response.getBody()).isNotNull();
     }
+
+    @Test
+    void testCrearSerie() {
+        SerieClasesDTO serie = new SerieClasesDTO();
+        when(adminClaseService.crearSerie(serie)).thenReturn(List.of(claseDTO, claseDTO));
+
+        ResponseEntity<List<ClaseAdminDTO>> response = adminClaseController.crearSerie(serie);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).hasSize(2);
+    }
+
+    @Test
+    void testActivarCola() {
+        ResponseEntity<Void> response = adminClaseController.activarCola(1L);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        verify(colaReservas).activar(1L);
+    }
 }
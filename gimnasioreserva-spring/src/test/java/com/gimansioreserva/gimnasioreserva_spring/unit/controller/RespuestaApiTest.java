@@ -0,0 +1,67 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ClaseDTO;
+import com.gimansioreserva.gimnasioreserva_spring.util.RespuestaApi;
+import com.gimansioreserva.gimnasioreserva_spring.util.RespuestaListaStreaming;
+import com.gimansioreserva.gimnasioreserva_spring.util.ResponseUtil;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RespuestaApiTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new BlackbirdModule())
+            .build();
+
+    @Test
+    void error_shouldOmitirCamposNulosComoElMapAnterior() throws Exception {
+        // Act
+        ResponseEntity<RespuestaApi<Object>> respuesta = ResponseUtil.notFound("Clase no encontrada");
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(respuesta.getBody()));
+
+        // Assert
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(json.fieldNames()).toIterable().containsExactly("success", "message", "timestamp");
+        assertThat(json.get("success").asBoolean()).isFalse();
+    }
+
+    @Test
+    void success_listaGrande_shouldEscribirElMismoJsonEnStreaming() throws Exception {
+        // Arrange
+        RespuestaListaStreaming streaming = new RespuestaListaStreaming(objectMapper);
+        List<ClaseDTO> clases = new ArrayList<>();
+        for (int i = 0; i < RespuestaListaStreaming.UMBRAL; i++) {
+            ClaseDTO clase = new ClaseDTO();
+            clase.setIdClase((long) i);
+            clase.setNombre("Clase " + i);
+            clase.setHorario(LocalDateTime.of(2030, 1, 1, 8, 0).plusHours(i));
+            clases.add(clase);
+        }
+        LocalDateTime timestamp = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        // Act
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        streaming.escribir(clases, timestamp, salida);
+        ResponseEntity<?> respuesta = streaming.success(clases);
+
+        // Assert
+        RespuestaApi<List<ClaseDTO>> esperada = new RespuestaApi<>(true, null, clases, null, null, timestamp);
+        assertThat(objectMapper.readTree(salida.toByteArray()))
+                .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(esperada)));
+        assertThat(respuesta.getBody()).isInstanceOf(StreamingResponseBody.class);
+        assertThat(streaming.success(clases.subList(0, 10)).getBody()).isInstanceOf(RespuestaApi.class);
+    }
+}
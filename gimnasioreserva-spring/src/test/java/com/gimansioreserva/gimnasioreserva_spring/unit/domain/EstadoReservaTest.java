@@ -0,0 +1,58 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.domain;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReservaConverter;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
+import com.gimansioreserva.gimnasioreserva_spring.exception.TransicionEstadoInvalidaException;
+import com.gimansioreserva.gimnasioreserva_spring.validator.ReservaValidator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EstadoReservaTest {
+
+    @Test
+    void confirmada_shouldPoderPasarACanceladaOCompletada() {
+        assertThat(EstadoReserva.CONFIRMADA.puedeTransicionarA(EstadoReserva.CANCELADA)).isTrue();
+        assertThat(EstadoReserva.CONFIRMADA.puedeTransicionarA(EstadoReserva.COMPLETADA)).isTrue();
+        assertThat(EstadoReserva.CONFIRMADA.puedeTransicionarA(EstadoReserva.CONFIRMADA)).isFalse();
+    }
+
+    @Test
+    void estadosFinales_shouldNoPermitirTransiciones() {
+        for (EstadoReserva destino : EstadoReserva.values()) {
+            assertThat(EstadoReserva.CANCELADA.puedeTransicionarA(destino)).isFalse();
+            assertThat(EstadoReserva.COMPLETADA.puedeTransicionarA(destino)).isFalse();
+        }
+    }
+
+    @Test
+    void converter_shouldIrYVolverPorCodigo() {
+        EstadoReservaConverter converter = new EstadoReservaConverter();
+
+        for (EstadoReserva estado : EstadoReserva.values()) {
+            Byte codigo = converter.convertToDatabaseColumn(estado);
+            assertThat(converter.convertToEntityAttribute(codigo)).isEqualTo(estado);
+        }
+        assertThat(converter.convertToDatabaseColumn(EstadoReserva.CONFIRMADA)).isEqualTo((byte) 1);
+    }
+
+    @Test
+    void desdeNombre_shouldAceptarMinusculasYRechazarDesconocidos() {
+        assertThat(EstadoReserva.desdeNombre(" cancelada ")).isEqualTo(EstadoReserva.CANCELADA);
+        assertThatThrownBy(() -> EstadoReserva.desdeNombre("PENDIENTE"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void validarCambioEstado_desdeCancelada_shouldLanzarTransicionInvalida() {
+        // Arrange
+        Reserva reserva = new Reserva();
+        reserva.setEstado(EstadoReserva.CANCELADA);
+
+        // Act & Assert
+        assertThatThrownBy(() -> new ReservaValidator().validarCambioEstado(reserva, EstadoReserva.CONFIRMADA))
+                .isInstanceOf(TransicionEstadoInvalidaException.class);
+    }
+}
@@ -0,0 +1,235 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.eventos;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.HubEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosPorLotes;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosTcp;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransporteEventosTest {
+
+    private static final byte[] SECRETO = "secreto-de-pruebas".getBytes(StandardCharsets.UTF_8);
+
+    private final List<TransporteEventosPorLotes> transportes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        transportes.forEach(TransporteEventosPorLotes::close);
+    }
+
+    @Test
+    void emitirEvento_dosNodosEnMemoria_shouldLlegarAlOtroNodo() {
+        // Arrange
+        HubEventosMemoria hub = new HubEventosMemoria();
+        TransporteEventosMemoria transporteA = registrar(new TransporteEventosMemoria(hub));
+        EventoGymService nodoA = nodo(transporteA);
+        EventoGymService nodoB = nodo(registrar(new TransporteEventosMemoria(hub)));
+
+        // Act & Assert
+        StepVerifier.create(nodoB.flujoEventos().take(1))
+                .then(() -> {
+                    nodoA.emitirEvento(new EventoGym("7", TipoEvento.CAMBIO_HORARIO));
+                    transporteA.vaciar();
+                })
+                .expectNextMatches(evento -> "7".equals(evento.getClaseId()) && evento.getTipo() == TipoEvento.CAMBIO_HORARIO)
+                .verifyComplete();
+    }
+
+    @Test
+    void recibir_mismoEventoDosVeces_shouldEmitirloUnaSolaVez() {
+        // Arrange
+        HubEventosMemoria hub = new HubEventosMemoria();
+        TransporteEventosMemoria transporteA = registrar(new TransporteEventosMemoria(hub));
+        EventoGymService nodoB = nodo(registrar(new TransporteEventosMemoria(hub)));
+        EventoGym evento = new EventoGym("7", TipoEvento.RESERVA_CREADA);
+        EventoGym otro = new EventoGym("8", TipoEvento.RESERVA_CREADA);
+
+        // Act & Assert: el duplicado se descarta y el siguiente evento distinto sí llega
+        StepVerifier.create(nodoB.flujoEventos().take(2))
+                .then(() -> {
+                    transporteA.publicar(evento);
+                    transporteA.publicar(evento);
+                    transporteA.publicar(otro);
+                    transporteA.vaciar();
+                })
+                .expectNextMatches(e -> e.getId().equals(evento.getId()))
+                .expectNextMatches(e -> e.getId().equals(otro.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void emitirEvento_mismoIdDosVeces_shouldEmitirloLocalmenteUnaVez() {
+        // Arrange: la bandeja vuelve a publicar un evento con el mismo id
+        EventoGymService nodo = nodo(registrar(new TransporteEventosMemoria(new HubEventosMemoria())));
+        EventoGym evento = new EventoGym("7", TipoEvento.RESERVA_CREADA);
+        EventoGym otro = new EventoGym("8", TipoEvento.RESERVA_CREADA);
+
+        // Act & Assert
+        StepVerifier.create(nodo.flujoEventos().take(2))
+                .then(() -> {
+                    assertTrue(nodo.emitirEvento(evento));
+                    assertTrue(nodo.emitirEvento(evento));
+                    assertTrue(nodo.emitirEvento(otro));
+                })
+                .expectNextMatches(e -> e.getId().equals(evento.getId()))
+                .expectNextMatches(e -> e.getId().equals(otro.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void emitirEvento_bufferLleno_shouldDevolverFalseYAdmitirElReintento() {
+        // Arrange: sin suscriptores el flujo guarda eventos hasta llenar su buffer
+        EventoGymService nodo = nodo(registrar(new TransporteEventosMemoria(new HubEventosMemoria())));
+        EventoGym rechazado = null;
+        int aceptados = 0;
+        while (rechazado == null && aceptados < 100_000) {
+            EventoGym evento = new EventoGym("1", TipoEvento.RESERVA_CREADA);
+            if (nodo.emitirEvento(evento)) {
+                aceptados++;
+            } else {
+                rechazado = evento;
+            }
+        }
+        assertNotNull(rechazado);
+        EventoGym reintento = rechazado;
+
+        // Act & Assert: al vaciarse el buffer, el mismo id entra y no se toma por repetido
+        StepVerifier.create(nodo.flujoEventos().take(aceptados + 1L))
+                .expectNextCount(aceptados)
+                .then(() -> assertTrue(nodo.emitirEvento(reintento)))
+                .expectNextMatches(e -> e.getId().equals(reintento.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void emitirEvento_dosNodosTcpEnLocalhost_shouldLlegarEnLoteAlOtroNodo() {
+        // Arrange
+        TransporteEventosTcp transporteA = registrar(tcp(List.of(), SECRETO));
+        TransporteEventosTcp transporteB = registrar(tcp(
+                List.of(new InetSocketAddress("127.0.0.1", transporteA.getPuerto())), SECRETO));
+        transporteA.agregarPar(new InetSocketAddress("127.0.0.1", transporteB.getPuerto()));
+        EventoGymService nodoA = nodo(transporteA);
+        EventoGymService nodoB = nodo(transporteB);
+
+        // Act & Assert
+        StepVerifier.create(nodoB.flujoEventos().take(3))
+                .then(() -> {
+                    nodoA.emitirEvento(new EventoGym("1", TipoEvento.RESERVA_CREADA));
+                    nodoA.emitirEvento(new EventoGym("2", TipoEvento.CLASE_LLENA));
+                    nodoA.emitirEvento(new EventoGym(null, TipoEvento.CUPO_DISPONIBLE));
+                })
+                .expectNextMatches(evento -> "1".equals(evento.getClaseId()))
+                .expectNextMatches(evento -> evento.getTipo() == TipoEvento.CLASE_LLENA)
+                .expectNextMatches(evento -> evento.getClaseId() == null)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void emitirEvento_parConOtroSecreto_shouldDescartarElLote() {
+        // Arrange: A firma con un secreto que B no comparte
+        TransporteEventosTcp transporteB = registrar(tcp(List.of(), SECRETO));
+        TransporteEventosTcp transporteA = registrar(tcp(
+                List.of(new InetSocketAddress("127.0.0.1", transporteB.getPuerto())),
+                "otro-secreto".getBytes(StandardCharsets.UTF_8)));
+        EventoGymService nodoA = nodo(transporteA);
+        EventoGymService nodoB = nodo(transporteB);
+
+        // Act & Assert
+        StepVerifier.create(nodoB.flujoEventos().take(1))
+                .then(() -> {
+                    nodoA.emitirEvento(new EventoGym("1", TipoEvento.RESERVA_CREADA));
+                    transporteA.vaciar();
+                })
+                .expectNoEvent(Duration.ofMillis(500))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void emitirEvento_parQueArrancaDespues_shouldRecibirLoEncoladoAlReconectar() throws Exception {
+        // Arrange: el puerto del par está libre (conexión rechazada) cuando A publica
+        int puertoB;
+        try (ServerSocket libre = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            puertoB = libre.getLocalPort();
+        }
+        TransporteEventosTcp transporteA = registrar(new TransporteEventosTcp(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                List.of(new InetSocketAddress(InetAddress.getLoopbackAddress(), puertoB)), SECRETO,
+                4, 1000, 100, Duration.ofMillis(20), Duration.ofSeconds(1), Duration.ofMillis(50), Duration.ofMillis(200)));
+        EventoGymService nodoA = nodo(transporteA);
+        nodoA.emitirEvento(new EventoGym("1", TipoEvento.RESERVA_CREADA));
+        transporteA.vaciar();
+        Thread.sleep(300);
+
+        TransporteEventosTcp transporteB = new TransporteEventosTcp(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), puertoB), List.of(), SECRETO,
+                4, 1000, 100, Duration.ofMillis(20));
+        EventoGymService nodoB = nodo(transporteB);
+
+        // Act & Assert: al arrancar B, A reconecta y le envía el lote que no pudo entregar
+        StepVerifier.create(nodoB.flujoEventos().take(1))
+                .then(() -> registrar(transporteB))
+                .expectNextMatches(evento -> "1".equals(evento.getClaseId()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(0, transporteA.getDescartadosPares());
+    }
+
+    @Test
+    void conexionEntrante_masAllaDelMaximo_shouldCerrarse() throws Exception {
+        // Arrange: un solo lector para conexiones entrantes
+        TransporteEventosTcp transporte = registrar(new TransporteEventosTcp(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), List.of(), SECRETO,
+                1, 1000, 100, Duration.ofMillis(20)));
+
+        // Act
+        try (Socket primera = new Socket(InetAddress.getLoopbackAddress(), transporte.getPuerto());
+             Socket segunda = new Socket(InetAddress.getLoopbackAddress(), transporte.getPuerto())) {
+            segunda.setSoTimeout(5000);
+
+            // Assert: la segunda se cierra sin leerse; la primera sigue abierta
+            assertEquals(-1, segunda.getInputStream().read());
+            primera.setSoTimeout(200);
+            assertThrows(SocketTimeoutException.class, () -> primera.getInputStream().read());
+        }
+    }
+
+    // Los transportes arrancan con el ciclo de vida de Spring; aquí a mano
+    private <T extends TransporteEventosPorLotes> T registrar(T transporte) {
+        transportes.add(transporte);
+        transporte.start();
+        return transporte;
+    }
+
+    private static TransporteEventosTcp tcp(List<InetSocketAddress> pares, byte[] secreto) {
+        return new TransporteEventosTcp(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), pares, secreto,
+                4, 1000, 100, Duration.ofMillis(20));
+    }
+
+    private static EventoGymService nodo(TransporteEventosPorLotes transporte) {
+        return new EventoGymService(new MetricasGimnasio(new SimpleMeterRegistry()), transporte);
+    }
+}
@@ -0,0 +1,206 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.notificaciones;
+
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.CanalNotificacionesSmtp;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.Notificacion;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.NotificacionesProperties;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.ResultadoEnvio;
+import com.gimansioreserva.gimnasioreserva_spring.util.ServidorSmtpFalso;
+import com.gimansioreserva.gimnasioreserva_spring.util.ServidorSmtpFalso.MensajeRecibido;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanalNotificacionesSmtpTest {
+
+    private ServidorSmtpFalso servidor;
+    private CanalNotificacionesSmtp canal;
+
+    @AfterEach
+    void tearDown() {
+        if (canal != null) {
+            canal.close();
+        }
+        if (servidor != null) {
+            servidor.close();
+        }
+    }
+
+    @Test
+    void enviar_variosLotes_shouldReutilizarLasConexionesYEncadenarLasOrdenes() {
+        // Arrange
+        iniciar(true, 2);
+        List<Notificacion> primero = notificaciones(0, 40);
+        List<Notificacion> segundo = notificaciones(40, 40);
+
+        // Act
+        ResultadoEnvio resultadoPrimero = canal.enviar(primero);
+        int idasYVueltasAntes = servidor.getIdasYVueltas();
+        ResultadoEnvio resultadoSegundo = canal.enviar(segundo);
+
+        // Assert: todo entregado por las dos conexiones del pool, que sobreviven entre lotes
+        assertTrue(resultadoPrimero.reintentar().isEmpty() && resultadoPrimero.rechazadas().isEmpty());
+        assertTrue(resultadoSegundo.reintentar().isEmpty() && resultadoSegundo.rechazadas().isEmpty());
+        assertEquals(80, servidor.getMensajes().size());
+        assertEquals(2, servidor.getConexiones());
+        assertEquals(2, canal.getConexionesAbiertas());
+        // Orden por orden serían cuatro por mensaje; encadenadas, una por mensaje y una más por conexión
+        assertTrue(servidor.getIdasYVueltas() - idasYVueltasAntes <= 40 + 2 * 2,
+                "Idas y vueltas del segundo lote: " + (servidor.getIdasYVueltas() - idasYVueltasAntes));
+    }
+
+    @Test
+    void enviar_falloTemporalYBuzonInexistente_shouldClasificarlosYSeguirConLaMismaConexion() {
+        // Arrange: el primer MAIL recibe 451 y un buzón no existe
+        iniciar(true, 1);
+        servidor.fallarTemporalmente(1);
+        servidor.rechazar("baja@correo.test");
+        List<Notificacion> lote = List.of(
+                new Notificacion("uno@correo.test", "Reserva confirmada", "Yoga"),
+                new Notificacion("baja@correo.test", "Reserva confirmada", "Spinning"),
+                new Notificacion("sin-arroba", "Reserva confirmada", "Pilates"),
+                new Notificacion("dos@correo.test", "Reserva confirmada", "Crossfit"));
+
+        // Act
+        ResultadoEnvio resultado = canal.enviar(lote);
+
+        // Assert
+        assertEquals(List.of(lote.get(0)), resultado.reintentar());
+        assertEquals(2, resultado.rechazadas().size());
+        assertTrue(resultado.rechazadas().containsAll(List.of(lote.get(1), lote.get(2))));
+        assertEquals(List.of("dos@correo.test"),
+                servidor.getMensajes().stream().map(MensajeRecibido::destinatario).toList());
+        assertEquals(1, servidor.getConexiones());
+    }
+
+    @Test
+    void enviar_servidorSinPipelining_shouldEnviarOrdenPorOrden() {
+        // Arrange
+        iniciar(false, 1);
+        List<Notificacion> lote = notificaciones(0, 5);
+
+        // Act
+        ResultadoEnvio resultado = canal.enviar(lote);
+
+        // Assert: saludo, EHLO y cuatro por mensaje (MAIL, RCPT, DATA, cuerpo)
+        assertTrue(resultado.reintentar().isEmpty() && resultado.rechazadas().isEmpty());
+        assertEquals(5, servidor.getMensajes().size());
+        assertEquals(2 + 4 * 5, servidor.getIdasYVueltas());
+    }
+
+    @Test
+    void enviar_asuntoYTextoConAcentos_shouldCodificarlosParaSmtp() {
+        // Arrange
+        iniciar(true, 1);
+        Notificacion notificacion = new Notificacion("ana@correo.test", "Cancelación",
+                "Tu reserva para Pilates el 10/11/2026 09:00 ha sido cancelada.\n.\nSin cargo.");
+
+        // Act
+        canal.enviar(List.of(notificacion));
+
+        // Assert: un punto solo en una línea del texto no corta el mensaje
+        MensajeRecibido recibido = servidor.getMensajes().get(0);
+        assertTrue(recibido.cabecera("Subject").startsWith("=?UTF-8?B?"));
+        assertEquals(notificacion.texto(), recibido.texto());
+        assertEquals("no-responder@gimnasio.test", recibido.remitente());
+    }
+
+    @Test
+    void enviar_releConStarttlsYAuthPlain_shouldCifrarYAutenticarseAntesDeEnviar() {
+        // Arrange: relé de envío que solo anuncia AUTH una vez cifrada la sesión
+        servidor = new ServidorSmtpFalso(true);
+        servidor.ofrecerStarttls(ServidorSmtpFalso.tlsDePruebas());
+        servidor.exigirAutenticacion("gimnasio", "clave-relé", "PLAIN LOGIN");
+        canal = releDeEnvio("gimnasio", "clave-relé");
+
+        // Act
+        ResultadoEnvio resultado = canal.enviar(notificaciones(0, 3));
+
+        // Assert
+        assertTrue(resultado.reintentar().isEmpty() && resultado.rechazadas().isEmpty());
+        assertEquals(3, servidor.getMensajes().size());
+        assertEquals(1, servidor.getSesionesCifradas());
+    }
+
+    @Test
+    void enviar_releConAuthLogin_shouldAutenticarseConLogin() {
+        // Arrange
+        servidor = new ServidorSmtpFalso(false);
+        servidor.ofrecerStarttls(ServidorSmtpFalso.tlsDePruebas());
+        servidor.exigirAutenticacion("gimnasio", "clave-relé", "LOGIN");
+        canal = releDeEnvio("gimnasio", "clave-relé");
+
+        // Act
+        ResultadoEnvio resultado = canal.enviar(notificaciones(0, 2));
+
+        // Assert
+        assertTrue(resultado.reintentar().isEmpty() && resultado.rechazadas().isEmpty());
+        assertEquals(2, servidor.getMensajes().size());
+    }
+
+    @Test
+    void enviar_contrasenaIncorrecta_shouldReintentarSinEnviar() {
+        // Arrange
+        servidor = new ServidorSmtpFalso(true);
+        servidor.ofrecerStarttls(ServidorSmtpFalso.tlsDePruebas());
+        servidor.exigirAutenticacion("gimnasio", "clave-relé", "PLAIN LOGIN");
+        canal = releDeEnvio("gimnasio", "otra");
+        List<Notificacion> lote = notificaciones(0, 2);
+
+        // Act
+        ResultadoEnvio resultado = canal.enviar(lote);
+
+        // Assert
+        assertEquals(lote, resultado.reintentar());
+        assertTrue(servidor.getMensajes().isEmpty());
+    }
+
+    @Test
+    void enviar_starttlsExigidoYServidorSinTls_shouldNoMandarLasCredencialesEnClaro() {
+        // Arrange: el servidor ofrecería AUTH sin cifrar
+        servidor = new ServidorSmtpFalso(true);
+        servidor.exigirAutenticacion("gimnasio", "clave-relé", "PLAIN LOGIN");
+        canal = releDeEnvio("gimnasio", "clave-relé");
+        List<Notificacion> lote = notificaciones(0, 1);
+
+        // Act
+        ResultadoEnvio resultado = canal.enviar(lote);
+
+        // Assert
+        assertEquals(lote, resultado.reintentar());
+        assertTrue(servidor.getMensajes().isEmpty());
+    }
+
+    private void iniciar(boolean pipelining, int conexiones) {
+        servidor = new ServidorSmtpFalso(pipelining);
+        NotificacionesProperties.Smtp config = new NotificacionesProperties.Smtp();
+        config.setHost("127.0.0.1");
+        config.setPuerto(servidor.getPuerto());
+        config.setConexiones(conexiones);
+        config.setTimeoutMs(5000);
+        canal = new CanalNotificacionesSmtp(config, "no-responder@gimnasio.test", true);
+    }
+
+    // Canal con STARTTLS y credenciales contra el servidor ya creado, que confía en su certificado de pruebas
+    private CanalNotificacionesSmtp releDeEnvio(String usuario, String contrasena) {
+        NotificacionesProperties.Smtp config = new NotificacionesProperties.Smtp();
+        config.setHost("127.0.0.1");
+        config.setPuerto(servidor.getPuerto());
+        config.setConexiones(1);
+        config.setTimeoutMs(5000);
+        config.setStarttls(true);
+        config.setUsuario(usuario);
+        config.setContrasena(contrasena);
+        return new CanalNotificacionesSmtp(config, "no-responder@gimnasio.test", true,
+                ServidorSmtpFalso.tlsDePruebas().getSocketFactory());
+    }
+
+    private static List<Notificacion> notificaciones(int desde, int cantidad) {
+        return IntStream.range(desde, desde + cantidad)
+                .mapToObj(i -> new Notificacion("socio" + i + "@correo.test", "Reserva confirmada", "Clase " + i))
+                .toList();
+    }
+}
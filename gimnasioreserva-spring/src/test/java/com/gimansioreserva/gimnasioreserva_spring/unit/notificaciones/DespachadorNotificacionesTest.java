@@ -0,0 +1,223 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.notificaciones;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.CanalNotificaciones;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.DespachadorNotificaciones;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.Notificacion;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.NotificacionesProperties;
+import com.gimansioreserva.gimnasioreserva_spring.notificaciones.ResultadoEnvio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DespachadorNotificacionesTest {
+
+    private SimpleMeterRegistry registro;
+    private NotificacionesProperties propiedades;
+    private CanalFalso canal;
+    private DespachadorNotificaciones despachador;
+
+    @BeforeEach
+    void setUp() {
+        registro = new SimpleMeterRegistry();
+        propiedades = new NotificacionesProperties();
+        propiedades.setVentanaMs(200);
+        propiedades.setReintentoBaseMs(20);
+        propiedades.setReintentoMaximoMs(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (despachador != null) {
+            despachador.close();
+        }
+    }
+
+    @Test
+    void encolar_variosAvisosDelMismoSocio_shouldSalirEnUnSoloMensaje() throws InterruptedException {
+        // Arrange
+        iniciar(lote -> ResultadoEnvio.entregadas());
+
+        // Act: todos llegan dentro de la ventana
+        despachador.encolar(new Notificacion("ana@correo.test", "Reserva confirmada: Yoga", "a"));
+        despachador.encolar(new Notificacion("luis@correo.test", "Reserva confirmada: Yoga", "b"));
+        despachador.encolar(new Notificacion("ana@correo.test", "Reserva cancelada: Spinning", "c"));
+        despachador.encolar(new Notificacion("ana@correo.test", "Reserva confirmada: Pilates", "d"));
+        List<Notificacion> lote = canal.siguienteLote();
+
+        // Assert
+        assertNotNull(lote);
+        assertEquals(2, lote.size());
+        Notificacion ana = lote.get(0);
+        assertEquals("ana@correo.test", ana.destinatario());
+        assertEquals("Tienes 3 avisos de tus reservas", ana.asunto());
+        assertTrue(ana.texto().indexOf("Yoga") < ana.texto().indexOf("Spinning"));
+        assertTrue(ana.texto().indexOf("Spinning") < ana.texto().indexOf("Pilates"));
+        esperarHasta(() -> registro.get(MetricasGimnasio.NOTIFICACIONES_ENVIADAS).counter().count() == 2.0);
+        assertEquals(4.0, registro.get(MetricasGimnasio.NOTIFICACIONES_AVISOS).counter().count());
+    }
+
+    @Test
+    void encolar_falloTemporal_shouldReintentarTrasLaEspera() throws InterruptedException {
+        // Arrange: el primer envío falla, el segundo sale
+        iniciar(new Function<>() {
+            private int llamadas;
+
+            @Override
+            public ResultadoEnvio apply(List<Notificacion> lote) {
+                return ++llamadas == 1 ? new ResultadoEnvio(lote, List.of()) : ResultadoEnvio.entregadas();
+            }
+        });
+        Notificacion notificacion = new Notificacion("ana@correo.test", "Reserva confirmada: Yoga", "a");
+
+        // Act
+        despachador.encolar(notificacion);
+        List<Notificacion> primero = canal.siguienteLote();
+        List<Notificacion> segundo = canal.siguienteLote();
+
+        // Assert
+        assertEquals(List.of(notificacion), primero);
+        assertEquals(List.of(notificacion), segundo);
+        esperarHasta(() -> registro.get(MetricasGimnasio.NOTIFICACIONES_ENVIADAS).counter().count() == 1.0);
+        assertEquals(1.0, registro.get(MetricasGimnasio.NOTIFICACIONES_REINTENTOS).counter().count());
+        assertEquals(0, despachador.getReintentosPendientes());
+    }
+
+    @Test
+    void encolar_fallaSiempre_shouldDescartarTrasElMaximoDeIntentos() throws InterruptedException {
+        // Arrange
+        propiedades.setMaxIntentos(3);
+        iniciar(lote -> new ResultadoEnvio(lote, List.of()));
+
+        // Act
+        despachador.encolar(new Notificacion("ana@correo.test", "Reserva confirmada: Yoga", "a"));
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(canal.siguienteLote(), "Intento " + (i + 1));
+        }
+
+        // Assert: ni un cuarto intento ni reintentos pendientes
+        assertNull(canal.lotes.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(0, despachador.getReintentosPendientes());
+        assertEquals(2.0, registro.get(MetricasGimnasio.NOTIFICACIONES_REINTENTOS).counter().count());
+        assertEquals(1.0, descartadas("agotada"));
+    }
+
+    @Test
+    void encolar_avisoNuevoJuntoAUnReintento_shouldConservarSusIntentos() throws InterruptedException {
+        // Arrange: dos intentos por aviso y un canal que siempre falla
+        propiedades.setMaxIntentos(2);
+        iniciar(lote -> new ResultadoEnvio(lote, List.of()));
+        Notificacion antiguo = new Notificacion("ana@correo.test", "Reserva confirmada: Yoga", "a");
+        Notificacion nuevo = new Notificacion("ana@correo.test", "Reserva confirmada: Pilates", "b");
+
+        // Act: el nuevo llega durante la ventana y sale con el reintento del antiguo
+        despachador.encolar(antiguo);
+        assertEquals(List.of(antiguo), canal.siguienteLote());
+        despachador.encolar(nuevo);
+        List<Notificacion> juntos = canal.siguienteLote();
+        List<Notificacion> solo = canal.siguienteLote();
+
+        // Assert: el antiguo agota sus intentos en el envío conjunto; el nuevo aún tiene uno
+        assertNotNull(juntos);
+        assertEquals("Tienes 2 avisos de tus reservas", juntos.get(0).asunto());
+        assertEquals(List.of(nuevo), solo);
+        esperarHasta(() -> descartadas("agotada") == 2.0);
+    }
+
+    @Test
+    void encolar_buzonRechazado_shouldDescartarSinReintentar() throws InterruptedException {
+        // Arrange
+        iniciar(lote -> new ResultadoEnvio(List.of(), lote));
+
+        // Act
+        despachador.encolar(new Notificacion("baja@correo.test", "Reserva confirmada: Yoga", "a"));
+        canal.siguienteLote();
+
+        // Assert
+        assertNull(canal.lotes.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(1.0, descartadas("rechazada"));
+        assertEquals(0, despachador.getReintentosPendientes());
+    }
+
+    @Test
+    void encolar_colaLlena_shouldLanzarParaQueQuienEncolaReintente() throws InterruptedException {
+        // Arrange: el canal se queda bloqueado en el primer envío y la cola admite una sola notificación
+        propiedades.setCapacidadCola(1);
+        propiedades.setVentanaMs(0);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        iniciar(lote -> {
+            dentro.countDown();
+            try {
+                soltar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResultadoEnvio.entregadas();
+        });
+        despachador.encolar(new Notificacion("ana@correo.test", "Aviso", "1"));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+        despachador.encolar(new Notificacion("ana@correo.test", "Aviso", "2"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> despachador.encolar(new Notificacion("ana@correo.test", "Aviso", "3")));
+        assertEquals(1.0, descartadas("cola"));
+        soltar.countDown();
+    }
+
+    private void iniciar(Function<List<Notificacion>, ResultadoEnvio> respuesta) {
+        canal = new CanalFalso(respuesta);
+        despachador = new DespachadorNotificaciones(canal, propiedades, new MetricasGimnasio(registro));
+    }
+
+    // Las métricas se anotan después de que el canal devuelva el resultado
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "Condición no cumplida a tiempo");
+            Thread.sleep(10);
+        }
+    }
+
+    private double descartadas(String motivo) {
+        return registro.get(MetricasGimnasio.NOTIFICACIONES_DESCARTADAS).tag("motivo", motivo).counter().count();
+    }
+
+    // Guarda cada lote recibido (ordenado por destinatario) y responde según la función
+    private static class CanalFalso implements CanalNotificaciones {
+
+        private final BlockingQueue<List<Notificacion>> lotes = new LinkedBlockingQueue<>();
+        private final Function<List<Notificacion>, ResultadoEnvio> respuesta;
+
+        CanalFalso(Function<List<Notificacion>, ResultadoEnvio> respuesta) {
+            this.respuesta = respuesta;
+        }
+
+        @Override
+        public ResultadoEnvio enviar(List<Notificacion> lote) {
+            lotes.add(lote.stream().sorted(Comparator.comparing(Notificacion::destinatario)).toList());
+            return respuesta.apply(lote);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        List<Notificacion> siguienteLote() throws InterruptedException {
+            return lotes.poll(5, TimeUnit.SECONDS);
+        }
+    }
+}
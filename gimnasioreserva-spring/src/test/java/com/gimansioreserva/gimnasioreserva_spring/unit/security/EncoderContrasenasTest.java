@@ -0,0 +1,171 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.security;
+
+import com.gimansioreserva.gimnasioreserva_spring.exception.HashContrasenaSaturadoException;
+import com.gimansioreserva.gimnasioreserva_spring.security.contrasena.CalibradorBcrypt;
+import com.gimansioreserva.gimnasioreserva_spring.security.contrasena.EncoderContrasenasAcotado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncoderContrasenasTest {
+
+    private EncoderContrasenasAcotado encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    @Test
+    void calibrar_objetivoFueraDeRango_shouldRespetarLimites() {
+        // Act & Assert
+        assertEquals(4, CalibradorBcrypt.calibrar(0, 4, 8));
+        assertEquals(6, CalibradorBcrypt.calibrar(Long.MAX_VALUE, 4, 6));
+    }
+
+    @Test
+    void upgradeEncoding_hashSinPrefijoOConCosteMenor_shouldPedirRehash() {
+        // Arrange
+        encoder = new EncoderContrasenasAcotado(delegating(5), 1, 4, 5_000);
+        String hashActual = encoder.encode("password123");
+
+        // Act & Assert
+        assertTrue(hashActual.startsWith("{bcrypt}$2a$05$"));
+        assertFalse(encoder.upgradeEncoding(hashActual));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(encoder.matches("password123", new BCryptPasswordEncoder(4).encode("password123")));
+    }
+
+    @Test
+    void matches_poolYColaLlenos_shouldRechazarSinEsperar() throws Exception {
+        // Arrange: un hilo ocupado y un hueco de cola ocupado
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder bloqueante = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence contrasena, String hash) {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        encoder = new EncoderContrasenasAcotado(bloqueante, 1, 1, 5_000);
+        Thread primero = new Thread(() -> encoder.matches("a", "x"));
+        Thread segundo = new Thread(() -> encoder.matches("b", "x"));
+        primero.start();
+        segundo.start();
+        while (encoder.getPendientes() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThrows(HashContrasenaSaturadoException.class, () -> encoder.matches("c", "x"));
+        liberar.countDown();
+        primero.join();
+        segundo.join();
+    }
+
+    @Test
+    void matches_esperaVencidaEnCola_shouldSacarLaTareaDeLaCola() throws Exception {
+        // Arrange: el único hilo queda ocupado hasta liberar
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecutados = new AtomicInteger();
+        PasswordEncoder bloqueante = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence contrasena, String hash) {
+                ejecutados.incrementAndGet();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        encoder = new EncoderContrasenasAcotado(bloqueante, 1, 4, 100);
+        Thread primero = new Thread(() -> {
+            try {
+                encoder.matches("a", "x");
+            } catch (HashContrasenaSaturadoException e) {
+                // Esperado: vence la espera mientras el hash sigue en curso
+            }
+        });
+        primero.start();
+        while (ejecutados.get() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        assertThrows(HashContrasenaSaturadoException.class, () -> encoder.matches("b", "x"));
+
+        // Assert: la tarea vencida ya no ocupa un hueco de la cola
+        assertEquals(0, encoder.getPendientes());
+        liberar.countDown();
+        primero.join();
+        assertEquals(1, ejecutados.get());
+    }
+
+    @Test
+    void matches_esperaEstimadaMayorQueLaMaxima_shouldRechazarSinEncolar() throws Exception {
+        // Arrange: cada hash tarda ~400 ms y solo se admiten 600 ms de espera
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecutados = new AtomicInteger();
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence contrasena, String hash) {
+                if (ejecutados.incrementAndGet() > 1) {
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                try {
+                    Thread.sleep(400);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        encoder = new EncoderContrasenasAcotado(lento, 1, 8, 600);
+        encoder.matches("calentar", "x");
+        Thread ocupado = new Thread(() -> encoder.matches("a", "x"));
+        ocupado.start();
+        while (ejecutados.get() < 2) {
+            Thread.onSpinWait();
+        }
+        Thread enCola = new Thread(() -> encoder.matches("b", "x"));
+        enCola.start();
+        while (encoder.getPendientes() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert: dos rondas por delante (~800 ms) superan los 600 ms, no llega a encolarse
+        assertThrows(HashContrasenaSaturadoException.class, () -> encoder.matches("c", "x"));
+        assertEquals(1, encoder.getPendientes());
+        liberar.countDown();
+        ocupado.join();
+        enCola.join();
+    }
+
+    private static DelegatingPasswordEncoder delegating(int coste) {
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(coste)));
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return delegating;
+    }
+}
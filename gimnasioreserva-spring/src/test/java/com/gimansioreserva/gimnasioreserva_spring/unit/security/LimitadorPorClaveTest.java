@@ -0,0 +1,76 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.security;
+
+import com.gimansioreserva.gimnasioreserva_spring.security.limite.LimitadorPorClave;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorPorClaveTest {
+
+    private final AtomicLong reloj = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void intentar_rafagaAgotada_shouldRechazarHastaReponerUnToken() {
+        // Arrange: 3 de ráfaga y 60/min (un token por segundo)
+        LimitadorPorClave limitador = new LimitadorPorClave(3, 60, 100, 4, reloj::get);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.intentar("1.2.3.4"));
+        }
+        long espera = limitador.intentar("1.2.3.4");
+
+        // Assert
+        assertEquals(TimeUnit.SECONDS.toNanos(1), espera);
+        assertEquals(0, limitador.intentar("5.6.7.8"));
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limitador.intentar("1.2.3.4"));
+        assertTrue(limitador.intentar("1.2.3.4") > 0);
+    }
+
+    @Test
+    void intentar_masClavesQueCapacidad_shouldOlvidarLaMenosUsada() {
+        // Arrange: una franja con sitio para una sola clave
+        LimitadorPorClave limitador = new LimitadorPorClave(1, 1, 1, 1, reloj::get);
+        limitador.intentar("a");
+        assertTrue(limitador.intentar("a") > 0);
+
+        // Act: "b" desplaza a "a"
+        limitador.intentar("b");
+
+        // Assert
+        assertEquals(0, limitador.intentar("a"));
+    }
+
+    @Test
+    void intentar_hilosConcurrentes_shouldPermitirExactamenteLaRafaga() throws Exception {
+        // Arrange: reloj parado, así que solo cuenta la ráfaga
+        LimitadorPorClave limitador = new LimitadorPorClave(100, 1, 100, 4, reloj::get);
+        AtomicInteger permitidos = new AtomicInteger();
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            hilos.add(new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    if (limitador.intentar("correo@test.com") == 0) {
+                        permitidos.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        // Act
+        hilos.forEach(Thread::start);
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        // Assert
+        assertEquals(100, permitidos.get());
+    }
+}
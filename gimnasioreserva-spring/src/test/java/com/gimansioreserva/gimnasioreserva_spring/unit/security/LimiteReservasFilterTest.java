@@ -0,0 +1,139 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.security;
+
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.security.limite.LimiteReservasFilter;
+import com.gimansioreserva.gimnasioreserva_spring.security.limite.LimiteReservasProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteReservasFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LimiteReservasProperties propiedades = new LimiteReservasProperties();
+
+    @BeforeEach
+    void setUp() {
+        propiedades.setMaxConcurrentes(1);
+        propiedades.setRafagaEscritura(2);
+        propiedades.setPorMinutoEscritura(1);
+        autenticar("socio@test.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void crearReserva_rafagaAgotada_shouldResponder429ConRetryAfter() throws Exception {
+        // Arrange
+        LimiteReservasFilter filtro = new LimiteReservasFilter(propiedades, new MetricasGimnasio(registry));
+
+        // Act
+        MockHttpServletResponse primera = ejecutar(filtro, "POST", "/api/reservas", new MockFilterChain());
+        MockHttpServletResponse segunda = ejecutar(filtro, "POST", "/api/reservas", new MockFilterChain());
+        MockHttpServletResponse tercera = ejecutar(filtro, "POST", "/api/reservas", new MockFilterChain());
+        // Las lecturas tienen su propia cubeta
+        MockHttpServletResponse lectura = ejecutar(filtro, "GET", "/api/disponibilidad/clases", new MockFilterChain());
+
+        // Assert
+        assertEquals(200, primera.getStatus());
+        assertEquals(200, segunda.getStatus());
+        assertEquals(429, tercera.getStatus());
+        assertEquals("60", tercera.getHeader("Retry-After"));
+        assertEquals(200, lectura.getStatus());
+        assertEquals(1, registry.get(MetricasGimnasio.RESERVAS_RECHAZADAS).tag("motivo", "tasa").counter().count());
+
+        // Otro usuario no se ve afectado
+        autenticar("otro@test.com");
+        assertEquals(200, ejecutar(filtro, "POST", "/api/reservas", new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void peticionEnCurso_mismoUsuario_shouldRechazarLaSimultaneaYLiberarAlTerminar() throws Exception {
+        // Arrange: la cadena lanza una segunda petición del mismo usuario mientras la primera sigue dentro
+        LimiteReservasFilter filtro = new LimiteReservasFilter(propiedades, new MetricasGimnasio(registry));
+        AtomicInteger estadoAnidada = new AtomicInteger();
+        FilterChain cadena = (req, res) ->
+                estadoAnidada.set(ejecutar(filtro, "GET", "/api/reservas/usuario/1", new MockFilterChain()).getStatus());
+
+        // Act
+        MockHttpServletResponse externa = ejecutar(filtro, "GET", "/api/reservas/usuario/1", cadena);
+        MockHttpServletResponse despues = ejecutar(filtro, "GET", "/api/reservas/usuario/1", new MockFilterChain());
+
+        // Assert
+        assertEquals(200, externa.getStatus());
+        assertEquals(429, estadoAnidada.get());
+        assertEquals(200, despues.getStatus());
+        assertEquals(1, registry.get(MetricasGimnasio.RESERVAS_RECHAZADAS).tag("motivo", "concurrencia").counter().count());
+    }
+
+    @Test
+    void respuestaAsincrona_shouldOcuparElHuecoHastaCompletar() throws Exception {
+        // Arrange
+        LimiteReservasFilter filtro = new LimiteReservasFilter(propiedades, new MetricasGimnasio(registry));
+        MockHttpServletRequest request = peticion("POST", "/api/reservas");
+        request.setAsyncSupported(true);
+        FilterChain iniciarAsincrono = (req, res) -> req.startAsync();
+
+        // Act
+        filtro.doFilter(request, new MockHttpServletResponse(), iniciarAsincrono);
+        int mientrasTanto = ejecutar(filtro, "GET", "/api/disponibilidad/clases", new MockFilterChain()).getStatus();
+        request.getAsyncContext().complete();
+        int alCompletar = ejecutar(filtro, "GET", "/api/disponibilidad/clases", new MockFilterChain()).getStatus();
+
+        // Assert
+        assertEquals(429, mientrasTanto);
+        assertEquals(200, alCompletar);
+    }
+
+    @Test
+    void rutasFueraDelLimiteOSinUsuario_shouldPasarSinConsumir() throws Exception {
+        // Arrange
+        propiedades.setRafagaEscritura(1);
+        LimiteReservasFilter filtro = new LimiteReservasFilter(propiedades, new MetricasGimnasio(registry));
+
+        // Act & Assert: clases no está limitada; sin autenticación decide la autorización (401)
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, ejecutar(filtro, "POST", "/api/clases", new MockFilterChain()).getStatus());
+        }
+        SecurityContextHolder.clearContext();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, ejecutar(filtro, "POST", "/api/reservas", new MockFilterChain()).getStatus());
+        }
+    }
+
+    private static void autenticar(String correo) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                correo, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private static MockHttpServletRequest peticion(String metodo, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+        request.setServletPath(uri);
+        return request;
+    }
+
+    private static MockHttpServletResponse ejecutar(LimiteReservasFilter filtro, String metodo, String uri,
+                                                    FilterChain cadena) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(peticion(metodo, uri), response, cadena);
+        return response;
+    }
+}
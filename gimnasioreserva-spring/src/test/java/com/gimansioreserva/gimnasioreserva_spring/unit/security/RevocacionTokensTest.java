@@ -0,0 +1,166 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.security;
+
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.AlmacenRevocacionesArchivo;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtProperties;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenBlacklist;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
+import com.gimansioreserva.gimnasioreserva_spring.security.jwt.RevocacionProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocacionTokensTest {
+
+    @TempDir
+    Path directorio;
+
+    private Path archivo;
+    private JwtTokenProvider jwtTokenProvider;
+    private final List<AutoCloseable> abiertos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        archivo = directorio.resolve("revocaciones.dat");
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("test-secret-key-that-is-long-enough-for-the-algorithm-to-work-properly");
+        jwtProperties.setExpiration(3_600_000);
+        jwtProperties.setRefreshExpiration(86_400_000);
+        jwtTokenProvider = new JwtTokenProvider(jwtProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable abierto : abiertos) {
+            abierto.close();
+        }
+    }
+
+    @Test
+    void agregar_tokenValido_shouldSeguirRevocadoTrasReiniciar() {
+        // Arrange
+        String token = jwtTokenProvider.generarToken("test@test.com", "USER");
+        AlmacenRevocacionesArchivo almacen = new AlmacenRevocacionesArchivo(archivo, 64);
+        lista(almacen).agregar(token);
+        almacen.close();
+
+        // Act: otro proceso abre el mismo archivo
+        JwtTokenBlacklist reiniciada = lista(abrir());
+
+        // Assert
+        assertTrue(reiniciada.estaBlacklisted(token));
+        assertFalse(reiniciada.estaBlacklisted(jwtTokenProvider.generarToken("test@test.com", "USER")));
+    }
+
+    @Test
+    void revocar_entradaExpirada_shouldDejarDeEstarRevocadaYReutilizarHueco() {
+        // Arrange: tabla de 2 huecos, uno ya expirado
+        AlmacenRevocacionesArchivo almacen = abrir(2);
+        long ahora = System.currentTimeMillis();
+        UUID expirado = UUID.randomUUID();
+        almacen.revocar(expirado, ahora - 1);
+        almacen.revocar(UUID.randomUUID(), ahora + 60_000);
+
+        // Act: con la tabla llena, el hueco expirado se reutiliza
+        UUID nuevo = UUID.randomUUID();
+        almacen.revocar(nuevo, ahora + 60_000);
+
+        // Assert
+        assertFalse(almacen.estaRevocado(expirado, ahora));
+        assertTrue(almacen.estaRevocado(nuevo, ahora));
+        assertThrows(IllegalStateException.class, () -> almacen.revocar(UUID.randomUUID(), ahora + 60_000));
+    }
+
+    @Test
+    void sincronizar_revocadoPorOtroNodo_shouldVerseEnLaCacheLocal() {
+        // Arrange: dos nodos que comparten almacén
+        AlmacenRevocacionesArchivo compartido = abrir();
+        JwtTokenBlacklist nodoA = lista(compartido);
+        JwtTokenBlacklist nodoB = lista(compartido);
+        String token = jwtTokenProvider.generarToken("test@test.com", "USER");
+
+        // Act
+        nodoA.agregar(token);
+        boolean antes = nodoB.estaBlacklisted(token);
+        nodoB.sincronizar();
+
+        // Assert: la caché de B no lo ve hasta sincronizar
+        assertFalse(antes);
+        assertTrue(nodoB.estaBlacklisted(token));
+    }
+
+    @Test
+    void revocarFamilia_otroNodo_shouldRechazarSusAccessTokensTrasSincronizar() {
+        // Arrange
+        AlmacenRevocacionesArchivo compartido = abrir();
+        JwtTokenBlacklist nodoA = lista(compartido);
+        JwtTokenBlacklist nodoB = lista(compartido);
+        String deLaFamilia = jwtTokenProvider.generarToken("test@test.com", "USER", 42L);
+        String deOtraFamilia = jwtTokenProvider.generarToken("test@test.com", "USER", 43L);
+
+        // Act
+        nodoA.revocarFamilia(42L, System.currentTimeMillis() + 60_000);
+        nodoB.sincronizar();
+
+        // Assert
+        assertTrue(nodoA.estaBlacklisted(deLaFamilia));
+        assertTrue(nodoB.estaBlacklisted(deLaFamilia));
+        assertFalse(nodoB.estaBlacklisted(deOtraFamilia));
+    }
+
+    @Test
+    void temporal_alCerrar_shouldBorrarSuArchivo() throws Exception {
+        // Arrange
+        Set<Path> previos = temporalesDeRevocaciones();
+        AlmacenRevocacionesArchivo almacen = AlmacenRevocacionesArchivo.temporal(64);
+        lista(almacen).agregar(jwtTokenProvider.generarToken("test@test.com", "USER"));
+        Set<Path> nuevos = temporalesDeRevocaciones();
+        nuevos.removeAll(previos);
+        assertEquals(1, nuevos.size());
+
+        // Act
+        almacen.close();
+
+        // Assert
+        assertFalse(Files.exists(nuevos.iterator().next()));
+    }
+
+    private AlmacenRevocacionesArchivo abrir() {
+        return abrir(64);
+    }
+
+    private AlmacenRevocacionesArchivo abrir(int capacidad) {
+        AlmacenRevocacionesArchivo almacen = new AlmacenRevocacionesArchivo(archivo, capacidad);
+        abiertos.add(almacen);
+        return almacen;
+    }
+
+    private static Set<Path> temporalesDeRevocaciones() throws IOException {
+        try (Stream<Path> archivos = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return archivos.filter(p -> p.getFileName().toString().startsWith("revocaciones-jwt-"))
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private JwtTokenBlacklist lista(AlmacenRevocacionesArchivo almacen) {
+        RevocacionProperties propiedades = new RevocacionProperties();
+        // Sin sincronización automática durante el test
+        propiedades.setSincronizacionMs(3_600_000);
+        JwtTokenBlacklist lista = new JwtTokenBlacklist(almacen, jwtTokenProvider, propiedades);
+        abiertos.add(lista::detener);
+        return lista;
+    }
+}
@@ -0,0 +1,110 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.security;
+
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.ArbolRutas;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad;
+import com.gimansioreserva.gimnasioreserva_spring.security.rutas.RutasSeguridad.Acceso;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RutasSeguridadTest {
+
+    private final RutasSeguridad rutas = new RutasSeguridad();
+
+    @Test
+    void buscar_todasLasReglas_shouldCoincidirConElPatronMasEspecificoDeSpring() {
+        // Arrange: rutas derivadas de cada patrón configurado, con variantes en los bordes
+        List<PathPattern> patrones = new ArrayList<>();
+        RutasSeguridad.REGLAS.keySet().forEach(p -> patrones.add(PathPatternParser.defaultInstance.parse(p)));
+        TreeSet<String> muestras = new TreeSet<>(List.of("/", "/api", "/api/", "/api/otra", "/actuator", "/actuator/info"));
+        for (String patron : RutasSeguridad.REGLAS.keySet()) {
+            String base = patron.endsWith("/**") ? patron.substring(0, patron.length() - 3) : patron;
+            muestras.addAll(List.of(base, base + "/", base + "x", base + "/x", base + "/x/y", base + "/index.html"));
+        }
+
+        for (String ruta : muestras) {
+            // Act
+            Acceso obtenido = rutas.buscar(ruta, 0);
+
+            // Assert: la referencia es el orden de especificidad de PathPattern
+            PathContainer camino = PathContainer.parsePath(ruta);
+            Acceso esperado = patrones.stream()
+                    .filter(p -> p.matches(camino))
+                    .min(Comparator.comparing(p -> p, PathPattern.SPECIFICITY_COMPARATOR))
+                    .map(p -> RutasSeguridad.REGLAS.get(p.getPatternString()))
+                    .orElse(null);
+            assertEquals(esperado, obtenido, ruta);
+        }
+    }
+
+    @Test
+    void buscar_rutasDelFiltroJwt_shouldExcluirSoloLasPublicasSinToken() {
+        // Assert: swagger ya no pasa por el parseo del token
+        assertEquals(Acceso.PUBLICA_SIN_TOKEN, rutas.buscar("/swagger-ui/index.html", 0));
+        assertEquals(Acceso.PUBLICA_SIN_TOKEN, rutas.buscar("/v3/api-docs/swagger-config", 0));
+        assertEquals(Acceso.PUBLICA_SIN_TOKEN, rutas.buscar("/api/auth/reset-password", 0));
+        // logout es pública pero necesita leer el token que revoca
+        assertEquals(Acceso.PUBLICA, rutas.buscar("/api/auth/logout", 0));
+        assertEquals(Acceso.PUBLICA, rutas.buscar("/api/auth/loginx", 0));
+        assertEquals(Acceso.ADMIN, rutas.buscar("/api/admin", 0));
+        assertEquals(Acceso.ADMIN, rutas.buscar("/api/admin/usuarios/7", 0));
+        assertNull(rutas.buscar("/api/adminx/usuarios", 0));
+        assertNull(rutas.buscar("/actuator/health/", 0));
+        assertNull(rutas.buscar("", 0));
+    }
+
+    @Test
+    void buscar_conContextPathYEscapes_shouldUsarLaRutaDecodificada() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/gimnasio/api/%61dmin/usuarios");
+        request.setContextPath("/gimnasio");
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/gimnasio/api/auth/login");
+        login.setContextPath("/gimnasio");
+
+        // Act & Assert
+        assertEquals(Acceso.ADMIN, rutas.buscar(request));
+        assertTrue(rutas.matcher(Acceso.ADMIN).matches(request));
+        assertFalse(rutas.matcher(Acceso.PUBLICA_SIN_TOKEN, Acceso.PUBLICA).matches(request));
+        assertTrue(rutas.sinToken(login));
+    }
+
+    @Test
+    void agregar_patronesNoAdmitidos_shouldLanzarExcepcion() {
+        ArbolRutas<String> arbol = new ArbolRutas<>();
+        arbol.agregar("/a/**", "x");
+
+        assertThrows(IllegalArgumentException.class, () -> arbol.agregar("a/b", "x"));
+        assertThrows(IllegalArgumentException.class, () -> arbol.agregar("/a/**/b", "x"));
+        assertThrows(IllegalArgumentException.class, () -> arbol.agregar("/a/b*", "x"));
+        assertThrows(IllegalArgumentException.class, () -> arbol.agregar("/a//b", "x"));
+        assertThrows(IllegalArgumentException.class, () -> arbol.agregar("/a/**", "y"));
+    }
+
+    @Test
+    void buscar_comodinDeUnSegmento_shouldPreferirLiteralYVolverAlResto() {
+        // Arrange
+        ArbolRutas<String> arbol = new ArbolRutas<>();
+        arbol.agregar("/a/*", "uno");
+        arbol.agregar("/a/b", "literal");
+        arbol.agregar("/a/**", "resto");
+        arbol.agregar("/", "raiz");
+
+        // Act & Assert
+        assertEquals("literal", arbol.buscar("/a/b"));
+        assertEquals("uno", arbol.buscar("/a/c"));
+        assertEquals("resto", arbol.buscar("/a/b/c"));
+        assertEquals("resto", arbol.buscar("/a/"));
+        assertEquals("resto", arbol.buscar("/a"));
+        assertEquals("raiz", arbol.buscar("/"));
+        assertNull(arbol.buscar("/b"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.service;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaDuplicadaException;
+import com.gimansioreserva.gimnasioreserva_spring.exception.ReservaSolapadaException;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.AgendaReservasProperties;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.AgendaReservasSocios;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AgendaReservasSociosTest {
+
+    private static final LocalDateTime LUNES_9 = LocalDateTime.now().plusDays(7).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    private final AgendaReservasProperties propiedades = new AgendaReservasProperties();
+
+    @BeforeEach
+    void setUp() {
+        propiedades.setFranjas(1);
+    }
+
+    @Test
+    void ocuparHueco_claseQueSeSolapa_shouldRechazarlaConLasClasesEnConflictoYCargarUnaSolaVez() {
+        // Arrange: el socio 1 tiene la clase 10 de 9:00 a 10:00
+        when(reservaRepository.horariosReservados(eq(List.of(1L)), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 10L, LUNES_9, 60}));
+        AgendaReservasSocios agenda = new AgendaReservasSocios(reservaRepository, propiedades);
+
+        // Act
+        ReservaSolapadaException solapada = assertThrows(ReservaSolapadaException.class,
+                () -> agenda.ocuparHueco(1L, clase(11L, LUNES_9.plusMinutes(30), 60)));
+        agenda.ocuparHueco(1L, clase(12L, LUNES_9.plusMinutes(60), 45));
+        agenda.ocuparHueco(1L, clase(13L, LUNES_9.minusMinutes(45), 45));
+
+        // Assert: contiguas no se solapan; la agenda se leyó una vez
+        assertEquals(List.of(10L), solapada.getClasesEnConflicto());
+        verify(reservaRepository, times(1)).horariosReservados(anyCollection(), any());
+    }
+
+    @Test
+    void ocuparHueco_mismaClase_shouldSerDuplicada() {
+        // Arrange
+        when(reservaRepository.horariosReservados(anyCollection(), any())).thenReturn(List.of());
+        AgendaReservasSocios agenda = new AgendaReservasSocios(reservaRepository, propiedades);
+        agenda.ocuparHueco(1L, clase(10L, LUNES_9, 60));
+
+        // Act & Assert
+        assertThrows(ReservaDuplicadaException.class, () -> agenda.ocuparHueco(1L, clase(10L, LUNES_9, 60)));
+    }
+
+    @Test
+    void liberarHueco_shouldPermitirReservarOtraClaseALaMismaHora() {
+        // Arrange
+        when(reservaRepository.horariosReservados(anyCollection(), any())).thenReturn(List.of());
+        AgendaReservasSocios agenda = new AgendaReservasSocios(reservaRepository, propiedades);
+        agenda.ocuparHueco(1L, clase(10L, LUNES_9, 60));
+        assertThrows(ReservaSolapadaException.class, () -> agenda.ocuparHueco(1L, clase(11L, LUNES_9, 30)));
+
+        // Act
+        agenda.liberarHueco(1L, 10L);
+
+        // Assert
+        assertDoesNotThrow(() -> agenda.ocuparHueco(1L, clase(11L, LUNES_9, 30)));
+    }
+
+    @Test
+    void ocuparHueco_superadaLaCapacidad_shouldOlvidarAlMenosUsadoYReleerlo() {
+        // Arrange
+        propiedades.setMaxSocios(2);
+        when(reservaRepository.horariosReservados(anyCollection(), any())).thenReturn(List.of());
+        AgendaReservasSocios agenda = new AgendaReservasSocios(reservaRepository, propiedades);
+
+        // Act: 1, 2, de nuevo 1 (2 pasa a ser el menos usado), 3 desplaza a 2
+        agenda.ocuparHueco(1L, clase(10L, LUNES_9, 60));
+        agenda.ocuparHueco(2L, clase(10L, LUNES_9, 60));
+        agenda.ocuparHueco(1L, clase(11L, LUNES_9.plusHours(2), 60));
+        agenda.ocuparHueco(3L, clase(10L, LUNES_9, 60));
+        agenda.ocuparHueco(2L, clase(11L, LUNES_9.plusHours(2), 60));
+
+        // Assert
+        verify(reservaRepository, times(1)).horariosReservados(eq(List.of(1L)), any());
+        verify(reservaRepository, times(2)).horariosReservados(eq(List.of(2L)), any());
+    }
+
+    @Test
+    void precargar_variosSocios_shouldLeerlosEnUnaConsultaYNoVolverALeer() {
+        // Arrange
+        when(reservaRepository.horariosReservados(anyCollection(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, 10L, LUNES_9, 60}));
+        AgendaReservasSocios agenda = new AgendaReservasSocios(reservaRepository, propiedades);
+
+        // Act
+        agenda.precargar(List.of(1L, 2L, 3L));
+        agenda.ocuparHueco(1L, clase(11L, LUNES_9, 60));
+        agenda.ocuparHueco(3L, clase(11L, LUNES_9, 60));
+
+        // Assert
+        assertThrows(ReservaSolapadaException.class, () -> agenda.ocuparHueco(2L, clase(11L, LUNES_9, 60)));
+        verify(reservaRepository, times(1)).horariosReservados(anyCollection(), any());
+    }
+
+    private static Clase clase(Long id, LocalDateTime horario, int duracion) {
+        Clase clase = new Clase("Clase " + id, horario, 10, null);
+        clase.setIdClase(id);
+        clase.setDuracionMinutos(duracion);
+        clase.setActivo(true);
+        return clase;
+    }
+}
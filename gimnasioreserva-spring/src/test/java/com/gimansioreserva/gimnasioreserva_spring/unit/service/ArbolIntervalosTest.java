@@ -0,0 +1,91 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.service;
+
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ArbolIntervalos;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.ArbolIntervalos.Intervalo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArbolIntervalosTest {
+
+    private static final LocalDateTime LUNES_9 = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Test
+    void solapados_intervalosContiguos_shouldNoContarComoSolape() {
+        // Arrange: 9:00-10:00 y 10:00-11:00
+        ArbolIntervalos arbol = new ArbolIntervalos();
+        arbol.insertar(intervalo(1L, 0, 60));
+        arbol.insertar(intervalo(2L, 60, 60));
+
+        // Act & Assert
+        assertEquals(List.of(1L), ids(arbol.solapados(LUNES_9.minusMinutes(30), LUNES_9.plusMinutes(60))));
+        assertEquals(List.of(1L, 2L), ids(arbol.solapados(LUNES_9.plusMinutes(59), LUNES_9.plusMinutes(61))));
+        assertTrue(arbol.solapados(LUNES_9.plusMinutes(120), LUNES_9.plusMinutes(180)).isEmpty());
+    }
+
+    @Test
+    void solapados_claseLargaQueEmpiezaAntes_shouldEncontrarlaPorElMaximoDelSubarbol() {
+        // Arrange: muchas clases cortas y una larga al principio que las cubre a todas
+        ArbolIntervalos arbol = new ArbolIntervalos();
+        arbol.insertar(intervalo(0L, 0, 24 * 60));
+        for (long i = 1; i <= 100; i++) {
+            arbol.insertar(intervalo(i, (int) i * 10, 5));
+        }
+
+        // Act
+        List<Intervalo> resultado = arbol.solapados(LUNES_9.plusMinutes(996), LUNES_9.plusMinutes(999));
+
+        // Assert
+        assertEquals(List.of(0L), ids(resultado));
+    }
+
+    @Test
+    void insertarYEliminar_operacionesAleatorias_shouldCoincidirConBusquedaLinealYMantenerEquilibrio() {
+        // Arrange
+        Random aleatorio = new Random(42);
+        ArbolIntervalos arbol = new ArbolIntervalos();
+        List<Intervalo> referencia = new ArrayList<>();
+
+        for (long id = 1; id <= 5000; id++) {
+            // Act: inserción, y de vez en cuando un borrado al azar
+            Intervalo nuevo = intervalo(id, aleatorio.nextInt(60 * 24 * 30), 15 + aleatorio.nextInt(166));
+            arbol.insertar(nuevo);
+            referencia.add(nuevo);
+            if (aleatorio.nextInt(3) == 0) {
+                Intervalo borrado = referencia.remove(aleatorio.nextInt(referencia.size()));
+                assertTrue(arbol.eliminar(borrado));
+            }
+
+            // Assert
+            if (id % 250 == 0) {
+                LocalDateTime inicio = LUNES_9.plusMinutes(aleatorio.nextInt(60 * 24 * 30));
+                LocalDateTime fin = inicio.plusMinutes(1 + aleatorio.nextInt(240));
+                List<Long> esperados = referencia.stream()
+                        .filter(i -> i.solapaCon(inicio, fin))
+                        .sorted(Comparator.comparing(Intervalo::inicio).thenComparing(Intervalo::idClase))
+                        .map(Intervalo::idClase)
+                        .toList();
+                assertEquals(esperados, ids(arbol.solapados(inicio, fin)));
+            }
+        }
+        assertEquals(referencia.size(), arbol.tamano());
+        // Un AVL de n nodos no pasa de 1,44·log2(n) de altura
+        assertTrue(arbol.altura() <= 1.44 * Math.log(referencia.size() + 2) / Math.log(2));
+        assertFalse(arbol.eliminar(intervalo(99_999L, 0, 60)));
+    }
+
+    private static Intervalo intervalo(Long idClase, int minutoInicio, int duracion) {
+        LocalDateTime inicio = LUNES_9.plusMinutes(minutoInicio);
+        return new Intervalo(idClase, inicio, inicio.plusMinutes(duracion));
+    }
+
+    private static List<Long> ids(List<Intervalo> intervalos) {
+        return intervalos.stream().map(Intervalo::idClase).toList();
+    }
+}
@@ -3,11 +3,12 @@ package com.gimansioreserva.gimnasioreserva_spring.unit.service;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Usuario;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.LoginRequest;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.LoginResponse;
+import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RefreshResponse;
 import com.gimansioreserva.gimnasioreserva_spring.dto.auth.RegistroRequest;
 import com.gimansioreserva.gimnasioreserva_spring.repository.UsuarioRepository;
 import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenBlacklist;
-import com.gimansioreserva.gimnasioreserva_spring.security.jwt.JwtTokenProvider;
 import com.gimansioreserva.gimnasioreserva_spring.service.auth.AuthenticationService;
+import com.gimansioreserva.gimnasioreserva_spring.service.auth.RefreshTokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,10 +39,10 @@ class AuthenticationServiceTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private JwtTokenProvider jwtTokenProvider;
+    private JwtTokenBlacklist jwtTokenBlacklist;
 
     @Mock
-    private JwtTokenBlacklist jwtTokenBlacklist;
+    private RefreshTokenService refreshTokenService;
 
     @InjectMocks
     private AuthenticationService authenticationService;
@@ -66,8 +67,7 @@ class AuthenticationServiceTest {
         request.setContrasena("password123");
 
         when(usuarioRepository.findByCorreo("test@test.com")).thenReturn(Optional.of(usuario));
-        when(jwtTokenProvider.generarToken("test@test.com", "USER")).thenReturn("accessToken");
-        when(jwtTokenProvider.generarRefreshToken("test@test.com")).thenReturn("refreshToken");
+        when(refreshTokenService.abrirSesion(usuario)).thenReturn(new RefreshResponse("accessToken", "refreshToken"));
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(null);
 
@@ -1,5 +1,6 @@
 package com.gimansioreserva.gimnasioreserva_spring.unit.service;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
 import com.gimansioreserva.gimnasioreserva_spring.dto.core.DisponibilidadDTO;
@@ -46,7 +47,7 @@ class DisponibilidadServiceTest {
         
         // Reserva confirmada base para todas las clases
         reservaConfirmada = new Reserva();
-        reservaConfirmada.setEstado("CONFIRMADA");
+        reservaConfirmada.setEstado(EstadoReserva.CONFIRMADA);
 
         // ESCENARIO 1: Clase ideal - activa con cupos y tiempo suficiente
         claseActivaConCupos = new Clase();
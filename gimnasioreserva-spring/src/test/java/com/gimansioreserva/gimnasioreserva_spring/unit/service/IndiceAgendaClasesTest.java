@@ -0,0 +1,134 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.service;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
+import com.gimansioreserva.gimnasioreserva_spring.domain.Entrenador;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ClaseDTO;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.HubEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.eventos.TransporteEventosMemoria;
+import com.gimansioreserva.gimnasioreserva_spring.mapper.ClaseMapper;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ClaseRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.IndiceAgendaClases;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceAgendaClasesTest {
+
+    private static final LocalDateTime LUNES_9 = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private ClaseRepository claseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IndiceAgendaClases indice;
+
+    @BeforeEach
+    void setUp() {
+        EventoGymService eventoGymService = new EventoGymService(new MetricasGimnasio(new SimpleMeterRegistry()),
+                new TransporteEventosMemoria(new HubEventosMemoria()));
+        indice = new IndiceAgendaClases(claseRepository, new ClaseMapper(), eventoGymService, transactionManager);
+    }
+
+    @Test
+    void buscarEntre_sinConstruir_shouldPedirConsultarBaseDeDatos() {
+        // Act
+        Optional<List<ClaseDTO>> resultado = indice.buscarEntre(LUNES_9, LUNES_9.plusDays(7));
+
+        // Assert
+        assertTrue(resultado.isEmpty());
+        verifyNoInteractions(claseRepository);
+    }
+
+    @Test
+    void buscarEntre_rangoDeVariosDias_shouldDevolverOrdenadasEIncluirExtremos() {
+        // Arrange
+        when(claseRepository.findByActivo(true)).thenReturn(List.of(
+                clase(3L, LUNES_9.plusDays(2)),
+                clase(1L, LUNES_9),
+                clase(4L, LUNES_9.plusDays(3)),
+                clase(2L, LUNES_9.plusHours(10))));
+        indice.reconstruir();
+
+        // Act
+        List<ClaseDTO> resultado = indice.buscarEntre(LUNES_9, LUNES_9.plusDays(2)).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), resultado.stream().map(ClaseDTO::getIdClase).toList());
+    }
+
+    @Test
+    void buscarPosteriores_claseALaMismaHora_shouldExcluirla() {
+        // Arrange
+        when(claseRepository.findByActivo(true)).thenReturn(List.of(
+                clase(1L, LUNES_9),
+                clase(2L, LUNES_9.plusMinutes(30)),
+                clase(3L, LUNES_9.plusDays(1))));
+        indice.reconstruir();
+
+        // Act
+        List<ClaseDTO> resultado = indice.buscarPosteriores(LUNES_9).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(2L, 3L), resultado.stream().map(ClaseDTO::getIdClase).toList());
+    }
+
+    @Test
+    void refrescarClase_cambioDeHorario_shouldMoverlaDeDia() {
+        // Arrange
+        Clase yoga = clase(1L, LUNES_9);
+        when(claseRepository.findByActivo(true)).thenReturn(List.of(yoga));
+        indice.reconstruir();
+        when(claseRepository.findById(1L)).thenReturn(Optional.of(clase(1L, LUNES_9.plusDays(1))));
+
+        // Act
+        indice.refrescarClase(1L);
+
+        // Assert
+        assertTrue(indice.buscarEntre(LUNES_9, LUNES_9.plusHours(23)).orElseThrow().isEmpty());
+        assertEquals(1, indice.buscarEntre(LUNES_9.plusDays(1), LUNES_9.plusDays(1)).orElseThrow().size());
+    }
+
+    @Test
+    void refrescarClase_claseDesactivada_shouldQuitarlaDelIndice() {
+        // Arrange
+        when(claseRepository.findByActivo(true)).thenReturn(List.of(clase(1L, LUNES_9), clase(2L, LUNES_9)));
+        indice.reconstruir();
+        Clase desactivada = clase(1L, LUNES_9);
+        desactivada.setActivo(false);
+        when(claseRepository.findById(1L)).thenReturn(Optional.of(desactivada));
+
+        // Act
+        indice.refrescarClase(1L);
+
+        // Assert
+        List<ClaseDTO> resultado = indice.buscarEntre(LUNES_9, LUNES_9).orElseThrow();
+        assertEquals(List.of(2L), resultado.stream().map(ClaseDTO::getIdClase).toList());
+    }
+
+    private static Clase clase(Long id, LocalDateTime horario) {
+        Entrenador entrenador = new Entrenador();
+        entrenador.setIdEntrenador(10L);
+        entrenador.setNombre("Carlos");
+
+        Clase clase = new Clase("Clase " + id, horario, 10, entrenador);
+        clase.setIdClase(id);
+        clase.setActivo(true);
+        return clase;
+    }
+}
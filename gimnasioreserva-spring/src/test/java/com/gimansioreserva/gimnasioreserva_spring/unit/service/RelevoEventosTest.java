@@ -0,0 +1,180 @@
+package com.gimansioreserva.gimnasioreserva_spring.unit.service;
+
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoGym;
+import com.gimansioreserva.gimnasioreserva_spring.domain.EventoPendiente;
+import com.gimansioreserva.gimnasioreserva_spring.domain.TipoEvento;
+import com.gimansioreserva.gimnasioreserva_spring.dto.core.ReservaDTO;
+import com.gimansioreserva.gimnasioreserva_spring.metricas.MetricasGimnasio;
+import com.gimansioreserva.gimnasioreserva_spring.repository.EventoPendienteRepository;
+import com.gimansioreserva.gimnasioreserva_spring.repository.ReservaRepository;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.BandejaEventosProperties;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.EventoGymService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.NotificacionService;
+import com.gimansioreserva.gimnasioreserva_spring.service.core.RelevoEventos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RelevoEventosTest {
+
+    @Mock
+    private EventoPendienteRepository eventoPendienteRepository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private EventoGymService eventoGymService;
+
+    @Mock
+    private NotificacionService notificacionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RelevoEventos relevo;
+
+    private BandejaEventosProperties propiedades;
+
+    @BeforeEach
+    void setUp() {
+        propiedades = new BandejaEventosProperties();
+        propiedades.setMaxIntentos(3);
+        relevo = new RelevoEventos(eventoPendienteRepository, reservaRepository, eventoGymService,
+                notificacionService, new MetricasGimnasio(new SimpleMeterRegistry()),
+                propiedades, transactionManager);
+    }
+
+    @Test
+    void relevarPendientes_fallaUnEvento_shouldRetenerLosSiguientesDeSuClaseYSeguirConLasDemas() {
+        // Arrange: el primero de la clase 1 falla al publicarse
+        EventoPendiente falla = evento(1L, 1L, TipoEvento.RESERVA_CREADA);
+        EventoPendiente retenido = evento(2L, 1L, TipoEvento.CLASE_LLENA);
+        EventoPendiente otraClase = evento(3L, 2L, TipoEvento.RESERVA_CREADA);
+        when(eventoPendienteRepository.bloquearLote(any()))
+                .thenReturn(List.of(falla, retenido, otraClase));
+        when(eventoGymService.emitirEvento(any())).thenThrow(new IllegalStateException("bus caído")).thenReturn(true);
+
+        // Act
+        int publicados = relevo.relevarPendientes();
+
+        // Assert
+        assertEquals(1, publicados);
+        ArgumentCaptor<EventoGym> emitidos = ArgumentCaptor.forClass(EventoGym.class);
+        verify(eventoGymService, times(2)).emitirEvento(emitidos.capture());
+        assertEquals("2", emitidos.getAllValues().get(1).getClaseId());
+        verify(eventoPendienteRepository).borrarPublicados(List.of(3L));
+        verify(eventoPendienteRepository).anotarIntentoFallido(List.of(1L));
+    }
+
+    @Test
+    void relevarPendientes_eventosDeReserva_shouldNotificarConUnaSolaConsulta() {
+        // Arrange
+        EventoPendiente creada = evento(1L, 1L, TipoEvento.RESERVA_CREADA);
+        creada.setIdReserva(10L);
+        EventoPendiente cancelada = evento(2L, 2L, TipoEvento.RESERVA_CANCELADA);
+        cancelada.setIdReserva(20L);
+        EventoPendiente borrada = evento(3L, 3L, TipoEvento.RESERVA_CREADA);
+        borrada.setIdReserva(30L);
+        when(eventoPendienteRepository.bloquearLote(any())).thenReturn(List.of(creada, cancelada, borrada));
+        ReservaDTO reserva10 = reserva(10L);
+        ReservaDTO reserva20 = reserva(20L);
+        when(reservaRepository.proyectarPorIds(Set.of(10L, 20L, 30L))).thenReturn(List.of(reserva10, reserva20));
+        when(eventoGymService.emitirEvento(any())).thenReturn(true);
+
+        // Act
+        int publicados = relevo.relevarPendientes();
+
+        // Assert: la reserva 30 ya no existe; su evento se publica igual, sin notificación
+        assertEquals(3, publicados);
+        verify(reservaRepository, times(1)).proyectarPorIds(any());
+        verify(notificacionService).enviarConfirmacionReserva(reserva10);
+        verify(notificacionService).enviarCancelacionReserva(reserva20);
+        verifyNoMoreInteractions(notificacionService);
+        verify(eventoGymService, times(3)).emitirEvento(any());
+        verify(eventoPendienteRepository).borrarPublicados(List.of(1L, 2L, 3L));
+        verify(eventoPendienteRepository, never()).anotarIntentoFallido(any());
+    }
+
+    @Test
+    void relevarPendientes_busNoAceptaElEvento_shouldConservarLaFila() {
+        // Arrange: el bus devuelve false (buffer lleno) sin lanzar
+        EventoPendiente rechazado = evento(1L, 1L, TipoEvento.RESERVA_CREADA);
+        EventoPendiente retenido = evento(2L, 1L, TipoEvento.CLASE_LLENA);
+        when(eventoPendienteRepository.bloquearLote(any())).thenReturn(List.of(rechazado, retenido));
+        when(eventoGymService.emitirEvento(any())).thenReturn(false);
+
+        // Act
+        int publicados = relevo.relevarPendientes();
+
+        // Assert: nada se borra y el siguiente de la clase espera
+        assertEquals(0, publicados);
+        verify(eventoGymService, times(1)).emitirEvento(any());
+        verify(eventoPendienteRepository, never()).borrarPublicados(any());
+        verify(eventoPendienteRepository).anotarIntentoFallido(List.of(1L));
+    }
+
+    @Test
+    void relevarPendientes_busNoAceptaEventoDeReserva_shouldNoNotificarHastaQueSePublique() {
+        // Arrange: el bus rechaza el evento en la primera pasada y lo acepta en la segunda
+        EventoPendiente creada = evento(1L, 1L, TipoEvento.RESERVA_CREADA);
+        creada.setIdReserva(10L);
+        when(eventoPendienteRepository.bloquearLote(any())).thenReturn(List.of(creada));
+        ReservaDTO reserva10 = reserva(10L);
+        when(reservaRepository.proyectarPorIds(Set.of(10L))).thenReturn(List.of(reserva10));
+        when(eventoGymService.emitirEvento(any())).thenReturn(false).thenReturn(true);
+
+        // Act
+        relevo.relevarPendientes();
+        relevo.relevarPendientes();
+
+        // Assert: un solo correo, enviado tras publicarse el evento
+        verify(notificacionService, times(1)).enviarConfirmacionReserva(reserva10);
+        verify(eventoPendienteRepository).anotarIntentoFallido(List.of(1L));
+        verify(eventoPendienteRepository).borrarPublicados(List.of(1L));
+    }
+
+    @Test
+    void relevarPendientes_ultimoIntentoFallido_shouldAparcarloYSeguirConSuClase() {
+        // Arrange: ya lleva maxIntentos - 1 fallos
+        EventoPendiente agotado = evento(1L, 1L, TipoEvento.RESERVA_CREADA);
+        agotado.setIntentos(2);
+        EventoPendiente siguiente = evento(2L, 1L, TipoEvento.CLASE_LLENA);
+        when(eventoPendienteRepository.bloquearLote(any())).thenReturn(List.of(agotado, siguiente));
+        when(eventoGymService.emitirEvento(any())).thenReturn(false).thenReturn(true);
+
+        // Act
+        int publicados = relevo.relevarPendientes();
+
+        // Assert
+        assertEquals(1, publicados);
+        verify(eventoPendienteRepository).aparcar(List.of(1L));
+        verify(eventoPendienteRepository).borrarPublicados(List.of(2L));
+        verify(eventoPendienteRepository, never()).anotarIntentoFallido(any());
+    }
+
+    private static EventoPendiente evento(Long idEvento, Long idClase, TipoEvento tipo) {
+        EventoPendiente evento = new EventoPendiente(idClase, tipo, null);
+        evento.setIdEvento(idEvento);
+        return evento;
+    }
+
+    private static ReservaDTO reserva(Long idReserva) {
+        ReservaDTO reserva = new ReservaDTO();
+        reserva.setIdReserva(idReserva);
+        return reserva;
+    }
+}
@@ -1,5 +1,6 @@
 package com.gimansioreserva.gimnasioreserva_spring.unit.service;
 
+import com.gimansioreserva.gimnasioreserva_spring.domain.EstadoReserva;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Clase;
 import com.gimansioreserva.gimnasioreserva_spring.domain.Reserva;
 import com.gimansioreserva.gimnasioreserva_spring.exception.CupoAgotadoException;
@@ -58,7 +59,6 @@ class ValidacionServiceTest {
         claseSinCupos.setHorario(ahora.plusHours(3));
         claseSinCupos.setCupo(1);
         claseSinCupos.setActivo(true);
-        claseSinCupos.getReservas().add(reservaConfirmada); // 1 reserva, 0 cupos libres
 
         // ESCENARIO 3: Clase inactiva - para validar que clases inactivas no se pueden reservar
         claseInactiva = new Clase();
@@ -87,11 +87,12 @@ class ValidacionServiceTest {
         // Reservas con diferentes estados para validar estados de reserva
         reservaConfirmada = new Reserva();
         reservaConfirmada.setIdReserva(1L);
-        reservaConfirmada.setEstado("CONFIRMADA"); // Reserva válida y activa
+        reservaConfirmada.setEstado(EstadoReserva.CONFIRMADA); // Reserva válida y activa
+        claseSinCupos.getReservas().add(reservaConfirmada); // 1 reserva confirmada, 0 cupos libres
 
         reservaCancelada = new Reserva();
         reservaCancelada.setIdReserva(2L);
-        reservaCancelada.setEstado("CANCELADA"); // Reserva cancelada
+        reservaCancelada.setEstado(EstadoReserva.CANCELADA); // Reserva cancelada
     }
 
     @Test
@@ -0,0 +1,105 @@
+package com.gimansioreserva.gimnasioreserva_spring.util;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Envuelve un DataSource para capturar cada SELECT preparado junto con sus parámetros,
+ * de forma que se pueda volver a ejecutar (por ejemplo con EXPLAIN).
+ */
+public class CapturaConsultasJdbc {
+
+    private final List<ConsultaCapturada> capturadas = new CopyOnWriteArrayList<>();
+    private volatile boolean capturando;
+
+    public DataSource envolver(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (metodo, args, resultado) ->
+                resultado instanceof Connection conexion ? envolverConexion(conexion) : resultado);
+    }
+
+    public void iniciar() {
+        capturadas.clear();
+        capturando = true;
+    }
+
+    public List<ConsultaCapturada> detener() {
+        capturando = false;
+        return new ArrayList<>(capturadas);
+    }
+
+    private Connection envolverConexion(Connection conexion) {
+        return proxy(Connection.class, conexion, (metodo, args, resultado) -> {
+            if (metodo.getName().equals("prepareStatement") && resultado instanceof PreparedStatement ps) {
+                return envolverSentencia(ps, (String) args[0]);
+            }
+            return resultado;
+        });
+    }
+
+    private PreparedStatement envolverSentencia(PreparedStatement sentencia, String sql) {
+        List<ParametroCapturado> parametros = new ArrayList<>();
+        return proxy(PreparedStatement.class, sentencia, (metodo, args, resultado) -> {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parametros.add(new ParametroCapturado(metodo, args.clone()));
+            } else if (nombre.equals("clearParameters")) {
+                parametros.clear();
+            } else if ((nombre.equals("executeQuery") || nombre.equals("execute")) && capturando
+                    && sql.trim().toLowerCase().startsWith("select")) {
+                capturadas.add(new ConsultaCapturada(sql, List.copyOf(parametros)));
+            }
+            return resultado;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, T destino, PostProceso postProceso) {
+        InvocationHandler handler = (p, metodo, args) -> {
+            try {
+                Object resultado = metodo.invoke(destino, args);
+                return postProceso.aplicar(metodo, args, resultado);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, handler);
+    }
+
+    private interface PostProceso {
+        Object aplicar(Method metodo, Object[] args, Object resultado) throws Exception;
+    }
+
+    public record ParametroCapturado(Method setter, Object[] args) {
+
+        public void aplicar(PreparedStatement sentencia) throws Exception {
+            setter.invoke(sentencia, args);
+        }
+    }
+
+    public record ConsultaCapturada(String sql, List<ParametroCapturado> parametros) {
+
+        // Ejecuta la consulta con un prefijo (p. ej. "EXPLAIN ") y los mismos parámetros
+        public String ejecutarConPrefijo(Connection conexion, String prefijo) throws Exception {
+            try (PreparedStatement sentencia = conexion.prepareStatement(prefijo + sql)) {
+                for (ParametroCapturado parametro : parametros) {
+                    parametro.aplicar(sentencia);
+                }
+                try (var rs = sentencia.executeQuery()) {
+                    StringBuilder salida = new StringBuilder();
+                    while (rs.next()) {
+                        salida.append(rs.getString(1)).append('\n');
+                    }
+                    return salida.toString();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.gimansioreserva.gimnasioreserva_spring.util;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Cuenta las sentencias JDBC que Hibernate prepara durante una acción,
+ * usando las estadísticas de la SessionFactory.
+ */
+public class ContadorSentencias {
+
+    private final Statistics estadisticas;
+
+    public ContadorSentencias(EntityManagerFactory entityManagerFactory) {
+        this.estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.estadisticas.setStatisticsEnabled(true);
+    }
+
+    // Ejecuta la acción y devuelve cuántas sentencias se prepararon
+    public long contar(Runnable accion) {
+        estadisticas.clear();
+        accion.run();
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    public Statistics getEstadisticas() {
+        return estadisticas;
+    }
+}
@@ -0,0 +1,366 @@
+package com.gimansioreserva.gimnasioreserva_spring.util;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor SMTP en memoria para los tests del canal de correo. Acepta todo, guarda los mensajes y cuenta
+ * conexiones e idas y vueltas.
+ *
+ * Las respuestas se acumulan mientras el cliente tenga órdenes ya enviadas sin leer y salen juntas
+ * cuando no queda nada: cada salida es una ida y vuelta, y la latencia configurada se espera en cada una.
+ * Así un cliente con PIPELINING paga una latencia por lote de órdenes y uno orden por orden, una por orden.
+ *
+ * Fallos a demanda: 451 para los próximos MAIL y 550 para destinatarios concretos.
+ *
+ * Opcionalmente ofrece STARTTLS (con el certificado de smtp-pruebas.p12, para localhost y 127.0.0.1) y
+ * exige AUTH PLAIN o LOGIN antes de MAIL; con STARTTLS ofrecido, AUTH solo se anuncia ya cifrado.
+ */
+public class ServidorSmtpFalso implements AutoCloseable {
+
+    public record MensajeRecibido(String remitente, String destinatario, String datos) {
+
+        public String cabecera(String nombre) {
+            String prefijo = nombre + ": ";
+            return datos.lines().filter(linea -> linea.startsWith(prefijo))
+                    .map(linea -> linea.substring(prefijo.length()))
+                    .findFirst().orElse(null);
+        }
+
+        // Cuerpo en base64 tras la línea en blanco
+        public String texto() {
+            String cuerpo = datos.substring(datos.indexOf("\r\n\r\n") + 4);
+            return new String(Base64.getMimeDecoder().decode(cuerpo), StandardCharsets.UTF_8);
+        }
+    }
+
+    private final ServerSocket servidor;
+    private final boolean pipelining;
+    private final Thread aceptador;
+    private final List<Socket> clientes = new ArrayList<>();
+
+    private final ConcurrentLinkedQueue<MensajeRecibido> mensajes = new ConcurrentLinkedQueue<>();
+    private final Set<String> rechazados = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger fallosTemporales = new AtomicInteger();
+    private final AtomicInteger conexiones = new AtomicInteger();
+    private final AtomicInteger idasYVueltas = new AtomicInteger();
+    private volatile long latenciaMs;
+    private volatile SSLContext tls;
+    private volatile String usuario;
+    private volatile String contrasena;
+    private volatile String mecanismos;
+    private final AtomicInteger sesionesCifradas = new AtomicInteger();
+
+    public ServidorSmtpFalso(boolean pipelining) {
+        this.pipelining = pipelining;
+        try {
+            this.servidor = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.aceptador = new Thread(this::aceptar, "smtp-falso");
+        this.aceptador.setDaemon(true);
+        this.aceptador.start();
+    }
+
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    // Espera antes de cada salida de respuestas (simula la red)
+    public void setLatenciaMs(long latenciaMs) {
+        this.latenciaMs = latenciaMs;
+    }
+
+    // Los próximos n MAIL reciben 451
+    public void fallarTemporalmente(int n) {
+        fallosTemporales.set(n);
+    }
+
+    public void rechazar(String destinatario) {
+        rechazados.add(destinatario);
+    }
+
+    public void ofrecerStarttls(SSLContext tls) {
+        this.tls = tls;
+    }
+
+    // mecanismos: los que se anuncian, por ejemplo "PLAIN LOGIN"
+    public void exigirAutenticacion(String usuario, String contrasena, String mecanismos) {
+        this.usuario = usuario;
+        this.contrasena = contrasena;
+        this.mecanismos = mecanismos;
+    }
+
+    // Contexto TLS de los tests: su certificado autofirmado como clave del servidor y como único de confianza
+    public static SSLContext tlsDePruebas() {
+        try (InputStream almacen = ServidorSmtpFalso.class.getResourceAsStream("/smtp-pruebas.p12")) {
+            char[] clave = "pruebas".toCharArray();
+            KeyStore certificados = KeyStore.getInstance("PKCS12");
+            certificados.load(almacen, clave);
+            KeyManagerFactory claves = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            claves.init(certificados, clave);
+            TrustManagerFactory confianza = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            confianza.init(certificados);
+            SSLContext contexto = SSLContext.getInstance("TLS");
+            contexto.init(claves.getKeyManagers(), confianza.getTrustManagers(), null);
+            return contexto;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo cargar smtp-pruebas.p12", e);
+        }
+    }
+
+    public List<MensajeRecibido> getMensajes() {
+        return List.copyOf(mensajes);
+    }
+
+    public int getConexiones() {
+        return conexiones.get();
+    }
+
+    public int getIdasYVueltas() {
+        return idasYVueltas.get();
+    }
+
+    // Sesiones que pasaron a TLS con STARTTLS
+    public int getSesionesCifradas() {
+        return sesionesCifradas.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            servidor.close();
+        } catch (IOException ignorada) {
+            // cerrando
+        }
+        synchronized (clientes) {
+            clientes.forEach(cliente -> {
+                try {
+                    cliente.close();
+                } catch (IOException ignorada) {
+                    // cerrando
+                }
+            });
+        }
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket cliente = servidor.accept();
+                conexiones.incrementAndGet();
+                synchronized (clientes) {
+                    clientes.add(cliente);
+                }
+                Thread sesion = new Thread(() -> atender(cliente), "smtp-falso-sesion");
+                sesion.setDaemon(true);
+                sesion.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void atender(Socket conectado) {
+        Socket cliente = conectado;
+        try {
+            BufferedReader entrada = new BufferedReader(
+                    new InputStreamReader(cliente.getInputStream(), StandardCharsets.ISO_8859_1));
+            OutputStream salida = cliente.getOutputStream();
+            StringBuilder respuestas = new StringBuilder();
+
+            String remitente = null;
+            String destinatario = null;
+            boolean cifrada = false;
+            boolean autenticado = false;
+            responder(respuestas, "220 smtp-falso listo");
+            salir(salida, respuestas);
+
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                String orden = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                switch (orden) {
+                    case "EHLO" -> {
+                        List<String> extensiones = new ArrayList<>();
+                        if (pipelining) {
+                            extensiones.add("PIPELINING");
+                        }
+                        if (tls != null && !cifrada) {
+                            extensiones.add("STARTTLS");
+                        }
+                        if (usuario != null && (tls == null || cifrada)) {
+                            extensiones.add("AUTH " + mecanismos);
+                        }
+                        responder(respuestas, (extensiones.isEmpty() ? "250 " : "250-") + "smtp-falso");
+                        for (int i = 0; i < extensiones.size(); i++) {
+                            responder(respuestas, (i + 1 < extensiones.size() ? "250-" : "250 ") + extensiones.get(i));
+                        }
+                    }
+                    case "STAR" -> {
+                        if (tls == null || cifrada) {
+                            responder(respuestas, "502 no disponible");
+                        } else {
+                            responder(respuestas, "220 adelante con TLS");
+                            salir(salida, respuestas);
+                            SSLSocket seguro = (SSLSocket) tls.getSocketFactory()
+                                    .createSocket(cliente, null, cliente.getPort(), true);
+                            seguro.setUseClientMode(false);
+                            seguro.startHandshake();
+                            synchronized (clientes) {
+                                clientes.add(seguro);
+                            }
+                            cliente = seguro;
+                            entrada = new BufferedReader(
+                                    new InputStreamReader(cliente.getInputStream(), StandardCharsets.ISO_8859_1));
+                            salida = cliente.getOutputStream();
+                            cifrada = true;
+                            sesionesCifradas.incrementAndGet();
+                        }
+                    }
+                    case "AUTH" -> {
+                        String[] partes = linea.split(" ");
+                        String credenciales = null;
+                        if (partes.length == 3 && partes[1].equalsIgnoreCase("PLAIN") && mecanismos.contains("PLAIN")) {
+                            credenciales = decodificar(partes[2]);
+                        } else if (partes.length == 2 && partes[1].equalsIgnoreCase("LOGIN") && mecanismos.contains("LOGIN")) {
+                            responder(respuestas, "334 VXNlcm5hbWU6");
+                            salir(salida, respuestas);
+                            String nombre = decodificar(entrada.readLine());
+                            responder(respuestas, "334 UGFzc3dvcmQ6");
+                            salir(salida, respuestas);
+                            credenciales = "\0" + nombre + "\0" + decodificar(entrada.readLine());
+                        }
+                        autenticado = usuario != null && ("\0" + usuario + "\0" + contrasena).equals(credenciales);
+                        responder(respuestas, autenticado ? "235 autenticado" : "535 credenciales invalidas");
+                    }
+                    case "MAIL" -> {
+                        if (usuario != null && !autenticado) {
+                            responder(respuestas, "530 autenticacion requerida");
+                        } else if (fallosTemporales.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            responder(respuestas, "451 intentelo mas tarde");
+                        } else {
+                            remitente = direccion(linea);
+                            responder(respuestas, "250 OK");
+                        }
+                    }
+                    case "RCPT" -> {
+                        String direccion = direccion(linea);
+                        if (remitente == null) {
+                            responder(respuestas, "503 falta MAIL");
+                        } else if (rechazados.contains(direccion)) {
+                            responder(respuestas, "550 buzon inexistente");
+                        } else {
+                            destinatario = direccion;
+                            responder(respuestas, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        if (destinatario == null) {
+                            responder(respuestas, "554 sin destinatarios validos");
+                        } else {
+                            responder(respuestas, "354 adelante");
+                            salir(salida, respuestas);
+                            mensajes.add(new MensajeRecibido(remitente, destinatario, leerDatos(entrada)));
+                            responder(respuestas, "250 OK encolado");
+                            remitente = null;
+                            destinatario = null;
+                        }
+                    }
+                    case "RSET" -> {
+                        remitente = null;
+                        destinatario = null;
+                        responder(respuestas, "250 OK");
+                    }
+                    case "NOOP" -> responder(respuestas, "250 OK");
+                    case "QUIT" -> {
+                        responder(respuestas, "221 adios");
+                        salir(salida, respuestas);
+                        return;
+                    }
+                    default -> responder(respuestas, "500 orden desconocida");
+                }
+                // Sin más órdenes pendientes, el cliente está esperando las respuestas
+                if (!entrada.ready()) {
+                    salir(salida, respuestas);
+                }
+            }
+        } catch (IOException e) {
+            // cliente desconectado o servidor cerrado
+        } finally {
+            try {
+                cliente.close();
+            } catch (IOException ignorada) {
+                // cerrando
+            }
+        }
+    }
+
+    private static String decodificar(String base64) {
+        try {
+            return base64 == null ? null : new String(Base64.getDecoder().decode(base64), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String leerDatos(BufferedReader entrada) throws IOException {
+        StringBuilder datos = new StringBuilder();
+        String linea;
+        while ((linea = entrada.readLine()) != null && !linea.equals(".")) {
+            datos.append(linea.startsWith("..") ? linea.substring(1) : linea).append("\r\n");
+        }
+        return datos.toString();
+    }
+
+    private static String direccion(String linea) {
+        int inicio = linea.indexOf('<');
+        int fin = linea.indexOf('>');
+        return inicio >= 0 && fin > inicio ? linea.substring(inicio + 1, fin) : "";
+    }
+
+    private static void responder(StringBuilder respuestas, String linea) {
+        respuestas.append(linea).append("\r\n");
+    }
+
+    private void salir(OutputStream salida, StringBuilder respuestas) throws IOException {
+        if (respuestas.isEmpty()) {
+            return;
+        }
+        long latencia = latenciaMs;
+        if (latencia > 0) {
+            try {
+                Thread.sleep(latencia);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrumpido", e);
+            }
+        }
+        // Se cuenta antes de escribir: el cliente puede seguir (y el test mirar el contador) al recibirla
+        idasYVueltas.incrementAndGet();
+        salida.write(respuestas.toString().getBytes(StandardCharsets.US_ASCII));
+        salida.flush();
+        respuestas.setLength(0);
+    }
+}
@@ -98,11 +98,11 @@ public class TestDataBuilder {
         reserva.setUsuario(usuario);
         reserva.setClase(clase);
         reserva.setFechaReserva(LocalDateTime.now());
-        reserva.setEstado("CONFIRMADA");
+        reserva.setEstado(EstadoReserva.CONFIRMADA);
         return reserva;
     }
 
-    public Reserva buildReserva(Usuario usuario, Clase clase, String estado) {
+    public Reserva buildReserva(Usuario usuario, Clase clase, EstadoReserva estado) {
         Reserva reserva = new Reserva();
         reserva.setUsuario(usuario);
         reserva.setClase(clase);